@@ -9,22 +9,6 @@ import Control from "react-leaflet-custom-control";
 
 export default function App() {
 
-    let mby = "5000    255 255 255 255 \n \
-    4000    206 206 206 255 \n \
-    2800    161 161 161 255 \n \
-    1800    130  30  30 255 \n \
-    1200    163  68   0 255 \n \
-    500     232 214 125 255 \n \
-    50       16 123  48 255 \n \
-    0         0  97  71 255 \n \
-    -10     176 226 255 255 \n \
-    -50     135 206 250 255 \n \
-    -150     24 140 205 255 \n \
-    -2500    19 108 160 255 \n \
-    -4000     0  50 102 255 \n \
-    -6000     0  30 100 255 \n \
-    -8000     0   0  80 255";
-
     const [statistics, setStatistics] = useState(null)
 
 
@@ -61,7 +45,7 @@ export default function App() {
                 </LayersControl.BaseLayer>
                 <LayersControl.BaseLayer name="Elevation with coloramp">
                     <TileLayer
-                        url={"http://localhost:8080/api/v1/elevation/{z}/{x}/{y}?colormap=" + encodeURI(mby)}
+                        url="http://localhost:8080/api/v1/elevation/{z}/{x}/{y}?colormap=mby"
                     />
                 </LayersControl.BaseLayer>
                 <LayersControl.BaseLayer name="Slope">
@@ -0,0 +1,19 @@
+-- in-db overviews of the low zoom levels, built by the application from the tiles of the next zoom level
+CREATE TABLE IF NOT EXISTS "elevation_tiles_overview"(
+    z int NOT NULL,
+    x int NOT NULL,
+    y int NOT NULL,
+    "rast" raster COMPRESSION lz4 NOT NULL,
+    PRIMARY KEY (z, x, y)
+);
+
+CREATE INDEX IF NOT EXISTS "elevation_tiles_overview_convexhull" ON "elevation_tiles_overview" USING gist(st_convexhull("rast"));
+
+-- every tile, from the overviews where they exist and from the out-db tiles otherwise
+CREATE OR REPLACE VIEW "elevation_tiles" AS
+    SELECT z, x, y, rast
+    FROM elevation_tiles_overview
+    UNION ALL
+    SELECT z, x, y, rast
+    FROM elevation_tiles_prod etp
+    WHERE NOT EXISTS (SELECT 1 FROM elevation_tiles_overview eto WHERE eto.z = etp.z AND eto.x = etp.x AND eto.y = etp.y);
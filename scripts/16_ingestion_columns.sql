@@ -0,0 +1,24 @@
+-- the Java ingestion writes z, x and y itself, for in-db tiles and out-db tiles of any path alike, so they are
+-- no longer generated from the band path, which only raster2pgsql inserts still rely on
+ALTER TABLE "elevation_tiles_prod" ALTER COLUMN z DROP EXPRESSION IF EXISTS;
+ALTER TABLE "elevation_tiles_prod" ALTER COLUMN x DROP EXPRESSION IF EXISTS;
+ALTER TABLE "elevation_tiles_prod" ALTER COLUMN y DROP EXPRESSION IF EXISTS;
+
+CREATE OR REPLACE FUNCTION elevation_tiles_prod_coordinates() RETURNS trigger AS $$
+DECLARE
+    coordinates text[];
+BEGIN
+    IF NEW.z IS NULL OR NEW.x IS NULL OR NEW.y IS NULL THEN
+        coordinates := regexp_match(ST_BandPath(NEW.rast), '(\d+)/(\d+)/(\d+)\.tif$');
+        NEW.z := coordinates[1]::int;
+        NEW.x := coordinates[2]::int;
+        NEW.y := coordinates[3]::int;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS "elevation_tiles_prod_coordinates" ON "elevation_tiles_prod";
+CREATE TRIGGER "elevation_tiles_prod_coordinates"
+    BEFORE INSERT ON "elevation_tiles_prod"
+    FOR EACH ROW EXECUTE FUNCTION elevation_tiles_prod_coordinates();
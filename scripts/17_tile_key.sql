@@ -0,0 +1,56 @@
+-- one 64-bit key per tile: the zoom level in the top bits and the Morton code of x and y below them, so that a
+-- tile, its descendants at a zoom level and a rectangle of tiles are a few ranges of one b-tree index
+CREATE OR REPLACE FUNCTION tile_key_spread(v bigint) RETURNS bigint AS $$
+DECLARE
+    bits bigint := v & x'00000000FFFFFFFF'::bigint;
+BEGIN
+    bits := (bits | bits << 16) & x'0000FFFF0000FFFF'::bigint;
+    bits := (bits | bits << 8) & x'00FF00FF00FF00FF'::bigint;
+    bits := (bits | bits << 4) & x'0F0F0F0F0F0F0F0F'::bigint;
+    bits := (bits | bits << 2) & x'3333333333333333'::bigint;
+    bits := (bits | bits << 1) & x'5555555555555555'::bigint;
+    RETURN bits;
+END;
+$$ LANGUAGE plpgsql IMMUTABLE STRICT PARALLEL SAFE;
+
+CREATE OR REPLACE FUNCTION tile_key(z int, x int, y int) RETURNS bigint AS $$
+    SELECT z::bigint << 58 | tile_key_spread(x) | tile_key_spread(y) << 1;
+$$ LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE;
+
+ALTER TABLE "elevation_tiles_prod" ADD COLUMN IF NOT EXISTS tile_key bigint;
+UPDATE "elevation_tiles_prod" SET tile_key = tile_key(z, x, y) WHERE tile_key IS NULL;
+ALTER TABLE "elevation_tiles_prod" ALTER COLUMN tile_key SET NOT NULL;
+CREATE UNIQUE INDEX IF NOT EXISTS "elevation_tiles_prod_tile_key" ON "elevation_tiles_prod" (tile_key);
+ALTER TABLE "elevation_tiles_prod" DROP CONSTRAINT IF EXISTS "elevation_tiles_prod_z_x_y_key";
+
+-- the application writes the key, raster2pgsql inserts still get it from the band path
+CREATE OR REPLACE FUNCTION elevation_tiles_prod_coordinates() RETURNS trigger AS $$
+DECLARE
+    coordinates text[];
+BEGIN
+    IF NEW.z IS NULL OR NEW.x IS NULL OR NEW.y IS NULL THEN
+        coordinates := regexp_match(ST_BandPath(NEW.rast), '(\d+)/(\d+)/(\d+)\.tif$');
+        NEW.z := coordinates[1]::int;
+        NEW.x := coordinates[2]::int;
+        NEW.y := coordinates[3]::int;
+    END IF;
+    IF NEW.tile_key IS NULL THEN
+        NEW.tile_key := tile_key(NEW.z, NEW.x, NEW.y);
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE "elevation_tiles_overview" ADD COLUMN IF NOT EXISTS tile_key bigint;
+UPDATE "elevation_tiles_overview" SET tile_key = tile_key(z, x, y) WHERE tile_key IS NULL;
+ALTER TABLE "elevation_tiles_overview" ALTER COLUMN tile_key SET NOT NULL;
+ALTER TABLE "elevation_tiles_overview" DROP CONSTRAINT IF EXISTS "elevation_tiles_overview_pkey";
+ALTER TABLE "elevation_tiles_overview" ADD PRIMARY KEY (tile_key);
+
+CREATE OR REPLACE VIEW "elevation_tiles" AS
+    SELECT z, x, y, rast, tile_key
+    FROM elevation_tiles_overview
+    UNION ALL
+    SELECT z, x, y, rast, tile_key
+    FROM elevation_tiles_prod etp
+    WHERE NOT EXISTS (SELECT 1 FROM elevation_tiles_overview eto WHERE eto.tile_key = etp.tile_key);
@@ -0,0 +1,38 @@
+-- statistics, quantiles, a fine histogram and a quantile sketch of every tile served by elevation_tiles, computed
+-- by the application when it ingests in-db tiles or by its backfill job, so that the statistical endpoints of a
+-- tile do not read its raster
+CREATE TABLE IF NOT EXISTS "elevation_tiles_summary" (
+    tile_key bigint PRIMARY KEY,
+    count bigint NOT NULL,
+    sum double precision NOT NULL,
+    sum_of_squares double precision NOT NULL,
+    min double precision,
+    max double precision,
+    quantiles double precision[] NOT NULL,
+    histogram bytea NOT NULL,
+    sketch bytea NOT NULL,
+    updated_at timestamp with time zone NOT NULL DEFAULT now()
+);
+
+-- a tile that is loaded again, or an overview that is rebuilt, loses its summary until the backfill recomputes it
+CREATE OR REPLACE FUNCTION elevation_tiles_summary_invalidate() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' OR TG_OP = 'UPDATE' THEN
+        DELETE FROM elevation_tiles_summary WHERE tile_key = OLD.tile_key;
+    END IF;
+    IF TG_OP = 'INSERT' OR TG_OP = 'UPDATE' THEN
+        DELETE FROM elevation_tiles_summary WHERE tile_key = NEW.tile_key;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS "elevation_tiles_prod_summary" ON "elevation_tiles_prod";
+CREATE TRIGGER "elevation_tiles_prod_summary"
+    AFTER INSERT OR UPDATE OR DELETE ON "elevation_tiles_prod"
+    FOR EACH ROW EXECUTE FUNCTION elevation_tiles_summary_invalidate();
+
+DROP TRIGGER IF EXISTS "elevation_tiles_overview_summary" ON "elevation_tiles_overview";
+CREATE TRIGGER "elevation_tiles_overview_summary"
+    AFTER INSERT OR UPDATE OR DELETE ON "elevation_tiles_overview"
+    FOR EACH ROW EXECUTE FUNCTION elevation_tiles_summary_invalidate();
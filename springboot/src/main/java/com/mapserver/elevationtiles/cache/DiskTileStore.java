@@ -0,0 +1,399 @@
+package com.mapserver.elevationtiles.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Second level tile cache persisted in append-only, memory-mapped segment files.
+ * <p>
+ * Every record is laid out as {@code magic | key length | key | data length | data}. The magic is written last,
+ * so a record interrupted by a crash is ignored when the segments are scanned to rebuild the index on startup.
+ * When the store outgrows its capacity the oldest segment is dropped; tiles in it that were read since the last
+ * pass are first copied to the active segment (second chance), which also compacts away superseded records.
+ * Writers are serialized with a lock rather than a monitor so that virtual threads do not pin their carrier, and
+ * only append under it: compaction and eviction run on a background thread, so the store may briefly exceed its
+ * capacity by the segments written meanwhile.
+ * <p>
+ * Hits are views of the mapped segment. Each one leases its segment, and a segment dropped from the store keeps its
+ * file until the last view of it is gone.
+ */
+@Component
+public class DiskTileStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DiskTileStore.class);
+
+    private static final int MAGIC = 0x54494C45;
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES + Short.BYTES + Integer.BYTES;
+    private static final String SEGMENT_SUFFIX = ".tiles";
+    private static final Cleaner LEASES = Cleaner.create(Thread.ofVirtual().name("disk-tile-store-leases").factory());
+
+    private final Path directory;
+    private final long maxBytes;
+    private final int segmentBytes;
+    private final ConcurrentHashMap<TileKey, Entry> index = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+    private final AtomicBoolean maintenancePending = new AtomicBoolean();
+    private final ExecutorService maintenance =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("disk-tile-store").factory());
+    private volatile Segment active;
+
+    public DiskTileStore(@Value("${elevationtiles.disk-store.path:}") String path,
+                         @Value("${elevationtiles.disk-store.max-bytes:10737418240}") long maxBytes,
+                         @Value("${elevationtiles.disk-store.segment-bytes:268435456}") int segmentBytes) {
+        this.directory = StringUtils.hasText(path) ? Paths.get(path) : null;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = Math.max(maxBytes, 2L * segmentBytes);
+        if (directory != null) {
+            open();
+        }
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Returns a read-only view of the tile in the mapped segment. The view leases the segment until it is no longer
+     * reachable, so the caller must hold on to the returned buffer itself, not only to views derived from it, for as
+     * long as it reads the tile.
+     */
+    public Optional<ByteBuffer> get(TileKey key) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        Entry entry = index.get(key);
+        Segment segment = entry == null ? null : segments.get(entry.segmentId);
+        if (segment == null || !segment.acquire()) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        entry.referenced = true;
+        hits.incrementAndGet();
+        ByteBuffer tile = segment.data(entry.offset);
+        LEASES.register(tile, segment::release);
+        return Optional.of(tile);
+    }
+
+    public void put(TileKey key, byte[] tile) {
+        if (!isEnabled()) {
+            return;
+        }
+        byte[] path = key.toPath().getBytes(UTF_8);
+        if (RECORD_HEADER_BYTES + path.length + tile.length > segmentBytes) {
+            return;
+        }
+        boolean rolled;
+        lock.lock();
+        try {
+            Segment current = active;
+            append(key, path, ByteBuffer.wrap(tile));
+            rolled = current != active;
+        } finally {
+            lock.unlock();
+        }
+        if (rolled || isOverCapacity()) {
+            scheduleMaintenance();
+        }
+    }
+
+    /**
+     * Compacts the sparse segments and drops the oldest ones until the store fits its capacity. Runs on the
+     * background thread after a segment rolls over; writers are only held up while survivors are appended.
+     */
+    void maintain() {
+        maintenanceLock.lock();
+        try {
+            compactSparseSegments();
+            while (isOverCapacity()) {
+                release(segments.firstEntry().getValue(), false);
+            }
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    private void scheduleMaintenance() {
+        if (maintenancePending.compareAndSet(false, true)) {
+            maintenance.execute(() -> {
+                maintenancePending.set(false);
+                try {
+                    maintain();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Disk tile store maintenance failed", e);
+                }
+            });
+        }
+    }
+
+    private boolean isOverCapacity() {
+        return (long) segments.size() * segmentBytes > maxBytes && segments.size() > 1;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getTiles() {
+        return index.size();
+    }
+
+    public long getBytes() {
+        return segments.values().stream().mapToLong(segment -> segment.writePosition).sum();
+    }
+
+    public int getSegments() {
+        return segments.size();
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        maintenance.shutdown();
+        maintenance.awaitTermination(1, TimeUnit.MINUTES);
+        flush();
+    }
+
+    public void flush() {
+        lock.lock();
+        try {
+            if (active != null) {
+                active.buffer.force();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(TileKey key, byte[] path, ByteBuffer tile) {
+        int length = RECORD_HEADER_BYTES + path.length + tile.remaining();
+        if (active.writePosition + length > segmentBytes) {
+            active.buffer.force();
+            active = createSegment(active.id + 1);
+        }
+        int offset = active.writePosition;
+        MappedByteBuffer buffer = active.buffer;
+        buffer.putShort(offset + Integer.BYTES, (short) path.length);
+        buffer.put(offset + Integer.BYTES + Short.BYTES, path);
+        buffer.putInt(offset + Integer.BYTES + Short.BYTES + path.length, tile.remaining());
+        buffer.put(offset + RECORD_HEADER_BYTES + path.length, tile, tile.position(), tile.remaining());
+        buffer.putInt(offset, MAGIC);
+        active.writePosition += length;
+        active.liveBytes.addAndGet(length);
+
+        Entry previous = index.put(key, new Entry(active.id, offset, length));
+        if (previous != null) {
+            Segment segment = segments.get(previous.segmentId);
+            if (segment != null) {
+                segment.liveBytes.addAndGet(-previous.length);
+            }
+        }
+    }
+
+    private void compactSparseSegments() {
+        for (Segment segment : List.copyOf(segments.values())) {
+            if (segment != active && segment.liveBytes.get() * 4 < segment.writePosition) {
+                release(segment, true);
+            }
+        }
+    }
+
+    /**
+     * Removes the segment, moving either all of its live tiles or only the ones read since the last pass
+     * to the active segment. The index is scanned without the lock; each survivor is appended under it, unless
+     * it was written again meanwhile.
+     */
+    private void release(Segment segment, boolean keepAll) {
+        if (segment == active) {
+            return;
+        }
+        List<Map.Entry<TileKey, Entry>> survivors = new ArrayList<>();
+        for (Map.Entry<TileKey, Entry> mapping : index.entrySet()) {
+            Entry entry = mapping.getValue();
+            if (entry.segmentId == segment.id) {
+                if (keepAll || entry.referenced) {
+                    survivors.add(Map.entry(mapping.getKey(), entry));
+                } else if (index.remove(mapping.getKey(), entry)) {
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+        for (Map.Entry<TileKey, Entry> survivor : survivors) {
+            TileKey key = survivor.getKey();
+            lock.lock();
+            try {
+                if (index.get(key) == survivor.getValue()) {
+                    append(key, key.toPath().getBytes(UTF_8), segment.data(survivor.getValue().offset));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        segments.remove(segment.id);
+        segment.release();
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> list = Files.list(directory)) {
+                files = list.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted()
+                        .toList();
+            }
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int id = Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                Segment segment = mapSegment(id, file);
+                scan(segment);
+                segments.put(id, segment);
+            }
+            active = segments.isEmpty() ? createSegment(0) : segments.lastEntry().getValue();
+            LOGGER.info("Opened disk tile store {} with {} tiles in {} segments", directory, index.size(), segments.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open disk tile store " + directory, e);
+        }
+    }
+
+    private void scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset + RECORD_HEADER_BYTES <= segmentBytes && buffer.getInt(offset) == MAGIC) {
+            int pathLength = buffer.getShort(offset + Integer.BYTES);
+            byte[] path = new byte[pathLength];
+            buffer.get(offset + Integer.BYTES + Short.BYTES, path);
+            int dataLength = buffer.getInt(offset + Integer.BYTES + Short.BYTES + pathLength);
+            int length = RECORD_HEADER_BYTES + pathLength + dataLength;
+            Entry previous = index.put(TileKey.fromPath(new String(path, UTF_8)), new Entry(segment.id, offset, length));
+            if (previous != null) {
+                segments.getOrDefault(previous.segmentId, segment).liveBytes.addAndGet(-previous.length);
+            }
+            segment.liveBytes.addAndGet(length);
+            offset += length;
+        }
+        segment.writePosition = offset;
+    }
+
+    private Segment createSegment(int id) {
+        try {
+            Segment segment = mapSegment(id, directory.resolve("%010d%s".formatted(id, SEGMENT_SUFFIX)));
+            segments.put(id, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create tile segment " + id, e);
+        }
+    }
+
+    private Segment mapSegment(int id, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, CREATE, READ, WRITE)) {
+            return new Segment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+        }
+    }
+
+    private static final class Segment {
+        private final int id;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final AtomicLong liveBytes = new AtomicLong();
+        // the store holds one lease until it drops the segment, each view handed out holds another
+        private final AtomicInteger leases = new AtomicInteger(1);
+        private volatile int writePosition;
+
+        private Segment(int id, Path path, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Leases the segment, unless the store dropped it and its last view is gone.
+         */
+        private boolean acquire() {
+            for (int count = leases.get(); count > 0; count = leases.get()) {
+                if (leases.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void release() {
+            if (leases.decrementAndGet() == 0) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    LOGGER.warn("Could not delete tile segment {}", path, e);
+                }
+            }
+        }
+
+        private ByteBuffer data(int offset) {
+            int pathLength = buffer.getShort(offset + Integer.BYTES);
+            int dataOffset = offset + RECORD_HEADER_BYTES + pathLength;
+            int dataLength = buffer.getInt(dataOffset - Integer.BYTES);
+            return buffer.slice(dataOffset, dataLength).asReadOnlyBuffer();
+        }
+    }
+
+    private static final class Entry {
+        private final int segmentId;
+        private final int offset;
+        private final int length;
+        private volatile boolean referenced;
+
+        private Entry(int segmentId, int offset, int length) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mapserver.elevationtiles.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+/**
+ * In-process cache of rendered tiles bounded by the total size of the stored images.
+ * Admission and eviction follow Caffeine's W-TinyLFU policy, so a burst of one-off tiles
+ * cannot flush the popular low zoom levels out of the cache.
+ */
+@Component
+public class TileCache {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final Cache<TileKey, ByteBuffer> cache;
+    private final long maxBytes;
+    private final boolean offHeap;
+
+    public TileCache(@Value("${elevationtiles.tile-cache.max-bytes:268435456}") long maxBytes,
+                     @Value("${elevationtiles.tile-cache.off-heap:false}") boolean offHeap) {
+        this.maxBytes = maxBytes;
+        this.offHeap = offHeap;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((TileKey key, ByteBuffer tile) -> tile.capacity() + ENTRY_OVERHEAD_BYTES)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<ByteBuffer> get(TileKey key) {
+        return Optional.ofNullable(cache.getIfPresent(key))
+                .map(ByteBuffer::asReadOnlyBuffer);
+    }
+
+    public ByteBuffer put(TileKey key, byte[] tile) {
+        ByteBuffer buffer;
+        if (offHeap) {
+            buffer = ByteBuffer.allocateDirect(tile.length).put(tile).flip();
+        } else {
+            buffer = ByteBuffer.wrap(tile);
+        }
+        cache.put(key, buffer);
+        return buffer.asReadOnlyBuffer();
+    }
+
+    public CacheStats statistics() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    public long weightedSize() {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+}
@@ -0,0 +1,16 @@
+package com.mapserver.elevationtiles.cache;
+
+import com.mapserver.elevationtiles.domain.TileLayer;
+
+public record TileKey(TileLayer layer, int z, int x, int y, String colormapFingerprint) {
+
+    public static TileKey fromPath(String path) {
+        String[] parts = path.split("/");
+        return new TileKey(TileLayer.fromPath(parts[0]),
+                Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), parts[4]);
+    }
+
+    public String toPath() {
+        return layer.getPath() + "/" + z + "/" + x + "/" + y + "/" + colormapFingerprint;
+    }
+}
@@ -0,0 +1,11 @@
+package com.mapserver.elevationtiles.colormap;
+
+import java.util.List;
+
+/**
+ * A validated colormap. The {@code ramp} is what is handed to {@code ST_ColorMap}: the colormap text itself,
+ * or the keyword for the ramps PostGIS predefines. The {@code id} is a short content hash used in tile urls
+ * and cache keys.
+ */
+public record Colormap(String id, String name, String ramp, List<ColormapEntry> entries) {
+}
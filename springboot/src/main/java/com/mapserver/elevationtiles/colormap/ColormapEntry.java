@@ -0,0 +1,8 @@
+package com.mapserver.elevationtiles.colormap;
+
+/**
+ * One line of a PostGIS colormap: a pixel value (absolute or percentage of the band range, or nodata)
+ * and between one and four colour components.
+ */
+public record ColormapEntry(double value, boolean percent, boolean nodata, int[] components) {
+}
@@ -0,0 +1,92 @@
+package com.mapserver.elevationtiles.colormap;
+
+import com.mapserver.elevationtiles.exception.InvalidColormapException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public final class ColormapParser {
+
+    private static final Set<String> NODATA_KEYWORDS = Set.of("nv", "null", "nodata");
+    private static final int ID_LENGTH = 12;
+
+    private ColormapParser() {
+    }
+
+    /**
+     * Parses the colormap format accepted by {@code ST_ColorMap}, one {@code value r [g b [a]]} entry per line,
+     * with whitespace, commas or colons as separators.
+     */
+    public static List<ColormapEntry> parse(String ramp) {
+        List<ColormapEntry> entries = new ArrayList<>();
+        for (String line : ramp.split("\\R")) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] tokens = trimmed.split("[\\s,:]+");
+            if (tokens.length < 2 || tokens.length > 5) {
+                throw new InvalidColormapException("Colormap line should have a value and 1 to 4 colour components: " + trimmed);
+            }
+            entries.add(new ColormapEntry(value(tokens[0], trimmed), tokens[0].endsWith("%"),
+                    NODATA_KEYWORDS.contains(tokens[0].toLowerCase()), components(tokens, trimmed)));
+        }
+        if (entries.isEmpty()) {
+            throw new InvalidColormapException("Colormap should have at least one entry");
+        }
+        return List.copyOf(entries);
+    }
+
+    /**
+     * Content hash of the colormap, insensitive to the separators and blank lines used in the text.
+     */
+    public static String fingerprint(List<ColormapEntry> entries) {
+        StringBuilder normalized = new StringBuilder();
+        for (ColormapEntry entry : entries) {
+            normalized.append(entry.nodata() ? "nv" : entry.value() + (entry.percent() ? "%" : ""));
+            for (int component : entry.components()) {
+                normalized.append(' ').append(component);
+            }
+            normalized.append('\n');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.toString().getBytes(UTF_8));
+            return HexFormat.of().formatHex(digest).substring(0, ID_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double value(String token, String line) {
+        if (NODATA_KEYWORDS.contains(token.toLowerCase())) {
+            return Double.NaN;
+        }
+        String number = token.endsWith("%") ? token.substring(0, token.length() - 1) : token;
+        try {
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw new InvalidColormapException("Invalid colormap value in line: " + line);
+        }
+    }
+
+    private static int[] components(String[] tokens, String line) {
+        int[] components = new int[tokens.length - 1];
+        for (int i = 1; i < tokens.length; i++) {
+            try {
+                components[i - 1] = Integer.parseInt(tokens[i]);
+            } catch (NumberFormatException e) {
+                throw new InvalidColormapException("Invalid colour component in line: " + line);
+            }
+            if (components[i - 1] < 0 || components[i - 1] > 255) {
+                throw new InvalidColormapException("Colour components should be between 0 and 255: " + line);
+            }
+        }
+        return components;
+    }
+}
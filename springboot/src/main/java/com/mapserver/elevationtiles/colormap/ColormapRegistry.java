@@ -0,0 +1,164 @@
+package com.mapserver.elevationtiles.colormap;
+
+import com.mapserver.elevationtiles.domain.TileLayer;
+import com.mapserver.elevationtiles.exception.InvalidColormapException;
+import org.apache.commons.io.IOUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Colormaps parsed and validated once: the ramps bundled with the service, the keywords predefined by
+ * {@code ST_ColorMap} and the ramps registered by clients.
+ */
+@Component
+public class ColormapRegistry {
+
+    public static final String ARCTIC = "arctic";
+    public static final String MBY = "mby";
+    public static final String GRAY_DK = "gray_dk";
+    public static final String BW_LINEAR = "00_bw_linear";
+
+    private static final List<String> BUNDLED = List.of(ARCTIC, MBY, GRAY_DK, BW_LINEAR);
+
+    // Definitions of the ST_ColorMap keywords, see rtpostgis.sql
+    private static final Map<String, String> KEYWORDS = Map.of(
+            "grayscale", "100% 255\n0% 0",
+            "greyscale", "100% 255\n0% 0",
+            "pseudocolor", "100% 255 0 0 255\n50% 0 255 0 255\n0% 0 0 255 255\nnv 0 0 0 0",
+            "fire", """
+                    100% 243 255 221 255
+                    93.75% 242 255 178 255
+                    87.5% 255 255 135 255
+                    81.25% 255 228 96 255
+                    75% 255 187 53 255
+                    68.75% 255 131 7 255
+                    62.5% 255 84 0 255
+                    56.25% 255 42 0 255
+                    50% 255 0 0 255
+                    43.75% 255 42 0 255
+                    37.5% 224 9 9 255
+                    31.25% 183 0 0 255
+                    25% 140 0 0 255
+                    18.75% 100 0 0 255
+                    12.5% 60 0 0 255
+                    6.25% 28 0 0 255
+                    0% 0 0 0 255
+                    nv 0 0 0 0
+                    """,
+            "bluered", """
+                    100.00% 165 0 33 255
+                    94.12% 216 21 47 255
+                    88.24% 247 39 53 255
+                    82.35% 255 61 61 255
+                    76.47% 255 120 86 255
+                    70.59% 255 172 117 255
+                    64.71% 255 214 153 255
+                    58.82% 255 241 188 255
+                    52.94% 255 255 234 255
+                    47.06% 234 255 255 255
+                    41.18% 188 249 255 255
+                    35.29% 153 234 255 255
+                    29.41% 117 211 255 255
+                    23.53% 86 176 255 255
+                    17.65% 61 135 255 255
+                    11.76% 40 87 255 255
+                    5.88% 24 28 247 255
+                    0.00% 36 0 216 255
+                    nv 0 0 0 0
+                    """);
+
+    private final Map<String, Colormap> colormaps = new ConcurrentHashMap<>();
+    private final Map<String, Colormap> custom = new ConcurrentHashMap<>();
+    private final int maxCustom;
+
+    public ColormapRegistry(@Value("${elevationtiles.colormaps.max-custom:1000}") int maxCustom) {
+        this.maxCustom = maxCustom;
+        KEYWORDS.forEach((keyword, definition) ->
+                colormaps.put(keyword, new Colormap(keyword, keyword, keyword, ColormapParser.parse(definition))));
+        for (String name : BUNDLED) {
+            Colormap colormap = create(name, load("/" + name + ".pg"));
+            colormaps.put(name, colormap);
+            colormaps.put(colormap.id(), colormap);
+        }
+    }
+
+    /**
+     * Looks up a colormap by id, bundled name or {@code ST_ColorMap} keyword.
+     */
+    public Optional<Colormap> find(String reference) {
+        if (!StringUtils.hasText(reference)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(colormaps.get(reference))
+                .or(() -> Optional.ofNullable(custom.get(reference)));
+    }
+
+    public Colormap get(String name) {
+        return find(name).orElseThrow(() -> new IllegalArgumentException("Unknown colormap " + name));
+    }
+
+    /**
+     * Resolves the {@code colormap} request parameter: a known reference, or else an inline ramp
+     * which is validated but not registered.
+     */
+    public Colormap resolve(String reference, String defaultName) {
+        if (!StringUtils.hasText(reference)) {
+            return get(defaultName);
+        }
+        return find(reference).orElseGet(() -> create(null, reference));
+    }
+
+    /**
+     * Resolves the {@code colormap} request parameter of a tile layer, with the default of the layer when it is
+     * blank. The elevation layer falls back to {@code mby} for a reference it does not know instead of reading an
+     * inline ramp.
+     */
+    public Colormap resolve(TileLayer layer, String reference) {
+        return switch (layer) {
+            case ELEVATION -> find(reference).orElseGet(() -> get(StringUtils.hasText(reference) ? MBY : ARCTIC));
+            case HILLSHADE -> resolve(reference, BW_LINEAR);
+            default -> resolve(reference, GRAY_DK);
+        };
+    }
+
+    public Colormap register(String ramp) {
+        Colormap colormap = create(null, ramp);
+        if (colormaps.containsKey(colormap.id()) || custom.containsKey(colormap.id())) {
+            return find(colormap.id()).orElse(colormap);
+        }
+        if (custom.size() >= maxCustom) {
+            throw new InvalidColormapException("The colormap registry is full, use one of the registered colormaps");
+        }
+        Colormap registered = custom.putIfAbsent(colormap.id(), colormap);
+        return registered == null ? colormap : registered;
+    }
+
+    public Collection<Colormap> getCustom() {
+        return custom.values();
+    }
+
+    private static Colormap create(String name, String ramp) {
+        List<ColormapEntry> entries = ColormapParser.parse(ramp);
+        return new Colormap(ColormapParser.fingerprint(entries), name, ramp, entries);
+    }
+
+    private static String load(String resource) {
+        try (InputStream stream = ColormapRegistry.class.getResourceAsStream(resource)) {
+            return IOUtils.toString(stream, UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load colormap " + resource, e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.mapserver.elevationtiles.concurrent;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs every repository query under the {@link DbConcurrencyLimiter}.
+ */
+@Aspect
+@Component
+public class DbConcurrencyAspect {
+
+    private final DbConcurrencyLimiter dbConcurrencyLimiter;
+
+    public DbConcurrencyAspect(DbConcurrencyLimiter dbConcurrencyLimiter) {
+        this.dbConcurrencyLimiter = dbConcurrencyLimiter;
+    }
+
+    @Around("execution(* com.mapserver.elevationtiles.repository..*(..))")
+    public Object limit(ProceedingJoinPoint joinPoint) {
+        return dbConcurrencyLimiter.call(() -> {
+            try {
+                return joinPoint.proceed();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
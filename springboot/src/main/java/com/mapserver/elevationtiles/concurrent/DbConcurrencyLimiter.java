@@ -0,0 +1,122 @@
+package com.mapserver.elevationtiles.concurrent;
+
+import com.mapserver.elevationtiles.exception.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Gates database access with a fair semaphore sized to the connection pool, so that requests queue here, where
+ * the wait is bounded, instead of on the pool. A request is turned away with a 503 when the queue is full, when
+ * the expected wait (queue depth times the recent average query time, divided by the permits) already exceeds
+ * its deadline, or when the deadline passes while queued.
+ * <p>
+ * Nested calls on a thread that already holds a permit go straight through.
+ */
+@Component
+public class DbConcurrencyLimiter {
+
+    private static final double HOLD_TIME_WEIGHT = 0.1;
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final int retryAfterSeconds;
+    private final ThreadLocal<Boolean> holding = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong averageHoldNanos = new AtomicLong();
+
+    public DbConcurrencyLimiter(@Value("${elevationtiles.db.max-concurrency:10}") int maxConcurrency,
+                                @Value("${elevationtiles.db.max-queue:200}") int maxQueue,
+                                @Value("${elevationtiles.db.max-wait-ms:2000}") long maxWaitMillis,
+                                @Value("${elevationtiles.db.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public <T> T call(Supplier<T> query) {
+        if (holding.get()) {
+            return query.get();
+        }
+        acquire();
+        holding.set(Boolean.TRUE);
+        long start = System.nanoTime();
+        try {
+            return query.get();
+        } finally {
+            holding.remove();
+            permits.release();
+            recordHoldTime(System.nanoTime() - start);
+        }
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getActive() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    public long getAcquired() {
+        return acquired.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public double getAverageHoldMillis() {
+        return averageHoldNanos.get() / 1e6;
+    }
+
+    private void acquire() {
+        int queued = waiting.incrementAndGet() - permits.availablePermits();
+        try {
+            if (queued > maxQueue) {
+                throw reject("Too many requests waiting for the database");
+            }
+            if (queued > 0 && averageHoldNanos.get() * queued / maxConcurrency > maxWaitNanos) {
+                throw reject("The database would not be available before the deadline");
+            }
+            if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                throw reject("Timed out waiting for the database");
+            }
+            acquired.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject("Interrupted waiting for the database");
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private ServiceUnavailableException reject(String message) {
+        rejected.incrementAndGet();
+        return new ServiceUnavailableException(message, retryAfterSeconds);
+    }
+
+    private void recordHoldTime(long nanos) {
+        averageHoldNanos.accumulateAndGet(nanos, (average, sample) ->
+                average == 0 ? sample : (long) (average + HOLD_TIME_WEIGHT * (sample - average)));
+    }
+}
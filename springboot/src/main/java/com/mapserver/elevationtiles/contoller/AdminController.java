@@ -0,0 +1,292 @@
+package com.mapserver.elevationtiles.contoller;
+
+import com.mapserver.elevationtiles.cache.DiskTileStore;
+import com.mapserver.elevationtiles.cache.TileCache;
+import com.mapserver.elevationtiles.concurrent.DbConcurrencyLimiter;
+import com.mapserver.elevationtiles.concurrent.SingleFlight;
+import com.mapserver.elevationtiles.datasource.ReplicaRoutingDataSource;
+import com.mapserver.elevationtiles.dto.DbConcurrencyStatisticsDto;
+import com.mapserver.elevationtiles.dto.DiskTileStoreStatisticsDto;
+import com.mapserver.elevationtiles.dto.IngestJobDto;
+import com.mapserver.elevationtiles.dto.IngestRequestDto;
+import com.mapserver.elevationtiles.dto.OverviewBuildDto;
+import com.mapserver.elevationtiles.dto.ReplicaRoutingStatisticsDto;
+import com.mapserver.elevationtiles.dto.SeedJobDto;
+import com.mapserver.elevationtiles.dto.SeedRequestDto;
+import com.mapserver.elevationtiles.dto.SingleFlightStatisticsDto;
+import com.mapserver.elevationtiles.dto.SummaryBackfillDto;
+import com.mapserver.elevationtiles.dto.TileCacheStatisticsDto;
+import com.mapserver.elevationtiles.exception.ResourceNotFoundException;
+import com.mapserver.elevationtiles.ingest.IngestJob;
+import com.mapserver.elevationtiles.ingest.IngestService;
+import com.mapserver.elevationtiles.overview.OverviewBuild;
+import com.mapserver.elevationtiles.overview.OverviewService;
+import com.mapserver.elevationtiles.seed.SeedJob;
+import com.mapserver.elevationtiles.seed.SeedService;
+import com.mapserver.elevationtiles.statistics.SummaryBackfill;
+import com.mapserver.elevationtiles.statistics.SummaryBackfillService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+public class AdminController {
+
+    private final TileCache tileCache;
+    private final DiskTileStore diskTileStore;
+    private final SingleFlight singleFlight;
+    private final DbConcurrencyLimiter dbConcurrencyLimiter;
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+    private final SeedService seedService;
+    private final OverviewService overviewService;
+    private final IngestService ingestService;
+    private final SummaryBackfillService summaryBackfillService;
+
+    public AdminController(TileCache tileCache, DiskTileStore diskTileStore, SingleFlight singleFlight,
+                           DbConcurrencyLimiter dbConcurrencyLimiter,
+                           ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource, SeedService seedService,
+                           OverviewService overviewService, IngestService ingestService,
+                           SummaryBackfillService summaryBackfillService) {
+        this.tileCache = tileCache;
+        this.diskTileStore = diskTileStore;
+        this.singleFlight = singleFlight;
+        this.dbConcurrencyLimiter = dbConcurrencyLimiter;
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+        this.seedService = seedService;
+        this.overviewService = overviewService;
+        this.ingestService = ingestService;
+        this.summaryBackfillService = summaryBackfillService;
+    }
+
+    @Operation(summary = "Get hit, miss and eviction counters of the rendered tile cache")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the tile cache counters",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = TileCacheStatisticsDto.class)) }) })
+    @GetMapping(value = "/tile-cache", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TileCacheStatisticsDto> getTileCacheStatistics() {
+        return ResponseEntity.ok().body(new TileCacheStatisticsDto().fromDomainToDto(tileCache));
+    }
+
+    @Operation(summary = "Get counters and size of the persistent disk tile store")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the disk tile store counters",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = DiskTileStoreStatisticsDto.class)) }) })
+    @GetMapping(value = "/disk-store", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<DiskTileStoreStatisticsDto> getDiskTileStoreStatistics() {
+        return ResponseEntity.ok().body(new DiskTileStoreStatisticsDto().fromDomainToDto(diskTileStore));
+    }
+
+    @Operation(summary = "Get how many concurrent identical requests were coalesced")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the request coalescing counters",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = SingleFlightStatisticsDto.class)) }) })
+    @GetMapping(value = "/single-flight", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SingleFlightStatisticsDto> getSingleFlightStatistics() {
+        return ResponseEntity.ok().body(new SingleFlightStatisticsDto().fromDomainToDto(singleFlight));
+    }
+
+    @Operation(summary = "Get the state of the database concurrency limiter")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the running, queued and rejected query counters",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = DbConcurrencyStatisticsDto.class)) }) })
+    @GetMapping(value = "/db-concurrency", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<DbConcurrencyStatisticsDto> getDbConcurrencyStatistics() {
+        return ResponseEntity.ok().body(new DbConcurrencyStatisticsDto().fromDomainToDto(dbConcurrencyLimiter));
+    }
+
+    @Operation(summary = "Get the load and circuit breaker state of the read replicas")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the state of every replica",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ReplicaRoutingStatisticsDto.class)) }),
+            @ApiResponse(responseCode = "404", description = "No read replica is configured",
+                    content = @Content) })
+    @GetMapping(value = "/replicas", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReplicaRoutingStatisticsDto> getReplicaStatistics() throws ResourceNotFoundException {
+        ReplicaRoutingDataSource routing = replicaRoutingDataSource.getIfAvailable();
+        if (routing == null) {
+            throw new ResourceNotFoundException("No read replica is configured");
+        }
+        return ResponseEntity.ok().body(new ReplicaRoutingStatisticsDto().fromDomainToDto(routing));
+    }
+
+    @Operation(summary = "Start seeding the tile cache in the background")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Returns the progress of the job started",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = SeedJobDto.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid zoom levels, envelope, layer, colormap, workers or rate",
+                    content = @Content),
+            @ApiResponse(responseCode = "409", description = "A seeding job is already running",
+                    content = @Content) })
+    @PostMapping(value = "/seed", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SeedJobDto> startSeeding(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Zoom levels, envelope, layers and colormaps to seed")
+            @RequestBody
+            SeedRequestDto request
+    ) {
+        SeedJob job = seedService.start(request.fromDtoToDomain(seedService.getDefaultWorkers(), seedService.getDefaultTilesPerSecond()));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new SeedJobDto().fromDomainToDto(job));
+    }
+
+    @Operation(summary = "Get the progress, throughput and ETA of the last seeding job")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the progress of the job",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = SeedJobDto.class)) }),
+            @ApiResponse(responseCode = "404", description = "No seeding job was started",
+                    content = @Content) })
+    @GetMapping(value = "/seed", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SeedJobDto> getSeeding() throws ResourceNotFoundException {
+        SeedJob job = seedService.getJob()
+                .orElseThrow(() -> new ResourceNotFoundException("No seeding job was started"));
+        return ResponseEntity.ok().body(new SeedJobDto().fromDomainToDto(job));
+    }
+
+    @Operation(summary = "Cancel the running seeding job")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the progress of the job, which stops once the tiles being rendered are done",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = SeedJobDto.class)) }),
+            @ApiResponse(responseCode = "404", description = "No seeding job was started",
+                    content = @Content) })
+    @DeleteMapping(value = "/seed", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SeedJobDto> cancelSeeding() throws ResourceNotFoundException {
+        SeedJob job = seedService.cancel()
+                .orElseThrow(() -> new ResourceNotFoundException("No seeding job was started"));
+        return ResponseEntity.ok().body(new SeedJobDto().fromDomainToDto(job));
+    }
+
+    @Operation(summary = "Rebuild the in-db overviews of the low zoom levels in the background")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Returns the progress of the build started",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = OverviewBuildDto.class)) }),
+            @ApiResponse(responseCode = "409", description = "The overviews are already being built",
+                    content = @Content) })
+    @PostMapping(value = "/overviews", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OverviewBuildDto> buildOverviews() {
+        OverviewBuild build = overviewService.start();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new OverviewBuildDto().fromDomainToDto(build));
+    }
+
+    @Operation(summary = "Get the progress of the last overview build")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the progress of the build",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = OverviewBuildDto.class)) }),
+            @ApiResponse(responseCode = "404", description = "The overviews were not built since the application started",
+                    content = @Content) })
+    @GetMapping(value = "/overviews", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OverviewBuildDto> getOverviewBuild() throws ResourceNotFoundException {
+        OverviewBuild build = overviewService.getBuild()
+                .orElseThrow(() -> new ResourceNotFoundException("The overviews were not built since the application started"));
+        return ResponseEntity.ok().body(new OverviewBuildDto().fromDomainToDto(build));
+    }
+
+    @Operation(summary = "Start loading GeoTIFFs into the elevation tiles table in the background")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Returns the progress of the job started",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = IngestJobDto.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid source, zoom levels, storage, workers or batch size",
+                    content = @Content),
+            @ApiResponse(responseCode = "409", description = "An ingestion is already running",
+                    content = @Content) })
+    @PostMapping(value = "/ingest", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<IngestJobDto> startIngestion(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Source, zoom levels and storage of the tiles to load")
+            @RequestBody
+            IngestRequestDto request
+    ) {
+        IngestJob job = ingestService.start(request.fromDtoToDomain(ingestService.getDefaultStorage(),
+                ingestService.getDefaultWorkers(), ingestService.getDefaultBatchSize()));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new IngestJobDto().fromDomainToDto(job));
+    }
+
+    @Operation(summary = "Get the progress and the per zoom level completeness report of the last ingestion")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the progress and the completeness of the zoom levels done",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = IngestJobDto.class)) }),
+            @ApiResponse(responseCode = "404", description = "No ingestion was started",
+                    content = @Content) })
+    @GetMapping(value = "/ingest", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<IngestJobDto> getIngestion() throws ResourceNotFoundException {
+        IngestJob job = ingestService.getJob()
+                .orElseThrow(() -> new ResourceNotFoundException("No ingestion was started"));
+        return ResponseEntity.ok().body(new IngestJobDto().fromDomainToDto(job));
+    }
+
+    @Operation(summary = "Cancel the running ingestion")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the progress of the job, which stops once the batches being loaded are done",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = IngestJobDto.class)) }),
+            @ApiResponse(responseCode = "404", description = "No ingestion was started",
+                    content = @Content) })
+    @DeleteMapping(value = "/ingest", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<IngestJobDto> cancelIngestion() throws ResourceNotFoundException {
+        IngestJob job = ingestService.cancel()
+                .orElseThrow(() -> new ResourceNotFoundException("No ingestion was started"));
+        return ResponseEntity.ok().body(new IngestJobDto().fromDomainToDto(job));
+    }
+
+    @Operation(summary = "Start computing the statistics, histograms and quantile sketches of the tiles without a summary in the background")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Returns the progress of the backfill started",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = SummaryBackfillDto.class)) }),
+            @ApiResponse(responseCode = "409", description = "The summaries are already being backfilled",
+                    content = @Content) })
+    @PostMapping(value = "/summaries", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SummaryBackfillDto> backfillSummaries() {
+        SummaryBackfill backfill = summaryBackfillService.start();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new SummaryBackfillDto().fromDomainToDto(backfill));
+    }
+
+    @Operation(summary = "Get the progress of the last summary backfill")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the progress and the ETA",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = SummaryBackfillDto.class)) }),
+            @ApiResponse(responseCode = "404", description = "No backfill was started",
+                    content = @Content) })
+    @GetMapping(value = "/summaries", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SummaryBackfillDto> getSummaryBackfill() throws ResourceNotFoundException {
+        SummaryBackfill backfill = summaryBackfillService.getBackfill()
+                .orElseThrow(() -> new ResourceNotFoundException("No backfill was started"));
+        return ResponseEntity.ok().body(new SummaryBackfillDto().fromDomainToDto(backfill));
+    }
+
+    @Operation(summary = "Cancel the running summary backfill")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the progress of the backfill, which stops once the pages being summarized are done",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = SummaryBackfillDto.class)) }),
+            @ApiResponse(responseCode = "404", description = "No backfill was started",
+                    content = @Content) })
+    @DeleteMapping(value = "/summaries", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SummaryBackfillDto> cancelSummaryBackfill() throws ResourceNotFoundException {
+        SummaryBackfill backfill = summaryBackfillService.cancel()
+                .orElseThrow(() -> new ResourceNotFoundException("No backfill was started"));
+        return ResponseEntity.ok().body(new SummaryBackfillDto().fromDomainToDto(backfill));
+    }
+}
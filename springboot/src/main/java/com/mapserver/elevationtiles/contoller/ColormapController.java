@@ -0,0 +1,76 @@
+package com.mapserver.elevationtiles.contoller;
+
+import com.mapserver.elevationtiles.colormap.Colormap;
+import com.mapserver.elevationtiles.colormap.ColormapRegistry;
+import com.mapserver.elevationtiles.dto.ColormapDto;
+import com.mapserver.elevationtiles.exception.ResourceNotFoundException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/colormaps")
+public class ColormapController {
+
+    private final ColormapRegistry colormapRegistry;
+
+    public ColormapController(ColormapRegistry colormapRegistry) {
+        this.colormapRegistry = colormapRegistry;
+    }
+
+    @Operation(summary = "Register a colormap in ST_ColorMap format and get back its id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Returns the id to pass as colormap parameter of the tile endpoints",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ColormapDto.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid colormap",
+                    content = @Content) })
+    @PostMapping(consumes = MediaType.TEXT_PLAIN_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "Requestor-Type", exposedHeaders = "X-Get-Header")
+    public ResponseEntity<ColormapDto> registerColormap(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Colormap, one `value r g b a` entry per line")
+            @RequestBody
+            String ramp
+    ) {
+        Colormap colormap = colormapRegistry.register(ramp);
+        return ResponseEntity.created(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{id}").buildAndExpand(colormap.id()).toUri())
+                .body(new ColormapDto().fromDomainToDto(colormap));
+    }
+
+    @Operation(summary = "Get the registered colormaps")
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ColormapDto>> getColormaps() {
+        List<ColormapDto> colormaps = colormapRegistry.getCustom()
+                .stream()
+                .map(colormap -> new ColormapDto().fromDomainToDto(colormap))
+                .toList();
+        return ResponseEntity.ok().body(colormaps);
+    }
+
+    @Operation(summary = "Get a colormap in ST_ColorMap format")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the colormap",
+                    content = { @Content(mediaType = MediaType.TEXT_PLAIN_VALUE) }),
+            @ApiResponse(responseCode = "404", description = "Colormap not found",
+                    content = @Content) })
+    @GetMapping(value = "/{id}", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> getColormap(
+            @Parameter(name = "id", description = "Id, bundled name or keyword of the colormap", example = "arctic")
+            @PathVariable(value = "id")
+            String id
+    ) throws ResourceNotFoundException {
+        Colormap colormap = colormapRegistry.find(id)
+                .orElseThrow(() -> new ResourceNotFoundException("We couldn't find colormap " + id));
+        return ResponseEntity.ok().body(colormap.ramp());
+    }
+}
@@ -0,0 +1,78 @@
+package com.mapserver.elevationtiles.contoller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression applied to streamed responses, chosen from the {@code Accept-Encoding} request header.
+ */
+public enum ContentEncoding {
+    GZIP("gzip"),
+    DEFLATE("deflate"),
+    IDENTITY("identity");
+
+    private static final int BUFFER_BYTES = 8192;
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public OutputStream wrap(OutputStream out) throws IOException {
+        return switch (this) {
+            case GZIP -> new GZIPOutputStream(out, BUFFER_BYTES);
+            case DEFLATE -> new DeflaterOutputStream(out, new Deflater(), BUFFER_BYTES, false) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    def.end();
+                }
+            };
+            case IDENTITY -> out;
+        };
+    }
+
+    /**
+     * Returns the accepted encoding with the highest quality, preferring gzip on ties.
+     */
+    public static ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return IDENTITY;
+        }
+        ContentEncoding best = IDENTITY;
+        double bestQuality = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String name = tokens[0].trim().toLowerCase();
+            double quality = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            ContentEncoding candidate = switch (name) {
+                case "gzip", "x-gzip", "*" -> GZIP;
+                case "deflate" -> DEFLATE;
+                default -> null;
+            };
+            if (candidate != null && (quality > bestQuality || quality == bestQuality && quality > 0 && candidate == GZIP)) {
+                best = candidate;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+}
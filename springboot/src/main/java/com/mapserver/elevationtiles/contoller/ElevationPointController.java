@@ -0,0 +1,138 @@
+package com.mapserver.elevationtiles.contoller;
+
+import com.mapserver.elevationtiles.dto.PointRequestDto;
+import com.mapserver.elevationtiles.exception.InvalidParameterException;
+import com.mapserver.elevationtiles.point.Interpolation;
+import com.mapserver.elevationtiles.point.PointElevationService;
+import com.mapserver.elevationtiles.point.PointElevations;
+import com.mapserver.elevationtiles.point.PointFormat;
+import com.mapserver.elevationtiles.point.PointQuery;
+import com.mapserver.elevationtiles.point.PointReader;
+import com.mapserver.elevationtiles.point.PointWriter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+
+@RestController
+@RequestMapping("/api/v1")
+public class ElevationPointController {
+
+    private static final String POINTS_DESCRIPTION = """
+            The elevations in the order of the points, streamed as `format`:
+              - `json`: `[{"lon": 7.6586, "lat": 45.9763, "elevation": 4478.0, "z": 12}, ...]`, with a null elevation and z where there is none.
+              - `ndjson`: the same objects, one per line.
+              - `binary`: a 12 byte little-endian header `magic "ETPE" | version u8 | reserved u8[3] | points u32`,
+                then `elevation f32[points]` (NaN where there is none) and `z u8[points]` (255 where there is none).
+            Compressed with gzip or deflate when the request accepts it.
+            """;
+
+    private final PointElevationService pointElevationService;
+
+    public ElevationPointController(PointElevationService pointElevationService) {
+        this.pointElevationService = pointElevationService;
+    }
+
+    @Operation(summary = "Get the elevations of many WGS84 points with a single request")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = POINTS_DESCRIPTION,
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE),
+                            @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE),
+                            @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                                    schema = @Schema(implementation = byte[].class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid z, point, interpolation, format or too many points",
+                    content = @Content) })
+    @PostMapping(value = "/elevation-points", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE })
+    public ResponseEntity<StreamingResponseBody> getPointElevations(
+            @Parameter(name = "format", description = "`json`, `ndjson` or `binary`", example = "json")
+            @RequestParam(value = "format", required = false, defaultValue = "json")
+            String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "`{\"z\": 12, \"interpolation\": \"bilinear\", \"points\": [[7.6586, 45.9763], ...]}`, without z for the finest zoom level that has an elevation")
+            @RequestBody
+            PointRequestDto request
+    ) {
+        return stream(request.fromDtoToDomain(), format, acceptEncoding);
+    }
+
+    @Operation(summary = "Get the elevations of many WGS84 points sent in a compact binary format")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = POINTS_DESCRIPTION,
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE),
+                            @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE),
+                            @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                                    schema = @Schema(implementation = byte[].class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid z, point, interpolation, format or too many points",
+                    content = @Content) })
+    @PostMapping(value = "/elevation-points", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE })
+    public ResponseEntity<StreamingResponseBody> getPointElevationsOfBinary(
+            @Parameter(name = "z", description = "Zoom level to read the elevations at, the finest one that has an elevation when missing", example = "12")
+            @RequestParam(value = "z", required = false)
+            @Min(value=0, message = "zoom level should be between 0 and 15")
+            @Max(value=15, message = "zoom level should be between 0 and 15")
+            Integer z,
+            @Parameter(name = "interpolation", description = "`nearest` or `bilinear`", example = "bilinear")
+            @RequestParam(value = "interpolation", required = false, defaultValue = "bilinear")
+            String interpolation,
+            @Parameter(name = "format", description = "`json`, `ndjson` or `binary`", example = "binary")
+            @RequestParam(value = "format", required = false, defaultValue = "binary")
+            String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Points as little-endian `lon f64 | lat f64` pairs")
+            @RequestBody
+            byte[] body
+    ) {
+        final Interpolation pointInterpolation;
+        try {
+            pointInterpolation = Interpolation.of(interpolation);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("Unknown interpolation " + interpolation + ", expected nearest or bilinear");
+        }
+        final double[][] points;
+        try {
+            points = PointReader.read(body);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException(e.getMessage());
+        }
+        return stream(new PointQuery(points[0], points[1], z, pointInterpolation), format, acceptEncoding);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(PointQuery query, String format, String acceptEncoding) {
+        final PointFormat pointFormat;
+        try {
+            pointFormat = PointFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("Unknown point format " + format + ", expected json, ndjson or binary");
+        }
+        final PointElevations elevations = pointElevationService.lookup(query);
+        final ContentEncoding encoding = ContentEncoding.negotiate(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(pointFormat.getMediaType()))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (encoding == ContentEncoding.IDENTITY && pointFormat == PointFormat.BINARY) {
+            response.contentLength(PointWriter.contentLength(elevations, pointFormat));
+        } else if (encoding != ContentEncoding.IDENTITY) {
+            response.header(HttpHeaders.CONTENT_ENCODING, encoding.getToken());
+        }
+        return response.body(out -> {
+            try (OutputStream target = encoding.wrap(out)) {
+                PointWriter.write(elevations, pointFormat, target);
+            }
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package com.mapserver.elevationtiles.contoller;
+
+import com.mapserver.elevationtiles.dto.LineStringDto;
+import com.mapserver.elevationtiles.exception.InvalidParameterException;
+import com.mapserver.elevationtiles.point.Interpolation;
+import com.mapserver.elevationtiles.profile.ProfileFormat;
+import com.mapserver.elevationtiles.profile.ProfilePlan;
+import com.mapserver.elevationtiles.profile.ProfileService;
+import com.mapserver.elevationtiles.profile.ProfileStatistics;
+import com.mapserver.elevationtiles.profile.ProfileWriter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+
+@RestController
+@RequestMapping("/api/v1")
+public class ElevationProfileController {
+
+    private final ProfileService profileService;
+
+    public ElevationProfileController(ProfileService profileService) {
+        this.profileService = profileService;
+    }
+
+    @Operation(summary = "Get the elevation profile along a GeoJSON LineString in WGS84")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = """
+                        Streams the samples as they are read, every `spacing` metres along the line and at its end:
+                        `{"distance": 0.0, "lon": 7.7491, "lat": 46.0207, "elevation": 1608.0}`, elevation null where there is none.
+                          - `json`: `{"z": 12, "spacing": 25.0, "samples": [...], "distance": 8231.4, "ascent": 2904.0, "descent": 34.0, "maxGrade": 71.3, "minElevation": 1608.0, "maxElevation": 4478.0}`.
+                          - `ndjson`: one sample per line, then the totals with `"samples"` holding their number.
+                        Ascent, descent and the grade, in percent, are taken between consecutive samples.
+                        Compressed with gzip or deflate when the request accepts it.
+                    """,
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE),
+                            @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE) }),
+            @ApiResponse(responseCode = "400", description = "Invalid line string, spacing, z, interpolation, format or too many samples",
+                    content = @Content) })
+    @PostMapping(value = "/elevation-profile", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<StreamingResponseBody> getProfile(
+            @Parameter(name = "spacing", description = "Distance between the samples in metres, default 30", example = "25")
+            @RequestParam(value = "spacing", required = false, defaultValue = "30")
+            Double spacing,
+            @Parameter(name = "z", description = "Zoom level to read the elevations at, by default the one whose pixels match the spacing", example = "12")
+            @RequestParam(value = "z", required = false)
+            @Min(value=0, message = "zoom level should be between 0 and 15")
+            @Max(value=15, message = "zoom level should be between 0 and 15")
+            Integer z,
+            @Parameter(name = "interpolation", description = "`nearest` or `bilinear`", example = "bilinear")
+            @RequestParam(value = "interpolation", required = false, defaultValue = "bilinear")
+            String interpolation,
+            @Parameter(name = "format", description = "`json` or `ndjson`", example = "ndjson")
+            @RequestParam(value = "format", required = false, defaultValue = "json")
+            String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "`{\"type\": \"LineString\", \"coordinates\": [[7.7491, 46.0207], [7.6586, 45.9763]]}`")
+            @RequestBody
+            LineStringDto line
+    ) {
+        final Interpolation profileInterpolation;
+        try {
+            profileInterpolation = Interpolation.of(interpolation);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("Unknown interpolation " + interpolation + ", expected nearest or bilinear");
+        }
+        final ProfileFormat profileFormat;
+        try {
+            profileFormat = ProfileFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("Unknown profile format " + format + ", expected json or ndjson");
+        }
+        final ProfilePlan plan = profileService.plan(line.fromDtoToDomain(), spacing, z);
+        final ContentEncoding encoding = ContentEncoding.negotiate(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(profileFormat.getMediaType()))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (encoding != ContentEncoding.IDENTITY) {
+            response.header(HttpHeaders.CONTENT_ENCODING, encoding.getToken());
+        }
+        return response.body(out -> {
+            try (OutputStream target = encoding.wrap(out)) {
+                ProfileWriter writer = new ProfileWriter(target, profileFormat, plan);
+                ProfileStatistics statistics = profileService.profile(plan, profileInterpolation, writer::write);
+                writer.finish(statistics);
+            }
+        });
+    }
+}
@@ -1,10 +1,23 @@
 package com.mapserver.elevationtiles.contoller;
 
+import com.mapserver.elevationtiles.cache.ByteBufferResource;
+import com.mapserver.elevationtiles.colormap.Colormap;
+import com.mapserver.elevationtiles.colormap.ColormapRegistry;
+import com.mapserver.elevationtiles.contour.VectorTileEncoder;
+import com.mapserver.elevationtiles.domain.TileLayer;
 import com.mapserver.elevationtiles.dto.HistogramDto;
 import com.mapserver.elevationtiles.dto.QuantileDto;
 import com.mapserver.elevationtiles.dto.StatisticsDto;
+import com.mapserver.elevationtiles.exception.InvalidParameterException;
 import com.mapserver.elevationtiles.exception.ResourceNotFoundException;
-import com.mapserver.elevationtiles.repository.ElevationTilesProdRepository;
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import com.mapserver.elevationtiles.raster.GridFormat;
+import com.mapserver.elevationtiles.raster.GridStatistics;
+import com.mapserver.elevationtiles.raster.GridWriter;
+import com.mapserver.elevationtiles.render.ElevationEncoding;
+import com.mapserver.elevationtiles.service.ElevationGridService;
+import com.mapserver.elevationtiles.service.StatisticsService;
+import com.mapserver.elevationtiles.service.TileService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,18 +26,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.Set;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -36,12 +48,17 @@ public class ElevationTilesController {
 
     public static final byte[] EMPTY_TILE = EMPTY_TILE_STRING.getBytes(UTF_8);
 
+    private final StatisticsService statisticsService;
+    private final TileService tileService;
+    private final ColormapRegistry colormapRegistry;
+    private final ElevationGridService elevationGridService;
 
-    private static final Set<String> RELATIVE_PALETTES = Set.of("grayscale", "pseudocolor", "fire", "bluered");
-    private final ElevationTilesProdRepository elevationTilesProdRepository;
-
-    public ElevationTilesController(ElevationTilesProdRepository elevationTilesProdRepository) {
-        this.elevationTilesProdRepository = elevationTilesProdRepository;
+    public ElevationTilesController(StatisticsService statisticsService, TileService tileService,
+                                    ColormapRegistry colormapRegistry, ElevationGridService elevationGridService) {
+        this.statisticsService = statisticsService;
+        this.tileService = tileService;
+        this.colormapRegistry = colormapRegistry;
+        this.elevationGridService = elevationGridService;
     }
 
     @Operation(summary = "Get statistics for specific tile")
@@ -55,7 +72,6 @@ public class ElevationTilesController {
                     content = @Content(schema = @Schema(implementation = ResourceNotFoundException.class))) })
     @GetMapping(value = "/elevation-statistics/{z}/{x}/{y}", produces = MediaType.APPLICATION_JSON_VALUE)
     @CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "Requestor-Type", exposedHeaders = "X-Get-Header")
-    @Transactional(readOnly = true)
     public ResponseEntity<StatisticsDto> getStatisticsByZXY(
             @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
             @PathVariable(value = "z")
@@ -74,7 +90,7 @@ public class ElevationTilesController {
             Integer y
     ) throws ResourceNotFoundException {
         StatisticsDto statistics =
-        elevationTilesProdRepository.findStatisticsByZXY(z,x,y)
+        statisticsService.findStatisticsByZXY(z,x,y)
                 .stream().findAny()
                 .map(stats -> new StatisticsDto().fromDomainToDto(stats))
                 .orElseThrow(() -> new ResourceNotFoundException("We couldn't find statistics for specific tile"));
@@ -91,7 +107,6 @@ public class ElevationTilesController {
             @ApiResponse(responseCode = "404", description = "Statistics not found",
                     content = @Content(schema = @Schema(implementation = ResourceNotFoundException.class))) })
     @GetMapping(value = "/elevation-statistics/{z}/{xMin},{yMin},{xMax},{yMax}", produces = MediaType.APPLICATION_JSON_VALUE)
-    @Transactional(readOnly = true)
     @CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "Requestor-Type", exposedHeaders = "X-Get-Header")
     public ResponseEntity<StatisticsDto> getStatisticsByZAndEnvelope(
             @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
@@ -121,7 +136,7 @@ public class ElevationTilesController {
             Float yMax
     ) throws ResourceNotFoundException {
         StatisticsDto statistics =
-                elevationTilesProdRepository.findStatisticsByZAndEnvelope(z, xMin, yMin, xMax, yMax)
+                statisticsService.findStatisticsByZAndEnvelope(z, xMin, yMin, xMax, yMax)
                         .stream().findAny()
                         .map(stats -> new StatisticsDto().fromDomainToDto(stats))
                         .orElseThrow(() -> new ResourceNotFoundException("We couldn't find statistics for specific zoom level and envelope"));
@@ -140,7 +155,6 @@ public class ElevationTilesController {
                     content = @Content) })
     @GetMapping(value = "/elevation-histograms/{z}/{x}/{y}", produces = MediaType.APPLICATION_JSON_VALUE)
     @CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "Requestor-Type", exposedHeaders = "X-Get-Header")
-    @Transactional(readOnly = true)
     public ResponseEntity<List<HistogramDto>> getHistogramsByZXY(
             @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
             @PathVariable(value = "z")
@@ -163,7 +177,55 @@ public class ElevationTilesController {
             Integer bins
     ) {
         List<HistogramDto> histogram =
-                elevationTilesProdRepository.findHistogramByZXY(z,x,y, bins==null? 6 : bins)
+                statisticsService.findHistogramByZXY(z,x,y, bins==null? 6 : bins)
+                        .stream()
+                        .map(hist -> new HistogramDto().fromDomainToDto(hist))
+                        .toList();
+        return ResponseEntity.ok().body(histogram);
+    }
+
+    @Operation(summary = "Get histogram for zoom level and envelope geometry in WGS84, merged from the tile summaries")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns histogram",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = HistogramDto.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid z, envelope or bins",
+                    content = @Content) })
+    @GetMapping(value = "/elevation-histograms/{z}/{xMin},{yMin},{xMax},{yMax}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "Requestor-Type", exposedHeaders = "X-Get-Header")
+    public ResponseEntity<List<HistogramDto>> getHistogramsByZAndEnvelope(
+            @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
+            @PathVariable(value = "z")
+            @Min(value=0, message = "zoom level should be between 0 and 15")
+            @Max(value=15, message = "zoom level should be between 0 and 15")
+            Integer z,
+            @Parameter(name = "X Minimum", description = "Minimum longitude", example = "0.0")
+            @Min(value= -180, message = "Longitude should be greater than -180 degrees")
+            @Max(value = 180, message = "Longitude should be less than 180 degrees")
+            @PathVariable(value = "xMin")
+            Float xMin,
+            @Parameter(name = "Y Minimum", description = "Minimum latitude", example = "0.0")
+            @Min(value= -90, message = "Latitude should be greater than -90 degrees")
+            @Max(value = 90, message = "Latitude should be less than 90 degrees")
+            @PathVariable(value = "yMin")
+            Float yMin,
+            @Parameter(name = "X Maximum", description = "Maximum longitude", example = "0.0")
+            @Min(value= -180, message = "Longitude should be greater than -180 degrees")
+            @Max(value = 180, message = "Longitude should be less than 180 degrees")
+            @PathVariable(value = "xMax")
+            Float xMax,
+            @Parameter(name = "Y Maximum", description = "Maximum latitude", example = "0.0")
+            @Min(value= -90, message = "Latitude should be greater than -90 degrees")
+            @Max(value = 90, message = "Latitude should be less than 90 degrees")
+            @PathVariable(value = "yMax")
+            Float yMax,
+            @Parameter(name= "Bins", description = "Number of the bins, default value 6", example = "3")
+            @RequestParam(value = "bins", required = false)
+            @Min(value = 1, message = "Number of bins should be larger thn 0")
+            Integer bins
+    ) {
+        List<HistogramDto> histogram =
+                statisticsService.findHistogramByZAndEnvelope(z, xMin, yMin, xMax, yMax, bins==null? 6 : bins)
                         .stream()
                         .map(hist -> new HistogramDto().fromDomainToDto(hist))
                         .toList();
@@ -181,7 +243,6 @@ public class ElevationTilesController {
                     content = @Content) })
     @GetMapping(value = "/elevation-quantiles/{z}/{x}/{y}", produces = MediaType.APPLICATION_JSON_VALUE)
     @CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "Requestor-Type", exposedHeaders = "X-Get-Header")
-    @Transactional(readOnly = true)
     public ResponseEntity<List<QuantileDto>> getQuantilesByZXY(
             @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
             @PathVariable(value = "z")
@@ -200,7 +261,59 @@ public class ElevationTilesController {
             Integer y
     ) {
         List<QuantileDto> quantileDtos =
-                elevationTilesProdRepository.findQuantileByZXY(z,x,y)
+                statisticsService.findQuantileByZXY(z,x,y)
+                        .stream()
+                        .map(stats -> new QuantileDto().fromDomainToDto(stats))
+                        .toList();
+        return ResponseEntity.ok().body(quantileDtos);
+    }
+
+    @Operation(summary = "Get approximate quantiles for zoom level and envelope geometry in WGS84, merged from the tile sketches")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns quantiles, each within the rank error of its rank",
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = QuantileDto.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid z, envelope, quantiles or rank error",
+                    content = @Content) })
+    @GetMapping(value = "/elevation-quantiles/{z}/{xMin},{yMin},{xMax},{yMax}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "Requestor-Type", exposedHeaders = "X-Get-Header")
+    public ResponseEntity<List<QuantileDto>> getQuantilesByZAndEnvelope(
+            @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
+            @PathVariable(value = "z")
+            @Min(value=0, message = "zoom level should be between 0 and 15")
+            @Max(value=15, message = "zoom level should be between 0 and 15")
+            Integer z,
+            @Parameter(name = "X Minimum", description = "Minimum longitude", example = "0.0")
+            @Min(value= -180, message = "Longitude should be greater than -180 degrees")
+            @Max(value = 180, message = "Longitude should be less than 180 degrees")
+            @PathVariable(value = "xMin")
+            Float xMin,
+            @Parameter(name = "Y Minimum", description = "Minimum latitude", example = "0.0")
+            @Min(value= -90, message = "Latitude should be greater than -90 degrees")
+            @Max(value = 90, message = "Latitude should be less than 90 degrees")
+            @PathVariable(value = "yMin")
+            Float yMin,
+            @Parameter(name = "X Maximum", description = "Maximum longitude", example = "0.0")
+            @Min(value= -180, message = "Longitude should be greater than -180 degrees")
+            @Max(value = 180, message = "Longitude should be less than 180 degrees")
+            @PathVariable(value = "xMax")
+            Float xMax,
+            @Parameter(name = "Y Maximum", description = "Maximum latitude", example = "0.0")
+            @Min(value= -90, message = "Latitude should be greater than -90 degrees")
+            @Max(value = 90, message = "Latitude should be less than 90 degrees")
+            @PathVariable(value = "yMax")
+            Float yMax,
+            @Parameter(name = "Quantiles", description = "Quantiles between 0 and 1, default 0, 0.25, 0.5, 0.75, 1", example = "0.05,0.5,0.95")
+            @RequestParam(value = "quantiles", required = false)
+            List<Double> quantiles,
+            @Parameter(name = "Rank error", description = "Accepted error on the rank of each quantile, default and minimum that of the stored sketches", example = "0.02")
+            @RequestParam(value = "rankError", required = false)
+            Double rankError
+    ) {
+        double[] requested = quantiles == null || quantiles.isEmpty() ? GridStatistics.DEFAULT_QUANTILES
+                : quantiles.stream().mapToDouble(Double::doubleValue).toArray();
+        List<QuantileDto> quantileDtos =
+                statisticsService.findQuantileByZAndEnvelope(z, xMin, yMin, xMax, yMax, requested, rankError)
                         .stream()
                         .map(stats -> new QuantileDto().fromDomainToDto(stats))
                         .toList();
@@ -217,7 +330,6 @@ public class ElevationTilesController {
             @ApiResponse(responseCode = "404", description = "Tile not found",
                     content = @Content) })
     @GetMapping(value = "/elevation/{z}/{x}/{y}", produces = MediaType.IMAGE_PNG_VALUE)
-    @Transactional(readOnly = true)
     public ResponseEntity<Resource> getElevationByZXY(
             @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
             @PathVariable(value = "z")
@@ -236,6 +348,7 @@ public class ElevationTilesController {
             Integer y,
             @Parameter(name="colormap", description = """
                     Keyword of a pre-defined colormap. Allowed values:
+                      - the id of a colormap registered with `POST /api/v1/colormaps`.
                       - any 5 value color ramp. Default `arctic` from http://soliton.vm.bytemark.co.uk/pub/cpt-city/mby/mby.pg
                       - `grayscale` or `greyscale` for a one 8BUI band raster of shades of gray.
                       - `pseudocolor` for a four 8BUI (RGBA) band raster with colors going from blue to green to red.
@@ -245,24 +358,10 @@ public class ElevationTilesController {
                     """, example = "pseudocolor")
             @RequestParam(value = "colormap", required = false)
             String colormap
-    ) throws IOException {
-        final String cr;
-        if ("arctic".equals(colormap) || StringUtils.isEmpty(colormap)) {
-            cr = IOUtils.toString(getClass().getResourceAsStream("/arctic.pg"), UTF_8);
-        }
-        else if(RELATIVE_PALETTES.contains(colormap)){
-            cr = colormap;
-        }
-        else {
-            cr = IOUtils.toString(getClass().getResourceAsStream("/mby.pg"), UTF_8);
-        }
-        byte[] png =
-                elevationTilesProdRepository.getPng(z, x, y, cr);
-        if(png == null){
-            png = EMPTY_TILE;
-        }
+    ) {
+        final Colormap cr = colormapRegistry.resolve(TileLayer.ELEVATION, colormap);
         return ResponseEntity.ok()
-                .body(new ByteArrayResource(png));
+                .body(toResource(tileService.getPng(TileLayer.ELEVATION, z, x, y, cr)));
     }
 
     @Operation(summary = "Get slope tile in PNG format")
@@ -275,7 +374,6 @@ public class ElevationTilesController {
             @ApiResponse(responseCode = "404", description = "Tile not found",
                     content = @Content) })
     @GetMapping(value = "/slope/{z}/{x}/{y}", produces = MediaType.IMAGE_PNG_VALUE)
-    @Transactional(readOnly = true)
     public ResponseEntity<Resource> getSlopeByZXY(
             @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
             @PathVariable(value = "z")
@@ -294,6 +392,7 @@ public class ElevationTilesController {
             Integer y,
             @Parameter(name="colormap", description = """
                     Keyword of a pre-defined colormap. Allowed values:
+                      - the id of a colormap registered with `POST /api/v1/colormaps`.
                       - any 5 value color ramp. Default http://soliton.vm.bytemark.co.uk/pub/cpt-city/esri/hillshade/tn/gray_dk.png.index.html.
                       - `grayscale` or `greyscale` for a one 8BUI band raster of shades of gray.
                       - `pseudocolor` for a four 8BUI (RGBA) band raster with colors going from blue to green to red.
@@ -302,15 +401,10 @@ public class ElevationTilesController {
                     """, example = "pseudocolor")
             @RequestParam(value = "colormap", required = false)
             String colormap
-    ) throws IOException {
-        final String cr = colormap==null? IOUtils.toString(getClass().getResourceAsStream("/gray_dk.pg"), UTF_8): colormap;
-        byte[] png =
-                elevationTilesProdRepository.getSlope(z, x, y, cr);
-        if(png==null){
-            png = EMPTY_TILE;
-        }
+    ) {
+        final Colormap cr = colormapRegistry.resolve(TileLayer.SLOPE, colormap);
         return ResponseEntity.ok()
-                .body(new ByteArrayResource(png));
+                .body(toResource(tileService.getPng(TileLayer.SLOPE, z, x, y, cr)));
     }
 
     @Operation(summary = "Get terrain roughness index (TRI) tile in PNG format")
@@ -326,7 +420,6 @@ public class ElevationTilesController {
             @ApiResponse(responseCode = "404", description = "Tile not found",
                     content = @Content) })
     @GetMapping(value = "/tri/{z}/{x}/{y}", produces = MediaType.IMAGE_PNG_VALUE)
-    @Transactional(readOnly = true)
     public ResponseEntity<Resource> getTerrainRoughnessIndexByZXY(
             @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
             @PathVariable(value = "z")
@@ -345,6 +438,7 @@ public class ElevationTilesController {
             Integer y,
             @Parameter(name="colormap", description = """
                     Keyword of a pre-defined colormap. Allowed values:
+                      - the id of a colormap registered with `POST /api/v1/colormaps`.
                       - any 5 value color ramp. Default http://soliton.vm.bytemark.co.uk/pub/cpt-city/esri/hillshade/tn/gray_dk.png.index.html.
                       - `grayscale` or `greyscale` for a one 8BUI band raster of shades of gray.
                       - `pseudocolor` for a four 8BUI (RGBA) band raster with colors going from blue to green to red.
@@ -353,15 +447,10 @@ public class ElevationTilesController {
                     """, example = "pseudocolor")
             @RequestParam(value = "colormap", required = false)
             String colormap
-    ) throws IOException {
-        final String cr = colormap==null? IOUtils.toString(getClass().getResourceAsStream("/gray_dk.pg"), UTF_8): colormap;
-        byte[] png =
-                elevationTilesProdRepository.getTerrainRoughnessIndex(z, x, y, cr);
-        if(png==null){
-            png = EMPTY_TILE;
-        }
+    ) {
+        final Colormap cr = colormapRegistry.resolve(TileLayer.TRI, colormap);
         return ResponseEntity.ok()
-                .body(new ByteArrayResource(png));
+                .body(toResource(tileService.getPng(TileLayer.TRI, z, x, y, cr)));
     }
 
     @Operation(summary = "Get topographic position index (TPI) tile in PNG format")
@@ -377,7 +466,6 @@ public class ElevationTilesController {
             @ApiResponse(responseCode = "404", description = "Tile not found",
                     content = @Content) })
     @GetMapping(value = "/tpi/{z}/{x}/{y}", produces = MediaType.IMAGE_PNG_VALUE)
-    @Transactional(readOnly = true)
     public ResponseEntity<Resource> getTopographicPositionIndexByZXY(
             @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
             @PathVariable(value = "z")
@@ -396,6 +484,7 @@ public class ElevationTilesController {
             Integer y,
             @Parameter(name="colormap", description = """
                     Keyword of a pre-defined colormap. Allowed values:
+                      - the id of a colormap registered with `POST /api/v1/colormaps`.
                       - any 5 value color ramp. Default http://soliton.vm.bytemark.co.uk/pub/cpt-city/esri/hillshade/tn/gray_dk.png.index.html.
                       - `grayscale` or `greyscale` for a one 8BUI band raster of shades of gray.
                       - `pseudocolor` for a four 8BUI (RGBA) band raster with colors going from blue to green to red.
@@ -404,15 +493,10 @@ public class ElevationTilesController {
                     """, example = "pseudocolor")
             @RequestParam(value = "colormap", required = false)
             String colormap
-    ) throws IOException {
-        final String cr = colormap==null? IOUtils.toString(getClass().getResourceAsStream("/gray_dk.pg"), UTF_8): colormap;
-        byte[] png =
-                elevationTilesProdRepository.getTopographicPositionIndex(z, x, y, cr);
-        if(png==null){
-            png = EMPTY_TILE;
-        }
+    ) {
+        final Colormap cr = colormapRegistry.resolve(TileLayer.TPI, colormap);
         return ResponseEntity.ok()
-                .body(new ByteArrayResource(png));
+                .body(toResource(tileService.getPng(TileLayer.TPI, z, x, y, cr)));
     }
 
     @Operation(summary = "Get hillshade tile in PNG format")
@@ -428,7 +512,6 @@ public class ElevationTilesController {
             @ApiResponse(responseCode = "404", description = "Tile not found",
                     content = @Content) })
     @GetMapping(value = "/hillshade/{z}/{x}/{y}", produces = MediaType.IMAGE_PNG_VALUE)
-    @Transactional(readOnly = true)
     public ResponseEntity<Resource> getHillShadeByZXY(
             @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
             @PathVariable(value = "z")
@@ -447,6 +530,7 @@ public class ElevationTilesController {
             Integer y,
             @Parameter(name="colormap", description = """
                     Keyword of a pre-defined colormap. Allowed values:
+                      - the id of a colormap registered with `POST /api/v1/colormaps`.
                       - any 5 value color ramp. Default `00_bw_linear` http://soliton.vm.bytemark.co.uk.
                       - `grayscale` or `greyscale` for a one 8BUI band raster of shades of gray.
                       - `pseudocolor` for a four 8BUI (RGBA) band raster with colors going from blue to green to red.
@@ -455,15 +539,10 @@ public class ElevationTilesController {
                     """, example = "pseudocolor")
             @RequestParam(value = "colormap", required = false)
             String colormap
-    ) throws IOException {
-        final String cr = colormap==null? IOUtils.toString(getClass().getResourceAsStream("/00_bw_linear.pg"), UTF_8): colormap;
-        byte[] png =
-                elevationTilesProdRepository.getHillShade(z, x, y, cr);
-        if(png==null){
-            png = EMPTY_TILE;
-        }
+    ) {
+        final Colormap cr = colormapRegistry.resolve(TileLayer.HILLSHADE, colormap);
         return ResponseEntity.ok()
-                .body(new ByteArrayResource(png));
+                .body(toResource(tileService.getPng(TileLayer.HILLSHADE, z, x, y, cr)));
     }
 
 
@@ -480,7 +559,6 @@ public class ElevationTilesController {
             @ApiResponse(responseCode = "404", description = "Tile not found",
                     content = @Content) })
     @GetMapping(value = "/aspect/{z}/{x}/{y}", produces = MediaType.IMAGE_PNG_VALUE)
-    @Transactional(readOnly = true)
     public ResponseEntity<Resource> getAspectByZXY(
             @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
             @PathVariable(value = "z")
@@ -499,6 +577,7 @@ public class ElevationTilesController {
             Integer y,
             @Parameter(name="colormap", description = """
                     Keyword of a pre-defined colormap. Allowed values:
+                      - the id of a colormap registered with `POST /api/v1/colormaps`.
                       - any 5 value color ramp. Default `gray_dk` http://soliton.vm.bytemark.co.uk.
                       - `grayscale` or `greyscale` for a one 8BUI band raster of shades of gray.
                       - `pseudocolor` for a four 8BUI (RGBA) band raster with colors going from blue to green to red.
@@ -507,15 +586,178 @@ public class ElevationTilesController {
                     """, example = "pseudocolor")
             @RequestParam(value = "colormap", required = false)
             String colormap
-    ) throws IOException {
-        final String cr = colormap==null? IOUtils.toString(getClass().getResourceAsStream("/gray_dk.pg"), UTF_8): colormap;
-        byte[] png =
-                elevationTilesProdRepository.getAspect(z, x, y, cr);
-        if(png==null){
-            png = EMPTY_TILE;
-        }
+    ) {
+        final Colormap cr = colormapRegistry.resolve(TileLayer.ASPECT, colormap);
+        return ResponseEntity.ok()
+                .body(toResource(tileService.getPng(TileLayer.ASPECT, z, x, y, cr)));
+    }
+
+    @Operation(summary = "Get elevation tile encoded as Mapbox Terrain-RGB")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = """
+                        Returns a lossless png with the elevation packed in its colour channels:
+                        `height = -10000 + (R * 256 * 256 + G * 256 + B) * 0.1`. Nodata pixels are transparent.
+                        More information here -> https://docs.mapbox.com/data/tilesets/reference/mapbox-terrain-rgb-v1/
+                    """,
+                    content = { @Content(mediaType = MediaType.IMAGE_PNG_VALUE,
+                            schema = @Schema(implementation = byte[].class, example = EMPTY_TILE_STRING)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid z, y, x",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Tile not found",
+                    content = @Content) })
+    @GetMapping(value = "/terrain-rgb/{z}/{x}/{y}", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<Resource> getTerrainRgbByZXY(
+            @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
+            @PathVariable(value = "z")
+            @Min(value=0, message = "zoom level should be between 0 and 15")
+            @Max(value=15, message = "zoom level should be between 0 and 15")
+            Integer z,
+            @Parameter(name = "X tile", description = "Row index of the tile on the selected scale denominator", example = "15")
+            @Min(value=0, message = "zoom level should be between 0 and 2^z")
+            @Max(value = 32767, message = "zoom level should be between 0 and 2^z")
+            @PathVariable(value = "x")
+            Integer x,
+            @Parameter(name = "Y tile", description = "Column index of the tile on the selected scale denominator", example = "15")
+            @Min(value=0, message = "zoom level should be between 0 and 2^z")
+            @Max(value = 32767, message = "zoom level should be between 0 and 2^z")
+            @PathVariable(value = "y")
+            Integer y
+    ) {
+        return ResponseEntity.ok()
+                .body(toResource(tileService.getEncodedPng(ElevationEncoding.TERRAIN_RGB, z, x, y)));
+    }
+
+    @Operation(summary = "Get elevation tile encoded as Terrarium")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = """
+                        Returns a lossless png with the elevation packed in its colour channels:
+                        `height = (R * 256 + G + B / 256) - 32768`. Nodata pixels are transparent.
+                        More information here -> https://github.com/tilezen/joerd/blob/master/docs/formats.md#terrarium
+                    """,
+                    content = { @Content(mediaType = MediaType.IMAGE_PNG_VALUE,
+                            schema = @Schema(implementation = byte[].class, example = EMPTY_TILE_STRING)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid z, y, x",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Tile not found",
+                    content = @Content) })
+    @GetMapping(value = "/terrarium/{z}/{x}/{y}", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<Resource> getTerrariumByZXY(
+            @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
+            @PathVariable(value = "z")
+            @Min(value=0, message = "zoom level should be between 0 and 15")
+            @Max(value=15, message = "zoom level should be between 0 and 15")
+            Integer z,
+            @Parameter(name = "X tile", description = "Row index of the tile on the selected scale denominator", example = "15")
+            @Min(value=0, message = "zoom level should be between 0 and 2^z")
+            @Max(value = 32767, message = "zoom level should be between 0 and 2^z")
+            @PathVariable(value = "x")
+            Integer x,
+            @Parameter(name = "Y tile", description = "Column index of the tile on the selected scale denominator", example = "15")
+            @Min(value=0, message = "zoom level should be between 0 and 2^z")
+            @Max(value = 32767, message = "zoom level should be between 0 and 2^z")
+            @PathVariable(value = "y")
+            Integer y
+    ) {
+        return ResponseEntity.ok()
+                .body(toResource(tileService.getEncodedPng(ElevationEncoding.TERRARIUM, z, x, y)));
+    }
+
+    @Operation(summary = "Get the contour lines of a tile as a Mapbox Vector Tile")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = """
+                        Returns a vector tile with a `contours` layer of line features, one per elevation, with an
+                        `elevation` in meters and an `index` flag on every fifth line. The interval depends on the zoom
+                        level: 1000 m up to z5, 500 m to z7, 200 m to z9, then 100, 50, 20 and 10 m from z13.
+                        The lines run 3 pixels beyond the tile. The body is empty when the tile has no contour.
+                        More information here -> https://github.com/mapbox/vector-tile-spec/tree/master/2.1
+                    """,
+                    content = { @Content(mediaType = VectorTileEncoder.MEDIA_TYPE,
+                            schema = @Schema(implementation = byte[].class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid z, y, x",
+                    content = @Content) })
+    @GetMapping(value = "/contours/{z}/{x}/{y}.mvt", produces = VectorTileEncoder.MEDIA_TYPE)
+    public ResponseEntity<Resource> getContoursByZXY(
+            @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
+            @PathVariable(value = "z")
+            @Min(value=0, message = "zoom level should be between 0 and 15")
+            @Max(value=15, message = "zoom level should be between 0 and 15")
+            Integer z,
+            @Parameter(name = "X tile", description = "Row index of the tile on the selected scale denominator", example = "15")
+            @Min(value=0, message = "zoom level should be between 0 and 2^z")
+            @Max(value = 32767, message = "zoom level should be between 0 and 2^z")
+            @PathVariable(value = "x")
+            Integer x,
+            @Parameter(name = "Y tile", description = "Column index of the tile on the selected scale denominator", example = "15")
+            @Min(value=0, message = "zoom level should be between 0 and 2^z")
+            @Max(value = 32767, message = "zoom level should be between 0 and 2^z")
+            @PathVariable(value = "y")
+            Integer y
+    ) {
         return ResponseEntity.ok()
-                .body(new ByteArrayResource(png));
+                .body(new ByteBufferResource(tileService.getContours(z, x, y)));
+    }
+
+    @Operation(summary = "Get the raw elevation grid of a tile in a compact binary format")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = """
+                        Returns a 24 byte little-endian header followed by the values, row by row:
+                        `magic "EGRD" | version u8 | format u8 (1 float32, 2 int16) | reserved u16 | width u32 | height u32 | scale f32 | offset f32`.
+                        Int16 values decode as `offset + scale * q`, nodata is `-32768` for int16 and `NaN` for float32.
+                        Compressed with gzip or deflate when the request accepts it.
+                    """,
+                    content = { @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                            schema = @Schema(implementation = byte[].class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid z, y, x or format",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Tile not found",
+                    content = @Content(schema = @Schema(implementation = ResourceNotFoundException.class))) })
+    @GetMapping(value = "/grid/{z}/{x}/{y}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> getGridByZXY(
+            @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "15")
+            @PathVariable(value = "z")
+            @Min(value=0, message = "zoom level should be between 0 and 15")
+            @Max(value=15, message = "zoom level should be between 0 and 15")
+            Integer z,
+            @Parameter(name = "X tile", description = "Row index of the tile on the selected scale denominator", example = "15")
+            @Min(value=0, message = "zoom level should be between 0 and 2^z")
+            @Max(value = 32767, message = "zoom level should be between 0 and 2^z")
+            @PathVariable(value = "x")
+            Integer x,
+            @Parameter(name = "Y tile", description = "Column index of the tile on the selected scale denominator", example = "15")
+            @Min(value=0, message = "zoom level should be between 0 and 2^z")
+            @Max(value = 32767, message = "zoom level should be between 0 and 2^z")
+            @PathVariable(value = "y")
+            Integer y,
+            @Parameter(name = "format", description = "`float32` or `int16`", example = "int16")
+            @RequestParam(value = "format", required = false, defaultValue = "float32")
+            String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding
+    ) throws ResourceNotFoundException {
+        final GridFormat gridFormat;
+        try {
+            gridFormat = GridFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("Unknown grid format " + format + ", expected float32 or int16");
+        }
+        final ElevationGrid grid = elevationGridService.getGrid(z, x, y)
+                .orElseThrow(() -> new ResourceNotFoundException("We couldn't find the elevation grid for specific tile"));
+        final ContentEncoding encoding = ContentEncoding.negotiate(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (encoding == ContentEncoding.IDENTITY) {
+            response.contentLength(GridWriter.contentLength(grid, gridFormat));
+        } else {
+            response.header(HttpHeaders.CONTENT_ENCODING, encoding.getToken());
+        }
+        return response.body(out -> {
+            try (OutputStream target = encoding.wrap(out)) {
+                GridWriter.write(grid, gridFormat, target);
+            }
+        });
     }
 
+    private static Resource toResource(ByteBuffer tile) {
+        return tile.hasRemaining() ? new ByteBufferResource(tile) : new ByteArrayResource(EMPTY_TILE);
+    }
 }
@@ -0,0 +1,157 @@
+package com.mapserver.elevationtiles.contoller;
+
+import com.mapserver.elevationtiles.colormap.Colormap;
+import com.mapserver.elevationtiles.colormap.ColormapRegistry;
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import com.mapserver.elevationtiles.domain.TileLayer;
+import com.mapserver.elevationtiles.exception.InvalidParameterException;
+import com.mapserver.elevationtiles.render.TileBatchWriter;
+import com.mapserver.elevationtiles.service.TileService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/batch")
+public class TileBatchController {
+
+    private static final String BATCH_DESCRIPTION = """
+            Tiles streamed as they are rendered, cached ones first, in a little-endian binary format:
+            `magic "ETBT" | version u8 | reserved u8[3] | tiles u32`, then one frame per tile,
+            `z u32 | x u32 | y u32 | length u32 | png`. Tiles that do not exist have length 0.
+            """;
+
+    private final TileService tileService;
+    private final ColormapRegistry colormapRegistry;
+    private final int maxTiles;
+
+    public TileBatchController(TileService tileService, ColormapRegistry colormapRegistry,
+                               @Value("${elevationtiles.batch.max-tiles:256}") int maxTiles) {
+        this.tileService = tileService;
+        this.colormapRegistry = colormapRegistry;
+        this.maxTiles = maxTiles;
+    }
+
+    @Operation(summary = "Get a block of tiles of one layer with a single request")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = BATCH_DESCRIPTION,
+                    content = { @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                            schema = @Schema(implementation = byte[].class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid layer, z, tile range or too many tiles",
+                    content = @Content) })
+    @GetMapping(value = "/{layer}/{z}/{xMin},{yMin},{xMax},{yMax}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> getTileRange(
+            @Parameter(name = "layer", description = "elevation, slope, tri, tpi, hillshade, aspect, terrain-rgb or terrarium", example = "hillshade")
+            @PathVariable(value = "layer")
+            String layer,
+            @Parameter(name = "Zoom level", description = "The zoom level or else scale denominator", example = "5")
+            @PathVariable(value = "z")
+            @Min(value=0, message = "zoom level should be between 0 and 15")
+            @Max(value=15, message = "zoom level should be between 0 and 15")
+            Integer z,
+            @Parameter(name = "X Minimum", description = "First tile column, inclusive", example = "10")
+            @PathVariable(value = "xMin")
+            Integer xMin,
+            @Parameter(name = "Y Minimum", description = "First tile row, inclusive", example = "8")
+            @PathVariable(value = "yMin")
+            Integer yMin,
+            @Parameter(name = "X Maximum", description = "Last tile column, inclusive", example = "15")
+            @PathVariable(value = "xMax")
+            Integer xMax,
+            @Parameter(name = "Y Maximum", description = "Last tile row, inclusive", example = "12")
+            @PathVariable(value = "yMax")
+            Integer yMax,
+            @Parameter(name="colormap", description = "Colormap id or keyword, as for the single tile endpoints", example = "pseudocolor")
+            @RequestParam(value = "colormap", required = false)
+            String colormap
+    ) {
+        if (xMax < xMin || yMax < yMin) {
+            throw new InvalidParameterException("The tile range " + xMin + "," + yMin + "," + xMax + "," + yMax + " is empty");
+        }
+        if ((long) (xMax - xMin + 1) * (yMax - yMin + 1) > maxTiles) {
+            throw new InvalidParameterException("A batch holds at most " + maxTiles + " tiles");
+        }
+        List<TileCoordinate> tiles = new ArrayList<>();
+        for (int y = yMin; y <= yMax; y++) {
+            for (int x = xMin; x <= xMax; x++) {
+                tiles.add(new TileCoordinate(z, x, y));
+            }
+        }
+        return stream(layer, tiles, colormap);
+    }
+
+    @Operation(summary = "Get any set of tiles of one layer with a single request")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = BATCH_DESCRIPTION,
+                    content = { @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                            schema = @Schema(implementation = byte[].class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid layer, tile or too many tiles",
+                    content = @Content) })
+    @PostMapping(value = "/{layer}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> getTiles(
+            @Parameter(name = "layer", description = "elevation, slope, tri, tpi, hillshade, aspect, terrain-rgb or terrarium", example = "hillshade")
+            @PathVariable(value = "layer")
+            String layer,
+            @Parameter(name="colormap", description = "Colormap id or keyword, as for the single tile endpoints", example = "pseudocolor")
+            @RequestParam(value = "colormap", required = false)
+            String colormap,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Tiles as `[{\"z\": 5, \"x\": 10, \"y\": 12}, ...]`")
+            @RequestBody
+            List<TileCoordinate> tiles
+    ) {
+        if (tiles.size() > maxTiles) {
+            throw new InvalidParameterException("A batch holds at most " + maxTiles + " tiles");
+        }
+        return stream(layer, List.copyOf(new LinkedHashSet<>(tiles)), colormap);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String layer, List<TileCoordinate> tiles, String colormap) {
+        final TileLayer tileLayer;
+        try {
+            tileLayer = TileLayer.fromPath(layer);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException(e.getMessage());
+        }
+        if (tileLayer == TileLayer.CONTOURS) {
+            throw new InvalidParameterException("Contour tiles are vector tiles, not PNGs, and cannot be batched");
+        }
+        for (TileCoordinate tile : tiles) {
+            if (tile.z() < 0 || tile.z() > 15 || tile.x() < 0 || tile.y() < 0
+                    || tile.x() >= 1 << tile.z() || tile.y() >= 1 << tile.z()) {
+                throw new InvalidParameterException("Tile " + tile.z() + "/" + tile.x() + "/" + tile.y() + " is out of range");
+            }
+        }
+        final Colormap cr = colormapRegistry.resolve(tileLayer, colormap);
+        return ResponseEntity.ok().body(out -> {
+            TileBatchWriter.writeHeader(tiles.size(), out);
+            out.flush();
+            try {
+                tileService.getPngs(tileLayer, tiles, cr, (tile, png) -> {
+                    try {
+                        TileBatchWriter.writeTile(tile, png, out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        });
+    }
+}
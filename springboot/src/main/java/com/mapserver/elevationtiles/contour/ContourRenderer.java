@@ -0,0 +1,123 @@
+package com.mapserver.elevationtiles.contour;
+
+import com.mapserver.elevationtiles.raster.ElevationWindow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders the contour lines of a tile as a vector tile. The lines are traced over the tile and its halo, so that they
+ * run on into the buffer around the tile and meet those of the neighbouring tiles, then clipped to the buffer,
+ * simplified and rounded to the tile extent. The points where a line crosses the tile edges survive the
+ * simplification, so that the two tiles sharing an edge agree on them. Each elevation is a feature of the {@code contours} layer, with an
+ * {@code elevation} in meters and an {@code index} flag on every fifth interval.
+ */
+@Component
+public class ContourRenderer {
+
+    public static final String LAYER = "contours";
+    /**
+     * Halo read around the tile; the last pixel of it only bounds the cells of the buffer.
+     */
+    public static final int HALO = 4;
+    public static final int INDEX_EVERY = 5;
+
+    private final double tolerance;
+
+    public ContourRenderer(@Value("${elevationtiles.contours.tolerance:0.5}") double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * The interval between contours at a zoom level, in meters, wider as the tiles cover more relief.
+     */
+    public static int interval(int z) {
+        if (z <= 5) {
+            return 1000;
+        }
+        if (z <= 7) {
+            return 500;
+        }
+        if (z <= 9) {
+            return 200;
+        }
+        return switch (z) {
+            case 10 -> 100;
+            case 11 -> 50;
+            case 12 -> 20;
+            default -> 10;
+        };
+    }
+
+    public byte[] render(ElevationWindow window, int z) {
+        int halo = window.getHalo();
+        int width = window.getWidth() + 2 * halo;
+        int height = window.getHeight() + 2 * halo;
+        float[] values = window.getValues();
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (float value : values) {
+            if (!Float.isNaN(value)) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        VectorTileEncoder encoder = new VectorTileEncoder(LAYER);
+        if (min > max) {
+            return encoder.encode();
+        }
+        double scaleX = (double) VectorTileEncoder.EXTENT / window.getWidth();
+        double scaleY = (double) VectorTileEncoder.EXTENT / window.getHeight();
+        double buffer = Math.max(halo - 1, 0) * scaleX;
+        double simplifyTolerance = tolerance * scaleX;
+        ContourTracer tracer = new ContourTracer(values, width, height);
+        int interval = interval(z);
+        for (long level = (long) Math.ceil(min / interval) * interval; level <= max; level += interval) {
+            List<double[]> lines = tracer.trace(level);
+            for (double[] line : lines) {
+                for (int i = 0; i < line.length; i += 2) {
+                    line[i] = (line[i] - halo + 0.5) * scaleX;
+                    line[i + 1] = (line[i + 1] - halo + 0.5) * scaleY;
+                }
+            }
+            List<int[]> rounded = new ArrayList<>();
+            for (double[] part : LineClipper.clip(lines, -buffer, -buffer,
+                    VectorTileEncoder.EXTENT + buffer, VectorTileEncoder.EXTENT + buffer)) {
+                int[] points = round(LineSimplifier.simplify(part, simplifyTolerance,
+                        0, 0, VectorTileEncoder.EXTENT, VectorTileEncoder.EXTENT));
+                if (points.length >= 4) {
+                    rounded.add(points);
+                }
+            }
+            if (!rounded.isEmpty()) {
+                Map<String, Object> attributes = new LinkedHashMap<>();
+                attributes.put("elevation", level);
+                attributes.put("index", level % ((long) interval * INDEX_EVERY) == 0);
+                encoder.addLines(rounded, attributes);
+            }
+        }
+        return encoder.encode();
+    }
+
+    /**
+     * Rounds the points to the extent grid, dropping those that fall on the previous one.
+     */
+    private static int[] round(double[] line) {
+        int[] points = new int[line.length];
+        int size = 0;
+        for (int i = 0; i < line.length; i += 2) {
+            int x = (int) Math.round(line[i]);
+            int y = (int) Math.round(line[i + 1]);
+            if (size == 0 || x != points[size - 2] || y != points[size - 1]) {
+                points[size++] = x;
+                points[size++] = y;
+            }
+        }
+        return size == points.length ? points : Arrays.copyOf(points, size);
+    }
+}
@@ -0,0 +1,166 @@
+package com.mapserver.elevationtiles.contour;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Traces the isolines of a grid with marching squares. The cells join the centers of four neighbouring pixels, and a
+ * cell with a nodata corner has no line. Saddle cells are resolved with the mean of their corners.
+ * <p>
+ * Every crossing lies on an edge between two pixel centers and is shared by the two cells on either side, so the
+ * segments are chained through their edges into lines, open where they reach the border of the grid or nodata and
+ * closed otherwise. Lines are flat {@code x0, y0, x1, y1, ...} arrays in pixel units, pixel {@code (0, 0)} centered
+ * on {@code (0, 0)}.
+ */
+public final class ContourTracer {
+
+    private static final int NONE = -1;
+    private static final int TOP = 0;
+    private static final int BOTTOM = 1;
+    private static final int LEFT = 2;
+    private static final int RIGHT = 3;
+
+    /**
+     * The pairs of cell edges joined in each of the 16 cases, corners weighted top left 8, top right 4, bottom right
+     * 2 and bottom left 1. Saddles 5 and 10 are listed as if their center were low.
+     */
+    private static final int[][] SEGMENTS = {
+            {}, {LEFT, BOTTOM}, {BOTTOM, RIGHT}, {LEFT, RIGHT},
+            {TOP, RIGHT}, {TOP, RIGHT, LEFT, BOTTOM}, {TOP, BOTTOM}, {LEFT, TOP},
+            {LEFT, TOP}, {TOP, BOTTOM}, {LEFT, TOP, BOTTOM, RIGHT}, {TOP, RIGHT},
+            {LEFT, RIGHT}, {BOTTOM, RIGHT}, {LEFT, BOTTOM}, {}
+    };
+
+    private final float[] values;
+    private final int width;
+    private final int height;
+    private final int[] first;
+    private final int[] second;
+    private final int[] touched;
+    private int touchedCount;
+
+    /**
+     * A tracer of the row-major grid, reused for every level.
+     */
+    public ContourTracer(float[] values, int width, int height) {
+        this.values = values;
+        this.width = width;
+        this.height = height;
+        this.first = new int[2 * width * height];
+        this.second = new int[2 * width * height];
+        this.touched = new int[2 * width * height];
+        Arrays.fill(first, NONE);
+        Arrays.fill(second, NONE);
+    }
+
+    public List<double[]> trace(double level) {
+        for (int row = 0; row < height - 1; row++) {
+            for (int column = 0; column < width - 1; column++) {
+                int i = row * width + column;
+                float topLeft = values[i];
+                float topRight = values[i + 1];
+                float bottomRight = values[i + width + 1];
+                float bottomLeft = values[i + width];
+                if (Float.isNaN(topLeft) || Float.isNaN(topRight) || Float.isNaN(bottomRight) || Float.isNaN(bottomLeft)) {
+                    continue;
+                }
+                int index = (topLeft >= level ? 8 : 0) | (topRight >= level ? 4 : 0)
+                        | (bottomRight >= level ? 2 : 0) | (bottomLeft >= level ? 1 : 0);
+                int[] segments = SEGMENTS[index];
+                if ((index == 5 || index == 10) && (topLeft + topRight + bottomRight + bottomLeft) / 4 >= level) {
+                    segments = SEGMENTS[index == 5 ? 10 : 5];
+                }
+                for (int s = 0; s < segments.length; s += 2) {
+                    link(edge(column, row, segments[s]), edge(column, row, segments[s + 1]));
+                }
+            }
+        }
+        List<double[]> lines = new ArrayList<>();
+        for (int t = 0; t < touchedCount; t++) {
+            int edge = touched[t];
+            if (second[edge] == NONE && first[edge] != NONE) {
+                lines.add(walk(edge, level));
+            }
+        }
+        for (int t = 0; t < touchedCount; t++) {
+            int edge = touched[t];
+            if (first[edge] != NONE) {
+                lines.add(walk(edge, level));
+            }
+        }
+        touchedCount = 0;
+        return lines;
+    }
+
+    /**
+     * Follows the segments from {@code start}, unlinking them, until the line ends or comes back to its start.
+     */
+    private double[] walk(int start, double level) {
+        DoubleList line = new DoubleList();
+        point(start, level, line);
+        int current = start;
+        while (first[current] != NONE) {
+            int next = first[current];
+            unlink(current, next);
+            point(next, level, line);
+            current = next;
+        }
+        return line.toArray();
+    }
+
+    private void link(int a, int b) {
+        attach(a, b);
+        attach(b, a);
+    }
+
+    private void attach(int edge, int other) {
+        if (first[edge] == NONE) {
+            first[edge] = other;
+            touched[touchedCount++] = edge;
+        } else {
+            second[edge] = other;
+        }
+    }
+
+    private void unlink(int a, int b) {
+        detach(a, b);
+        detach(b, a);
+    }
+
+    private void detach(int edge, int other) {
+        if (first[edge] == other) {
+            first[edge] = second[edge];
+        }
+        second[edge] = NONE;
+    }
+
+    /**
+     * Horizontal edges from pixel {@code (column, row)} to its right neighbour are even, vertical ones to the
+     * neighbour below are odd.
+     */
+    private int edge(int column, int row, int side) {
+        return switch (side) {
+            case TOP -> 2 * (row * width + column);
+            case BOTTOM -> 2 * ((row + 1) * width + column);
+            case LEFT -> 2 * (row * width + column) + 1;
+            default -> 2 * (row * width + column + 1) + 1;
+        };
+    }
+
+    private void point(int edge, double level, DoubleList line) {
+        int pixel = edge / 2;
+        int column = pixel % width;
+        int row = pixel / width;
+        float from = values[pixel];
+        if (edge % 2 == 0) {
+            float to = values[pixel + 1];
+            line.add(column + (level - from) / (to - from));
+            line.add(row);
+        } else {
+            float to = values[pixel + width];
+            line.add(column);
+            line.add(row + (level - from) / (to - from));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.mapserver.elevationtiles.contour;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of coordinates.
+ */
+final class DoubleList {
+
+    private double[] values = new double[32];
+    private int size;
+
+    void add(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    double get(int index) {
+        return values[index];
+    }
+
+    double[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
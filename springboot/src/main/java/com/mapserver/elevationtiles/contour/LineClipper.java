@@ -0,0 +1,92 @@
+package com.mapserver.elevationtiles.contour;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clips flat {@code x0, y0, x1, y1, ...} lines to a rectangle, segment by segment (Liang-Barsky). A line leaving
+ * and re-entering the rectangle is split into parts.
+ */
+public final class LineClipper {
+
+    private static final int OUTSIDE = -1;
+    private static final int ENTERS = 1;
+    private static final int LEAVES = 2;
+
+    private LineClipper() {
+    }
+
+    public static List<double[]> clip(List<double[]> lines, double minX, double minY, double maxX, double maxY) {
+        List<double[]> parts = new ArrayList<>();
+        double[] segment = new double[4];
+        for (double[] line : lines) {
+            DoubleList part = new DoubleList();
+            for (int i = 0; i + 3 < line.length; i += 2) {
+                segment[0] = line[i];
+                segment[1] = line[i + 1];
+                segment[2] = line[i + 2];
+                segment[3] = line[i + 3];
+                int clipped = clip(segment, minX, minY, maxX, maxY);
+                if (clipped == OUTSIDE) {
+                    part = flush(part, parts);
+                    continue;
+                }
+                if ((clipped & ENTERS) != 0 || part.size() == 0) {
+                    part = flush(part, parts);
+                    part.add(segment[0]);
+                    part.add(segment[1]);
+                }
+                part.add(segment[2]);
+                part.add(segment[3]);
+                if ((clipped & LEAVES) != 0) {
+                    part = flush(part, parts);
+                }
+            }
+            flush(part, parts);
+        }
+        return parts;
+    }
+
+    /**
+     * Clips the segment in place, telling whether it is outside or whether its start or end were moved.
+     */
+    private static int clip(double[] segment, double minX, double minY, double maxX, double maxY) {
+        double x0 = segment[0];
+        double y0 = segment[1];
+        double dx = segment[2] - x0;
+        double dy = segment[3] - y0;
+        double[] p = {-dx, dx, -dy, dy};
+        double[] q = {x0 - minX, maxX - x0, y0 - minY, maxY - y0};
+        double t0 = 0;
+        double t1 = 1;
+        for (int i = 0; i < 4; i++) {
+            if (p[i] == 0) {
+                if (q[i] < 0) {
+                    return OUTSIDE;
+                }
+            } else {
+                double t = q[i] / p[i];
+                if (p[i] < 0) {
+                    t0 = Math.max(t0, t);
+                } else {
+                    t1 = Math.min(t1, t);
+                }
+            }
+        }
+        if (t0 > t1) {
+            return OUTSIDE;
+        }
+        segment[0] = x0 + t0 * dx;
+        segment[1] = y0 + t0 * dy;
+        segment[2] = x0 + t1 * dx;
+        segment[3] = y0 + t1 * dy;
+        return (t0 > 0 ? ENTERS : 0) | (t1 < 1 ? LEAVES : 0);
+    }
+
+    private static DoubleList flush(DoubleList part, List<double[]> parts) {
+        if (part.size() >= 4) {
+            parts.add(part.toArray());
+        }
+        return part.size() == 0 ? part : new DoubleList();
+    }
+}
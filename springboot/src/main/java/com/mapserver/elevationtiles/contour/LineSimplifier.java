@@ -0,0 +1,145 @@
+package com.mapserver.elevationtiles.contour;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Douglas-Peucker simplification of flat {@code x0, y0, x1, y1, ...} lines, keeping their ends.
+ */
+public final class LineSimplifier {
+
+    private LineSimplifier() {
+    }
+
+    /**
+     * Drops the points closer than {@code tolerance} to the simplified line.
+     */
+    public static double[] simplify(double[] line, double tolerance) {
+        int points = line.length / 2;
+        if (points <= 2) {
+            return line;
+        }
+        BitSet anchors = new BitSet(points);
+        anchors.set(0);
+        anchors.set(points - 1);
+        return simplify(line, anchors, tolerance);
+    }
+
+    /**
+     * Simplifies the line piece by piece between the points where it crosses the edges of the rectangle, which are
+     * added to the line and kept. Lines crossing an edge that two rectangles share then meet exactly on it, however
+     * differently the rest of them is simplified.
+     */
+    public static double[] simplify(double[] line, double tolerance, double minX, double minY, double maxX,
+                                    double maxY) {
+        if (line.length <= 4) {
+            return line;
+        }
+        DoubleList split = new DoubleList();
+        BitSet anchors = new BitSet();
+        double[] crossings = new double[4];
+        split.add(line[0]);
+        split.add(line[1]);
+        anchors.set(0);
+        for (int i = 2; i < line.length; i += 2) {
+            double x0 = line[i - 2];
+            double y0 = line[i - 1];
+            double x1 = line[i];
+            double y1 = line[i + 1];
+            int count = 0;
+            count = crossing(x0, x1, minX, crossings, count);
+            count = crossing(x0, x1, maxX, crossings, count);
+            count = crossing(y0, y1, minY, crossings, count);
+            count = crossing(y0, y1, maxY, crossings, count);
+            Arrays.sort(crossings, 0, count);
+            for (int k = 0; k < count; k++) {
+                anchors.set(split.size() / 2);
+                split.add(x0 + crossings[k] * (x1 - x0));
+                split.add(y0 + crossings[k] * (y1 - y0));
+            }
+            if (x1 == minX || x1 == maxX || y1 == minY || y1 == maxY) {
+                anchors.set(split.size() / 2);
+            }
+            split.add(x1);
+            split.add(y1);
+        }
+        anchors.set(split.size() / 2 - 1);
+        return simplify(split.toArray(), anchors, tolerance);
+    }
+
+    /**
+     * Keeps the anchors, and between every two consecutive ones the points farther than {@code tolerance} from the
+     * simplified line.
+     */
+    private static double[] simplify(double[] line, BitSet anchors, double tolerance) {
+        int points = line.length / 2;
+        boolean[] kept = new boolean[points];
+        int[] stack = new int[2 * points];
+        int top = 0;
+        for (int first = anchors.nextSetBit(0), last; (last = anchors.nextSetBit(first + 1)) >= 0; first = last) {
+            kept[first] = true;
+            kept[last] = true;
+            stack[top++] = first;
+            stack[top++] = last;
+        }
+        double squaredTolerance = tolerance * tolerance;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            int farthest = -1;
+            double max = squaredTolerance;
+            for (int i = first + 1; i < last; i++) {
+                double distance = squaredDistance(line, i, first, last);
+                if (distance > max) {
+                    max = distance;
+                    farthest = i;
+                }
+            }
+            if (farthest >= 0) {
+                kept[farthest] = true;
+                stack[top++] = first;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = last;
+            }
+        }
+        DoubleList simplified = new DoubleList();
+        for (int i = 0; i < points; i++) {
+            if (kept[i]) {
+                simplified.add(line[2 * i]);
+                simplified.add(line[2 * i + 1]);
+            }
+        }
+        return simplified.toArray();
+    }
+
+    /**
+     * Adds the position along the segment from {@code from} to {@code to} where it crosses {@code edge}, when it
+     * does strictly between its ends.
+     */
+    private static int crossing(double from, double to, double edge, double[] crossings, int count) {
+        if ((from < edge && to > edge) || (from > edge && to < edge)) {
+            crossings[count++] = (edge - from) / (to - from);
+        }
+        return count;
+    }
+
+    /**
+     * Squared distance from point {@code i} to the segment from point {@code first} to point {@code last}.
+     */
+    private static double squaredDistance(double[] line, int i, int first, int last) {
+        double x = line[2 * first];
+        double y = line[2 * first + 1];
+        double dx = line[2 * last] - x;
+        double dy = line[2 * last + 1] - y;
+        double px = line[2 * i] - x;
+        double py = line[2 * i + 1] - y;
+        double length = dx * dx + dy * dy;
+        if (length > 0) {
+            double t = Math.max(0, Math.min(1, (px * dx + py * dy) / length));
+            px -= t * dx;
+            py -= t * dy;
+        }
+        return px * px + py * py;
+    }
+}
@@ -0,0 +1,149 @@
+package com.mapserver.elevationtiles.contour;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes a Mapbox Vector Tile (version 2) of a single layer of line features, writing the protobuf messages by
+ * hand. Coordinates are integers of the tile extent, {@code (0, 0)} at the upper left corner.
+ */
+public final class VectorTileEncoder {
+
+    public static final int EXTENT = 4096;
+    public static final String MEDIA_TYPE = "application/vnd.mapbox-vector-tile";
+
+    private static final int VERSION = 2;
+    private static final int LINESTRING = 2;
+    private static final int MOVE_TO = 1;
+    private static final int LINE_TO = 2;
+
+    private final String layer;
+    private final Map<String, Integer> keys = new LinkedHashMap<>();
+    private final Map<Object, Integer> values = new LinkedHashMap<>();
+    private final List<byte[]> features = new ArrayList<>();
+
+    public VectorTileEncoder(String layer) {
+        this.layer = layer;
+    }
+
+    public boolean isEmpty() {
+        return features.isEmpty();
+    }
+
+    /**
+     * Adds a line feature, several lines making a multi line. Each line is a flat {@code x0, y0, x1, y1, ...} array
+     * of at least two points; the attribute values are strings, booleans, integers or doubles.
+     */
+    public void addLines(List<int[]> lines, Map<String, ?> attributes) {
+        Protobuf tags = new Protobuf();
+        attributes.forEach((key, value) -> {
+            tags.varint(keys.computeIfAbsent(key, k -> keys.size()));
+            tags.varint(values.computeIfAbsent(value instanceof Integer integer ? Long.valueOf(integer) : value,
+                    v -> values.size()));
+        });
+        Protobuf geometry = new Protobuf();
+        int x = 0;
+        int y = 0;
+        for (int[] line : lines) {
+            geometry.varint(command(MOVE_TO, 1));
+            geometry.varint(zigzag(line[0] - x));
+            geometry.varint(zigzag(line[1] - y));
+            geometry.varint(command(LINE_TO, line.length / 2 - 1));
+            for (int i = 2; i < line.length; i += 2) {
+                geometry.varint(zigzag(line[i] - line[i - 2]));
+                geometry.varint(zigzag(line[i + 1] - line[i - 1]));
+            }
+            x = line[line.length - 2];
+            y = line[line.length - 1];
+        }
+        Protobuf feature = new Protobuf();
+        feature.tag(1, 0).varint(features.size() + 1);
+        feature.bytes(2, tags.toByteArray());
+        feature.tag(3, 0).varint(LINESTRING);
+        feature.bytes(4, geometry.toByteArray());
+        features.add(feature.toByteArray());
+    }
+
+    /**
+     * The tile, empty when it has no feature.
+     */
+    public byte[] encode() {
+        if (features.isEmpty()) {
+            return new byte[0];
+        }
+        Protobuf message = new Protobuf();
+        message.tag(15, 0).varint(VERSION);
+        message.string(1, layer);
+        features.forEach(feature -> message.bytes(2, feature));
+        keys.keySet().forEach(key -> message.string(3, key));
+        values.keySet().forEach(value -> message.bytes(4, value(value)));
+        message.tag(5, 0).varint(EXTENT);
+        return new Protobuf().bytes(3, message.toByteArray()).toByteArray();
+    }
+
+    private static byte[] value(Object value) {
+        Protobuf message = new Protobuf();
+        switch (value) {
+            case String string -> message.string(1, string);
+            case Double number -> message.tag(3, 1).fixed64(Double.doubleToLongBits(number));
+            case Long number -> message.tag(6, 0).varint(zigzag(number));
+            case Boolean bool -> message.tag(7, 0).varint(bool ? 1 : 0);
+            default -> throw new IllegalArgumentException("Unsupported attribute value " + value);
+        }
+        return message.toByteArray();
+    }
+
+    private static int command(int id, int count) {
+        return (id & 0x7) | (count << 3);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * The few protobuf encodings the tile needs.
+     */
+    private static final class Protobuf {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Protobuf tag(int field, int wireType) {
+            return varint((long) field << 3 | wireType);
+        }
+
+        Protobuf varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write((int) value);
+            return this;
+        }
+
+        Protobuf fixed64(long value) {
+            for (int i = 0; i < 8; i++) {
+                out.write((int) (value >>> (8 * i)));
+            }
+            return this;
+        }
+
+        Protobuf bytes(int field, byte[] bytes) {
+            tag(field, 2).varint(bytes.length);
+            out.writeBytes(bytes);
+            return this;
+        }
+
+        Protobuf string(int field, String string) {
+            return bytes(field, string.getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.mapserver.elevationtiles.datasource;
+
+public enum Balancing {
+    /**
+     * Picks the replica with the fewest connections in use.
+     */
+    LEAST_OUTSTANDING,
+    /**
+     * Picks the replica with the lowest expected wait: connections in use, plus one, times the recent average
+     * time a connection is held.
+     */
+    LATENCY
+}
@@ -0,0 +1,104 @@
+package com.mapserver.elevationtiles.datasource;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A read replica with its load and circuit breaker state.
+ * <p>
+ * The circuit opens after {@code failureThreshold} consecutive failures and stays open for the configured
+ * period. Once that has passed the replica is half open: it is offered one connection at a time, a success closes
+ * the circuit and a failure opens it for another period.
+ */
+public class Replica {
+
+    private static final double LATENCY_WEIGHT = 0.2;
+
+    private final String name;
+    private final DataSource dataSource;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong averageLatencyNanos = new AtomicLong();
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long openUntilNanos;
+    private volatile boolean open;
+
+    public Replica(String name, DataSource dataSource, int failureThreshold, long openNanos) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isAvailable(long now) {
+        return !open || now - openUntilNanos >= 0 && outstanding.get() == 0;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public double getAverageLatencyMillis() {
+        return averageLatencyNanos.get() / 1e6;
+    }
+
+    public long getServed() {
+        return served.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Expected wait of one more connection, used by {@link Balancing#LATENCY}. Replicas that have not served
+     * anything yet score zero so that they are tried.
+     */
+    double expectedWait() {
+        return (outstanding.get() + 1) * (double) averageLatencyNanos.get();
+    }
+
+    void started() {
+        outstanding.incrementAndGet();
+    }
+
+    void finished(long nanos) {
+        outstanding.decrementAndGet();
+        served.incrementAndGet();
+        averageLatencyNanos.accumulateAndGet(nanos, (average, sample) ->
+                average == 0 ? sample : (long) (average + LATENCY_WEIGHT * (sample - average)));
+    }
+
+    void abandoned() {
+        outstanding.decrementAndGet();
+    }
+
+    void succeeded() {
+        consecutiveFailures.set(0);
+        open = false;
+    }
+
+    void failed(long now) {
+        failures.incrementAndGet();
+        if (open || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openUntilNanos = now + openNanos;
+            open = true;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.mapserver.elevationtiles.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaces the auto-configured data source with one that routes reads to the replicas, when any is configured.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "elevationtiles.datasource", name = "replicas[0].url")
+public class ReplicaDataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties dataSourceProperties,
+                                                             ReplicaProperties properties) {
+        List<Replica> replicas = new ArrayList<>();
+        for (ReplicaProperties.Endpoint endpoint : properties.getReplicas()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + replicas.size());
+            dataSource.setJdbcUrl(endpoint.getUrl());
+            dataSource.setUsername(endpoint.getUsername() != null
+                    ? endpoint.getUsername() : dataSourceProperties.determineUsername());
+            dataSource.setPassword(endpoint.getPassword() != null
+                    ? endpoint.getPassword() : dataSourceProperties.determinePassword());
+            dataSource.setMaximumPoolSize(endpoint.getMaximumPoolSize() != null
+                    ? endpoint.getMaximumPoolSize() : primaryDataSource.getMaximumPoolSize());
+            dataSource.setConnectionTimeout(properties.getConnectionTimeoutMs());
+            dataSource.setReadOnly(true);
+            replicas.add(new Replica(endpoint.getUrl().split("\\?")[0], dataSource, properties.getFailureThreshold(),
+                    TimeUnit.MILLISECONDS.toNanos(properties.getOpenMs())));
+        }
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                properties.getBalancing(), properties.isFallbackToPrimary());
+        routing.startHealthChecks(properties.getHealthCheckIntervalMs(), properties.getHealthCheckTimeoutSeconds());
+        return routing;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
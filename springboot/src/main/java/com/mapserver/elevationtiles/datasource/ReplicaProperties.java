@@ -0,0 +1,154 @@
+package com.mapserver.elevationtiles.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas for the read-only tile and statistics queries. The primary stays {@code spring.datasource}:
+ * <pre>
+ * elevationtiles.datasource.replicas[0].url: jdbc:postgresql://replica-1:5432/postgres
+ * elevationtiles.datasource.replicas[1].url: jdbc:postgresql://replica-2:5432/postgres
+ * elevationtiles.datasource.balancing: latency
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "elevationtiles.datasource")
+public class ReplicaProperties {
+
+    private List<Endpoint> replicas = new ArrayList<>();
+    private Balancing balancing = Balancing.LEAST_OUTSTANDING;
+    /**
+     * Consecutive failures that open the circuit of a replica.
+     */
+    private int failureThreshold = 3;
+    /**
+     * How long an open circuit keeps traffic away from a replica before it is tried again.
+     */
+    private long openMs = 30000;
+    private long healthCheckIntervalMs = 2000;
+    private int healthCheckTimeoutSeconds = 1;
+    /**
+     * How long a request waits for a connection of a replica before it counts as a failure and the next replica
+     * is tried.
+     */
+    private long connectionTimeoutMs = 2000;
+    /**
+     * Serves reads from the primary when no replica is available, instead of failing them.
+     */
+    private boolean fallbackToPrimary = true;
+
+    public List<Endpoint> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Endpoint> replicas) {
+        this.replicas = replicas;
+    }
+
+    public Balancing getBalancing() {
+        return balancing;
+    }
+
+    public void setBalancing(Balancing balancing) {
+        this.balancing = balancing;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    public long getOpenMs() {
+        return openMs;
+    }
+
+    public void setOpenMs(long openMs) {
+        this.openMs = openMs;
+    }
+
+    public long getHealthCheckIntervalMs() {
+        return healthCheckIntervalMs;
+    }
+
+    public void setHealthCheckIntervalMs(long healthCheckIntervalMs) {
+        this.healthCheckIntervalMs = healthCheckIntervalMs;
+    }
+
+    public int getHealthCheckTimeoutSeconds() {
+        return healthCheckTimeoutSeconds;
+    }
+
+    public void setHealthCheckTimeoutSeconds(int healthCheckTimeoutSeconds) {
+        this.healthCheckTimeoutSeconds = healthCheckTimeoutSeconds;
+    }
+
+    public long getConnectionTimeoutMs() {
+        return connectionTimeoutMs;
+    }
+
+    public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+        this.connectionTimeoutMs = connectionTimeoutMs;
+    }
+
+    public boolean isFallbackToPrimary() {
+        return fallbackToPrimary;
+    }
+
+    public void setFallbackToPrimary(boolean fallbackToPrimary) {
+        this.fallbackToPrimary = fallbackToPrimary;
+    }
+
+    public static class Endpoint {
+        private String url;
+        /**
+         * Defaults to {@code spring.datasource.username}.
+         */
+        private String username;
+        /**
+         * Defaults to {@code spring.datasource.password}.
+         */
+        private String password;
+        /**
+         * Defaults to {@code spring.datasource.hikari.maximum-pool-size}.
+         */
+        private Integer maximumPoolSize;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public Integer getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(Integer maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+    }
+}
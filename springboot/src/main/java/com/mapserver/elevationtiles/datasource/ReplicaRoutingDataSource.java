@@ -0,0 +1,215 @@
+package com.mapserver.elevationtiles.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends connections for read-only transactions to the read replicas and everything else to the primary.
+ * <p>
+ * The routing decision is taken when the connection is requested, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction manager asks for the
+ * connection before it marks the transaction read-only, and the proxy delays the request until the first statement.
+ * <p>
+ * A replica that fails to hand out a connection is skipped for the rest of the request and counts towards its
+ * circuit breaker. When no replica is available, reads fall back to the primary unless that is disabled.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Balancing balancing;
+    private final boolean fallbackToPrimary;
+    private final AtomicInteger rotation = new AtomicInteger();
+    private final AtomicLong primaryReads = new AtomicLong();
+    private ScheduledExecutorService healthChecks;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, Balancing balancing,
+                                    boolean fallbackToPrimary) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.balancing = balancing;
+        this.fallbackToPrimary = fallbackToPrimary;
+    }
+
+    /**
+     * Validates a connection of every replica at a fixed rate. A failed check counts like a failed request, a
+     * successful one closes the circuit.
+     */
+    public void startHealthChecks(long intervalMillis, int timeoutSeconds) {
+        healthChecks = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("replica-health")::unstarted);
+        healthChecks.scheduleWithFixedDelay(() -> replicas.forEach(replica -> check(replica, timeoutSeconds)),
+                intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public Balancing getBalancing() {
+        return balancing;
+    }
+
+    public long getPrimaryReads() {
+        return primaryReads.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection();
+        }
+        return getReadConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection(username, password);
+        }
+        return getReadConnection();
+    }
+
+    @Override
+    public void close() {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    LOGGER.warn("Could not close replica {}", replica.getName(), e);
+                }
+            }
+        }
+    }
+
+    private Connection getReadConnection() throws SQLException {
+        List<Replica> skipped = new ArrayList<>();
+        SQLException failure = null;
+        Replica replica;
+        while ((replica = choose(skipped)) != null) {
+            replica.started();
+            long start = System.nanoTime();
+            try {
+                return track(replica, replica.getDataSource().getConnection(), start);
+            } catch (SQLException | RuntimeException e) {
+                replica.abandoned();
+                replica.failed(System.nanoTime());
+                skipped.add(replica);
+                LOGGER.warn("Replica {} did not hand out a connection: {}", replica.getName(), e.getMessage());
+                SQLException exception = e instanceof SQLException sqlException ? sqlException : new SQLException(e);
+                if (failure == null) {
+                    failure = exception;
+                } else {
+                    failure.addSuppressed(exception);
+                }
+            }
+        }
+        if (fallbackToPrimary) {
+            primaryReads.incrementAndGet();
+            return primary.getConnection();
+        }
+        throw failure != null ? failure : new SQLException("No read replica is available");
+    }
+
+    private Replica choose(List<Replica> skipped) {
+        long now = System.nanoTime();
+        int size = replicas.size();
+        int offset = Math.floorMod(rotation.getAndIncrement(), Math.max(size, 1));
+        Replica best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((offset + i) % size);
+            if (!replica.isAvailable(now) || skipped.contains(replica)) {
+                continue;
+            }
+            double score = balancing == Balancing.LATENCY ? replica.expectedWait() : replica.getOutstanding();
+            if (score < bestScore) {
+                best = replica;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Wraps the connection so that closing it releases the replica and records how long it was held.
+     */
+    private Connection track(Replica replica, Connection target, long start) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "unwrap":
+                            if (((Class<?>) args[0]).isInstance(proxy)) {
+                                return proxy;
+                            }
+                            break;
+                        case "isWrapperFor":
+                            if (((Class<?>) args[0]).isInstance(proxy)) {
+                                return true;
+                            }
+                            break;
+                        case "close":
+                            if (closed.compareAndSet(false, true)) {
+                                try {
+                                    target.close();
+                                } finally {
+                                    replica.finished(System.nanoTime() - start);
+                                    replica.succeeded();
+                                }
+                            }
+                            return null;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    private void check(Replica replica, int timeoutSeconds) {
+        try (Connection connection = replica.getDataSource().getConnection()) {
+            if (connection.isValid(timeoutSeconds)) {
+                if (replica.isOpen()) {
+                    LOGGER.info("Replica {} is healthy again", replica.getName());
+                }
+                replica.succeeded();
+                return;
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.debug("Health check of replica {} failed", replica.getName(), e);
+        }
+        if (!replica.isOpen()) {
+            LOGGER.warn("Health check of replica {} failed", replica.getName());
+        }
+        replica.failed(System.nanoTime());
+    }
+}
@@ -16,6 +16,8 @@ public class ElevationTilesProd {
     private int x;
     @Column
     private int y;
+    @Column(name = "tile_key")
+    private long tileKey;
 
     public int getRid() {
         return rid;
@@ -53,6 +55,18 @@ public class ElevationTilesProd {
         return this;
     }
 
+    /**
+     * The {@link QuadKey} of the tile.
+     */
+    public long getTileKey() {
+        return tileKey;
+    }
+
+    public ElevationTilesProd setTileKey(long tileKey) {
+        this.tileKey = tileKey;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ElevationTilesProd{" +
@@ -60,6 +74,7 @@ public class ElevationTilesProd {
                 ", z=" + z +
                 ", x=" + x +
                 ", y=" + y +
+                ", tileKey=" + tileKey +
                 '}';
     }
 }
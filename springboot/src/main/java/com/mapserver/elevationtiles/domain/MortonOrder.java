@@ -0,0 +1,99 @@
+package com.mapserver.elevationtiles.domain;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Z-order of the tiles of a zoom level: the bits of x and y interleaved, x in the even bits. Tiles that are close in
+ * this order are close on the map, and every quadtree node covers one contiguous run of codes.
+ */
+public final class MortonOrder {
+
+    private MortonOrder() {
+    }
+
+    public static long encode(int x, int y) {
+        return spread(x) | spread(y) << 1;
+    }
+
+    public static int decodeX(long code) {
+        return compact(code);
+    }
+
+    public static int decodeY(long code) {
+        return compact(code >>> 1);
+    }
+
+    /**
+     * Walks the tiles of the range with a code of at least {@code from} in Morton order, descending the quadtree so
+     * that quadrants outside the range or before {@code from} are skipped whole.
+     */
+    public static Iterator<TileCoordinate> iterator(TileRange range, long from) {
+        return new Iterator<>() {
+            private final Deque<int[]> quadrants = new ArrayDeque<>(List.<int[]>of(new int[]{0, 0, 0}));
+            private TileCoordinate next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public TileCoordinate next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                TileCoordinate tile = next;
+                next = advance();
+                return tile;
+            }
+
+            private TileCoordinate advance() {
+                int z = range.z();
+                while (!quadrants.isEmpty()) {
+                    int[] quadrant = quadrants.pop();
+                    int depth = quadrant[0];
+                    int shift = z - depth;
+                    int x0 = quadrant[1] << shift;
+                    int y0 = quadrant[2] << shift;
+                    int x1 = x0 + (1 << shift) - 1;
+                    int y1 = y0 + (1 << shift) - 1;
+                    long last = encode(x1, y1);
+                    if (!range.intersects(x0, y0, x1, y1) || last < from) {
+                        continue;
+                    }
+                    if (depth == z) {
+                        return new TileCoordinate(z, x0, y0);
+                    }
+                    for (int child = 3; child >= 0; child--) {
+                        quadrants.push(new int[]{depth + 1, quadrant[1] << 1 | child & 1, quadrant[2] << 1 | child >> 1});
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    private static long spread(int value) {
+        long bits = value & 0xFFFFFFFFL;
+        bits = (bits | bits << 16) & 0x0000FFFF0000FFFFL;
+        bits = (bits | bits << 8) & 0x00FF00FF00FF00FFL;
+        bits = (bits | bits << 4) & 0x0F0F0F0F0F0F0F0FL;
+        bits = (bits | bits << 2) & 0x3333333333333333L;
+        bits = (bits | bits << 1) & 0x5555555555555555L;
+        return bits;
+    }
+
+    private static int compact(long code) {
+        long bits = code & 0x5555555555555555L;
+        bits = (bits | bits >>> 1) & 0x3333333333333333L;
+        bits = (bits | bits >>> 2) & 0x0F0F0F0F0F0F0F0FL;
+        bits = (bits | bits >>> 4) & 0x00FF00FF00FF00FFL;
+        bits = (bits | bits >>> 8) & 0x0000FFFF0000FFFFL;
+        bits = (bits | bits >>> 16) & 0x00000000FFFFFFFFL;
+        return (int) bits;
+    }
+}
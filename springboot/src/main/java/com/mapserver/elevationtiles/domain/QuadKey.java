@@ -0,0 +1,119 @@
+package com.mapserver.elevationtiles.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The 64-bit key of a tile, {@code tile_key} in the database: the zoom level in the top bits and the Morton code
+ * of the tile below them. Every zoom level is one contiguous run of keys in Morton order, so that the descendants
+ * of a tile at a given zoom level are a single range of keys, and a rectangle of tiles a few ranges.
+ * <p>
+ * Must match the {@code tile_key(z, x, y)} function of the database.
+ */
+public final class QuadKey {
+
+    public static final int MAX_ZOOM = 29;
+
+    private static final int ZOOM_SHIFT = 58;
+    private static final long CODE_MASK = (1L << ZOOM_SHIFT) - 1;
+
+    private QuadKey() {
+    }
+
+    public static long encode(int z, int x, int y) {
+        return (long) z << ZOOM_SHIFT | MortonOrder.encode(x, y);
+    }
+
+    public static long encode(TileCoordinate tile) {
+        return encode(tile.z(), tile.x(), tile.y());
+    }
+
+    public static TileCoordinate decode(long key) {
+        long code = key & CODE_MASK;
+        return new TileCoordinate(zoom(key), MortonOrder.decodeX(code), MortonOrder.decodeY(code));
+    }
+
+    public static int zoom(long key) {
+        return (int) (key >>> ZOOM_SHIFT);
+    }
+
+    public static long parent(long key) {
+        int z = zoom(key);
+        if (z == 0) {
+            throw new IllegalArgumentException("The tile of zoom level 0 has no parent");
+        }
+        return (long) (z - 1) << ZOOM_SHIFT | (key & CODE_MASK) >>> 2;
+    }
+
+    /**
+     * The first and last keys of the descendants of the tile at zoom level {@code z}, the tile itself when
+     * {@code z} is its own zoom level.
+     */
+    public static long[] descendants(long key, int z) {
+        int depth = z - zoom(key);
+        if (depth < 0 || z > MAX_ZOOM) {
+            throw new IllegalArgumentException("Zoom level " + z + " is not below the tile's zoom level " + zoom(key));
+        }
+        long first = (long) z << ZOOM_SHIFT | (key & CODE_MASK) << 2 * depth;
+        return new long[]{first, first + (1L << 2 * depth) - 1};
+    }
+
+    /**
+     * The first and last keys of the zoom level.
+     */
+    public static long[] zoomLevel(int z) {
+        return descendants(encode(0, 0, 0), z);
+    }
+
+    /**
+     * Covers the tiles of the range with at most {@code maxRanges} ranges of keys, first and last inclusive, in
+     * increasing order. The ranges are exact when that many suffice; otherwise the quadtree is descended less deep
+     * and the ranges also cover tiles around the range, which the caller has to filter out.
+     */
+    public static List<long[]> ranges(TileRange range, int maxRanges) {
+        List<long[]> ranges = rangesToDepth(range, 0);
+        for (int depth = 1; depth <= range.z(); depth++) {
+            List<long[]> deeper = rangesToDepth(range, depth);
+            if (deeper.size() > maxRanges) {
+                break;
+            }
+            ranges = deeper;
+        }
+        return ranges;
+    }
+
+    /**
+     * Descends the quadtree down to {@code depth}, emitting the quadrants inside the range whole, and the quadrants
+     * that only intersect it whole once {@code depth} is reached. Consecutive quadrants are merged.
+     */
+    private static List<long[]> rangesToDepth(TileRange range, int depth) {
+        List<long[]> ranges = new ArrayList<>();
+        collect(range, depth, 0, 0, 0, ranges);
+        return ranges;
+    }
+
+    private static void collect(TileRange range, int maxDepth, int depth, int qx, int qy, List<long[]> ranges) {
+        int shift = range.z() - depth;
+        int x0 = qx << shift;
+        int y0 = qy << shift;
+        int x1 = x0 + (1 << shift) - 1;
+        int y1 = y0 + (1 << shift) - 1;
+        if (!range.intersects(x0, y0, x1, y1)) {
+            return;
+        }
+        boolean inside = range.contains(x0, y0) && range.contains(x1, y1);
+        if (inside || depth == maxDepth) {
+            long[] quadrant = descendants(encode(depth, qx, qy), range.z());
+            long[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last != null && last[1] + 1 == quadrant[0]) {
+                last[1] = quadrant[1];
+            } else {
+                ranges.add(quadrant);
+            }
+            return;
+        }
+        for (int child = 0; child < 4; child++) {
+            collect(range, maxDepth, depth + 1, qx << 1 | child & 1, qy << 1 | child >> 1, ranges);
+        }
+    }
+}
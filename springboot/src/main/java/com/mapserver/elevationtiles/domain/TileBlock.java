@@ -0,0 +1,25 @@
+package com.mapserver.elevationtiles.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A block of {@code size x size} tiles aligned on multiples of the size, clipped to the tiles of the zoom level.
+ */
+public record TileBlock(int z, int x, int y, int size) {
+
+    public static TileBlock containing(TileCoordinate tile, int size) {
+        int clipped = Math.min(size, 1 << tile.z());
+        return new TileBlock(tile.z(), tile.x() - tile.x() % clipped, tile.y() - tile.y() % clipped, clipped);
+    }
+
+    public List<TileCoordinate> tiles() {
+        List<TileCoordinate> tiles = new ArrayList<>(size * size);
+        for (int row = y; row < y + size; row++) {
+            for (int column = x; column < x + size; column++) {
+                tiles.add(new TileCoordinate(z, column, row));
+            }
+        }
+        return tiles;
+    }
+}
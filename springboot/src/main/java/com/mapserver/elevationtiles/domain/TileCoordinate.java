@@ -0,0 +1,19 @@
+package com.mapserver.elevationtiles.domain;
+
+import java.util.Optional;
+
+public record TileCoordinate(int z, int x, int y) {
+
+    /**
+     * Returns the tile {@code dx} columns and {@code dy} rows away, wrapping around the antimeridian.
+     * There is no neighbour beyond the poles.
+     */
+    public Optional<TileCoordinate> neighbour(int dx, int dy) {
+        int tiles = 1 << z;
+        int row = y + dy;
+        if (row < 0 || row >= tiles) {
+            return Optional.empty();
+        }
+        return Optional.of(new TileCoordinate(z, Math.floorMod(x + dx, tiles), row));
+    }
+}
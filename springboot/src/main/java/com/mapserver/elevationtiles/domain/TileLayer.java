@@ -0,0 +1,32 @@
+package com.mapserver.elevationtiles.domain;
+
+public enum TileLayer {
+    ELEVATION("elevation"),
+    SLOPE("slope"),
+    TRI("tri"),
+    TPI("tpi"),
+    HILLSHADE("hillshade"),
+    ASPECT("aspect"),
+    TERRAIN_RGB("terrain-rgb"),
+    TERRARIUM("terrarium"),
+    CONTOURS("contours");
+
+    private final String path;
+
+    TileLayer(String path) {
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public static TileLayer fromPath(String path) {
+        for (TileLayer layer : values()) {
+            if (layer.path.equals(path)) {
+                return layer;
+            }
+        }
+        throw new IllegalArgumentException("Unknown tile layer " + path);
+    }
+}
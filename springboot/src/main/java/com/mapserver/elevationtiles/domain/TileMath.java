@@ -0,0 +1,63 @@
+package com.mapserver.elevationtiles.domain;
+
+/**
+ * Web Mercator (EPSG:3857) tiling: tile columns counted from the antimeridian eastwards, rows from the north.
+ */
+public final class TileMath {
+
+    public static final int SRID = 3857;
+    public static final double ORIGIN_SHIFT = 20037508.342789244;
+    public static final double MAX_LATITUDE = 85.0511287798066;
+
+    private TileMath() {
+    }
+
+    /**
+     * Width and height of the tiles of zoom level {@code z}, in metres.
+     */
+    public static double tileSize(int z) {
+        return 2 * ORIGIN_SHIFT / (1 << z);
+    }
+
+    public static double minX(int z, int x) {
+        return -ORIGIN_SHIFT + x * tileSize(z);
+    }
+
+    public static double maxY(int z, int y) {
+        return ORIGIN_SHIFT - y * tileSize(z);
+    }
+
+    /**
+     * The Web Mercator x of the longitude.
+     */
+    public static double mercatorX(double lon) {
+        return lon * ORIGIN_SHIFT / 180;
+    }
+
+    /**
+     * The Web Mercator y of the latitude, clamped to the latitudes Web Mercator covers.
+     */
+    public static double mercatorY(double lat) {
+        double radians = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, lat)));
+        return Math.log(Math.tan(Math.PI / 4 + radians / 2)) * ORIGIN_SHIFT / Math.PI;
+    }
+
+    /**
+     * The column holding the longitude, clamped to the zoom level.
+     */
+    public static int column(int z, double lon) {
+        return clamp(z, Math.floor((lon + 180) / 360 * (1 << z)));
+    }
+
+    /**
+     * The row holding the latitude, clamped to the zoom level and to the latitudes Web Mercator covers.
+     */
+    public static int row(int z, double lat) {
+        double radians = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, lat)));
+        return clamp(z, Math.floor((1 - Math.log(Math.tan(radians) + 1 / Math.cos(radians)) / Math.PI) / 2 * (1 << z)));
+    }
+
+    private static int clamp(int z, double tile) {
+        return (int) Math.max(0, Math.min((1 << z) - 1, tile));
+    }
+}
@@ -0,0 +1,49 @@
+package com.mapserver.elevationtiles.domain;
+
+/**
+ * The tiles of zoom level {@code z} from ({@code xMin}, {@code yMin}) to ({@code xMax}, {@code yMax}), inclusive.
+ */
+public record TileRange(int z, int xMin, int yMin, int xMax, int yMax) {
+
+    public static TileRange world(int z) {
+        int last = (1 << z) - 1;
+        return new TileRange(z, 0, 0, last, last);
+    }
+
+    /**
+     * Returns the tiles covering a WGS84 envelope in the Web Mercator tiling scheme, rows counted from the north.
+     */
+    public static TileRange ofEnvelope(int z, double lonMin, double latMin, double lonMax, double latMax) {
+        return new TileRange(z, TileMath.column(z, lonMin), TileMath.row(z, latMax),
+                TileMath.column(z, lonMax), TileMath.row(z, latMin));
+    }
+
+    /**
+     * Returns the tiles lying entirely inside a WGS84 envelope, an empty range when there are none.
+     */
+    public static TileRange within(int z, double lonMin, double latMin, double lonMax, double latMax) {
+        double size = TileMath.tileSize(z);
+        int last = (1 << z) - 1;
+        int xMin = (int) Math.max(0, Math.ceil((TileMath.mercatorX(lonMin) + TileMath.ORIGIN_SHIFT) / size));
+        int xMax = (int) Math.min(last, Math.floor((TileMath.mercatorX(lonMax) + TileMath.ORIGIN_SHIFT) / size) - 1);
+        int yMin = (int) Math.max(0, Math.ceil((TileMath.ORIGIN_SHIFT - TileMath.mercatorY(latMax)) / size));
+        int yMax = (int) Math.min(last, Math.floor((TileMath.ORIGIN_SHIFT - TileMath.mercatorY(latMin)) / size) - 1);
+        return new TileRange(z, xMin, yMin, xMax, yMax);
+    }
+
+    public boolean isEmpty() {
+        return xMin > xMax || yMin > yMax;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= xMin && x <= xMax && y >= yMin && y <= yMax;
+    }
+
+    public boolean intersects(int x0, int y0, int x1, int y1) {
+        return x0 <= xMax && x1 >= xMin && y0 <= yMax && y1 >= yMin;
+    }
+
+    public long size() {
+        return isEmpty() ? 0 : (long) (xMax - xMin + 1) * (yMax - yMin + 1);
+    }
+}
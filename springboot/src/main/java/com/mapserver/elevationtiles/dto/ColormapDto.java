@@ -0,0 +1,57 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.mapserver.elevationtiles.colormap.Colormap;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class ColormapDto {
+
+    @Schema(name = "id", description = "Content hash of the colormap, to be used as the colormap parameter of the tile endpoints", example = "3f2a9c01d4e7")
+    private String id;
+    @Schema(name = "name", description = "Name of a bundled colormap", example = "arctic")
+    private String name;
+    @Schema(name = "entries", description = "Number of entries of the colormap", example = "15")
+    private int entries;
+
+    public ColormapDto fromDomainToDto(Colormap colormap) {
+        return new ColormapDto()
+                .setId(colormap.id())
+                .setName(colormap.name())
+                .setEntries(colormap.entries().size());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ColormapDto setId(String id) {
+        this.id = id;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ColormapDto setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public ColormapDto setEntries(int entries) {
+        this.entries = entries;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "ColormapDto{" +
+                "id='" + id + '\'' +
+                ", name='" + name + '\'' +
+                ", entries=" + entries +
+                '}';
+    }
+}
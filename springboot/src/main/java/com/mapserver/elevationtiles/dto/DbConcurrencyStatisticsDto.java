@@ -0,0 +1,109 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.mapserver.elevationtiles.concurrent.DbConcurrencyLimiter;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class DbConcurrencyStatisticsDto {
+
+    @Schema(name = "maxConcurrency", description = "Number of queries allowed to run at once", example = "10")
+    private int maxConcurrency;
+    @Schema(name = "active", description = "Number of queries running", example = "4")
+    private int active;
+    @Schema(name = "waiting", description = "Number of requests queued for the database", example = "0")
+    private int waiting;
+    @Schema(name = "maxQueue", description = "Number of requests allowed to queue before new ones are rejected", example = "200")
+    private int maxQueue;
+    @Schema(name = "acquired", description = "Number of queries admitted", example = "15000")
+    private long acquired;
+    @Schema(name = "rejected", description = "Number of requests rejected with 503", example = "12")
+    private long rejected;
+    @Schema(name = "averageQueryMillis", description = "Recent average time a query held its permit", example = "35.2")
+    private double averageQueryMillis;
+
+    public DbConcurrencyStatisticsDto fromDomainToDto(DbConcurrencyLimiter limiter) {
+        return new DbConcurrencyStatisticsDto()
+                .setMaxConcurrency(limiter.getMaxConcurrency())
+                .setActive(limiter.getActive())
+                .setWaiting(limiter.getWaiting())
+                .setMaxQueue(limiter.getMaxQueue())
+                .setAcquired(limiter.getAcquired())
+                .setRejected(limiter.getRejected())
+                .setAverageQueryMillis(limiter.getAverageHoldMillis());
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public DbConcurrencyStatisticsDto setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public DbConcurrencyStatisticsDto setActive(int active) {
+        this.active = active;
+        return this;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public DbConcurrencyStatisticsDto setWaiting(int waiting) {
+        this.waiting = waiting;
+        return this;
+    }
+
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    public DbConcurrencyStatisticsDto setMaxQueue(int maxQueue) {
+        this.maxQueue = maxQueue;
+        return this;
+    }
+
+    public long getAcquired() {
+        return acquired;
+    }
+
+    public DbConcurrencyStatisticsDto setAcquired(long acquired) {
+        this.acquired = acquired;
+        return this;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public DbConcurrencyStatisticsDto setRejected(long rejected) {
+        this.rejected = rejected;
+        return this;
+    }
+
+    public double getAverageQueryMillis() {
+        return averageQueryMillis;
+    }
+
+    public DbConcurrencyStatisticsDto setAverageQueryMillis(double averageQueryMillis) {
+        this.averageQueryMillis = averageQueryMillis;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "DbConcurrencyStatisticsDto{" +
+                "maxConcurrency=" + maxConcurrency +
+                ", active=" + active +
+                ", waiting=" + waiting +
+                ", maxQueue=" + maxQueue +
+                ", acquired=" + acquired +
+                ", rejected=" + rejected +
+                ", averageQueryMillis=" + averageQueryMillis +
+                '}';
+    }
+}
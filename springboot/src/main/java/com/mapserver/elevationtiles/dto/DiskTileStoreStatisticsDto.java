@@ -0,0 +1,122 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.mapserver.elevationtiles.cache.DiskTileStore;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class DiskTileStoreStatisticsDto {
+
+    @Schema(name = "enabled", description = "Whether the disk tile store is configured", example = "true")
+    private boolean enabled;
+    @Schema(name = "hits", description = "Number of tiles served from disk", example = "900")
+    private long hits;
+    @Schema(name = "misses", description = "Number of tiles not found on disk", example = "100")
+    private long misses;
+    @Schema(name = "evictions", description = "Number of tiles dropped to honour the size cap", example = "10")
+    private long evictions;
+    @Schema(name = "tiles", description = "Number of tiles indexed on disk", example = "90")
+    private long tiles;
+    @Schema(name = "bytes", description = "Bytes written to the segment files", example = "737280")
+    private long bytes;
+    @Schema(name = "segments", description = "Number of segment files", example = "1")
+    private int segments;
+    @Schema(name = "maxBytes", description = "Configured capacity of the store in bytes", example = "10737418240")
+    private long maxBytes;
+
+    public DiskTileStoreStatisticsDto fromDomainToDto(DiskTileStore diskTileStore) {
+        return new DiskTileStoreStatisticsDto()
+                .setEnabled(diskTileStore.isEnabled())
+                .setHits(diskTileStore.getHits())
+                .setMisses(diskTileStore.getMisses())
+                .setEvictions(diskTileStore.getEvictions())
+                .setTiles(diskTileStore.getTiles())
+                .setBytes(diskTileStore.getBytes())
+                .setSegments(diskTileStore.getSegments())
+                .setMaxBytes(diskTileStore.getMaxBytes());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public DiskTileStoreStatisticsDto setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public DiskTileStoreStatisticsDto setHits(long hits) {
+        this.hits = hits;
+        return this;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public DiskTileStoreStatisticsDto setMisses(long misses) {
+        this.misses = misses;
+        return this;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public DiskTileStoreStatisticsDto setEvictions(long evictions) {
+        this.evictions = evictions;
+        return this;
+    }
+
+    public long getTiles() {
+        return tiles;
+    }
+
+    public DiskTileStoreStatisticsDto setTiles(long tiles) {
+        this.tiles = tiles;
+        return this;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public DiskTileStoreStatisticsDto setBytes(long bytes) {
+        this.bytes = bytes;
+        return this;
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    public DiskTileStoreStatisticsDto setSegments(int segments) {
+        this.segments = segments;
+        return this;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public DiskTileStoreStatisticsDto setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "DiskTileStoreStatisticsDto{" +
+                "enabled=" + enabled +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                ", tiles=" + tiles +
+                ", bytes=" + bytes +
+                ", segments=" + segments +
+                ", maxBytes=" + maxBytes +
+                '}';
+    }
+}
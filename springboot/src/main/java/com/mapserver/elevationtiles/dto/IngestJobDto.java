@@ -0,0 +1,241 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.mapserver.elevationtiles.ingest.IngestJob;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public class IngestJobDto {
+
+    @Schema(name = "status", description = "running, completed, cancelled, stopped (by a shutdown, resumed on the next start) or failed", example = "running")
+    private String status;
+    @Schema(name = "resumed", description = "Whether the job was resumed from a checkpoint", example = "false")
+    private boolean resumed;
+    @Schema(name = "source", description = "Directory or listing file the tiles are read from", example = "/data/geotiff")
+    private String source;
+    @Schema(name = "storage", description = "out-db or in-db", example = "out-db")
+    private String storage;
+    @Schema(name = "minZoom", description = "First zoom level ingested", example = "0")
+    private int minZoom;
+    @Schema(name = "maxZoom", description = "Last zoom level ingested", example = "7")
+    private int maxZoom;
+    @Schema(name = "zoom", description = "Zoom level being ingested", example = "7")
+    private int zoom;
+    @Schema(name = "workers", description = "Number of batches loaded in parallel", example = "4")
+    private int workers;
+    @Schema(name = "batchSize", description = "Number of tiles loaded per COPY", example = "256")
+    private int batchSize;
+    @Schema(name = "listed", description = "Number of tiles found in the source for the zoom level being ingested", example = "16384")
+    private long listed;
+    @Schema(name = "loaded", description = "Number of tiles loaded", example = "12412")
+    private long loaded;
+    @Schema(name = "failed", description = "Number of tiles that could not be loaded", example = "0")
+    private long failed;
+    @Schema(name = "retries", description = "Number of batches retried", example = "2")
+    private long retries;
+    @Schema(name = "tilesPerSecond", description = "Throughput since the job started or resumed", example = "812.5")
+    private double tilesPerSecond;
+    @Schema(name = "startedAt", description = "When the job started or resumed", example = "2024-01-01T00:00:00Z")
+    private String startedAt;
+    @Schema(name = "elapsedSeconds", description = "Time since the job started or resumed", example = "15.3")
+    private double elapsedSeconds;
+    @Schema(name = "reports", description = "Completeness of every zoom level ingested", example = "")
+    private List<IngestZoomReportDto> reports;
+
+    public IngestJobDto fromDomainToDto(IngestJob job) {
+        return new IngestJobDto()
+                .setStatus(job.getStatus().name().toLowerCase())
+                .setResumed(job.isResumed())
+                .setSource(job.getSpec().source())
+                .setStorage(job.getSpec().storage().getName())
+                .setMinZoom(job.getSpec().minZoom())
+                .setMaxZoom(job.getSpec().maxZoom())
+                .setZoom(job.getZoom())
+                .setWorkers(job.getSpec().workers())
+                .setBatchSize(job.getSpec().batchSize())
+                .setListed(job.getListed())
+                .setLoaded(job.getLoaded())
+                .setFailed(job.getFailed())
+                .setRetries(job.getRetries())
+                .setTilesPerSecond(job.getTilesPerSecond())
+                .setStartedAt(job.getStartedAt().toString())
+                .setElapsedSeconds(job.getElapsedSeconds())
+                .setReports(job.getReports().stream().map(report -> new IngestZoomReportDto().fromDomainToDto(report)).toList());
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public IngestJobDto setStatus(String status) {
+        this.status = status;
+        return this;
+    }
+
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    public IngestJobDto setResumed(boolean resumed) {
+        this.resumed = resumed;
+        return this;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public IngestJobDto setSource(String source) {
+        this.source = source;
+        return this;
+    }
+
+    public String getStorage() {
+        return storage;
+    }
+
+    public IngestJobDto setStorage(String storage) {
+        this.storage = storage;
+        return this;
+    }
+
+    public int getMinZoom() {
+        return minZoom;
+    }
+
+    public IngestJobDto setMinZoom(int minZoom) {
+        this.minZoom = minZoom;
+        return this;
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    public IngestJobDto setMaxZoom(int maxZoom) {
+        this.maxZoom = maxZoom;
+        return this;
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    public IngestJobDto setZoom(int zoom) {
+        this.zoom = zoom;
+        return this;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public IngestJobDto setWorkers(int workers) {
+        this.workers = workers;
+        return this;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public IngestJobDto setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public long getListed() {
+        return listed;
+    }
+
+    public IngestJobDto setListed(long listed) {
+        this.listed = listed;
+        return this;
+    }
+
+    public long getLoaded() {
+        return loaded;
+    }
+
+    public IngestJobDto setLoaded(long loaded) {
+        this.loaded = loaded;
+        return this;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public IngestJobDto setFailed(long failed) {
+        this.failed = failed;
+        return this;
+    }
+
+    public long getRetries() {
+        return retries;
+    }
+
+    public IngestJobDto setRetries(long retries) {
+        this.retries = retries;
+        return this;
+    }
+
+    public double getTilesPerSecond() {
+        return tilesPerSecond;
+    }
+
+    public IngestJobDto setTilesPerSecond(double tilesPerSecond) {
+        this.tilesPerSecond = tilesPerSecond;
+        return this;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public IngestJobDto setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+        return this;
+    }
+
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    public IngestJobDto setElapsedSeconds(double elapsedSeconds) {
+        this.elapsedSeconds = elapsedSeconds;
+        return this;
+    }
+
+    public List<IngestZoomReportDto> getReports() {
+        return reports;
+    }
+
+    public IngestJobDto setReports(List<IngestZoomReportDto> reports) {
+        this.reports = reports;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "IngestJobDto{" +
+                "status='" + status + '\'' +
+                ", resumed=" + resumed +
+                ", source='" + source + '\'' +
+                ", storage='" + storage + '\'' +
+                ", minZoom=" + minZoom +
+                ", maxZoom=" + maxZoom +
+                ", zoom=" + zoom +
+                ", workers=" + workers +
+                ", batchSize=" + batchSize +
+                ", listed=" + listed +
+                ", loaded=" + loaded +
+                ", failed=" + failed +
+                ", retries=" + retries +
+                ", tilesPerSecond=" + tilesPerSecond +
+                ", startedAt='" + startedAt + '\'' +
+                ", elapsedSeconds=" + elapsedSeconds +
+                ", reports=" + reports +
+                '}';
+    }
+}
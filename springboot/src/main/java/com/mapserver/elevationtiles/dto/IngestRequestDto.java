@@ -0,0 +1,100 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.mapserver.elevationtiles.exception.InvalidParameterException;
+import com.mapserver.elevationtiles.ingest.IngestSpec;
+import com.mapserver.elevationtiles.ingest.IngestStorage;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class IngestRequestDto {
+
+    @Schema(name = "source", description = "Directory of {z}/{x}/{y}.tif GeoTIFFs, or listing file of the bucket, as seen by the application", example = "/data/geotiff")
+    private String source;
+    @Schema(name = "minZoom", description = "First zoom level to ingest", example = "0")
+    private int minZoom;
+    @Schema(name = "maxZoom", description = "Last zoom level to ingest", example = "7")
+    private int maxZoom;
+    @Schema(name = "storage", description = "out-db, the database reads the GeoTIFFs, or in-db, the pixels are stored, elevationtiles.ingest.storage by default", example = "out-db")
+    private String storage;
+    @Schema(name = "workers", description = "Number of batches loaded in parallel, elevationtiles.ingest.workers by default", example = "4")
+    private Integer workers;
+    @Schema(name = "batchSize", description = "Number of tiles loaded per COPY, elevationtiles.ingest.batch-size by default", example = "256")
+    private Integer batchSize;
+
+    public IngestSpec fromDtoToDomain(IngestStorage defaultStorage, int defaultWorkers, int defaultBatchSize) {
+        final IngestStorage ingestStorage;
+        try {
+            ingestStorage = storage == null ? defaultStorage : IngestStorage.of(storage);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("The storage should be out-db or in-db");
+        }
+        return new IngestSpec(source, minZoom, maxZoom, ingestStorage,
+                workers == null ? defaultWorkers : workers,
+                batchSize == null ? defaultBatchSize : batchSize);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public IngestRequestDto setSource(String source) {
+        this.source = source;
+        return this;
+    }
+
+    public int getMinZoom() {
+        return minZoom;
+    }
+
+    public IngestRequestDto setMinZoom(int minZoom) {
+        this.minZoom = minZoom;
+        return this;
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    public IngestRequestDto setMaxZoom(int maxZoom) {
+        this.maxZoom = maxZoom;
+        return this;
+    }
+
+    public String getStorage() {
+        return storage;
+    }
+
+    public IngestRequestDto setStorage(String storage) {
+        this.storage = storage;
+        return this;
+    }
+
+    public Integer getWorkers() {
+        return workers;
+    }
+
+    public IngestRequestDto setWorkers(Integer workers) {
+        this.workers = workers;
+        return this;
+    }
+
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public IngestRequestDto setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "IngestRequestDto{" +
+                "source='" + source + '\'' +
+                ", minZoom=" + minZoom +
+                ", maxZoom=" + maxZoom +
+                ", storage='" + storage + '\'' +
+                ", workers=" + workers +
+                ", batchSize=" + batchSize +
+                '}';
+    }
+}
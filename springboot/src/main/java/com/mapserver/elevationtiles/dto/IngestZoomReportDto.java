@@ -0,0 +1,124 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.mapserver.elevationtiles.ingest.ZoomReport;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public class IngestZoomReportDto {
+
+    @Schema(name = "z", description = "Zoom level", example = "7")
+    private int z;
+    @Schema(name = "expected", description = "Number of tiles of the zoom level", example = "16384")
+    private long expected;
+    @Schema(name = "listed", description = "Number of tiles found in the source", example = "16384")
+    private long listed;
+    @Schema(name = "loaded", description = "Number of tiles loaded", example = "16369")
+    private long loaded;
+    @Schema(name = "failed", description = "Number of tiles that could not be loaded after every attempt", example = "15")
+    private long failed;
+    @Schema(name = "inDatabase", description = "Number of tiles of the zoom level in the table", example = "16369")
+    private long inDatabase;
+    @Schema(name = "complete", description = "Whether every listed tile is in the table", example = "false")
+    private boolean complete;
+    @Schema(name = "failedTiles", description = "The first tiles that failed, as z/x/y", example = "")
+    private List<String> failedTiles;
+
+    public IngestZoomReportDto fromDomainToDto(ZoomReport report) {
+        return new IngestZoomReportDto()
+                .setZ(report.z())
+                .setExpected(report.expected())
+                .setListed(report.listed())
+                .setLoaded(report.loaded())
+                .setFailed(report.failed())
+                .setInDatabase(report.inDatabase())
+                .setComplete(report.isComplete())
+                .setFailedTiles(report.failedTiles().stream().map(tile -> tile.z() + "/" + tile.x() + "/" + tile.y()).toList());
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    public IngestZoomReportDto setZ(int z) {
+        this.z = z;
+        return this;
+    }
+
+    public long getExpected() {
+        return expected;
+    }
+
+    public IngestZoomReportDto setExpected(long expected) {
+        this.expected = expected;
+        return this;
+    }
+
+    public long getListed() {
+        return listed;
+    }
+
+    public IngestZoomReportDto setListed(long listed) {
+        this.listed = listed;
+        return this;
+    }
+
+    public long getLoaded() {
+        return loaded;
+    }
+
+    public IngestZoomReportDto setLoaded(long loaded) {
+        this.loaded = loaded;
+        return this;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public IngestZoomReportDto setFailed(long failed) {
+        this.failed = failed;
+        return this;
+    }
+
+    public long getInDatabase() {
+        return inDatabase;
+    }
+
+    public IngestZoomReportDto setInDatabase(long inDatabase) {
+        this.inDatabase = inDatabase;
+        return this;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public IngestZoomReportDto setComplete(boolean complete) {
+        this.complete = complete;
+        return this;
+    }
+
+    public List<String> getFailedTiles() {
+        return failedTiles;
+    }
+
+    public IngestZoomReportDto setFailedTiles(List<String> failedTiles) {
+        this.failedTiles = failedTiles;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "IngestZoomReportDto{" +
+                "z=" + z +
+                ", expected=" + expected +
+                ", listed=" + listed +
+                ", loaded=" + loaded +
+                ", failed=" + failed +
+                ", inDatabase=" + inDatabase +
+                ", complete=" + complete +
+                ", failedTiles=" + failedTiles +
+                '}';
+    }
+}
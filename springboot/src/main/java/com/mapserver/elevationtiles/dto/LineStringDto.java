@@ -0,0 +1,61 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.mapserver.elevationtiles.exception.InvalidParameterException;
+import com.mapserver.elevationtiles.profile.ProfileLine;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public class LineStringDto {
+
+    @Schema(name = "type", description = "GeoJSON geometry type, LineString", example = "LineString")
+    private String type;
+    @Schema(name = "coordinates", description = "WGS84 points as [lon, lat] pairs, any elevation after them is ignored", example = "[[7.7491, 46.0207], [7.6586, 45.9763]]")
+    private List<double[]> coordinates;
+
+    public ProfileLine fromDtoToDomain() {
+        if (!"LineString".equals(type)) {
+            throw new InvalidParameterException("The geometry should be a GeoJSON LineString, not " + type);
+        }
+        if (coordinates == null || coordinates.size() < 2) {
+            throw new InvalidParameterException("A line string has at least two points");
+        }
+        double[] lons = new double[coordinates.size()];
+        double[] lats = new double[coordinates.size()];
+        for (int i = 0; i < coordinates.size(); i++) {
+            double[] position = coordinates.get(i);
+            if (position == null || position.length < 2) {
+                throw new InvalidParameterException("Point " + i + " should be a [lon, lat] pair");
+            }
+            lons[i] = position[0];
+            lats[i] = position[1];
+        }
+        return new ProfileLine(lons, lats);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public LineStringDto setType(String type) {
+        this.type = type;
+        return this;
+    }
+
+    public List<double[]> getCoordinates() {
+        return coordinates;
+    }
+
+    public LineStringDto setCoordinates(List<double[]> coordinates) {
+        this.coordinates = coordinates;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "LineStringDto{" +
+                "type=" + type +
+                ", coordinates=" + (coordinates == null ? null : coordinates.size()) +
+                '}';
+    }
+}
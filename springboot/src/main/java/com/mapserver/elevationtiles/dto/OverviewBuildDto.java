@@ -0,0 +1,122 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.mapserver.elevationtiles.overview.OverviewBuild;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class OverviewBuildDto {
+
+    @Schema(name = "status", description = "running, completed or failed", example = "running")
+    private String status;
+    @Schema(name = "maxZoom", description = "Highest zoom level served from the overviews", example = "5")
+    private int maxZoom;
+    @Schema(name = "zoom", description = "Zoom level being built, from maxZoom down to 0", example = "4")
+    private int zoom;
+    @Schema(name = "total", description = "Number of tiles of zoom levels 0 to maxZoom", example = "1365")
+    private long total;
+    @Schema(name = "processed", description = "Number of tiles processed", example = "1104")
+    private long processed;
+    @Schema(name = "built", description = "Number of overview tiles stored, tiles without any child are left out", example = "1104")
+    private long built;
+    @Schema(name = "startedAt", description = "When the build started", example = "2024-01-01T00:00:00Z")
+    private String startedAt;
+    @Schema(name = "elapsedSeconds", description = "Time since the build started", example = "312.4")
+    private double elapsedSeconds;
+
+    public OverviewBuildDto fromDomainToDto(OverviewBuild build) {
+        return new OverviewBuildDto()
+                .setStatus(build.getStatus().name().toLowerCase())
+                .setMaxZoom(build.getMaxZoom())
+                .setZoom(build.getZoom())
+                .setTotal(build.getTotal())
+                .setProcessed(build.getProcessed())
+                .setBuilt(build.getBuilt())
+                .setStartedAt(build.getStartedAt().toString())
+                .setElapsedSeconds(build.getElapsedSeconds());
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public OverviewBuildDto setStatus(String status) {
+        this.status = status;
+        return this;
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    public OverviewBuildDto setMaxZoom(int maxZoom) {
+        this.maxZoom = maxZoom;
+        return this;
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    public OverviewBuildDto setZoom(int zoom) {
+        this.zoom = zoom;
+        return this;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public OverviewBuildDto setTotal(long total) {
+        this.total = total;
+        return this;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public OverviewBuildDto setProcessed(long processed) {
+        this.processed = processed;
+        return this;
+    }
+
+    public long getBuilt() {
+        return built;
+    }
+
+    public OverviewBuildDto setBuilt(long built) {
+        this.built = built;
+        return this;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public OverviewBuildDto setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+        return this;
+    }
+
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    public OverviewBuildDto setElapsedSeconds(double elapsedSeconds) {
+        this.elapsedSeconds = elapsedSeconds;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "OverviewBuildDto{" +
+                "status='" + status + '\'' +
+                ", maxZoom=" + maxZoom +
+                ", zoom=" + zoom +
+                ", total=" + total +
+                ", processed=" + processed +
+                ", built=" + built +
+                ", startedAt='" + startedAt + '\'' +
+                ", elapsedSeconds=" + elapsedSeconds +
+                '}';
+    }
+}
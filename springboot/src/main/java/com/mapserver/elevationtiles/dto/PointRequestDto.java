@@ -0,0 +1,75 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.mapserver.elevationtiles.exception.InvalidParameterException;
+import com.mapserver.elevationtiles.point.Interpolation;
+import com.mapserver.elevationtiles.point.PointQuery;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public class PointRequestDto {
+
+    @Schema(name = "z", description = "Zoom level to read the elevations at, the finest one that has an elevation when missing", example = "12")
+    private Integer z;
+    @Schema(name = "interpolation", description = "nearest or bilinear, bilinear by default", example = "bilinear")
+    private String interpolation;
+    @Schema(name = "points", description = "WGS84 points as [lon, lat] pairs", example = "[[7.6586, 45.9763], [7.7491, 46.0207]]")
+    private List<double[]> points;
+
+    public PointQuery fromDtoToDomain() {
+        final Interpolation pointInterpolation;
+        try {
+            pointInterpolation = interpolation == null ? Interpolation.BILINEAR : Interpolation.of(interpolation);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("Unknown interpolation " + interpolation + ", expected nearest or bilinear");
+        }
+        List<double[]> pairs = points == null ? List.of() : points;
+        double[] lons = new double[pairs.size()];
+        double[] lats = new double[pairs.size()];
+        for (int i = 0; i < pairs.size(); i++) {
+            double[] pair = pairs.get(i);
+            if (pair == null || pair.length != 2) {
+                throw new InvalidParameterException("Point " + i + " should be a [lon, lat] pair");
+            }
+            lons[i] = pair[0];
+            lats[i] = pair[1];
+        }
+        return new PointQuery(lons, lats, z, pointInterpolation);
+    }
+
+    public Integer getZ() {
+        return z;
+    }
+
+    public PointRequestDto setZ(Integer z) {
+        this.z = z;
+        return this;
+    }
+
+    public String getInterpolation() {
+        return interpolation;
+    }
+
+    public PointRequestDto setInterpolation(String interpolation) {
+        this.interpolation = interpolation;
+        return this;
+    }
+
+    public List<double[]> getPoints() {
+        return points;
+    }
+
+    public PointRequestDto setPoints(List<double[]> points) {
+        this.points = points;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "PointRequestDto{" +
+                "z=" + z +
+                ", interpolation=" + interpolation +
+                ", points=" + (points == null ? null : points.size()) +
+                '}';
+    }
+}
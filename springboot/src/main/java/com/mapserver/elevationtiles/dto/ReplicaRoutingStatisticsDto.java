@@ -0,0 +1,61 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.mapserver.elevationtiles.datasource.ReplicaRoutingDataSource;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public class ReplicaRoutingStatisticsDto {
+
+    @Schema(name = "balancing", description = "Balancing strategy", example = "least_outstanding")
+    private String balancing;
+    @Schema(name = "primaryReads", description = "Number of reads served by the primary because no replica was available", example = "0")
+    private long primaryReads;
+    @Schema(name = "replicas", description = "State of every replica")
+    private List<ReplicaStatisticsDto> replicas;
+
+    public ReplicaRoutingStatisticsDto fromDomainToDto(ReplicaRoutingDataSource routing) {
+        return new ReplicaRoutingStatisticsDto()
+                .setBalancing(routing.getBalancing().name().toLowerCase())
+                .setPrimaryReads(routing.getPrimaryReads())
+                .setReplicas(routing.getReplicas().stream()
+                        .map(replica -> new ReplicaStatisticsDto().fromDomainToDto(replica))
+                        .toList());
+    }
+
+    public String getBalancing() {
+        return balancing;
+    }
+
+    public ReplicaRoutingStatisticsDto setBalancing(String balancing) {
+        this.balancing = balancing;
+        return this;
+    }
+
+    public long getPrimaryReads() {
+        return primaryReads;
+    }
+
+    public ReplicaRoutingStatisticsDto setPrimaryReads(long primaryReads) {
+        this.primaryReads = primaryReads;
+        return this;
+    }
+
+    public List<ReplicaStatisticsDto> getReplicas() {
+        return replicas;
+    }
+
+    public ReplicaRoutingStatisticsDto setReplicas(List<ReplicaStatisticsDto> replicas) {
+        this.replicas = replicas;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplicaRoutingStatisticsDto{" +
+                "balancing='" + balancing + '\'' +
+                ", primaryReads=" + primaryReads +
+                ", replicas=" + replicas +
+                '}';
+    }
+}
@@ -0,0 +1,96 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.mapserver.elevationtiles.datasource.Replica;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class ReplicaStatisticsDto {
+
+    @Schema(name = "name", description = "Replica name", example = "replica-0")
+    private String name;
+    @Schema(name = "available", description = "Whether the circuit of the replica is closed", example = "true")
+    private boolean available;
+    @Schema(name = "outstanding", description = "Number of connections in use", example = "3")
+    private int outstanding;
+    @Schema(name = "served", description = "Number of connections handed out and returned", example = "52000")
+    private long served;
+    @Schema(name = "failures", description = "Number of failed connection attempts and health checks", example = "2")
+    private long failures;
+    @Schema(name = "averageLatencyMillis", description = "Recent average time a connection was held", example = "18.4")
+    private double averageLatencyMillis;
+
+    public ReplicaStatisticsDto fromDomainToDto(Replica replica) {
+        return new ReplicaStatisticsDto()
+                .setName(replica.getName())
+                .setAvailable(!replica.isOpen())
+                .setOutstanding(replica.getOutstanding())
+                .setServed(replica.getServed())
+                .setFailures(replica.getFailures())
+                .setAverageLatencyMillis(replica.getAverageLatencyMillis());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ReplicaStatisticsDto setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public ReplicaStatisticsDto setAvailable(boolean available) {
+        this.available = available;
+        return this;
+    }
+
+    public int getOutstanding() {
+        return outstanding;
+    }
+
+    public ReplicaStatisticsDto setOutstanding(int outstanding) {
+        this.outstanding = outstanding;
+        return this;
+    }
+
+    public long getServed() {
+        return served;
+    }
+
+    public ReplicaStatisticsDto setServed(long served) {
+        this.served = served;
+        return this;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public ReplicaStatisticsDto setFailures(long failures) {
+        this.failures = failures;
+        return this;
+    }
+
+    public double getAverageLatencyMillis() {
+        return averageLatencyMillis;
+    }
+
+    public ReplicaStatisticsDto setAverageLatencyMillis(double averageLatencyMillis) {
+        this.averageLatencyMillis = averageLatencyMillis;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplicaStatisticsDto{" +
+                "name='" + name + '\'' +
+                ", available=" + available +
+                ", outstanding=" + outstanding +
+                ", served=" + served +
+                ", failures=" + failures +
+                ", averageLatencyMillis=" + averageLatencyMillis +
+                '}';
+    }
+}
@@ -0,0 +1,255 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.mapserver.elevationtiles.domain.TileLayer;
+import com.mapserver.elevationtiles.seed.SeedJob;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public class SeedJobDto {
+
+    @Schema(name = "status", description = "running, completed, cancelled, stopped (by a shutdown, resumed on the next start) or failed", example = "running")
+    private String status;
+    @Schema(name = "resumed", description = "Whether the job was resumed from a checkpoint", example = "false")
+    private boolean resumed;
+    @Schema(name = "minZoom", description = "First zoom level seeded", example = "0")
+    private int minZoom;
+    @Schema(name = "maxZoom", description = "Last zoom level seeded", example = "10")
+    private int maxZoom;
+    @Schema(name = "zoom", description = "Zoom level being seeded", example = "7")
+    private int zoom;
+    @Schema(name = "layers", description = "Layers seeded", example = "")
+    private List<String> layers;
+    @Schema(name = "colormaps", description = "Colormaps every layer is seeded with, its default one when empty", example = "")
+    private List<String> colormaps;
+    @Schema(name = "workers", description = "Number of tiles rendered in parallel", example = "2")
+    private int workers;
+    @Schema(name = "total", description = "Number of tiles to seed", example = "1398101")
+    private long total;
+    @Schema(name = "done", description = "Number of tiles seeded", example = "52012")
+    private long done;
+    @Schema(name = "failed", description = "Number of tiles that could not be seeded", example = "0")
+    private long failed;
+    @Schema(name = "percent", description = "Share of the tiles done or failed, in percent", example = "3.72")
+    private double percent;
+    @Schema(name = "tilesPerSecond", description = "Throughput since the job started or resumed", example = "19.8")
+    private double tilesPerSecond;
+    @Schema(name = "etaSeconds", description = "Estimated time left, -1 until a tile has been seeded", example = "67983")
+    private long etaSeconds;
+    @Schema(name = "throttled", description = "Whether the job is paused because live requests are waiting for the database", example = "false")
+    private boolean throttled;
+    @Schema(name = "throttledSeconds", description = "Time spent paused for live requests", example = "12.5")
+    private double throttledSeconds;
+    @Schema(name = "startedAt", description = "When the job started or resumed", example = "2024-01-01T00:00:00Z")
+    private String startedAt;
+    @Schema(name = "elapsedSeconds", description = "Time since the job started or resumed", example = "2626.8")
+    private double elapsedSeconds;
+
+    public SeedJobDto fromDomainToDto(SeedJob job) {
+        return new SeedJobDto()
+                .setStatus(job.getStatus().name().toLowerCase())
+                .setResumed(job.isResumed())
+                .setMinZoom(job.getSpec().minZoom())
+                .setMaxZoom(job.getSpec().maxZoom())
+                .setZoom(job.getZoom())
+                .setLayers(job.getSpec().layers().stream().map(TileLayer::getPath).toList())
+                .setColormaps(job.getSpec().colormaps())
+                .setWorkers(job.getSpec().workers())
+                .setTotal(job.getTotal())
+                .setDone(job.getDone())
+                .setFailed(job.getFailed())
+                .setPercent(job.getTotal() == 0 ? 100 : 100.0 * (job.getDone() + job.getFailed()) / job.getTotal())
+                .setTilesPerSecond(job.getTilesPerSecond())
+                .setEtaSeconds(job.getEtaSeconds())
+                .setThrottled(job.isThrottled())
+                .setThrottledSeconds(job.getThrottledSeconds())
+                .setStartedAt(job.getStartedAt().toString())
+                .setElapsedSeconds(job.getElapsedSeconds());
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public SeedJobDto setStatus(String status) {
+        this.status = status;
+        return this;
+    }
+
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    public SeedJobDto setResumed(boolean resumed) {
+        this.resumed = resumed;
+        return this;
+    }
+
+    public int getMinZoom() {
+        return minZoom;
+    }
+
+    public SeedJobDto setMinZoom(int minZoom) {
+        this.minZoom = minZoom;
+        return this;
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    public SeedJobDto setMaxZoom(int maxZoom) {
+        this.maxZoom = maxZoom;
+        return this;
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    public SeedJobDto setZoom(int zoom) {
+        this.zoom = zoom;
+        return this;
+    }
+
+    public List<String> getLayers() {
+        return layers;
+    }
+
+    public SeedJobDto setLayers(List<String> layers) {
+        this.layers = layers;
+        return this;
+    }
+
+    public List<String> getColormaps() {
+        return colormaps;
+    }
+
+    public SeedJobDto setColormaps(List<String> colormaps) {
+        this.colormaps = colormaps;
+        return this;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public SeedJobDto setWorkers(int workers) {
+        this.workers = workers;
+        return this;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public SeedJobDto setTotal(long total) {
+        this.total = total;
+        return this;
+    }
+
+    public long getDone() {
+        return done;
+    }
+
+    public SeedJobDto setDone(long done) {
+        this.done = done;
+        return this;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public SeedJobDto setFailed(long failed) {
+        this.failed = failed;
+        return this;
+    }
+
+    public double getPercent() {
+        return percent;
+    }
+
+    public SeedJobDto setPercent(double percent) {
+        this.percent = percent;
+        return this;
+    }
+
+    public double getTilesPerSecond() {
+        return tilesPerSecond;
+    }
+
+    public SeedJobDto setTilesPerSecond(double tilesPerSecond) {
+        this.tilesPerSecond = tilesPerSecond;
+        return this;
+    }
+
+    public long getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    public SeedJobDto setEtaSeconds(long etaSeconds) {
+        this.etaSeconds = etaSeconds;
+        return this;
+    }
+
+    public boolean isThrottled() {
+        return throttled;
+    }
+
+    public SeedJobDto setThrottled(boolean throttled) {
+        this.throttled = throttled;
+        return this;
+    }
+
+    public double getThrottledSeconds() {
+        return throttledSeconds;
+    }
+
+    public SeedJobDto setThrottledSeconds(double throttledSeconds) {
+        this.throttledSeconds = throttledSeconds;
+        return this;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public SeedJobDto setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+        return this;
+    }
+
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    public SeedJobDto setElapsedSeconds(double elapsedSeconds) {
+        this.elapsedSeconds = elapsedSeconds;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "SeedJobDto{" +
+                "status='" + status + '\'' +
+                ", resumed=" + resumed +
+                ", minZoom=" + minZoom +
+                ", maxZoom=" + maxZoom +
+                ", zoom=" + zoom +
+                ", layers=" + layers +
+                ", colormaps=" + colormaps +
+                ", workers=" + workers +
+                ", total=" + total +
+                ", done=" + done +
+                ", failed=" + failed +
+                ", percent=" + percent +
+                ", tilesPerSecond=" + tilesPerSecond +
+                ", etaSeconds=" + etaSeconds +
+                ", throttled=" + throttled +
+                ", throttledSeconds=" + throttledSeconds +
+                ", startedAt='" + startedAt + '\'' +
+                ", elapsedSeconds=" + elapsedSeconds +
+                '}';
+    }
+}
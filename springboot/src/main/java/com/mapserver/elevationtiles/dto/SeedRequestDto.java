@@ -0,0 +1,153 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.mapserver.elevationtiles.domain.TileLayer;
+import com.mapserver.elevationtiles.exception.InvalidParameterException;
+import com.mapserver.elevationtiles.seed.SeedSpec;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public class SeedRequestDto {
+
+    @Schema(name = "minZoom", description = "First zoom level to seed", example = "0")
+    private int minZoom;
+    @Schema(name = "maxZoom", description = "Last zoom level to seed", example = "10")
+    private int maxZoom;
+    @Schema(name = "lonMin", description = "West bound of the area to seed, the whole world when the envelope is missing", example = "5.9")
+    private Double lonMin;
+    @Schema(name = "latMin", description = "South bound of the area to seed", example = "45.8")
+    private Double latMin;
+    @Schema(name = "lonMax", description = "East bound of the area to seed", example = "10.5")
+    private Double lonMax;
+    @Schema(name = "latMax", description = "North bound of the area to seed", example = "47.8")
+    private Double latMax;
+    @Schema(name = "layers", description = "Layers to seed: elevation, slope, tri, tpi, hillshade, aspect, terrain-rgb or terrarium", example = "")
+    private List<String> layers;
+    @Schema(name = "colormaps", description = "Colormaps to seed every layer with, its default one when empty", example = "")
+    private List<String> colormaps;
+    @Schema(name = "workers", description = "Number of tiles rendered in parallel, elevationtiles.seed.workers by default", example = "2")
+    private Integer workers;
+    @Schema(name = "tilesPerSecond", description = "Maximum seeding rate, elevationtiles.seed.tiles-per-second by default", example = "20")
+    private Double tilesPerSecond;
+
+    public SeedSpec fromDtoToDomain(int defaultWorkers, double defaultTilesPerSecond) {
+        boolean world = lonMin == null || latMin == null || lonMax == null || latMax == null;
+        final List<TileLayer> tileLayers;
+        try {
+            tileLayers = layers == null ? List.of() : layers.stream().map(TileLayer::fromPath).toList();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException(e.getMessage());
+        }
+        return new SeedSpec(minZoom, maxZoom,
+                world ? -180 : lonMin, world ? -90 : latMin, world ? 180 : lonMax, world ? 90 : latMax,
+                tileLayers, colormaps == null ? List.of() : List.copyOf(colormaps),
+                workers == null ? defaultWorkers : workers,
+                tilesPerSecond == null ? defaultTilesPerSecond : tilesPerSecond);
+    }
+
+    public int getMinZoom() {
+        return minZoom;
+    }
+
+    public SeedRequestDto setMinZoom(int minZoom) {
+        this.minZoom = minZoom;
+        return this;
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    public SeedRequestDto setMaxZoom(int maxZoom) {
+        this.maxZoom = maxZoom;
+        return this;
+    }
+
+    public Double getLonMin() {
+        return lonMin;
+    }
+
+    public SeedRequestDto setLonMin(Double lonMin) {
+        this.lonMin = lonMin;
+        return this;
+    }
+
+    public Double getLatMin() {
+        return latMin;
+    }
+
+    public SeedRequestDto setLatMin(Double latMin) {
+        this.latMin = latMin;
+        return this;
+    }
+
+    public Double getLonMax() {
+        return lonMax;
+    }
+
+    public SeedRequestDto setLonMax(Double lonMax) {
+        this.lonMax = lonMax;
+        return this;
+    }
+
+    public Double getLatMax() {
+        return latMax;
+    }
+
+    public SeedRequestDto setLatMax(Double latMax) {
+        this.latMax = latMax;
+        return this;
+    }
+
+    public List<String> getLayers() {
+        return layers;
+    }
+
+    public SeedRequestDto setLayers(List<String> layers) {
+        this.layers = layers;
+        return this;
+    }
+
+    public List<String> getColormaps() {
+        return colormaps;
+    }
+
+    public SeedRequestDto setColormaps(List<String> colormaps) {
+        this.colormaps = colormaps;
+        return this;
+    }
+
+    public Integer getWorkers() {
+        return workers;
+    }
+
+    public SeedRequestDto setWorkers(Integer workers) {
+        this.workers = workers;
+        return this;
+    }
+
+    public Double getTilesPerSecond() {
+        return tilesPerSecond;
+    }
+
+    public SeedRequestDto setTilesPerSecond(Double tilesPerSecond) {
+        this.tilesPerSecond = tilesPerSecond;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "SeedRequestDto{" +
+                "minZoom=" + minZoom +
+                ", maxZoom=" + maxZoom +
+                ", lonMin=" + lonMin +
+                ", latMin=" + latMin +
+                ", lonMax=" + lonMax +
+                ", latMax=" + latMax +
+                ", layers=" + layers +
+                ", colormaps=" + colormaps +
+                ", workers=" + workers +
+                ", tilesPerSecond=" + tilesPerSecond +
+                '}';
+    }
+}
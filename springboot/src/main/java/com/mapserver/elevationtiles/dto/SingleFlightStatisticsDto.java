@@ -0,0 +1,83 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.mapserver.elevationtiles.concurrent.SingleFlight;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class SingleFlightStatisticsDto {
+
+    @Schema(name = "executions", description = "Number of requests that did the work themselves", example = "120")
+    private long executions;
+    @Schema(name = "coalesced", description = "Number of requests that awaited an identical request already in flight", example = "480")
+    private long coalesced;
+    @Schema(name = "timeouts", description = "Number of coalesced requests that gave up waiting", example = "0")
+    private long timeouts;
+    @Schema(name = "inFlight", description = "Number of distinct requests currently in flight", example = "3")
+    private int inFlight;
+    @Schema(name = "timeoutMillis", description = "Configured maximum wait for a coalesced request in milliseconds", example = "10000")
+    private long timeoutMillis;
+
+    public SingleFlightStatisticsDto fromDomainToDto(SingleFlight singleFlight) {
+        return new SingleFlightStatisticsDto()
+                .setExecutions(singleFlight.getExecutions())
+                .setCoalesced(singleFlight.getCoalesced())
+                .setTimeouts(singleFlight.getTimeouts())
+                .setInFlight(singleFlight.getInFlight())
+                .setTimeoutMillis(singleFlight.getTimeoutMillis());
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public SingleFlightStatisticsDto setExecutions(long executions) {
+        this.executions = executions;
+        return this;
+    }
+
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public SingleFlightStatisticsDto setCoalesced(long coalesced) {
+        this.coalesced = coalesced;
+        return this;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public SingleFlightStatisticsDto setTimeouts(long timeouts) {
+        this.timeouts = timeouts;
+        return this;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public SingleFlightStatisticsDto setInFlight(int inFlight) {
+        this.inFlight = inFlight;
+        return this;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public SingleFlightStatisticsDto setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "SingleFlightStatisticsDto{" +
+                "executions=" + executions +
+                ", coalesced=" + coalesced +
+                ", timeouts=" + timeouts +
+                ", inFlight=" + inFlight +
+                ", timeoutMillis=" + timeoutMillis +
+                '}';
+    }
+}
@@ -0,0 +1,122 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.mapserver.elevationtiles.statistics.SummaryBackfill;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class SummaryBackfillDto {
+
+    @Schema(name = "status", description = "running, completed, cancelled, stopped (by a shutdown) or failed", example = "running")
+    private String status;
+    @Schema(name = "total", description = "Number of tiles without a summary when the backfill started, -1 until they are counted", example = "87381")
+    private long total;
+    @Schema(name = "summarized", description = "Number of tiles summarized", example = "20480")
+    private long summarized;
+    @Schema(name = "failed", description = "Number of tiles whose raster could not be read or summary stored, tried again by the next backfill", example = "0")
+    private long failed;
+    @Schema(name = "tilesPerSecond", description = "Throughput since the backfill started", example = "340.2")
+    private double tilesPerSecond;
+    @Schema(name = "etaSeconds", description = "Time left at the current throughput, -1 until a tile is summarized", example = "197")
+    private long etaSeconds;
+    @Schema(name = "startedAt", description = "When the backfill started", example = "2024-01-01T00:00:00Z")
+    private String startedAt;
+    @Schema(name = "elapsedSeconds", description = "Time since the backfill started", example = "60.2")
+    private double elapsedSeconds;
+
+    public SummaryBackfillDto fromDomainToDto(SummaryBackfill backfill) {
+        return new SummaryBackfillDto()
+                .setStatus(backfill.getStatus().name().toLowerCase())
+                .setTotal(backfill.getTotal())
+                .setSummarized(backfill.getSummarized())
+                .setFailed(backfill.getFailed())
+                .setTilesPerSecond(backfill.getTilesPerSecond())
+                .setEtaSeconds(backfill.getEtaSeconds())
+                .setStartedAt(backfill.getStartedAt().toString())
+                .setElapsedSeconds(backfill.getElapsedSeconds());
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public SummaryBackfillDto setStatus(String status) {
+        this.status = status;
+        return this;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public SummaryBackfillDto setTotal(long total) {
+        this.total = total;
+        return this;
+    }
+
+    public long getSummarized() {
+        return summarized;
+    }
+
+    public SummaryBackfillDto setSummarized(long summarized) {
+        this.summarized = summarized;
+        return this;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public SummaryBackfillDto setFailed(long failed) {
+        this.failed = failed;
+        return this;
+    }
+
+    public double getTilesPerSecond() {
+        return tilesPerSecond;
+    }
+
+    public SummaryBackfillDto setTilesPerSecond(double tilesPerSecond) {
+        this.tilesPerSecond = tilesPerSecond;
+        return this;
+    }
+
+    public long getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    public SummaryBackfillDto setEtaSeconds(long etaSeconds) {
+        this.etaSeconds = etaSeconds;
+        return this;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public SummaryBackfillDto setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+        return this;
+    }
+
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    public SummaryBackfillDto setElapsedSeconds(double elapsedSeconds) {
+        this.elapsedSeconds = elapsedSeconds;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "SummaryBackfillDto{" +
+                "status='" + status + '\'' +
+                ", total=" + total +
+                ", summarized=" + summarized +
+                ", failed=" + failed +
+                ", tilesPerSecond=" + tilesPerSecond +
+                ", etaSeconds=" + etaSeconds +
+                ", startedAt='" + startedAt + '\'' +
+                ", elapsedSeconds=" + elapsedSeconds +
+                '}';
+    }
+}
@@ -0,0 +1,137 @@
+package com.mapserver.elevationtiles.dto;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mapserver.elevationtiles.cache.TileCache;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class TileCacheStatisticsDto {
+
+    @Schema(name = "hits", description = "Number of requests served from the cache", example = "900")
+    private long hits;
+    @Schema(name = "misses", description = "Number of requests rendered by the database", example = "100")
+    private long misses;
+    @Schema(name = "hitRate", description = "Ratio of hits to all requests", example = "0.9")
+    private double hitRate;
+    @Schema(name = "evictions", description = "Number of tiles evicted from the cache", example = "10")
+    private long evictions;
+    @Schema(name = "evictedBytes", description = "Bytes released by evicted tiles", example = "81920")
+    private long evictedBytes;
+    @Schema(name = "tiles", description = "Approximate number of cached tiles", example = "90")
+    private long tiles;
+    @Schema(name = "bytes", description = "Bytes currently held by the cache", example = "737280")
+    private long bytes;
+    @Schema(name = "maxBytes", description = "Configured capacity of the cache in bytes", example = "268435456")
+    private long maxBytes;
+    @Schema(name = "offHeap", description = "Whether tiles are stored outside the Java heap", example = "false")
+    private boolean offHeap;
+
+    public TileCacheStatisticsDto fromDomainToDto(TileCache tileCache) {
+        CacheStats stats = tileCache.statistics();
+        return new TileCacheStatisticsDto()
+                .setHits(stats.hitCount())
+                .setMisses(stats.missCount())
+                .setHitRate(stats.hitRate())
+                .setEvictions(stats.evictionCount())
+                .setEvictedBytes(stats.evictionWeight())
+                .setTiles(tileCache.estimatedSize())
+                .setBytes(tileCache.weightedSize())
+                .setMaxBytes(tileCache.getMaxBytes())
+                .setOffHeap(tileCache.isOffHeap());
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public TileCacheStatisticsDto setHits(long hits) {
+        this.hits = hits;
+        return this;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public TileCacheStatisticsDto setMisses(long misses) {
+        this.misses = misses;
+        return this;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public TileCacheStatisticsDto setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+        return this;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public TileCacheStatisticsDto setEvictions(long evictions) {
+        this.evictions = evictions;
+        return this;
+    }
+
+    public long getEvictedBytes() {
+        return evictedBytes;
+    }
+
+    public TileCacheStatisticsDto setEvictedBytes(long evictedBytes) {
+        this.evictedBytes = evictedBytes;
+        return this;
+    }
+
+    public long getTiles() {
+        return tiles;
+    }
+
+    public TileCacheStatisticsDto setTiles(long tiles) {
+        this.tiles = tiles;
+        return this;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public TileCacheStatisticsDto setBytes(long bytes) {
+        this.bytes = bytes;
+        return this;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public TileCacheStatisticsDto setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        return this;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    public TileCacheStatisticsDto setOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "TileCacheStatisticsDto{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", hitRate=" + hitRate +
+                ", evictions=" + evictions +
+                ", evictedBytes=" + evictedBytes +
+                ", tiles=" + tiles +
+                ", bytes=" + bytes +
+                ", maxBytes=" + maxBytes +
+                ", offHeap=" + offHeap +
+                '}';
+    }
+}
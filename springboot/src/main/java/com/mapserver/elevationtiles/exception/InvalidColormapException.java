@@ -0,0 +1,14 @@
+package com.mapserver.elevationtiles.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidColormapException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidColormapException(String message) {
+        super(message);
+    }
+}
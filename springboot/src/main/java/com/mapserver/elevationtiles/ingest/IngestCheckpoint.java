@@ -0,0 +1,96 @@
+package com.mapserver.elevationtiles.ingest;
+
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Where an ingestion got to: every zoom level before {@code zoom} is reported, and the batches of {@code zoom}
+ * before {@code batch} are loaded or failed, {@code zoomLoaded} and {@code zoomFailed} tiles of them.
+ * <p>
+ * Stored as a properties file, replaced atomically so that a crash leaves the previous checkpoint intact.
+ */
+public record IngestCheckpoint(IngestSpec spec, int zoom, int batch, long zoomLoaded, long zoomFailed,
+                               List<ZoomReport> reports) {
+
+    public void write(Path path) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("source", spec.source());
+        properties.setProperty("minZoom", String.valueOf(spec.minZoom()));
+        properties.setProperty("maxZoom", String.valueOf(spec.maxZoom()));
+        properties.setProperty("storage", spec.storage().getName());
+        properties.setProperty("workers", String.valueOf(spec.workers()));
+        properties.setProperty("batchSize", String.valueOf(spec.batchSize()));
+        properties.setProperty("zoom", String.valueOf(zoom));
+        properties.setProperty("batch", String.valueOf(batch));
+        properties.setProperty("zoomLoaded", String.valueOf(zoomLoaded));
+        properties.setProperty("zoomFailed", String.valueOf(zoomFailed));
+        for (ZoomReport report : reports) {
+            properties.setProperty("report." + report.z(), report.expected() + "," + report.listed() + ","
+                    + report.loaded() + "," + report.failed() + "," + report.inDatabase());
+            properties.setProperty("report." + report.z() + ".failedTiles", String.join(" ",
+                    report.failedTiles().stream().map(tile -> tile.x() + "/" + tile.y()).toList()));
+        }
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary)) {
+                properties.store(writer, "Tile ingestion checkpoint");
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    public static Optional<IngestCheckpoint> read(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        IngestSpec spec = new IngestSpec(
+                properties.getProperty("source"),
+                Integer.parseInt(properties.getProperty("minZoom")),
+                Integer.parseInt(properties.getProperty("maxZoom")),
+                IngestStorage.of(properties.getProperty("storage")),
+                Integer.parseInt(properties.getProperty("workers")),
+                Integer.parseInt(properties.getProperty("batchSize")));
+        int zoom = Integer.parseInt(properties.getProperty("zoom"));
+        List<ZoomReport> reports = new ArrayList<>();
+        for (int z = spec.minZoom(); z < zoom; z++) {
+            String report = properties.getProperty("report." + z);
+            if (report == null) {
+                continue;
+            }
+            long[] counts = Arrays.stream(report.split(",")).mapToLong(Long::parseLong).toArray();
+            List<TileCoordinate> failedTiles = new ArrayList<>();
+            for (String tile : properties.getProperty("report." + z + ".failedTiles", "").split(" ")) {
+                if (!tile.isEmpty()) {
+                    String[] xy = tile.split("/");
+                    failedTiles.add(new TileCoordinate(z, Integer.parseInt(xy[0]), Integer.parseInt(xy[1])));
+                }
+            }
+            reports.add(new ZoomReport(z, counts[0], counts[1], counts[2], counts[3], counts[4], failedTiles));
+        }
+        return Optional.of(new IngestCheckpoint(spec, zoom,
+                Integer.parseInt(properties.getProperty("batch")),
+                Long.parseLong(properties.getProperty("zoomLoaded")),
+                Long.parseLong(properties.getProperty("zoomFailed")),
+                reports));
+    }
+}
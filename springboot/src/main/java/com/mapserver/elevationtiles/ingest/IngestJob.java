@@ -0,0 +1,169 @@
+package com.mapserver.elevationtiles.ingest;
+
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of an ingestion and the completeness report of the zoom levels it finished. Counts from before a
+ * restart are kept, the throughput is measured over this run only.
+ */
+public class IngestJob {
+
+    public enum Status { RUNNING, COMPLETED, CANCELLED, STOPPED, FAILED }
+
+    static final int MAX_FAILED_TILES = 100;
+
+    private final IngestSpec spec;
+    private final boolean resumed;
+    private final long resumedTiles;
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong loaded;
+    private final AtomicLong failed;
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong zoomLoaded;
+    private final AtomicLong zoomFailed;
+    private final List<TileCoordinate> failedTiles = new CopyOnWriteArrayList<>();
+    private final List<ZoomReport> reports;
+    private volatile Status status = Status.RUNNING;
+    private volatile boolean cancelled;
+    private volatile boolean stopping;
+    private volatile int zoom;
+    private volatile long listed;
+    private volatile long finishNanos;
+
+    IngestJob(IngestSpec spec, int zoom, long zoomLoaded, long zoomFailed, List<ZoomReport> reports, boolean resumed) {
+        this.spec = spec;
+        this.zoom = zoom;
+        this.zoomLoaded = new AtomicLong(zoomLoaded);
+        this.zoomFailed = new AtomicLong(zoomFailed);
+        this.reports = new CopyOnWriteArrayList<>(reports);
+        this.loaded = new AtomicLong(zoomLoaded + reports.stream().mapToLong(ZoomReport::loaded).sum());
+        this.failed = new AtomicLong(zoomFailed + reports.stream().mapToLong(ZoomReport::failed).sum());
+        this.resumedTiles = this.loaded.get() + this.failed.get();
+        this.resumed = resumed;
+    }
+
+    public IngestSpec getSpec() {
+        return spec;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Number of tiles listed for the zoom level being ingested.
+     */
+    public long getListed() {
+        return listed;
+    }
+
+    public long getLoaded() {
+        return loaded.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    public List<ZoomReport> getReports() {
+        return List.copyOf(reports);
+    }
+
+    public double getElapsedSeconds() {
+        long end = status == Status.RUNNING ? System.nanoTime() : finishNanos;
+        return (end - startNanos) / 1e9;
+    }
+
+    public double getTilesPerSecond() {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? (getLoaded() + getFailed() - resumedTiles) / elapsed : 0;
+    }
+
+    boolean isStopping() {
+        return stopping;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    void cancel() {
+        cancelled = true;
+        stopping = true;
+    }
+
+    void stop() {
+        stopping = true;
+    }
+
+    void startZoom(int zoom, long listed) {
+        if (zoom != this.zoom) {
+            zoomLoaded.set(0);
+            zoomFailed.set(0);
+            failedTiles.clear();
+        }
+        this.zoom = zoom;
+        this.listed = listed;
+    }
+
+    long getZoomLoaded() {
+        return zoomLoaded.get();
+    }
+
+    long getZoomFailed() {
+        return zoomFailed.get();
+    }
+
+    List<TileCoordinate> getFailedTiles() {
+        return new ArrayList<>(failedTiles);
+    }
+
+    void loaded(int tiles) {
+        loaded.addAndGet(tiles);
+        zoomLoaded.addAndGet(tiles);
+    }
+
+    void failed(TileCoordinate tile) {
+        failed.incrementAndGet();
+        zoomFailed.incrementAndGet();
+        if (failedTiles.size() < MAX_FAILED_TILES) {
+            failedTiles.add(tile);
+        }
+    }
+
+    void retried() {
+        retries.incrementAndGet();
+    }
+
+    void report(ZoomReport report) {
+        reports.add(report);
+    }
+
+    void finish(Status status) {
+        this.finishNanos = System.nanoTime();
+        this.status = status;
+    }
+}
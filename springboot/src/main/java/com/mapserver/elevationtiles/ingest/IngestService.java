@@ -0,0 +1,406 @@
+package com.mapserver.elevationtiles.ingest;
+
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import com.mapserver.elevationtiles.domain.TileMath;
+import com.mapserver.elevationtiles.exception.ConflictException;
+import com.mapserver.elevationtiles.exception.InvalidParameterException;
+import com.mapserver.elevationtiles.raster.GeoTiffReader;
+import com.mapserver.elevationtiles.raster.GridFormat;
+import com.mapserver.elevationtiles.raster.RasterWkbReader;
+import com.mapserver.elevationtiles.raster.RasterWkbWriter;
+import com.mapserver.elevationtiles.repository.IngestRepository;
+import com.mapserver.elevationtiles.repository.TileSummaryRepository;
+import com.mapserver.elevationtiles.statistics.TileSummary;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the GeoTIFFs of a local directory or of a bucket listing into {@code elevation_tiles_prod}, one job at a
+ * time.
+ * <p>
+ * Zoom level by zoom level, the tiles are listed in Morton order and split into batches, which a bounded number of
+ * workers encode and bulk load with {@code COPY}. A batch the database rejects is retried with a growing back
+ * off, and its tiles are counted as failed once the attempts are exhausted. Progress is checkpointed to disk, so
+ * that a job interrupted by a shutdown resumes where it stopped, and every zoom level ends with a completeness
+ * report comparing what was listed, loaded and what the table holds. In-db tiles are summarized as they are
+ * loaded; out-db tiles are left to the summary backfill, which reads their files.
+ */
+@Service
+public class IngestService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IngestService.class);
+    /**
+     * The out-db GeoTIFFs of the bucket are 256 by 256 int16 tiles; their header is derived from the tile alone.
+     */
+    private static final int OUT_DB_TILE_SIZE = 256;
+    private static final int MAX_ZOOM = 15;
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final long SHUTDOWN_WAIT_MILLIS = 10_000;
+
+    private final IngestRepository ingestRepository;
+    private final TileSummaryRepository tileSummaryRepository;
+    private final Path checkpointPath;
+    private final String startupSource;
+    private final String listingPrefix;
+    private final String databaseRoot;
+    private final GridFormat format;
+    private final IngestStorage defaultStorage;
+    private final int maxWorkers;
+    private final int defaultWorkers;
+    private final int defaultBatchSize;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long checkpointIntervalNanos;
+    private final int sketchK;
+    private IngestJob job;
+    private Thread coordinator;
+
+    public IngestService(IngestRepository ingestRepository, TileSummaryRepository tileSummaryRepository,
+                         @Value("${elevationtiles.ingest.checkpoint-path:}") String checkpointPath,
+                         @Value("${elevationtiles.ingest.source:}") String startupSource,
+                         @Value("${elevationtiles.ingest.listing-prefix:/vsis3/elevation-tiles-prod/}") String listingPrefix,
+                         @Value("${elevationtiles.ingest.database-root:}") String databaseRoot,
+                         @Value("${elevationtiles.ingest.format:int16}") String format,
+                         @Value("${elevationtiles.ingest.storage:out-db}") String defaultStorage,
+                         @Value("${elevationtiles.ingest.max-workers:16}") int maxWorkers,
+                         @Value("${elevationtiles.ingest.workers:4}") int defaultWorkers,
+                         @Value("${elevationtiles.ingest.batch-size:256}") int defaultBatchSize,
+                         @Value("${elevationtiles.ingest.max-attempts:3}") int maxAttempts,
+                         @Value("${elevationtiles.ingest.backoff-ms:1000}") long backoffMillis,
+                         @Value("${elevationtiles.ingest.checkpoint-interval-ms:5000}") long checkpointIntervalMillis,
+                         @Value("${elevationtiles.summary.sketch-k:200}") int sketchK) {
+        this.ingestRepository = ingestRepository;
+        this.tileSummaryRepository = tileSummaryRepository;
+        this.checkpointPath = StringUtils.hasText(checkpointPath) ? Path.of(checkpointPath) : null;
+        this.startupSource = startupSource;
+        this.listingPrefix = listingPrefix;
+        this.databaseRoot = databaseRoot;
+        this.format = GridFormat.of(format);
+        this.defaultStorage = IngestStorage.of(defaultStorage);
+        this.maxWorkers = maxWorkers;
+        this.defaultWorkers = defaultWorkers;
+        this.defaultBatchSize = defaultBatchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.checkpointIntervalNanos = TimeUnit.MILLISECONDS.toNanos(checkpointIntervalMillis);
+        this.sketchK = sketchK;
+    }
+
+    /**
+     * Resumes the job of the checkpoint, or else ingests every zoom level of {@code elevationtiles.ingest.source}
+     * when it is set.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        if (checkpointPath != null) {
+            try {
+                Optional<IngestCheckpoint> checkpoint = IngestCheckpoint.read(checkpointPath);
+                if (checkpoint.isPresent()) {
+                    IngestCheckpoint resumed = checkpoint.get();
+                    LOGGER.info("Resuming the ingestion of {} at zoom {} from {}", resumed.spec().source(),
+                            resumed.zoom(), checkpointPath);
+                    launch(resumed.spec(), resumed.zoom(), resumed.batch(), resumed.zoomLoaded(), resumed.zoomFailed(),
+                            resumed.reports(), true);
+                    return;
+                }
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Ignoring the unreadable ingestion checkpoint {}", checkpointPath, e);
+            }
+        }
+        if (StringUtils.hasText(startupSource)) {
+            LOGGER.info("Ingesting {}", startupSource);
+            start(new IngestSpec(startupSource, 0, MAX_ZOOM, defaultStorage, defaultWorkers, defaultBatchSize));
+        }
+    }
+
+    public IngestJob start(IngestSpec spec) {
+        validate(spec);
+        return launch(spec, spec.minZoom(), 0, 0, 0, List.of(), false);
+    }
+
+    public IngestStorage getDefaultStorage() {
+        return defaultStorage;
+    }
+
+    public int getDefaultWorkers() {
+        return defaultWorkers;
+    }
+
+    public int getDefaultBatchSize() {
+        return defaultBatchSize;
+    }
+
+    public synchronized Optional<IngestJob> getJob() {
+        return Optional.ofNullable(job);
+    }
+
+    /**
+     * Stops the running job once the batches being loaded are done, and forgets its checkpoint.
+     */
+    public synchronized Optional<IngestJob> cancel() {
+        if (job != null && job.getStatus() == IngestJob.Status.RUNNING) {
+            job.cancel();
+        }
+        return Optional.ofNullable(job);
+    }
+
+    /**
+     * Stops the running job and keeps its checkpoint, so that it resumes on the next start.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread stopping;
+        synchronized (this) {
+            if (job == null || job.getStatus() != IngestJob.Status.RUNNING) {
+                return;
+            }
+            job.stop();
+            stopping = coordinator;
+        }
+        stopping.join(SHUTDOWN_WAIT_MILLIS);
+    }
+
+    private synchronized IngestJob launch(IngestSpec spec, int zoom, int batch, long zoomLoaded, long zoomFailed,
+                                          List<ZoomReport> reports, boolean resumed) {
+        if (job != null && job.getStatus() == IngestJob.Status.RUNNING) {
+            throw new ConflictException("An ingestion is already running");
+        }
+        IngestJob started = new IngestJob(spec, zoom, zoomLoaded, zoomFailed, reports, resumed);
+        job = started;
+        coordinator = Thread.ofVirtual().name("tile-ingester").start(() -> run(started, zoom, batch));
+        return started;
+    }
+
+    private void validate(IngestSpec spec) {
+        if (!StringUtils.hasText(spec.source())) {
+            throw new InvalidParameterException("The source should be a directory or a listing file");
+        }
+        Path source = Path.of(spec.source());
+        if (!Files.isReadable(source)) {
+            throw new InvalidParameterException("The source " + spec.source() + " cannot be read");
+        }
+        if (spec.storage() == IngestStorage.IN_DB && !Files.isDirectory(source)) {
+            throw new InvalidParameterException("In-db tiles are decoded from a local directory, not from a listing");
+        }
+        if (spec.minZoom() < 0 || spec.maxZoom() > MAX_ZOOM || spec.minZoom() > spec.maxZoom()) {
+            throw new InvalidParameterException("The zoom levels should be between 0 and " + MAX_ZOOM + ", min before max");
+        }
+        if (spec.workers() < 1 || spec.workers() > maxWorkers) {
+            throw new InvalidParameterException("The number of workers should be between 1 and " + maxWorkers);
+        }
+        if (spec.batchSize() < 1 || spec.batchSize() > MAX_BATCH_SIZE) {
+            throw new InvalidParameterException("The batch size should be between 1 and " + MAX_BATCH_SIZE);
+        }
+    }
+
+    /**
+     * Coordinates the job on its own thread. Every batch of the first zoom level before {@code fromBatch} is done
+     * already.
+     */
+    private void run(IngestJob job, int fromZoom, int fromBatch) {
+        IngestSpec spec = job.getSpec();
+        Path source = Path.of(spec.source());
+        Semaphore workers = new Semaphore(spec.workers());
+        NavigableSet<Integer> inFlight = new ConcurrentSkipListSet<>();
+        int zoom = fromZoom;
+        int next = fromBatch;
+        long lastCheckpoint = System.nanoTime();
+        IngestJob.Status status;
+        try {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                while (zoom <= spec.maxZoom() && !job.isStopping()) {
+                    List<SourceTile> tiles = TileListing.list(source, listingPrefix, zoom);
+                    job.startZoom(zoom, tiles.size());
+                    int batches = (tiles.size() + spec.batchSize() - 1) / spec.batchSize();
+                    while (next < batches && !job.isStopping()) {
+                        workers.acquire();
+                        int batch = next;
+                        List<SourceTile> slice = tiles.subList(batch * spec.batchSize(),
+                                Math.min(tiles.size(), (batch + 1) * spec.batchSize()));
+                        inFlight.add(batch);
+                        executor.execute(() -> {
+                            try {
+                                load(job, source, slice);
+                            } finally {
+                                inFlight.remove(batch);
+                                workers.release();
+                            }
+                        });
+                        next++;
+                        if (System.nanoTime() - lastCheckpoint > checkpointIntervalNanos) {
+                            Integer oldest = inFlight.isEmpty() ? null : inFlight.first();
+                            checkpoint(job, zoom, oldest == null ? next : Math.min(oldest, next));
+                            lastCheckpoint = System.nanoTime();
+                        }
+                    }
+                    workers.acquire(spec.workers());
+                    workers.release(spec.workers());
+                    if (job.isStopping()) {
+                        break;
+                    }
+                    report(job, zoom, tiles.size());
+                    zoom++;
+                    next = 0;
+                    checkpoint(job, zoom, next);
+                }
+            } catch (InterruptedException e) {
+                // nothing interrupts the coordinator, it only ever waits for a batch and then checks the job
+                job.stop();
+            }
+            status = job.isCancelled() ? IngestJob.Status.CANCELLED
+                    : job.isStopping() ? IngestJob.Status.STOPPED : IngestJob.Status.COMPLETED;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Tile ingestion failed at zoom {}", zoom, e);
+            status = IngestJob.Status.FAILED;
+        }
+        if (status == IngestJob.Status.STOPPED || status == IngestJob.Status.FAILED) {
+            checkpoint(job, zoom, next);
+        } else {
+            deleteCheckpoint();
+        }
+        job.finish(status);
+        LOGGER.info("Tile ingestion {}: {} tiles loaded, {} failed", status, job.getLoaded(), job.getFailed());
+    }
+
+    /**
+     * Encodes the tiles of a batch and loads them with one {@code COPY}. A tile that cannot be encoded fails on its
+     * own, a batch the database rejects is retried as a whole.
+     */
+    private void load(IngestJob job, Path source, List<SourceTile> batch) {
+        Map<TileCoordinate, byte[]> rasters = new LinkedHashMap<>();
+        for (SourceTile tile : batch) {
+            try {
+                rasters.put(tile.tile(), encode(job.getSpec(), source, tile));
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Failed to encode tile {} from {}: {}", tile.tile(), tile.location(), e.getMessage());
+                job.failed(tile.tile());
+            }
+        }
+        if (rasters.isEmpty()) {
+            return;
+        }
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    ingestRepository.copy(rasters);
+                    job.loaded(rasters.size());
+                    if (job.getSpec().storage() == IngestStorage.IN_DB) {
+                        summarize(rasters);
+                    }
+                    return;
+                } catch (DataAccessException e) {
+                    if (attempt == maxAttempts || job.isStopping()) {
+                        throw e;
+                    }
+                    LOGGER.debug("Retrying a batch of {} tiles after attempt {}", rasters.size(), attempt, e);
+                    job.retried();
+                    Thread.sleep(backoffMillis << attempt - 1);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rasters.keySet().forEach(job::failed);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to load a batch of {} tiles starting at {}", rasters.size(), rasters.keySet().iterator().next(), e);
+            rasters.keySet().forEach(job::failed);
+        }
+    }
+
+    /**
+     * Stores the summaries of in-db tiles, computed from the rasters as stored. A failure is only logged, the
+     * summary backfill computes the summaries that are missing.
+     */
+    private void summarize(Map<TileCoordinate, byte[]> rasters) {
+        try {
+            Map<TileCoordinate, TileSummary> summaries = new HashMap<>();
+            rasters.forEach((tile, wkb) -> summaries.put(tile, TileSummary.of(RasterWkbReader.read(wkb, false), sketchK)));
+            tileSummaryRepository.save(summaries);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to summarize a batch of {} tiles starting at {}", rasters.size(),
+                    rasters.keySet().iterator().next(), e);
+        }
+    }
+
+    private byte[] encode(IngestSpec spec, Path source, SourceTile tile) throws IOException {
+        TileCoordinate coordinate = tile.tile();
+        if (spec.storage() == IngestStorage.IN_DB) {
+            return RasterWkbWriter.write(GeoTiffReader.read(Path.of(tile.location()), false), TileMath.SRID, format);
+        }
+        double scale = TileMath.tileSize(coordinate.z()) / OUT_DB_TILE_SIZE;
+        return RasterWkbWriter.writeOutDb(OUT_DB_TILE_SIZE, OUT_DB_TILE_SIZE,
+                TileMath.minX(coordinate.z(), coordinate.x()), TileMath.maxY(coordinate.z(), coordinate.y()),
+                scale, -scale, TileMath.SRID, bandPath(source, tile));
+    }
+
+    /**
+     * The path PostGIS opens an out-db tile with: the listed one, or for a local directory the path of the file
+     * under {@code database-root} when the database server mounts the directory elsewhere.
+     */
+    private String bandPath(Path source, SourceTile tile) {
+        if (!Files.isDirectory(source) || !StringUtils.hasText(databaseRoot)) {
+            return tile.location();
+        }
+        TileCoordinate coordinate = tile.tile();
+        return databaseRoot.replaceAll("/+$", "") + "/" + coordinate.z() + "/" + coordinate.x() + "/" + coordinate.y() + ".tif";
+    }
+
+    private void report(IngestJob job, int zoom, int listed) {
+        ZoomReport report = new ZoomReport(zoom, 1L << 2 * zoom, listed, job.getZoomLoaded(), job.getZoomFailed(),
+                ingestRepository.count(zoom), job.getFailedTiles());
+        job.report(report);
+        if (report.isComplete()) {
+            LOGGER.info("Zoom {}: {} of {} listed tiles loaded, {} of {} tiles in the table", zoom, report.loaded(),
+                    listed, report.inDatabase(), report.expected());
+        } else {
+            LOGGER.warn("Zoom {} is incomplete: {} of {} listed tiles loaded, {} failed, {} of {} tiles in the table, first failures {}",
+                    zoom, report.loaded(), listed, report.failed(), report.inDatabase(), report.expected(),
+                    report.failedTiles());
+        }
+    }
+
+    private void checkpoint(IngestJob job, int zoom, int batch) {
+        if (checkpointPath == null) {
+            return;
+        }
+        try {
+            boolean sameZoom = zoom == job.getZoom();
+            new IngestCheckpoint(job.getSpec(), zoom, batch, sameZoom ? job.getZoomLoaded() : 0,
+                    sameZoom ? job.getZoomFailed() : 0, job.getReports()).write(checkpointPath);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write the ingestion checkpoint {}", checkpointPath, e);
+        }
+    }
+
+    private void deleteCheckpoint() {
+        if (checkpointPath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(checkpointPath);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete the ingestion checkpoint {}", checkpointPath, e);
+        }
+    }
+}
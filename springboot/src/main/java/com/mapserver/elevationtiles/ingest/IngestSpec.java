@@ -0,0 +1,9 @@
+package com.mapserver.elevationtiles.ingest;
+
+/**
+ * What an ingestion loads: the GeoTIFFs of zoom levels {@code minZoom} to {@code maxZoom} found in {@code source},
+ * a local directory or a listing file, loaded {@code batchSize} tiles per {@code COPY} by {@code workers} in
+ * parallel.
+ */
+public record IngestSpec(String source, int minZoom, int maxZoom, IngestStorage storage, int workers, int batchSize) {
+}
@@ -0,0 +1,21 @@
+package com.mapserver.elevationtiles.ingest;
+
+public enum IngestStorage {
+    /**
+     * Only the header and the path of the GeoTIFF are stored, and PostGIS reads the pixels through GDAL, as
+     * {@code raster2pgsql -R} does.
+     */
+    OUT_DB,
+    /**
+     * The GeoTIFF is decoded in the JVM and its pixels are stored in the database.
+     */
+    IN_DB;
+
+    public static IngestStorage of(String storage) {
+        return valueOf(storage.trim().replace('-', '_').toUpperCase());
+    }
+
+    public String getName() {
+        return name().toLowerCase().replace('_', '-');
+    }
+}
@@ -0,0 +1,9 @@
+package com.mapserver.elevationtiles.ingest;
+
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+
+/**
+ * A GeoTIFF to ingest and where it is: a local path, or the GDAL path of an object in a bucket.
+ */
+public record SourceTile(TileCoordinate tile, String location) {
+}
@@ -0,0 +1,93 @@
+package com.mapserver.elevationtiles.ingest;
+
+import com.mapserver.elevationtiles.domain.MortonOrder;
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Enumerates the GeoTIFFs of a zoom level, named {@code {z}/{x}/{y}.tif} as in the bucket, either from a local
+ * directory or from a listing of the bucket. The tiles are returned in Morton order, without duplicates.
+ */
+public final class TileListing {
+
+    private static final Pattern TILE = Pattern.compile("(\\d+)/(\\d+)/(\\d+)\\.tif$");
+
+    private TileListing() {
+    }
+
+    /**
+     * Lists the tiles of zoom level {@code z} of a directory, or of a listing file when {@code source} is a file.
+     */
+    public static List<SourceTile> list(Path source, String prefix, int z) throws IOException {
+        return Files.isDirectory(source) ? directory(source, z) : listing(source, prefix, z);
+    }
+
+    public static List<SourceTile> directory(Path root, int z) throws IOException {
+        Path level = root.resolve(String.valueOf(z));
+        TreeMap<Long, SourceTile> tiles = new TreeMap<>();
+        if (!Files.isDirectory(level)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(level, 2)) {
+            files.filter(Files::isRegularFile)
+                    .forEach(file -> parse(root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/"))
+                            .filter(tile -> tile.z() == z)
+                            .ifPresent(tile -> add(tiles, new SourceTile(tile, file.toAbsolutePath().toString()))));
+        }
+        return new ArrayList<>(tiles.values());
+    }
+
+    /**
+     * Reads a listing of one GeoTIFF per line, as paths or as the output of {@code aws s3 ls --recursive}, whose
+     * last column is the key. Entries that are not absolute paths are prefixed with {@code prefix}, the GDAL path
+     * of the bucket such as {@code /vsis3/elevation-tiles-prod/}.
+     */
+    public static List<SourceTile> listing(Path file, String prefix, int z) throws IOException {
+        TreeMap<Long, SourceTile> tiles = new TreeMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                String entry = trimmed.substring(trimmed.lastIndexOf(' ') + 1);
+                String location = entry.startsWith("/") ? entry : prefix + entry;
+                parse(entry)
+                        .filter(tile -> tile.z() == z)
+                        .ifPresent(tile -> add(tiles, new SourceTile(tile, location)));
+            }
+        }
+        return new ArrayList<>(tiles.values());
+    }
+
+    static Optional<TileCoordinate> parse(String path) {
+        Matcher matcher = TILE.matcher(path);
+        if (!matcher.find()) {
+            return Optional.empty();
+        }
+        try {
+            TileCoordinate tile = new TileCoordinate(Integer.parseInt(matcher.group(1)),
+                    Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+            int size = 1 << Math.min(tile.z(), 30);
+            boolean valid = tile.z() <= 30 && tile.x() < size && tile.y() < size;
+            return valid ? Optional.of(tile) : Optional.empty();
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static void add(TreeMap<Long, SourceTile> tiles, SourceTile tile) {
+        tiles.putIfAbsent(MortonOrder.encode(tile.tile().x(), tile.tile().y()), tile);
+    }
+}
@@ -0,0 +1,21 @@
+package com.mapserver.elevationtiles.ingest;
+
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+
+import java.util.List;
+
+/**
+ * Completeness of a zoom level once it is ingested: how many of the {@code expected} tiles of the level were
+ * listed in the source, loaded or failed, and how many the table holds. {@code failedTiles} names the first
+ * failures.
+ */
+public record ZoomReport(int z, long expected, long listed, long loaded, long failed, long inDatabase,
+                         List<TileCoordinate> failedTiles) {
+
+    /**
+     * Whether every listed tile made it into the table.
+     */
+    public boolean isComplete() {
+        return failed == 0 && inDatabase >= listed;
+    }
+}
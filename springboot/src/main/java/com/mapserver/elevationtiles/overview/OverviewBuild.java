@@ -0,0 +1,81 @@
+package com.mapserver.elevationtiles.overview;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of an overview build, which goes from {@code maxZoom} down to zoom level 0.
+ */
+public class OverviewBuild {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private final int maxZoom;
+    private final long total;
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong built = new AtomicLong();
+    private volatile Status status = Status.RUNNING;
+    private volatile int zoom;
+    private volatile long finishNanos;
+
+    OverviewBuild(int maxZoom) {
+        this.maxZoom = maxZoom;
+        this.zoom = maxZoom;
+        this.total = ((1L << 2 * (maxZoom + 1)) - 1) / 3;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Number of tiles of zoom levels 0 to {@code maxZoom}.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    /**
+     * Number of overview tiles stored, which leaves out the tiles without any child.
+     */
+    public long getBuilt() {
+        return built.get();
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public double getElapsedSeconds() {
+        long end = status == Status.RUNNING ? System.nanoTime() : finishNanos;
+        return (end - startNanos) / 1e9;
+    }
+
+    void setZoom(int zoom) {
+        this.zoom = zoom;
+    }
+
+    void processed(int tiles, int stored) {
+        processed.addAndGet(tiles);
+        built.addAndGet(stored);
+    }
+
+    void finish(Status status) {
+        this.finishNanos = System.nanoTime();
+        this.status = status;
+    }
+}
@@ -0,0 +1,160 @@
+package com.mapserver.elevationtiles.overview;
+
+import com.mapserver.elevationtiles.domain.MortonOrder;
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import com.mapserver.elevationtiles.domain.TileMath;
+import com.mapserver.elevationtiles.domain.TileRange;
+import com.mapserver.elevationtiles.exception.ConflictException;
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import com.mapserver.elevationtiles.raster.GridDownsampler;
+import com.mapserver.elevationtiles.raster.GridFormat;
+import com.mapserver.elevationtiles.raster.RasterWkbReader;
+import com.mapserver.elevationtiles.raster.RasterWkbWriter;
+import com.mapserver.elevationtiles.repository.OverviewRepository;
+import com.mapserver.elevationtiles.repository.TileBatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds the in-db overview pyramid of zoom levels 0 to {@code max-zoom}. Every level is downsampled from the
+ * level below it, {@code max-zoom} from the out-db tiles and the others from the overviews just built, so that the
+ * out-db rasters are read once. Parents are processed in Morton-ordered batches: the children of a batch are
+ * fetched with one query, downsampled in parallel and stored with one batch insert.
+ */
+@Service
+public class OverviewService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OverviewService.class);
+
+    private final TileBatchRepository tileBatchRepository;
+    private final OverviewRepository overviewRepository;
+    private final int maxZoom;
+    private final GridFormat format;
+    private final int batchSize;
+    private final boolean buildOnStartup;
+    private OverviewBuild build;
+
+    public OverviewService(TileBatchRepository tileBatchRepository, OverviewRepository overviewRepository,
+                           @Value("${elevationtiles.overview.max-zoom:5}") int maxZoom,
+                           @Value("${elevationtiles.overview.format:int16}") String format,
+                           @Value("${elevationtiles.overview.batch-size:16}") int batchSize,
+                           @Value("${elevationtiles.overview.build-on-startup:false}") boolean buildOnStartup) {
+        this.tileBatchRepository = tileBatchRepository;
+        this.overviewRepository = overviewRepository;
+        this.maxZoom = maxZoom;
+        this.format = GridFormat.of(format);
+        this.batchSize = batchSize;
+        this.buildOnStartup = buildOnStartup;
+    }
+
+    /**
+     * Builds the pyramid on the first start, when there is no overview of zoom level 0 yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfMissing() {
+        if (buildOnStartup && overviewRepository.count(0) == 0) {
+            LOGGER.info("Building the overviews of zoom levels 0 to {}", maxZoom);
+            start();
+        }
+    }
+
+    public synchronized OverviewBuild start() {
+        if (build != null && build.getStatus() == OverviewBuild.Status.RUNNING) {
+            throw new ConflictException("The overviews are already being built");
+        }
+        OverviewBuild started = new OverviewBuild(maxZoom);
+        build = started;
+        Thread.ofVirtual().name("overview-builder").start(() -> run(started));
+        return started;
+    }
+
+    public synchronized Optional<OverviewBuild> getBuild() {
+        return Optional.ofNullable(build);
+    }
+
+    private void run(OverviewBuild build) {
+        try {
+            int deleted = overviewRepository.deleteAbove(maxZoom);
+            if (deleted > 0) {
+                LOGGER.info("Deleted {} overview tiles above zoom level {}", deleted, maxZoom);
+            }
+            for (int z = maxZoom; z >= 0; z--) {
+                build.setZoom(z);
+                Iterator<TileCoordinate> parents = MortonOrder.iterator(TileRange.world(z), 0);
+                List<TileCoordinate> batch = new ArrayList<>(batchSize);
+                while (parents.hasNext()) {
+                    batch.add(parents.next());
+                    if (batch.size() == batchSize || !parents.hasNext()) {
+                        buildBatch(build, batch);
+                        batch.clear();
+                    }
+                }
+            }
+            build.finish(OverviewBuild.Status.COMPLETED);
+            LOGGER.info("Built {} overview tiles in {} s", build.getBuilt(), Math.round(build.getElapsedSeconds()));
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to build the overviews of zoom level {}", build.getZoom(), e);
+            build.finish(OverviewBuild.Status.FAILED);
+        }
+    }
+
+    private void buildBatch(OverviewBuild build, List<TileCoordinate> parents) {
+        List<TileCoordinate> children = new ArrayList<>(parents.size() * 4);
+        for (TileCoordinate parent : parents) {
+            for (int quadrant = 0; quadrant < 4; quadrant++) {
+                children.add(child(parent, quadrant));
+            }
+        }
+        Map<TileCoordinate, ElevationGrid> grids = new HashMap<>();
+        tileBatchRepository.findRasters(children, (tile, wkb) -> grids.put(tile, RasterWkbReader.read(wkb, false)));
+
+        Map<TileCoordinate, byte[]> overviews = new ConcurrentHashMap<>();
+        parents.parallelStream().forEach(parent -> downsample(parent, grids).ifPresent(wkb -> overviews.put(parent, wkb)));
+        if (!overviews.isEmpty()) {
+            overviewRepository.save(overviews);
+        }
+        build.processed(parents.size(), overviews.size());
+    }
+
+    private Optional<byte[]> downsample(TileCoordinate parent, Map<TileCoordinate, ElevationGrid> grids) {
+        ElevationGrid[] children = new ElevationGrid[4];
+        int size = 0;
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            children[quadrant] = grids.get(child(parent, quadrant));
+            if (children[quadrant] != null) {
+                size = children[quadrant].getWidth();
+            }
+        }
+        if (size == 0) {
+            return Optional.empty();
+        }
+        double scale = TileMath.tileSize(parent.z()) / size;
+        try {
+            ElevationGrid grid = GridDownsampler.downsample(children, size,
+                    TileMath.minX(parent.z(), parent.x()), TileMath.maxY(parent.z(), parent.y()), scale, -scale);
+            return Optional.of(RasterWkbWriter.write(grid, TileMath.SRID, format));
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Skipping the overview of tile {}: {}", parent, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The north-west, north-east, south-west and south-east children of the tile, for quadrants 0 to 3.
+     */
+    private static TileCoordinate child(TileCoordinate parent, int quadrant) {
+        return new TileCoordinate(parent.z() + 1, parent.x() * 2 + (quadrant & 1), parent.y() * 2 + (quadrant >> 1));
+    }
+}
@@ -0,0 +1,16 @@
+package com.mapserver.elevationtiles.point;
+
+public enum Interpolation {
+    /**
+     * The value of the pixel holding the point.
+     */
+    NEAREST,
+    /**
+     * The values of the four pixels around the point weighted by their distance, the nodata ones left out.
+     */
+    BILINEAR;
+
+    public static Interpolation of(String interpolation) {
+        return valueOf(interpolation.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,178 @@
+package com.mapserver.elevationtiles.point;
+
+import com.mapserver.elevationtiles.domain.MortonOrder;
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import com.mapserver.elevationtiles.domain.TileMath;
+import com.mapserver.elevationtiles.exception.InvalidParameterException;
+import com.mapserver.elevationtiles.exception.ServiceUnavailableException;
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import com.mapserver.elevationtiles.service.ElevationGridService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Looks up the elevations of many points at once. The points are sorted by the tile holding them, in Morton order,
+ * and every tile is read once, with the tiles near each other in the same query and a few queries in parallel.
+ * <p>
+ * Without a zoom level, the points are looked up at {@code max-zoom} first, then the points left without an
+ * elevation, off the loaded tiles or on nodata, at each coarser zoom level in turn.
+ */
+@Service
+public class PointElevationService {
+
+    private final ElevationGridService elevationGridService;
+    private final int maxPoints;
+    private final int maxZoom;
+    private final int workers;
+    private final int batchSize;
+    private final int retryAfterSeconds;
+
+    public PointElevationService(ElevationGridService elevationGridService,
+                                 @Value("${elevationtiles.points.max-points:100000}") int maxPoints,
+                                 @Value("${elevationtiles.points.max-zoom:15}") int maxZoom,
+                                 @Value("${elevationtiles.points.workers:4}") int workers,
+                                 @Value("${elevationtiles.points.batch-size:32}") int batchSize,
+                                 @Value("${elevationtiles.db.retry-after-seconds:1}") int retryAfterSeconds) {
+        if (maxZoom < 0 || maxZoom > 15) {
+            throw new IllegalArgumentException("elevationtiles.points.max-zoom must be between 0 and 15");
+        }
+        if (workers < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("elevationtiles.points.workers and batch-size must be at least 1");
+        }
+        this.elevationGridService = elevationGridService;
+        this.maxPoints = maxPoints;
+        this.maxZoom = maxZoom;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public PointElevations lookup(PointQuery query) {
+        double[] lons = query.lons();
+        double[] lats = query.lats();
+        Integer z = query.z();
+        if (lons.length != lats.length) {
+            throw new InvalidParameterException("Every point should have a longitude and a latitude");
+        }
+        if (lons.length > maxPoints) {
+            throw new InvalidParameterException("A request holds at most " + maxPoints + " points");
+        }
+        if (z != null && (z < 0 || z > 15)) {
+            throw new InvalidParameterException("zoom level should be between 0 and 15");
+        }
+        double[] xs = new double[lons.length];
+        double[] ys = new double[lats.length];
+        for (int i = 0; i < lons.length; i++) {
+            if (!(lons[i] >= -180 && lons[i] <= 180 && lats[i] >= -90 && lats[i] <= 90)) {
+                throw new InvalidParameterException("Point " + i + " (" + lons[i] + ", " + lats[i]
+                        + ") is not a WGS84 longitude and latitude");
+            }
+            xs[i] = TileMath.mercatorX(lons[i]);
+            ys[i] = TileMath.mercatorY(lats[i]);
+        }
+        PointElevations result = new PointElevations(lons, lats, new float[lons.length], new byte[lons.length]);
+        Arrays.fill(result.elevations(), Float.NaN);
+        Arrays.fill(result.zooms(), PointElevations.NO_ZOOM);
+
+        int[] pending = new int[lons.length];
+        Arrays.setAll(pending, i -> i);
+        for (int zoom = z == null ? maxZoom : z; zoom >= (z == null ? 0 : z) && pending.length > 0; zoom--) {
+            lookup(zoom, pending, xs, ys, query.interpolation(), result);
+            pending = Arrays.stream(pending).filter(i -> Float.isNaN(result.elevations()[i])).toArray();
+        }
+        return result;
+    }
+
+    /**
+     * Looks up the points at one zoom level. The Morton code of the tile and the index of the point are packed in
+     * a long, so that sorting a primitive array groups the points by tile.
+     */
+    private void lookup(int z, int[] points, double[] xs, double[] ys, Interpolation interpolation,
+                        PointElevations result) {
+        long[] sorted = new long[points.length];
+        for (int i = 0; i < points.length; i++) {
+            int point = points[i];
+            int column = TileMath.column(z, result.lons()[point]);
+            int row = TileMath.row(z, result.lats()[point]);
+            sorted[i] = MortonOrder.encode(column, row) << Integer.SIZE | point;
+        }
+        Arrays.sort(sorted);
+
+        List<TileCoordinate> tiles = new ArrayList<>();
+        int[] starts = new int[sorted.length + 1];
+        for (int i = 0; i < sorted.length; i++) {
+            long code = sorted[i] >>> Integer.SIZE;
+            if (i == 0 || code != sorted[i - 1] >>> Integer.SIZE) {
+                starts[tiles.size()] = i;
+                tiles.add(new TileCoordinate(z, MortonOrder.decodeX(code), MortonOrder.decodeY(code)));
+            }
+        }
+        starts[tiles.size()] = sorted.length;
+
+        int pages = (tiles.size() + batchSize - 1) / batchSize;
+        forEachPage(pages, page -> {
+            int first = page * batchSize;
+            int last = Math.min(tiles.size(), first + batchSize);
+            Map<TileCoordinate, Optional<ElevationGrid>> grids = elevationGridService.read(tiles.subList(first, last));
+            for (int tile = first; tile < last; tile++) {
+                Optional<ElevationGrid> grid = grids.getOrDefault(tiles.get(tile), Optional.empty());
+                if (grid.isEmpty()) {
+                    continue;
+                }
+                for (int i = starts[tile]; i < starts[tile + 1]; i++) {
+                    int point = (int) sorted[i];
+                    float elevation = PointSampler.sample(grid.get(), xs[point], ys[point], interpolation);
+                    if (!Float.isNaN(elevation)) {
+                        result.elevations()[point] = elevation;
+                        result.zooms()[point] = (byte) z;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the pages on up to {@code workers} threads, each one taking every {@code workers}th page.
+     */
+    private void forEachPage(int pages, IntConsumer action) {
+        if (pages <= 1) {
+            for (int page = 0; page < pages; page++) {
+                action.accept(page);
+            }
+            return;
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int worker = 0; worker < Math.min(workers, pages); worker++) {
+                int first = worker;
+                futures.add(executor.submit(() -> {
+                    for (int page = first; page < pages; page += workers) {
+                        action.accept(page);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted looking up point elevations", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.mapserver.elevationtiles.point;
+
+/**
+ * The elevations of points in the order they were given, {@code NaN} where there is none, and the zoom level each
+ * one was read at, {@link #NO_ZOOM} where there is none.
+ */
+public record PointElevations(double[] lons, double[] lats, float[] elevations, byte[] zooms) {
+
+    public static final byte NO_ZOOM = -1;
+
+    public int size() {
+        return elevations.length;
+    }
+}
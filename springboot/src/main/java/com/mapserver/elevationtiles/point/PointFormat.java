@@ -0,0 +1,30 @@
+package com.mapserver.elevationtiles.point;
+
+public enum PointFormat {
+    /**
+     * A JSON array of {@code {"lon", "lat", "elevation", "z"}} objects.
+     */
+    JSON("application/json"),
+    /**
+     * The same objects, one per line.
+     */
+    NDJSON("application/x-ndjson"),
+    /**
+     * The elevations as little-endian floats, then the zoom levels they were read at.
+     */
+    BINARY("application/octet-stream");
+
+    private final String mediaType;
+
+    PointFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static PointFormat of(String format) {
+        return valueOf(format.trim().toUpperCase());
+    }
+}
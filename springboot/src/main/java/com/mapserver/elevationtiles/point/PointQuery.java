@@ -0,0 +1,8 @@
+package com.mapserver.elevationtiles.point;
+
+/**
+ * Points to look up, at zoom level {@code z} or at the finest zoom level that has an elevation when {@code z} is
+ * {@code null}.
+ */
+public record PointQuery(double[] lons, double[] lats, Integer z, Interpolation interpolation) {
+}
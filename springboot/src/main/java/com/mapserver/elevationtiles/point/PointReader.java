@@ -0,0 +1,34 @@
+package com.mapserver.elevationtiles.point;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reads points sent as little-endian doubles, {@code lon f64 | lat f64} for each point.
+ */
+public final class PointReader {
+
+    public static final int POINT_BYTES = 2 * Double.BYTES;
+
+    private PointReader() {
+    }
+
+    /**
+     * Returns the longitudes and the latitudes of the points.
+     */
+    public static double[][] read(byte[] body) {
+        if (body.length % POINT_BYTES != 0) {
+            throw new IllegalArgumentException("The body should hold " + POINT_BYTES + " bytes per point, not "
+                    + body.length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+        int count = body.length / POINT_BYTES;
+        double[] lons = new double[count];
+        double[] lats = new double[count];
+        for (int i = 0; i < count; i++) {
+            lons[i] = buffer.getDouble();
+            lats[i] = buffer.getDouble();
+        }
+        return new double[][]{lons, lats};
+    }
+}
@@ -0,0 +1,43 @@
+package com.mapserver.elevationtiles.point;
+
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+
+/**
+ * Reads the elevation of a Web Mercator point from the grid of the tile holding it. Pixel values stand for their
+ * centers; within half a pixel of the border of the tile the border pixels are used.
+ */
+public final class PointSampler {
+
+    private PointSampler() {
+    }
+
+    public static float sample(ElevationGrid grid, double x, double y, Interpolation interpolation) {
+        double column = (x - grid.getUpperLeftX()) / grid.getScaleX() - 0.5;
+        double row = (y - grid.getUpperLeftY()) / grid.getScaleY() - 0.5;
+        if (interpolation == Interpolation.NEAREST) {
+            return grid.get(clamp(Math.round(column), grid.getWidth()), clamp(Math.round(row), grid.getHeight()));
+        }
+        int left = clamp((long) Math.floor(column), grid.getWidth());
+        int top = clamp((long) Math.floor(row), grid.getHeight());
+        int right = Math.min(left + 1, grid.getWidth() - 1);
+        int bottom = Math.min(top + 1, grid.getHeight() - 1);
+        double fx = Math.max(0, Math.min(1, column - left));
+        double fy = Math.max(0, Math.min(1, row - top));
+
+        double sum = 0;
+        double weights = 0;
+        float[] values = {grid.get(left, top), grid.get(right, top), grid.get(left, bottom), grid.get(right, bottom)};
+        double[] weight = {(1 - fx) * (1 - fy), fx * (1 - fy), (1 - fx) * fy, fx * fy};
+        for (int i = 0; i < values.length; i++) {
+            if (!Float.isNaN(values[i]) && weight[i] > 0) {
+                sum += values[i] * weight[i];
+                weights += weight[i];
+            }
+        }
+        return weights == 0 ? Float.NaN : (float) (sum / weights);
+    }
+
+    private static int clamp(long index, int size) {
+        return (int) Math.max(0, Math.min(size - 1, index));
+    }
+}
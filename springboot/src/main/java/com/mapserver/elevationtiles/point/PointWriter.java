@@ -0,0 +1,86 @@
+package com.mapserver.elevationtiles.point;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams point elevations in input order. JSON and NDJSON hold one object per point,
+ * {@code {"lon":7.65,"lat":45.97,"elevation":4478.0,"z":12}}, with a {@code null} elevation and zoom level where
+ * there is none. The binary format is a little-endian header followed by two arrays:
+ * <pre>
+ * magic "ETPE" | version u8 | reserved u8[3] | points u32
+ * elevation f32[points] (NaN where there is none) | z u8[points] (255 where there is none)
+ * </pre>
+ */
+public final class PointWriter {
+
+    public static final int HEADER_BYTES = 12;
+
+    private static final byte[] MAGIC = {'E', 'T', 'P', 'E'};
+    private static final int VERSION = 1;
+    private static final int CHUNK_POINTS = 8192;
+
+    private PointWriter() {
+    }
+
+    public static long contentLength(PointElevations points, PointFormat format) {
+        return format == PointFormat.BINARY ? HEADER_BYTES + (long) points.size() * (Float.BYTES + 1) : -1;
+    }
+
+    public static void write(PointElevations points, PointFormat format, OutputStream out) throws IOException {
+        if (format == PointFormat.BINARY) {
+            writeBinary(points, out);
+            return;
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        boolean json = format == PointFormat.JSON;
+        if (json) {
+            writer.write('[');
+        }
+        for (int i = 0; i < points.size(); i++) {
+            if (json && i > 0) {
+                writer.write(',');
+            }
+            writer.write("{\"lon\":");
+            writer.write(Double.toString(points.lons()[i]));
+            writer.write(",\"lat\":");
+            writer.write(Double.toString(points.lats()[i]));
+            writer.write(",\"elevation\":");
+            float elevation = points.elevations()[i];
+            writer.write(Float.isNaN(elevation) ? "null" : Float.toString(elevation));
+            writer.write(",\"z\":");
+            byte z = points.zooms()[i];
+            writer.write(z == PointElevations.NO_ZOOM ? "null" : Integer.toString(z));
+            writer.write(json ? "}" : "}\n");
+        }
+        if (json) {
+            writer.write(']');
+        }
+        writer.flush();
+    }
+
+    private static void writeBinary(PointElevations points, OutputStream out) throws IOException {
+        out.write(ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .put(MAGIC)
+                .put((byte) VERSION)
+                .put(new byte[3])
+                .putInt(points.size())
+                .array());
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_POINTS * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int from = 0; from < points.size(); from += CHUNK_POINTS) {
+            chunk.clear();
+            for (int i = from; i < Math.min(points.size(), from + CHUNK_POINTS); i++) {
+                chunk.putFloat(points.elevations()[i]);
+            }
+            out.write(chunk.array(), 0, chunk.position());
+        }
+        out.write(points.zooms());
+        out.flush();
+    }
+}
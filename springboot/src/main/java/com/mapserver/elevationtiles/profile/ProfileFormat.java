@@ -0,0 +1,26 @@
+package com.mapserver.elevationtiles.profile;
+
+public enum ProfileFormat {
+    /**
+     * One JSON object, the samples first and the totals after them.
+     */
+    JSON("application/json"),
+    /**
+     * One sample per line, then a last line with the totals.
+     */
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    ProfileFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static ProfileFormat of(String format) {
+        return valueOf(format.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,74 @@
+package com.mapserver.elevationtiles.profile;
+
+/**
+ * A WGS84 line string, walked at a fixed spacing along its great-circle length.
+ */
+public record ProfileLine(double[] lons, double[] lats) {
+
+    public static final double EARTH_RADIUS = 6371008.8;
+
+    /**
+     * Receives the points of a walk, with their distance from the start of the line in metres.
+     */
+    @FunctionalInterface
+    public interface PointConsumer {
+        void accept(double distance, double lon, double lat);
+    }
+
+    public ProfileLine {
+        if (lons.length != lats.length || lons.length < 2) {
+            throw new IllegalArgumentException("A line string has at least two points");
+        }
+    }
+
+    public int size() {
+        return lons.length;
+    }
+
+    /**
+     * Length of the line in metres.
+     */
+    public double length() {
+        double length = 0;
+        for (int i = 1; i < lons.length; i++) {
+            length += distance(lons[i - 1], lats[i - 1], lons[i], lats[i]);
+        }
+        return length;
+    }
+
+    /**
+     * Hands over the points every {@code spacing} metres from the start of the line, then its end. The points are
+     * interpolated linearly in longitude and latitude within each segment, which is close enough for segments of
+     * a few kilometres.
+     */
+    public void walk(double spacing, PointConsumer consumer) {
+        double start = 0;
+        double next = 0;
+        for (int i = 1; i < lons.length; i++) {
+            double length = distance(lons[i - 1], lats[i - 1], lons[i], lats[i]);
+            if (length == 0) {
+                continue;
+            }
+            while (next <= start + length) {
+                double t = (next - start) / length;
+                consumer.accept(next, lons[i - 1] + t * (lons[i] - lons[i - 1]), lats[i - 1] + t * (lats[i] - lats[i - 1]));
+                next += spacing;
+            }
+            start += length;
+        }
+        if (next - spacing < start) {
+            consumer.accept(start, lons[lons.length - 1], lats[lats.length - 1]);
+        }
+    }
+
+    /**
+     * Haversine distance in metres.
+     */
+    public static double distance(double lon1, double lat1, double lon2, double lat2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,7 @@
+package com.mapserver.elevationtiles.profile;
+
+/**
+ * A line to profile every {@code spacing} metres at zoom level {@code z}, into {@code samples} samples.
+ */
+public record ProfilePlan(ProfileLine line, double spacing, int z, long samples) {
+}
@@ -0,0 +1,7 @@
+package com.mapserver.elevationtiles.profile;
+
+/**
+ * A point of a profile, {@code distance} metres along the line, with a {@code NaN} elevation where there is none.
+ */
+public record ProfileSample(double distance, double lon, double lat, float elevation) {
+}
@@ -0,0 +1,212 @@
+package com.mapserver.elevationtiles.profile;
+
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import com.mapserver.elevationtiles.domain.TileMath;
+import com.mapserver.elevationtiles.exception.InvalidParameterException;
+import com.mapserver.elevationtiles.exception.ServiceUnavailableException;
+import com.mapserver.elevationtiles.point.Interpolation;
+import com.mapserver.elevationtiles.point.PointSampler;
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import com.mapserver.elevationtiles.service.ElevationGridService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Elevation profiles along a line, sampled every {@code spacing} metres at the zoom level whose pixels are no larger
+ * than the spacing.
+ * <p>
+ * The line is walked twice. The first walk only lists the tiles the samples fall in, in the order the line enters
+ * them. The second one reads the elevations and hands the samples over one by one, while the tiles are read in that
+ * order, a page of nearby tiles per query, with the next page already being read. Only the grids of the last two
+ * pages are kept, so memory depends on the page size, not on the length of the line; a tile is read again only
+ * when the line comes back to it after its page has been dropped.
+ */
+@Service
+public class ProfileService {
+
+    /**
+     * Width of the elevation tiles in pixels.
+     */
+    public static final int TILE_PIXELS = 256;
+
+    private final ElevationGridService elevationGridService;
+    private final int maxZoom;
+    private final long maxSamples;
+    private final int batchSize;
+    private final int retryAfterSeconds;
+
+    public ProfileService(ElevationGridService elevationGridService,
+                          @Value("${elevationtiles.points.max-zoom:15}") int maxZoom,
+                          @Value("${elevationtiles.profile.max-samples:1000000}") long maxSamples,
+                          @Value("${elevationtiles.profile.batch-size:16}") int batchSize,
+                          @Value("${elevationtiles.db.retry-after-seconds:1}") int retryAfterSeconds) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("elevationtiles.profile.batch-size must be at least 1");
+        }
+        this.elevationGridService = elevationGridService;
+        this.maxZoom = maxZoom;
+        this.maxSamples = maxSamples;
+        this.batchSize = batchSize;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Checks the line and picks the zoom level, before anything is streamed.
+     */
+    public ProfilePlan plan(ProfileLine line, double spacing, Integer z) {
+        if (!(spacing > 0)) {
+            throw new InvalidParameterException("The spacing should be a positive number of metres");
+        }
+        if (z != null && (z < 0 || z > 15)) {
+            throw new InvalidParameterException("zoom level should be between 0 and 15");
+        }
+        double minAbsLat = 90;
+        for (int i = 0; i < line.size(); i++) {
+            double lon = line.lons()[i];
+            double lat = line.lats()[i];
+            if (!(lon >= -180 && lon <= 180 && lat >= -90 && lat <= 90)) {
+                throw new InvalidParameterException("Point " + i + " (" + lon + ", " + lat
+                        + ") is not a WGS84 longitude and latitude");
+            }
+            minAbsLat = Math.min(minAbsLat, Math.abs(lat));
+        }
+        long samples = (long) Math.floor(line.length() / spacing) + 2;
+        if (samples > maxSamples) {
+            throw new InvalidParameterException("A profile holds at most " + maxSamples + " samples, use a larger spacing");
+        }
+        return new ProfilePlan(line, spacing, z == null ? zoom(spacing, minAbsLat, maxZoom) : z, samples);
+    }
+
+    /**
+     * The coarsest zoom level, up to {@code maxZoom}, whose pixels at latitude {@code lat} are no larger than
+     * {@code spacing} metres on the ground.
+     */
+    public static int zoom(double spacing, double lat, int maxZoom) {
+        double pixelSize = 2 * TileMath.ORIGIN_SHIFT / TILE_PIXELS * Math.cos(Math.toRadians(Math.min(lat, TileMath.MAX_LATITUDE)));
+        int z = (int) Math.ceil(Math.log(pixelSize / spacing) / Math.log(2));
+        return Math.max(0, Math.min(maxZoom, z));
+    }
+
+    /**
+     * Hands the samples over in order along the line and returns the totals.
+     */
+    public ProfileStatistics profile(ProfilePlan plan, Interpolation interpolation, SampleConsumer consumer)
+            throws IOException {
+        int z = plan.z();
+        Map<TileCoordinate, Integer> order = new LinkedHashMap<>();
+        plan.line().walk(plan.spacing(), (distance, lon, lat) ->
+                order.putIfAbsent(new TileCoordinate(z, TileMath.column(z, lon), TileMath.row(z, lat)), order.size()));
+
+        ProfileStatistics statistics = new ProfileStatistics();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            TileReader tiles = new TileReader(new ArrayList<>(order.keySet()), order, executor);
+            plan.line().walk(plan.spacing(), (distance, lon, lat) -> {
+                TileCoordinate tile = new TileCoordinate(z, TileMath.column(z, lon), TileMath.row(z, lat));
+                float elevation = tiles.get(tile)
+                        .map(grid -> PointSampler.sample(grid, TileMath.mercatorX(lon), TileMath.mercatorY(lat), interpolation))
+                        .orElse(Float.NaN);
+                ProfileSample sample = new ProfileSample(distance, lon, lat, elevation);
+                statistics.add(sample);
+                try {
+                    consumer.accept(sample);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return statistics;
+    }
+
+    @FunctionalInterface
+    public interface SampleConsumer {
+        void accept(ProfileSample sample) throws IOException;
+    }
+
+    /**
+     * Reads the tiles page by page in the order the line enters them, one page ahead, keeping the last two pages.
+     */
+    private final class TileReader {
+
+        private record Page(int end, Map<TileCoordinate, Optional<ElevationGrid>> grids) {
+        }
+
+        private final List<TileCoordinate> tiles;
+        private final Map<TileCoordinate, Integer> positions;
+        private final ExecutorService executor;
+        private final Map<TileCoordinate, Optional<ElevationGrid>> grids;
+        private int requested;
+        private int delivered;
+        private Future<Page> ahead;
+
+        TileReader(List<TileCoordinate> tiles, Map<TileCoordinate, Integer> positions, ExecutorService executor) {
+            this.tiles = tiles;
+            this.positions = positions;
+            this.executor = executor;
+            this.grids = new LinkedHashMap<>(4 * batchSize, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<TileCoordinate, Optional<ElevationGrid>> eldest) {
+                    return size() > 2 * batchSize;
+                }
+            };
+        }
+
+        Optional<ElevationGrid> get(TileCoordinate tile) {
+            Optional<ElevationGrid> grid = grids.get(tile);
+            if (grid != null) {
+                return grid;
+            }
+            if (positions.get(tile) < delivered) {
+                grid = elevationGridService.read(List.of(tile)).getOrDefault(tile, Optional.empty());
+                grids.put(tile, grid);
+                return grid;
+            }
+            while (positions.get(tile) >= delivered) {
+                Page page = await(ahead != null ? ahead : request());
+                ahead = requested < tiles.size() ? request() : null;
+                grids.putAll(page.grids());
+                delivered = page.end();
+            }
+            return grids.getOrDefault(tile, Optional.empty());
+        }
+
+        private Future<Page> request() {
+            List<TileCoordinate> page = tiles.subList(requested, Math.min(tiles.size(), requested + batchSize));
+            requested += page.size();
+            int end = requested;
+            return executor.submit(() -> {
+                Map<TileCoordinate, Optional<ElevationGrid>> read = new HashMap<>(elevationGridService.read(page));
+                page.forEach(tile -> read.putIfAbsent(tile, Optional.empty()));
+                return new Page(end, read);
+            });
+        }
+
+        private Page await(Future<Page> page) {
+            try {
+                return page.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Interrupted reading the tiles of a profile", retryAfterSeconds);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+}
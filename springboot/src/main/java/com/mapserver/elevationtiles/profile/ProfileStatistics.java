@@ -0,0 +1,71 @@
+package com.mapserver.elevationtiles.profile;
+
+/**
+ * Totals of a profile, updated sample by sample. Ascent, descent and grade are taken between consecutive samples
+ * that have an elevation; the grade is in percent, uphill or downhill.
+ */
+public final class ProfileStatistics {
+
+    private long samples;
+    private double distance;
+    private double ascent;
+    private double descent;
+    private double maxGrade;
+    private float minElevation = Float.NaN;
+    private float maxElevation = Float.NaN;
+    private double lastDistance;
+    private float lastElevation = Float.NaN;
+
+    public void add(ProfileSample sample) {
+        samples++;
+        distance = sample.distance();
+        float elevation = sample.elevation();
+        if (Float.isNaN(elevation)) {
+            return;
+        }
+        minElevation = Float.isNaN(minElevation) ? elevation : Math.min(minElevation, elevation);
+        maxElevation = Float.isNaN(maxElevation) ? elevation : Math.max(maxElevation, elevation);
+        if (!Float.isNaN(lastElevation)) {
+            double rise = elevation - lastElevation;
+            if (rise > 0) {
+                ascent += rise;
+            } else {
+                descent -= rise;
+            }
+            double run = sample.distance() - lastDistance;
+            if (run > 0) {
+                maxGrade = Math.max(maxGrade, Math.abs(rise) / run * 100);
+            }
+        }
+        lastDistance = sample.distance();
+        lastElevation = elevation;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public double getAscent() {
+        return ascent;
+    }
+
+    public double getDescent() {
+        return descent;
+    }
+
+    public double getMaxGrade() {
+        return maxGrade;
+    }
+
+    public float getMinElevation() {
+        return minElevation;
+    }
+
+    public float getMaxElevation() {
+        return maxElevation;
+    }
+}
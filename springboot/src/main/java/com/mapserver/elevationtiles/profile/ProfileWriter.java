@@ -0,0 +1,67 @@
+package com.mapserver.elevationtiles.profile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams a profile as its samples are read. Samples are {@code {"distance":0.0,"lon":7.65,"lat":45.97,"elevation":4478.0}},
+ * with a {@code null} elevation where there is none. JSON is
+ * {@code {"z":12,"spacing":25.0,"samples":[...],"distance":2975.3,"ascent":412.0,"descent":88.5,"maxGrade":38.2,"minElevation":3020.0,"maxElevation":4478.0}};
+ * NDJSON writes one sample per line, then the same object with the number of samples in place of the array.
+ */
+public final class ProfileWriter {
+
+    private final Writer writer;
+    private final ProfileFormat format;
+    private final ProfilePlan plan;
+    private boolean first = true;
+
+    public ProfileWriter(OutputStream out, ProfileFormat format, ProfilePlan plan) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.format = format;
+        this.plan = plan;
+        if (format == ProfileFormat.JSON) {
+            writer.write("{\"z\":" + plan.z() + ",\"spacing\":" + plan.spacing() + ",\"samples\":[");
+        }
+    }
+
+    public void write(ProfileSample sample) throws IOException {
+        if (format == ProfileFormat.JSON && !first) {
+            writer.write(',');
+        }
+        first = false;
+        writer.write("{\"distance\":");
+        writer.write(Double.toString(sample.distance()));
+        writer.write(",\"lon\":");
+        writer.write(Double.toString(sample.lon()));
+        writer.write(",\"lat\":");
+        writer.write(Double.toString(sample.lat()));
+        writer.write(",\"elevation\":");
+        writer.write(number(sample.elevation()));
+        writer.write(format == ProfileFormat.JSON ? "}" : "}\n");
+    }
+
+    public void finish(ProfileStatistics statistics) throws IOException {
+        String totals = "\"distance\":" + statistics.getDistance()
+                + ",\"ascent\":" + statistics.getAscent()
+                + ",\"descent\":" + statistics.getDescent()
+                + ",\"maxGrade\":" + statistics.getMaxGrade()
+                + ",\"minElevation\":" + number(statistics.getMinElevation())
+                + ",\"maxElevation\":" + number(statistics.getMaxElevation());
+        if (format == ProfileFormat.JSON) {
+            writer.write("]," + totals + "}");
+        } else {
+            writer.write("{\"z\":" + plan.z() + ",\"spacing\":" + plan.spacing() + ",\"samples\":"
+                    + statistics.getSamples() + "," + totals + "}\n");
+        }
+        writer.flush();
+    }
+
+    private static String number(float value) {
+        return Float.isNaN(value) ? "null" : Float.toString(value);
+    }
+}
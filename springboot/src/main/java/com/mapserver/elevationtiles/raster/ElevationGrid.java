@@ -0,0 +1,98 @@
+package com.mapserver.elevationtiles.raster;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Decoded pixels of the first band of a tile, row by row, with nodata stored as {@code NaN}.
+ * The values live in a direct buffer when the grid is kept off-heap.
+ */
+public final class ElevationGrid {
+
+    private final int width;
+    private final int height;
+    private final double upperLeftX;
+    private final double upperLeftY;
+    private final double scaleX;
+    private final double scaleY;
+    private final FloatBuffer values;
+
+    public ElevationGrid(int width, int height, double upperLeftX, double upperLeftY, double scaleX, double scaleY, FloatBuffer values) {
+        this.width = width;
+        this.height = height;
+        this.upperLeftX = upperLeftX;
+        this.upperLeftY = upperLeftY;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        this.values = values;
+    }
+
+    public static FloatBuffer allocate(int size, boolean offHeap) {
+        return offHeap
+                ? ByteBuffer.allocateDirect(size * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer()
+                : FloatBuffer.allocate(size);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public double getUpperLeftX() {
+        return upperLeftX;
+    }
+
+    public double getUpperLeftY() {
+        return upperLeftY;
+    }
+
+    public double getScaleX() {
+        return scaleX;
+    }
+
+    public double getScaleY() {
+        return scaleY;
+    }
+
+    public int size() {
+        return width * height;
+    }
+
+    public int sizeInBytes() {
+        return size() * Float.BYTES;
+    }
+
+    public float get(int index) {
+        return values.get(index);
+    }
+
+    public float get(int column, int row) {
+        return values.get(row * width + column);
+    }
+
+    /**
+     * Copies the grid into {@code target}, a row-major array {@code targetWidth} wide, starting at the given offset.
+     */
+    public void copyTo(float[] target, int targetWidth, int offsetX, int offsetY) {
+        copyTo(target, targetWidth, offsetX, offsetY, 0, 0, width, height);
+    }
+
+    /**
+     * Copies the {@code columns} x {@code rows} block starting at {@code (fromX, fromY)} of the grid into {@code target}.
+     */
+    public void copyTo(float[] target, int targetWidth, int offsetX, int offsetY, int fromX, int fromY, int columns, int rows) {
+        for (int row = 0; row < rows; row++) {
+            values.get((row + fromY) * width + fromX, target, (row + offsetY) * targetWidth + offsetX, columns);
+        }
+    }
+
+    public float[] toArray() {
+        float[] target = new float[size()];
+        values.get(0, target);
+        return target;
+    }
+}
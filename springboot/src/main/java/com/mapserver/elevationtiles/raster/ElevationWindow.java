@@ -0,0 +1,98 @@
+package com.mapserver.elevationtiles.raster;
+
+import java.util.Arrays;
+
+/**
+ * A tile grid surrounded by {@code halo} pixels borrowed from its neighbours, so that neighbourhood operations give
+ * the same result on the edge of the tile as inside it. Pixels without a neighbouring tile are {@code NaN}.
+ */
+public final class ElevationWindow {
+
+    private final int width;
+    private final int height;
+    private final int halo;
+    private final double scaleX;
+    private final double scaleY;
+    private final float[] values;
+
+    public ElevationWindow(int width, int height, int halo, double scaleX, double scaleY, float[] values) {
+        this.width = width;
+        this.height = height;
+        this.halo = halo;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        this.values = values;
+    }
+
+    /**
+     * Returns a window holding the grid, with a halo of nodata until neighbours are {@link #fill filled} in.
+     */
+    public static ElevationWindow of(ElevationGrid grid, int halo) {
+        float[] values = new float[(grid.getWidth() + 2 * halo) * (grid.getHeight() + 2 * halo)];
+        Arrays.fill(values, Float.NaN);
+        grid.copyTo(values, grid.getWidth() + 2 * halo, halo, halo);
+        return new ElevationWindow(grid.getWidth(), grid.getHeight(), halo, grid.getScaleX(), grid.getScaleY(), values);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getHalo() {
+        return halo;
+    }
+
+    public double getScaleX() {
+        return scaleX;
+    }
+
+    public double getScaleY() {
+        return scaleY;
+    }
+
+    /**
+     * Row-major values, {@code width + 2 * halo} wide.
+     */
+    public float[] getValues() {
+        return values;
+    }
+
+    /**
+     * Returns the values with a border of exactly {@code pad} pixels, copying only when the halo is different.
+     */
+    public float[] padded(int pad) {
+        if (pad == halo) {
+            return values;
+        }
+        int stride = width + 2 * halo;
+        int paddedWidth = width + 2 * pad;
+        int paddedHeight = height + 2 * pad;
+        float[] target = new float[paddedWidth * paddedHeight];
+        Arrays.fill(target, Float.NaN);
+        int skip = Math.max(halo - pad, 0);
+        int offset = Math.max(pad - halo, 0);
+        int columns = width + 2 * Math.min(pad, halo);
+        for (int row = 0; row < height + 2 * Math.min(pad, halo); row++) {
+            System.arraycopy(values, (row + skip) * stride + skip, target, (row + offset) * paddedWidth + offset, columns);
+        }
+        return target;
+    }
+
+    /**
+     * Copies the part of a neighbouring grid, {@code dx} tiles across and {@code dy} tiles down, that falls inside the window.
+     */
+    public void fill(ElevationGrid grid, int dx, int dy) {
+        int stride = width + 2 * halo;
+        int columns = dx == 0 ? width : halo;
+        int rows = dy == 0 ? height : halo;
+        int fromX = dx < 0 ? width - halo : 0;
+        int fromY = dy < 0 ? height - halo : 0;
+        int offsetX = halo + dx * (dx < 0 ? halo : width);
+        int offsetY = halo + dy * (dy < 0 ? halo : height);
+        grid.copyTo(values, stride, offsetX, offsetY, fromX, fromY, columns, rows);
+    }
+}
@@ -0,0 +1,67 @@
+package com.mapserver.elevationtiles.raster;
+
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+/**
+ * A local copy of the source GeoTIFFs in their {@code {z}/{x}/{y}.tif} layout, read directly instead of going
+ * through PostGIS and its out-db reads from S3. When {@code fallback-to-database} is off, a tile missing from the
+ * mirror is treated as missing altogether and the database is only queried for spatial searches.
+ */
+@Component
+public class GeoTiffMirror {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GeoTiffMirror.class);
+
+    private final Path directory;
+    private final boolean fallbackToDatabase;
+
+    public GeoTiffMirror(@Value("${elevationtiles.mirror.path:}") String path,
+                         @Value("${elevationtiles.mirror.fallback-to-database:true}") boolean fallbackToDatabase) {
+        this.directory = StringUtils.hasText(path) ? Paths.get(path) : null;
+        this.fallbackToDatabase = fallbackToDatabase;
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Whether a tile that is not mirrored should be fetched from the database.
+     */
+    public boolean isFallbackToDatabase() {
+        return directory == null || fallbackToDatabase;
+    }
+
+    /**
+     * Returns the grid of the mirrored tile, or nothing when the mirror is disabled or the tile is not mirrored
+     * or cannot be decoded.
+     */
+    public Optional<ElevationGrid> read(TileCoordinate tile, boolean offHeap) {
+        if (directory == null) {
+            return Optional.empty();
+        }
+        Path file = directory.resolve(Integer.toString(tile.z()))
+                .resolve(Integer.toString(tile.x()))
+                .resolve(tile.y() + ".tif");
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(GeoTiffReader.read(file, offHeap));
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read the mirrored tile {}", file, e);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package com.mapserver.elevationtiles.raster;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decodes the first band of the first image of a GeoTIFF (classic or BigTIFF), memory mapped, straight into an
+ * {@link ElevationGrid}:
+ * <ul>
+ *     <li>8, 16, 32 and 64 bit integer and floating point samples, of which only the first of each pixel is read</li>
+ *     <li>strips and tiles, chunky and planar</li>
+ *     <li>no compression, LZW and Deflate, with the horizontal or the floating point predictor</li>
+ *     <li>the georeferencing of {@code ModelPixelScale} and {@code ModelTiepoint}, or {@code ModelTransformation}</li>
+ *     <li>the {@code GDAL_NODATA} value, decoded as {@code NaN}</li>
+ * </ul>
+ */
+public final class GeoTiffReader {
+
+    private static final int IMAGE_WIDTH = 256;
+    private static final int IMAGE_LENGTH = 257;
+    private static final int BITS_PER_SAMPLE = 258;
+    private static final int COMPRESSION = 259;
+    private static final int STRIP_OFFSETS = 273;
+    private static final int SAMPLES_PER_PIXEL = 277;
+    private static final int ROWS_PER_STRIP = 278;
+    private static final int STRIP_BYTE_COUNTS = 279;
+    private static final int PLANAR_CONFIGURATION = 284;
+    private static final int PREDICTOR = 317;
+    private static final int TILE_WIDTH = 322;
+    private static final int TILE_LENGTH = 323;
+    private static final int TILE_OFFSETS = 324;
+    private static final int TILE_BYTE_COUNTS = 325;
+    private static final int SAMPLE_FORMAT = 339;
+    private static final int MODEL_PIXEL_SCALE = 33550;
+    private static final int MODEL_TIEPOINT = 33922;
+    private static final int MODEL_TRANSFORMATION = 34264;
+    private static final int GDAL_NODATA = 42113;
+
+    private static final int COMPRESSION_NONE = 1;
+    private static final int COMPRESSION_LZW = 5;
+    private static final int COMPRESSION_DEFLATE = 8;
+    private static final int COMPRESSION_DEFLATE_OLD = 32946;
+    private static final int PREDICTOR_NONE = 1;
+    private static final int PREDICTOR_HORIZONTAL = 2;
+    private static final int PREDICTOR_FLOATING_POINT = 3;
+    private static final int SAMPLE_FORMAT_UINT = 1;
+    private static final int SAMPLE_FORMAT_INT = 2;
+    private static final int SAMPLE_FORMAT_FLOAT = 3;
+
+    private GeoTiffReader() {
+    }
+
+    public static ElevationGrid read(Path path, boolean offHeap) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), offHeap);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Cannot decode " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static ElevationGrid read(ByteBuffer tiff, boolean offHeap) {
+        Image image = Image.parse(tiff);
+        FloatBuffer values = ElevationGrid.allocate(image.width * image.height, offHeap);
+        int chunksAcross = ceilDiv(image.width, image.chunkWidth);
+        int chunksDown = ceilDiv(image.height, image.chunkHeight);
+        byte[] chunk = new byte[image.chunkWidth * image.chunkHeight * image.pixelBytes];
+        for (int chunkRow = 0; chunkRow < chunksDown; chunkRow++) {
+            for (int chunkColumn = 0; chunkColumn < chunksAcross; chunkColumn++) {
+                int index = chunkRow * chunksAcross + chunkColumn;
+                int rows = image.tiled ? image.chunkHeight : Math.min(image.chunkHeight, image.height - chunkRow * image.chunkHeight);
+                int length = image.chunkWidth * rows * image.pixelBytes;
+                image.decompress(image.offsets[index], image.byteCounts[index], chunk, length);
+                image.unpredict(chunk, rows);
+                image.copy(chunk, chunkColumn * image.chunkWidth, chunkRow * image.chunkHeight, rows, values);
+            }
+        }
+        return new ElevationGrid(image.width, image.height, image.upperLeftX, image.upperLeftY,
+                image.scaleX, image.scaleY, values);
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    private static final class Image {
+        private final ByteBuffer tiff;
+        private final boolean bigTiff;
+        private final Map<Integer, long[]> entries = new HashMap<>();
+        private int width;
+        private int height;
+        private int sampleBytes;
+        private int samplesPerPixel;
+        private int pixelBytes;
+        private int sampleFormat;
+        private int compression;
+        private int predictor;
+        private boolean tiled;
+        private int chunkWidth;
+        private int chunkHeight;
+        private long[] offsets;
+        private long[] byteCounts;
+        private double upperLeftX;
+        private double upperLeftY;
+        private double scaleX = 1;
+        private double scaleY = -1;
+        private double nodata = Double.NaN;
+
+        private Image(ByteBuffer tiff, boolean bigTiff) {
+            this.tiff = tiff;
+            this.bigTiff = bigTiff;
+        }
+
+        static Image parse(ByteBuffer source) {
+            ByteBuffer tiff = source.duplicate();
+            if (tiff.get(0) == 'I' && tiff.get(1) == 'I') {
+                tiff.order(ByteOrder.LITTLE_ENDIAN);
+            } else if (tiff.get(0) == 'M' && tiff.get(1) == 'M') {
+                tiff.order(ByteOrder.BIG_ENDIAN);
+            } else {
+                throw new IllegalArgumentException("Not a TIFF file");
+            }
+            int magic = tiff.getShort(2);
+            if (magic != 42 && magic != 43) {
+                throw new IllegalArgumentException("Not a TIFF file, magic number " + magic);
+            }
+            Image image = new Image(tiff, magic == 43);
+            image.readDirectory(image.bigTiff ? tiff.getLong(8) : tiff.getInt(4) & 0xFFFFFFFFL);
+            image.interpret();
+            return image;
+        }
+
+        /**
+         * Records the type, count and value or value offset of every entry of the directory.
+         */
+        private void readDirectory(long offset) {
+            int position = Math.toIntExact(offset);
+            long count = bigTiff ? tiff.getLong(position) : tiff.getShort(position) & 0xFFFF;
+            position += bigTiff ? 8 : 2;
+            int entryBytes = bigTiff ? 20 : 12;
+            for (int i = 0; i < count; i++, position += entryBytes) {
+                int tag = tiff.getShort(position) & 0xFFFF;
+                int type = tiff.getShort(position + 2) & 0xFFFF;
+                long values = bigTiff ? tiff.getLong(position + 4) : tiff.getInt(position + 4) & 0xFFFFFFFFL;
+                int valuePosition = position + (bigTiff ? 12 : 8);
+                long bytes = values * typeBytes(type);
+                long valueOffset = bytes <= (bigTiff ? 8 : 4)
+                        ? valuePosition
+                        : bigTiff ? tiff.getLong(valuePosition) : tiff.getInt(valuePosition) & 0xFFFFFFFFL;
+                entries.put(tag, new long[]{type, values, valueOffset});
+            }
+        }
+
+        private void interpret() {
+            width = (int) number(IMAGE_WIDTH, 0);
+            height = (int) number(IMAGE_LENGTH, 0);
+            int bits = (int) number(BITS_PER_SAMPLE, 1);
+            if (bits % 8 != 0 || bits == 0 || bits > 64) {
+                throw new IllegalArgumentException("Unsupported bits per sample " + bits);
+            }
+            sampleBytes = bits / 8;
+            samplesPerPixel = (int) number(SAMPLES_PER_PIXEL, 1);
+            boolean planar = number(PLANAR_CONFIGURATION, 1) == 2;
+            pixelBytes = sampleBytes * (planar ? 1 : samplesPerPixel);
+            sampleFormat = (int) number(SAMPLE_FORMAT, SAMPLE_FORMAT_UINT);
+            if (sampleFormat == SAMPLE_FORMAT_FLOAT && sampleBytes != 4 && sampleBytes != 8) {
+                throw new IllegalArgumentException("Unsupported " + bits + " bit floating point samples");
+            }
+            compression = (int) number(COMPRESSION, COMPRESSION_NONE);
+            if (compression != COMPRESSION_NONE && compression != COMPRESSION_LZW
+                    && compression != COMPRESSION_DEFLATE && compression != COMPRESSION_DEFLATE_OLD) {
+                throw new IllegalArgumentException("Unsupported compression " + compression);
+            }
+            predictor = (int) number(PREDICTOR, PREDICTOR_NONE);
+            tiled = entries.containsKey(TILE_OFFSETS);
+            if (tiled) {
+                chunkWidth = (int) number(TILE_WIDTH, 0);
+                chunkHeight = (int) number(TILE_LENGTH, 0);
+                offsets = numbers(TILE_OFFSETS);
+                byteCounts = numbers(TILE_BYTE_COUNTS);
+            } else {
+                chunkWidth = width;
+                chunkHeight = (int) Math.min(number(ROWS_PER_STRIP, height), height);
+                offsets = numbers(STRIP_OFFSETS);
+                byteCounts = numbers(STRIP_BYTE_COUNTS);
+            }
+            if (width == 0 || height == 0 || chunkWidth == 0 || chunkHeight == 0) {
+                throw new IllegalArgumentException("Image or chunk without pixels");
+            }
+
+            if (entries.containsKey(MODEL_TRANSFORMATION)) {
+                double[] matrix = doubles(MODEL_TRANSFORMATION);
+                scaleX = matrix[0];
+                upperLeftX = matrix[3];
+                scaleY = matrix[5];
+                upperLeftY = matrix[7];
+            } else if (entries.containsKey(MODEL_PIXEL_SCALE) && entries.containsKey(MODEL_TIEPOINT)) {
+                double[] scale = doubles(MODEL_PIXEL_SCALE);
+                double[] tiepoint = doubles(MODEL_TIEPOINT);
+                scaleX = scale[0];
+                scaleY = -scale[1];
+                upperLeftX = tiepoint[3] - tiepoint[0] * scaleX;
+                upperLeftY = tiepoint[4] - tiepoint[1] * scaleY;
+            }
+            if (entries.containsKey(GDAL_NODATA)) {
+                String text = ascii(GDAL_NODATA).trim();
+                nodata = text.equalsIgnoreCase("nan") ? Double.NaN : Double.parseDouble(text);
+            }
+        }
+
+        void decompress(long offset, long byteCount, byte[] target, int length) {
+            ByteBuffer source = tiff.slice(Math.toIntExact(offset), Math.toIntExact(byteCount));
+            switch (compression) {
+                case COMPRESSION_NONE -> source.get(target, 0, Math.min(length, source.remaining()));
+                case COMPRESSION_LZW -> Lzw.decode(source, target, length);
+                default -> inflate(source, target, length);
+            }
+        }
+
+        private static void inflate(ByteBuffer source, byte[] target, int length) {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(source);
+                int written = 0;
+                while (written < length && !inflater.finished() && !inflater.needsInput()) {
+                    written += inflater.inflate(target, written, length - written);
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalArgumentException("Corrupt Deflate data: " + e.getMessage(), e);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        /**
+         * Reverts the predictor row by row: the horizontal predictor stores each sample as the difference from the
+         * same sample of the previous pixel, the floating point one stores the bytes of a row split into planes,
+         * most significant first, and then differenced byte by byte.
+         */
+        void unpredict(byte[] chunk, int rows) {
+            int rowBytes = chunkWidth * pixelBytes;
+            int components = pixelBytes / sampleBytes;
+            if (predictor == PREDICTOR_HORIZONTAL) {
+                ByteBuffer buffer = ByteBuffer.wrap(chunk).order(tiff.order());
+                for (int row = 0; row < rows; row++) {
+                    int start = row * rowBytes;
+                    for (int i = start + pixelBytes; i < start + rowBytes; i += sampleBytes) {
+                        int previous = i - pixelBytes;
+                        switch (sampleBytes) {
+                            case 1 -> chunk[i] += chunk[previous];
+                            case 2 -> buffer.putShort(i, (short) (buffer.getShort(i) + buffer.getShort(previous)));
+                            case 4 -> buffer.putInt(i, buffer.getInt(i) + buffer.getInt(previous));
+                            default -> buffer.putLong(i, buffer.getLong(i) + buffer.getLong(previous));
+                        }
+                    }
+                }
+            } else if (predictor == PREDICTOR_FLOATING_POINT) {
+                byte[] planes = new byte[rowBytes];
+                int samples = chunkWidth * components;
+                boolean littleEndian = tiff.order() == ByteOrder.LITTLE_ENDIAN;
+                for (int row = 0; row < rows; row++) {
+                    int start = row * rowBytes;
+                    for (int i = start + components; i < start + rowBytes; i++) {
+                        chunk[i] += chunk[i - components];
+                    }
+                    System.arraycopy(chunk, start, planes, 0, rowBytes);
+                    for (int sample = 0; sample < samples; sample++) {
+                        for (int b = 0; b < sampleBytes; b++) {
+                            int significance = littleEndian ? sampleBytes - 1 - b : b;
+                            chunk[start + sample * sampleBytes + significance] = planes[b * samples + sample];
+                        }
+                    }
+                }
+            } else if (predictor != PREDICTOR_NONE) {
+                throw new IllegalArgumentException("Unsupported predictor " + predictor);
+            }
+        }
+
+        /**
+         * Copies the first sample of the pixels of the chunk that lie inside the image.
+         */
+        void copy(byte[] chunk, int x0, int y0, int rows, FloatBuffer values) {
+            ByteBuffer buffer = ByteBuffer.wrap(chunk).order(tiff.order());
+            int columns = Math.min(chunkWidth, width - x0);
+            rows = Math.min(rows, height - y0);
+            for (int row = 0; row < rows; row++) {
+                int source = row * chunkWidth * pixelBytes;
+                int target = (y0 + row) * width + x0;
+                for (int column = 0; column < columns; column++, source += pixelBytes) {
+                    double value = sample(buffer, source);
+                    values.put(target + column, value == nodata ? Float.NaN : (float) value);
+                }
+            }
+        }
+
+        private double sample(ByteBuffer buffer, int position) {
+            if (sampleFormat == SAMPLE_FORMAT_FLOAT) {
+                return sampleBytes == 4 ? buffer.getFloat(position) : buffer.getDouble(position);
+            }
+            boolean signed = sampleFormat == SAMPLE_FORMAT_INT;
+            return switch (sampleBytes) {
+                case 1 -> signed ? buffer.get(position) : buffer.get(position) & 0xFF;
+                case 2 -> signed ? buffer.getShort(position) : buffer.getShort(position) & 0xFFFF;
+                case 4 -> signed ? buffer.getInt(position) : buffer.getInt(position) & 0xFFFFFFFFL;
+                default -> buffer.getLong(position);
+            };
+        }
+
+        private long number(int tag, long defaultValue) {
+            long[] values = numbers(tag);
+            return values.length == 0 ? defaultValue : values[0];
+        }
+
+        private long[] numbers(int tag) {
+            long[] entry = entries.get(tag);
+            if (entry == null) {
+                return new long[0];
+            }
+            int type = (int) entry[0];
+            long[] values = new long[Math.toIntExact(entry[1])];
+            int position = Math.toIntExact(entry[2]);
+            for (int i = 0; i < values.length; i++, position += typeBytes(type)) {
+                values[i] = switch (type) {
+                    case 1, 7 -> tiff.get(position) & 0xFF;
+                    case 3 -> tiff.getShort(position) & 0xFFFF;
+                    case 4, 13 -> tiff.getInt(position) & 0xFFFFFFFFL;
+                    case 16, 18 -> tiff.getLong(position);
+                    default -> throw new IllegalArgumentException("Tag " + tag + " is not an integer but of type " + type);
+                };
+            }
+            return values;
+        }
+
+        private double[] doubles(int tag) {
+            long[] entry = entries.get(tag);
+            double[] values = new double[Math.toIntExact(entry[1])];
+            int position = Math.toIntExact(entry[2]);
+            for (int i = 0; i < values.length; i++, position += 8) {
+                values[i] = tiff.getDouble(position);
+            }
+            return values;
+        }
+
+        private String ascii(int tag) {
+            long[] entry = entries.get(tag);
+            byte[] text = new byte[Math.toIntExact(entry[1])];
+            tiff.get(Math.toIntExact(entry[2]), text);
+            int end = 0;
+            while (end < text.length && text[end] != 0) {
+                end++;
+            }
+            return new String(text, 0, end, StandardCharsets.US_ASCII);
+        }
+
+        private static int typeBytes(int type) {
+            return switch (type) {
+                case 1, 2, 6, 7 -> 1;
+                case 3, 8 -> 2;
+                case 4, 9, 11, 13 -> 4;
+                case 5, 10, 12, 16, 17, 18 -> 8;
+                default -> throw new IllegalArgumentException("Unknown TIFF field type " + type);
+            };
+        }
+    }
+
+    /**
+     * TIFF flavour of LZW: codes written most significant bit first, 256 clears the table, 257 ends the strip, and
+     * the code width grows one code early.
+     */
+    private static final class Lzw {
+        private static final int CLEAR = 256;
+        private static final int END = 257;
+        private static final int FIRST = 258;
+        private static final int MAX_CODES = 4096;
+
+        static void decode(ByteBuffer source, byte[] target, int length) {
+            int[] prefix = new int[MAX_CODES];
+            byte[] suffix = new byte[MAX_CODES];
+            int[] lengths = new int[MAX_CODES];
+            for (int i = 0; i < 256; i++) {
+                suffix[i] = (byte) i;
+                lengths[i] = 1;
+            }
+            int bitBuffer = 0;
+            int bitCount = 0;
+            int width = 9;
+            int next = FIRST;
+            int previous = -1;
+            int written = 0;
+            while (written < length) {
+                while (bitCount < width && source.hasRemaining()) {
+                    bitBuffer = bitBuffer << 8 | source.get() & 0xFF;
+                    bitCount += 8;
+                }
+                if (bitCount < width) {
+                    break;
+                }
+                int code = bitBuffer >>> bitCount - width & (1 << width) - 1;
+                bitCount -= width;
+                if (code == END) {
+                    break;
+                }
+                if (code == CLEAR) {
+                    width = 9;
+                    next = FIRST;
+                    previous = -1;
+                    continue;
+                }
+                if (previous == -1) {
+                    if (code > 255) {
+                        throw new IllegalArgumentException("Corrupt LZW data, code " + code + " after a clear");
+                    }
+                    target[written++] = (byte) code;
+                    previous = code;
+                    continue;
+                }
+                int first;
+                if (code < next) {
+                    first = written(code, prefix, suffix, lengths, target, written, length);
+                    written += Math.min(lengths[code], length - written);
+                } else if (code == next) {
+                    first = written(previous, prefix, suffix, lengths, target, written, length);
+                    written += Math.min(lengths[previous], length - written);
+                    if (written < length) {
+                        target[written++] = (byte) first;
+                    }
+                } else {
+                    throw new IllegalArgumentException("Corrupt LZW data, code " + code + " before " + next);
+                }
+                if (next < MAX_CODES) {
+                    prefix[next] = previous;
+                    suffix[next] = (byte) first;
+                    lengths[next] = lengths[previous] + 1;
+                    next++;
+                    if (next == (1 << width) - 1 && width < 12) {
+                        width++;
+                    }
+                }
+                previous = code;
+            }
+        }
+
+        /**
+         * Writes the string of {@code code} at {@code offset}, clipped to {@code length}, and returns its first byte.
+         */
+        private static int written(int code, int[] prefix, byte[] suffix, int[] lengths, byte[] target, int offset, int length) {
+            int position = offset + lengths[code] - 1;
+            int current = code;
+            while (current > 255) {
+                if (position < length) {
+                    target[position] = suffix[current];
+                }
+                position--;
+                current = prefix[current];
+            }
+            if (position < length) {
+                target[position] = (byte) current;
+            }
+            return current;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.mapserver.elevationtiles.raster;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Builds the grid of a tile from the grids of its four children at the next zoom level, each 2x2 block of child
+ * pixels averaged into one. With pixel centres halfway between the child pixels this is also the bilinear
+ * interpolation at half resolution. Nodata pixels are left out of the mean, and a block of nodata stays nodata.
+ */
+public final class GridDownsampler {
+
+    private GridDownsampler() {
+    }
+
+    /**
+     * @param children the north-west, north-east, south-west and south-east children, {@code size} pixels square,
+     *                 or {@code null} when missing
+     */
+    public static ElevationGrid downsample(ElevationGrid[] children, int size, double upperLeftX, double upperLeftY,
+                                           double scaleX, double scaleY) {
+        if (children.length != 4 || size % 2 != 0) {
+            throw new IllegalArgumentException("Four children of an even size are needed, not " + children.length + " of " + size);
+        }
+        int half = size / 2;
+        FloatBuffer values = ElevationGrid.allocate(size * size, false);
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            ElevationGrid child = children[quadrant];
+            int offsetX = (quadrant & 1) * half;
+            int offsetY = (quadrant >> 1) * half;
+            if (child != null && (child.getWidth() != size || child.getHeight() != size)) {
+                throw new IllegalArgumentException("Child grid is " + child.getWidth() + "x" + child.getHeight() + ", not " + size);
+            }
+            for (int row = 0; row < half; row++) {
+                for (int column = 0; column < half; column++) {
+                    values.put((offsetY + row) * size + offsetX + column, child == null ? Float.NaN : mean(child, column * 2, row * 2));
+                }
+            }
+        }
+        return new ElevationGrid(size, size, upperLeftX, upperLeftY, scaleX, scaleY, values);
+    }
+
+    private static float mean(ElevationGrid grid, int column, int row) {
+        float sum = 0;
+        int count = 0;
+        for (int dy = 0; dy < 2; dy++) {
+            for (int dx = 0; dx < 2; dx++) {
+                float value = grid.get(column + dx, row + dy);
+                if (!Float.isNaN(value)) {
+                    sum += value;
+                    count++;
+                }
+            }
+        }
+        return count == 0 ? Float.NaN : sum / count;
+    }
+}
@@ -0,0 +1,32 @@
+package com.mapserver.elevationtiles.raster;
+
+public enum GridFormat {
+    /**
+     * Little-endian IEEE 754 floats, nodata as {@code NaN}.
+     */
+    FLOAT32(1, Float.BYTES),
+    /**
+     * Little-endian shorts, {@code value = offset + scale * q}, nodata as {@code -32768}.
+     */
+    INT16(2, Short.BYTES);
+
+    private final int code;
+    private final int bytes;
+
+    GridFormat(int code, int bytes) {
+        this.code = code;
+        this.bytes = bytes;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public int getBytes() {
+        return bytes;
+    }
+
+    public static GridFormat of(String format) {
+        return valueOf(format.trim().toUpperCase());
+    }
+}
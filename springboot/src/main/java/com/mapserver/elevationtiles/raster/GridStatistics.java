@@ -0,0 +1,176 @@
+package com.mapserver.elevationtiles.raster;
+
+import com.mapserver.elevationtiles.repository.ElevationTilesProdRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JVM equivalents of {@code ST_SummaryStats}, {@code ST_Histogram} and {@code ST_Quantile} on the first band,
+ * excluding nodata pixels.
+ */
+public final class GridStatistics {
+
+    public static final double[] DEFAULT_QUANTILES = {0.0, 0.25, 0.5, 0.75, 1.0};
+
+    private GridStatistics() {
+    }
+
+    public static Summary summary(ElevationGrid grid) {
+        long count = 0;
+        double sum = 0;
+        double sumOfSquares = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < grid.size(); i++) {
+            float value = grid.get(i);
+            if (Float.isNaN(value)) {
+                continue;
+            }
+            count++;
+            sum += value;
+            sumOfSquares += (double) value * value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return Summary.of(count, sum, sumOfSquares, min, max);
+    }
+
+    public static List<Bin> histogram(ElevationGrid grid, int bins) {
+        Summary summary = summary(grid);
+        if (summary.count() == 0) {
+            return List.of();
+        }
+        long[] counts = new long[bins];
+        double width = (summary.max() - summary.min()) / bins;
+        for (int i = 0; i < grid.size(); i++) {
+            float value = grid.get(i);
+            if (!Float.isNaN(value)) {
+                counts[binIndex(value, summary.min(), width, bins)]++;
+            }
+        }
+        return bins(counts, summary.min(), width, summary.count());
+    }
+
+    public static List<QuantileValue> quantiles(ElevationGrid grid, double... quantiles) {
+        float[] values = new float[grid.size()];
+        int count = 0;
+        for (int i = 0; i < grid.size(); i++) {
+            float value = grid.get(i);
+            if (!Float.isNaN(value)) {
+                values[count++] = value;
+            }
+        }
+        if (count == 0) {
+            return List.of();
+        }
+        Arrays.sort(values, 0, count);
+        List<QuantileValue> result = new ArrayList<>(quantiles.length);
+        for (double quantile : quantiles) {
+            result.add(new QuantileValue(quantile, interpolate(values, count, quantile)));
+        }
+        return result;
+    }
+
+    public static int binIndex(double value, double min, double width, int bins) {
+        if (width <= 0) {
+            return 0;
+        }
+        return Math.min((int) ((value - min) / width), bins - 1);
+    }
+
+    public static List<Bin> bins(long[] counts, double min, double width, long total) {
+        List<Bin> result = new ArrayList<>(counts.length);
+        for (int bin = 0; bin < counts.length; bin++) {
+            result.add(new Bin(min + bin * width, min + (bin + 1) * width, counts[bin], (double) counts[bin] / total));
+        }
+        return result;
+    }
+
+    private static double interpolate(float[] sorted, int count, double quantile) {
+        double position = quantile * (count - 1);
+        int lower = (int) Math.floor(position);
+        int upper = Math.min(lower + 1, count - 1);
+        return sorted[lower] + (position - lower) * (sorted[upper] - sorted[lower]);
+    }
+
+    public record Summary(long count, double sum, double mean, double stddev, double min, double max)
+            implements ElevationTilesProdRepository.Statistics {
+
+        public static Summary of(long count, double sum, double sumOfSquares, double min, double max) {
+            if (count == 0) {
+                return new Summary(0, 0, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+            }
+            double mean = sum / count;
+            double variance = Math.max(sumOfSquares / count - mean * mean, 0);
+            return new Summary(count, sum, mean, Math.sqrt(variance), min, max);
+        }
+
+        @Override
+        public double getMin() {
+            return min;
+        }
+
+        @Override
+        public double getMax() {
+            return max;
+        }
+
+        @Override
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public double getSum() {
+            return sum;
+        }
+
+        @Override
+        public double getMean() {
+            return mean;
+        }
+
+        @Override
+        public double getStddev() {
+            return stddev;
+        }
+    }
+
+    public record Bin(double min, double max, long count, double percent) implements ElevationTilesProdRepository.Histogram {
+
+        @Override
+        public double getMin() {
+            return min;
+        }
+
+        @Override
+        public double getMax() {
+            return max;
+        }
+
+        @Override
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public double getPercent() {
+            return percent;
+        }
+    }
+
+    public record QuantileValue(double quantile, double value) implements ElevationTilesProdRepository.Quantile {
+
+        @Override
+        public double getQuantile() {
+            return quantile;
+        }
+
+        @Override
+        public double getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.mapserver.elevationtiles.raster;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Streams a grid as a small little-endian header followed by the values row by row:
+ * <pre>
+ * magic "EGRD" | version u8 | format u8 | reserved u16 | width u32 | height u32 | scale f32 | offset f32 | values
+ * </pre>
+ * Int16 grids of whole numbers within range, such as the source elevation, are written with scale 1 and offset 0
+ * and are lossless. Anything else is quantized linearly over its value range.
+ */
+public final class GridWriter {
+
+    public static final int HEADER_BYTES = 24;
+    public static final short INT16_NODATA = Short.MIN_VALUE;
+
+    private static final byte[] MAGIC = {'E', 'G', 'R', 'D'};
+    private static final int VERSION = 1;
+    private static final int INT16_LEVELS = 65534;
+
+    private GridWriter() {
+    }
+
+    public static long contentLength(ElevationGrid grid, GridFormat format) {
+        return HEADER_BYTES + (long) grid.size() * format.getBytes();
+    }
+
+    public static void write(ElevationGrid grid, GridFormat format, OutputStream out) throws IOException {
+        int width = grid.getWidth();
+        float scale = 1;
+        float offset = 0;
+        if (format == GridFormat.INT16) {
+            float[] range = quantization(grid);
+            scale = range[0];
+            offset = range[1];
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .put(MAGIC)
+                .put((byte) VERSION)
+                .put((byte) format.getCode())
+                .putShort((short) 0)
+                .putInt(width)
+                .putInt(grid.getHeight())
+                .putFloat(scale)
+                .putFloat(offset);
+        out.write(header.array());
+
+        ByteBuffer row = ByteBuffer.allocate(width * format.getBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        for (int y = 0, i = 0; y < grid.getHeight(); y++) {
+            row.clear();
+            for (int x = 0; x < width; x++, i++) {
+                float value = grid.get(i);
+                if (format == GridFormat.FLOAT32) {
+                    row.putFloat(value);
+                } else if (Float.isNaN(value)) {
+                    row.putShort(INT16_NODATA);
+                } else {
+                    row.putShort((short) Math.round((value - offset) / scale));
+                }
+            }
+            out.write(row.array(), 0, row.position());
+        }
+    }
+
+    /**
+     * Returns the scale and offset that map the values of the grid onto {@code [-32767, 32767]}.
+     */
+    static float[] quantization(ElevationGrid grid) {
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        boolean whole = true;
+        for (int i = 0; i < grid.size(); i++) {
+            float value = grid.get(i);
+            if (!Float.isNaN(value)) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                whole &= value == Math.rint(value);
+            }
+        }
+        if (min > max || whole && min > INT16_NODATA && max <= Short.MAX_VALUE) {
+            return new float[]{1, 0};
+        }
+        float scale = max > min ? (max - min) / INT16_LEVELS : 1;
+        return new float[]{scale, (min + max) / 2};
+    }
+}
@@ -0,0 +1,87 @@
+package com.mapserver.elevationtiles.raster;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Decodes the first band of a raster in PostGIS WKB format, as returned by {@code ST_AsBinary(rast, TRUE)}
+ * which inlines the pixels of out-db bands.
+ */
+public final class RasterWkbReader {
+
+    private static final int HEADER_BYTES = 61;
+    private static final int BAND_OFFLINE = 0x80;
+    private static final int BAND_HAS_NODATA = 0x40;
+    private static final int BAND_IS_NODATA = 0x20;
+    private static final int PIXTYPE_MASK = 0x0F;
+
+    private RasterWkbReader() {
+    }
+
+    public static ElevationGrid read(byte[] wkb, boolean offHeap) {
+        ByteBuffer buffer = ByteBuffer.wrap(wkb).order(wkb[0] == 1 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int bands = buffer.getShort(3) & 0xFFFF;
+        double scaleX = buffer.getDouble(5);
+        double scaleY = buffer.getDouble(13);
+        double upperLeftX = buffer.getDouble(21);
+        double upperLeftY = buffer.getDouble(29);
+        int width = buffer.getShort(57) & 0xFFFF;
+        int height = buffer.getShort(59) & 0xFFFF;
+        if (bands == 0) {
+            throw new IllegalArgumentException("Raster has no band");
+        }
+
+        int flags = buffer.get(HEADER_BYTES);
+        if ((flags & BAND_OFFLINE) != 0) {
+            throw new IllegalArgumentException("Raster band is out-db, select it with ST_AsBinary(rast, TRUE)");
+        }
+        PixelType pixelType = PixelType.of(flags & PIXTYPE_MASK);
+        buffer.position(HEADER_BYTES + 1);
+        double nodata = pixelType.read(buffer);
+        boolean hasNodata = (flags & BAND_HAS_NODATA) != 0;
+        boolean isNodata = (flags & BAND_IS_NODATA) != 0;
+
+        int size = width * height;
+        FloatBuffer values = ElevationGrid.allocate(size, offHeap);
+        for (int i = 0; i < size; i++) {
+            double value = isNodata ? Double.NaN : pixelType.read(buffer);
+            values.put(i, hasNodata && value == nodata ? Float.NaN : (float) value);
+        }
+        return new ElevationGrid(width, height, upperLeftX, upperLeftY, scaleX, scaleY, values);
+    }
+
+    enum PixelType {
+        BOOL_1(0), UINT_2(1), UINT_4(2), INT_8(3), UINT_8(4),
+        INT_16(5), UINT_16(6), INT_32(7), UINT_32(8),
+        FLOAT_32(10), FLOAT_64(11);
+
+        private final int code;
+
+        PixelType(int code) {
+            this.code = code;
+        }
+
+        static PixelType of(int code) {
+            for (PixelType type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported raster pixel type " + code);
+        }
+
+        double read(ByteBuffer buffer) {
+            return switch (this) {
+                case BOOL_1, UINT_2, UINT_4, UINT_8 -> buffer.get() & 0xFF;
+                case INT_8 -> buffer.get();
+                case INT_16 -> buffer.getShort();
+                case UINT_16 -> buffer.getShort() & 0xFFFF;
+                case INT_32 -> buffer.getInt();
+                case UINT_32 -> buffer.getInt() & 0xFFFFFFFFL;
+                case FLOAT_32 -> buffer.getFloat();
+                case FLOAT_64 -> buffer.getDouble();
+            };
+        }
+    }
+}
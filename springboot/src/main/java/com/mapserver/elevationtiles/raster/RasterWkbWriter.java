@@ -0,0 +1,82 @@
+package com.mapserver.elevationtiles.raster;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes a grid as a single band, in-db raster in PostGIS WKB format, to be loaded with {@code ST_RastFromWKB}.
+ * {@code NaN} is written as the nodata value; int16 rasters hold the values rounded to the nearest integer.
+ * <p>
+ * Out-db rasters, whose band is read by PostGIS from a GeoTIFF, are encoded from their header alone.
+ */
+public final class RasterWkbWriter {
+
+    public static final double NODATA = -32768;
+
+    private static final int HEADER_BYTES = 61;
+    private static final int BAND_IS_OUT_DB = 0x80;
+    private static final int BAND_HAS_NODATA = 0x40;
+    private static final int PIXTYPE_16BSI = 5;
+    private static final int PIXTYPE_32BF = 10;
+
+    private RasterWkbWriter() {
+    }
+
+    public static byte[] write(ElevationGrid grid, int srid, GridFormat format) {
+        int size = grid.size();
+        ByteBuffer buffer = header(HEADER_BYTES + 1 + format.getBytes() * (size + 1), grid.getWidth(), grid.getHeight(),
+                grid.getUpperLeftX(), grid.getUpperLeftY(), grid.getScaleX(), grid.getScaleY(), srid);
+        if (format == GridFormat.INT16) {
+            buffer.put((byte) (PIXTYPE_16BSI | BAND_HAS_NODATA)).putShort((short) NODATA);
+            for (int i = 0; i < size; i++) {
+                float value = grid.get(i);
+                buffer.putShort(Float.isNaN(value)
+                        ? (short) NODATA
+                        : (short) Math.max(NODATA + 1, Math.min(Short.MAX_VALUE, Math.round(value))));
+            }
+        } else {
+            buffer.put((byte) (PIXTYPE_32BF | BAND_HAS_NODATA)).putFloat((float) NODATA);
+            for (int i = 0; i < size; i++) {
+                float value = grid.get(i);
+                buffer.putFloat(Float.isNaN(value) ? (float) NODATA : value);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Encodes an int16 out-db raster whose band is the first one of the file at {@code path}, a path that the
+     * database server can open with GDAL.
+     */
+    public static byte[] writeOutDb(int width, int height, double upperLeftX, double upperLeftY, double scaleX,
+                                    double scaleY, int srid, String path) {
+        byte[] location = path.getBytes(StandardCharsets.UTF_8);
+        return header(HEADER_BYTES + 1 + Short.BYTES + 1 + location.length + 1, width, height,
+                upperLeftX, upperLeftY, scaleX, scaleY, srid)
+                .put((byte) (BAND_IS_OUT_DB | PIXTYPE_16BSI | BAND_HAS_NODATA))
+                .putShort((short) NODATA)
+                .put((byte) 0)
+                .put(location)
+                .put((byte) 0)
+                .array();
+    }
+
+    private static ByteBuffer header(int bytes, int width, int height, double upperLeftX, double upperLeftY,
+                                     double scaleX, double scaleY, int srid) {
+        return ByteBuffer.allocate(bytes)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .put((byte) 1)
+                .putShort((short) 0)
+                .putShort((short) 1)
+                .putDouble(scaleX)
+                .putDouble(scaleY)
+                .putDouble(upperLeftX)
+                .putDouble(upperLeftY)
+                .putDouble(0)
+                .putDouble(0)
+                .putInt(srid)
+                .putShort((short) width)
+                .putShort((short) height);
+    }
+}
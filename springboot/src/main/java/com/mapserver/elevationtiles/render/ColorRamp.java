@@ -0,0 +1,101 @@
+package com.mapserver.elevationtiles.render;
+
+import com.mapserver.elevationtiles.colormap.Colormap;
+import com.mapserver.elevationtiles.colormap.ColormapEntry;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A colormap resolved against the value range of a band, mapping values to ARGB colours the way
+ * {@code ST_ColorMap} does with the default INTERPOLATE method: linear interpolation between entries,
+ * percentages relative to the band minimum and maximum, and values beyond the first and last entry
+ * clamped to their colour.
+ */
+public final class ColorRamp {
+
+    private final double[] values;
+    private final int[][] colors;
+    private final int nodata;
+
+    private ColorRamp(double[] values, int[][] colors, int nodata) {
+        this.values = values;
+        this.colors = colors;
+        this.nodata = nodata;
+    }
+
+    public static ColorRamp of(Colormap colormap, double min, double max) {
+        List<ColormapEntry> stops = colormap.entries().stream()
+                .filter(entry -> !entry.nodata())
+                .sorted(Comparator.comparingDouble(entry -> resolve(entry, min, max)))
+                .toList();
+        double[] values = new double[stops.size()];
+        int[][] colors = new int[stops.size()][];
+        for (int i = 0; i < stops.size(); i++) {
+            values[i] = resolve(stops.get(i), min, max);
+            colors[i] = rgba(stops.get(i).components());
+        }
+        int nodata = colormap.entries().stream()
+                .filter(ColormapEntry::nodata)
+                .findFirst()
+                .map(entry -> argb(rgba(entry.components())))
+                .orElse(0);
+        return new ColorRamp(values, colors, nodata);
+    }
+
+    public static boolean isRelative(Colormap colormap) {
+        return colormap.entries().stream().anyMatch(ColormapEntry::percent);
+    }
+
+    public int argb(float value) {
+        if (Float.isNaN(value) || values.length == 0) {
+            return nodata;
+        }
+        int last = values.length - 1;
+        if (value <= values[0]) {
+            return argb(colors[0]);
+        }
+        if (value >= values[last]) {
+            return argb(colors[last]);
+        }
+        int upper = 1;
+        while (values[upper] < value) {
+            upper++;
+        }
+        int lower = upper - 1;
+        double range = values[upper] - values[lower];
+        double t = range == 0 ? 0 : (value - values[lower]) / range;
+        int[] from = colors[lower];
+        int[] to = colors[upper];
+        return argb(lerp(from[0], to[0], t), lerp(from[1], to[1], t), lerp(from[2], to[2], t), lerp(from[3], to[3], t));
+    }
+
+    public int getNodata() {
+        return nodata;
+    }
+
+    private static double resolve(ColormapEntry entry, double min, double max) {
+        return entry.percent() ? min + entry.value() / 100 * (max - min) : entry.value();
+    }
+
+    private static int[] rgba(int[] components) {
+        return switch (components.length) {
+            case 1 -> new int[]{components[0], components[0], components[0], 255};
+            case 2 -> new int[]{components[0], components[0], components[0], components[1]};
+            case 3 -> new int[]{components[0], components[1], components[2], 255};
+            default -> components;
+        };
+    }
+
+    private static int lerp(int from, int to, double t) {
+        return (int) Math.round(from + (to - from) * t);
+    }
+
+    private static int argb(int[] rgba) {
+        return argb(rgba[0], rgba[1], rgba[2], rgba[3]);
+    }
+
+    private static int argb(int red, int green, int blue, int alpha) {
+        return alpha << 24 | red << 16 | green << 8 | blue;
+    }
+}
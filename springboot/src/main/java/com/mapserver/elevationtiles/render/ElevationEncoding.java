@@ -0,0 +1,61 @@
+package com.mapserver.elevationtiles.render;
+
+import com.mapserver.elevationtiles.domain.TileLayer;
+
+import java.util.Optional;
+
+/**
+ * Lossless packings of elevation into the colour channels of a PNG, decoded by the client:
+ * <ul>
+ *     <li>Mapbox Terrain-RGB: {@code height = -10000 + (R * 65536 + G * 256 + B) * 0.1}</li>
+ *     <li>Terrarium: {@code height = R * 256 + G + B / 256 - 32768}</li>
+ * </ul>
+ * Nodata is written as a fully transparent pixel.
+ */
+public enum ElevationEncoding {
+    TERRAIN_RGB(TileLayer.TERRAIN_RGB) {
+        @Override
+        public int argb(float height) {
+            if (Float.isNaN(height)) {
+                return 0;
+            }
+            long value = Math.max(0, Math.min(0xFFFFFF, Math.round((height + 10000.0) * 10)));
+            return OPAQUE | (int) value;
+        }
+    },
+    TERRARIUM(TileLayer.TERRARIUM) {
+        @Override
+        public int argb(float height) {
+            if (Float.isNaN(height)) {
+                return 0;
+            }
+            double value = Math.max(0, Math.min(65535.99609375, height + 32768.0));
+            int integer = (int) value;
+            int fraction = (int) ((value - integer) * 256);
+            return OPAQUE | integer << 8 | fraction;
+        }
+    };
+
+    private static final int OPAQUE = 0xFF000000;
+
+    private final TileLayer layer;
+
+    ElevationEncoding(TileLayer layer) {
+        this.layer = layer;
+    }
+
+    public TileLayer getLayer() {
+        return layer;
+    }
+
+    public abstract int argb(float height);
+
+    public static Optional<ElevationEncoding> fromLayer(TileLayer layer) {
+        for (ElevationEncoding encoding : values()) {
+            if (encoding.layer == layer) {
+                return Optional.of(encoding);
+            }
+        }
+        return Optional.empty();
+    }
+}
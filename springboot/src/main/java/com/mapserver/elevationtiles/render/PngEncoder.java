@@ -0,0 +1,280 @@
+package com.mapserver.elevationtiles.render;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes truecolour (RGB or RGBA) and 8 bit indexed PNGs.
+ * <p>
+ * Deflaters, row buffers and the compressed stream are kept in pooled workspaces that only grow, so once warmed up
+ * the only allocation per tile is the returned array, sized exactly to the encoded image.
+ */
+@Component
+public class PngEncoder {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] IHDR = {'I', 'H', 'D', 'R'};
+    private static final byte[] PLTE = {'P', 'L', 'T', 'E'};
+    private static final byte[] TRNS = {'t', 'R', 'N', 'S'};
+    private static final byte[] IDAT = {'I', 'D', 'A', 'T'};
+    private static final byte[] IEND = {'I', 'E', 'N', 'D'};
+    private static final int CHUNK_OVERHEAD_BYTES = 12;
+    private static final int HEADER_BYTES = 13;
+    private static final int COLOR_TYPE_RGB = 2;
+    private static final int COLOR_TYPE_INDEXED = 3;
+    private static final int COLOR_TYPE_RGBA = 6;
+    private static final int MAX_POOLED = 64;
+
+    private final BlockingQueue<Workspace> pool = new ArrayBlockingQueue<>(MAX_POOLED);
+
+    /**
+     * Encodes ARGB pixels as an RGBA image, or as an RGB one when every pixel is opaque.
+     */
+    public byte[] encodeArgb(int[] argb, int width, int height, PngProperties.Settings settings) {
+        boolean opaque = true;
+        for (int i = 0; i < width * height && opaque; i++) {
+            opaque = argb[i] >>> 24 == 0xFF;
+        }
+        int bpp = opaque ? 3 : 4;
+        Workspace workspace = acquire();
+        try {
+            int rowBytes = width * bpp;
+            workspace.prepare(rowBytes, height);
+            for (int row = 0; row < height; row++) {
+                byte[] current = workspace.current;
+                for (int column = 0, i = row * width; column < width; column++, i++) {
+                    int pixel = argb[i];
+                    int offset = column * bpp;
+                    current[offset] = (byte) (pixel >>> 16);
+                    current[offset + 1] = (byte) (pixel >>> 8);
+                    current[offset + 2] = (byte) pixel;
+                    if (!opaque) {
+                        current[offset + 3] = (byte) (pixel >>> 24);
+                    }
+                }
+                workspace.filterRow(rowBytes, bpp, settings.getFilter());
+            }
+            workspace.compress(settings.getLevel());
+            return workspace.write(width, height, opaque ? COLOR_TYPE_RGB : COLOR_TYPE_RGBA, null, 0);
+        } finally {
+            release(workspace);
+        }
+    }
+
+    /**
+     * Encodes palette indices. {@code palette} holds the ARGB colour of every index, at most 256 of them.
+     */
+    public byte[] encodeIndexed(byte[] indices, int width, int height, int[] palette, PngProperties.Settings settings) {
+        if (palette.length == 0 || palette.length > 256) {
+            throw new IllegalArgumentException("A PNG palette holds between 1 and 256 colours, not " + palette.length);
+        }
+        Workspace workspace = acquire();
+        try {
+            workspace.prepare(width, height);
+            for (int row = 0; row < height; row++) {
+                System.arraycopy(indices, row * width, workspace.current, 0, width);
+                workspace.filterRow(width, 1, PngFilter.NONE);
+            }
+            workspace.compress(settings.getLevel());
+            return workspace.write(width, height, COLOR_TYPE_INDEXED, palette, palette.length);
+        } finally {
+            release(workspace);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        Workspace workspace;
+        while ((workspace = pool.poll()) != null) {
+            workspace.deflater.end();
+        }
+    }
+
+    private Workspace acquire() {
+        Workspace workspace = pool.poll();
+        return workspace == null ? new Workspace() : workspace;
+    }
+
+    private void release(Workspace workspace) {
+        if (!pool.offer(workspace)) {
+            workspace.deflater.end();
+        }
+    }
+
+    private static final class Workspace {
+        private final Deflater deflater = new Deflater();
+        private final CRC32 crc = new CRC32();
+        private byte[] previous = new byte[0];
+        private byte[] current = new byte[0];
+        private byte[][] candidates = new byte[5][0];
+        private byte[] filtered = new byte[0];
+        private byte[] compressed = new byte[0];
+        private int filteredLength;
+        private int compressedLength;
+
+        private void prepare(int rowBytes, int height) {
+            if (current.length < rowBytes) {
+                previous = new byte[rowBytes];
+                current = new byte[rowBytes];
+                candidates = new byte[5][rowBytes];
+            }
+            int length = (rowBytes + 1) * height;
+            if (filtered.length < length) {
+                filtered = new byte[length];
+            }
+            Arrays.fill(previous, 0, rowBytes, (byte) 0);
+            filteredLength = 0;
+            compressedLength = 0;
+        }
+
+        private void filterRow(int rowBytes, int bpp, PngFilter filter) {
+            int type;
+            if (filter == PngFilter.ADAPTIVE) {
+                type = 0;
+                long best = Long.MAX_VALUE;
+                for (int candidate = 0; candidate < 5; candidate++) {
+                    long cost = filter(candidate, rowBytes, bpp, candidates[candidate]);
+                    if (cost < best) {
+                        best = cost;
+                        type = candidate;
+                    }
+                }
+            } else {
+                type = filter.ordinal();
+                filter(type, rowBytes, bpp, candidates[type]);
+            }
+            filtered[filteredLength++] = (byte) type;
+            System.arraycopy(candidates[type], 0, filtered, filteredLength, rowBytes);
+            filteredLength += rowBytes;
+            byte[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        /**
+         * Applies the filter to the current row and returns the sum of absolute values of the filtered bytes.
+         */
+        private long filter(int type, int rowBytes, int bpp, byte[] target) {
+            long cost = 0;
+            for (int i = 0; i < rowBytes; i++) {
+                int raw = current[i] & 0xFF;
+                int left = i >= bpp ? current[i - bpp] & 0xFF : 0;
+                int up = previous[i] & 0xFF;
+                int upLeft = i >= bpp ? previous[i - bpp] & 0xFF : 0;
+                int predicted = switch (type) {
+                    case 1 -> left;
+                    case 2 -> up;
+                    case 3 -> (left + up) >>> 1;
+                    case 4 -> paeth(left, up, upLeft);
+                    default -> 0;
+                };
+                byte value = (byte) (raw - predicted);
+                target[i] = value;
+                cost += Math.abs(value);
+            }
+            return cost;
+        }
+
+        private void compress(int level) {
+            deflater.reset();
+            deflater.setLevel(level);
+            deflater.setInput(filtered, 0, filteredLength);
+            deflater.finish();
+            if (compressed.length == 0) {
+                compressed = new byte[Math.max(filteredLength / 2, 1024)];
+            }
+            while (!deflater.finished()) {
+                if (compressedLength == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+        }
+
+        private byte[] write(int width, int height, int colorType, int[] palette, int colors) {
+            int transparent = 0;
+            for (int i = 0; i < colors; i++) {
+                if (palette[i] >>> 24 != 0xFF) {
+                    transparent = i + 1;
+                }
+            }
+            int length = SIGNATURE.length + CHUNK_OVERHEAD_BYTES + HEADER_BYTES
+                    + (colors > 0 ? CHUNK_OVERHEAD_BYTES + colors * 3 : 0)
+                    + (transparent > 0 ? CHUNK_OVERHEAD_BYTES + transparent : 0)
+                    + CHUNK_OVERHEAD_BYTES + compressedLength
+                    + CHUNK_OVERHEAD_BYTES;
+            byte[] png = new byte[length];
+            System.arraycopy(SIGNATURE, 0, png, 0, SIGNATURE.length);
+            int offset = SIGNATURE.length;
+
+            int data = startChunk(png, offset, IHDR, HEADER_BYTES);
+            putInt(png, data, width);
+            putInt(png, data + 4, height);
+            png[data + 8] = 8;
+            png[data + 9] = (byte) colorType;
+            offset = endChunk(png, offset, HEADER_BYTES);
+
+            if (colors > 0) {
+                data = startChunk(png, offset, PLTE, colors * 3);
+                for (int i = 0; i < colors; i++) {
+                    png[data + i * 3] = (byte) (palette[i] >>> 16);
+                    png[data + i * 3 + 1] = (byte) (palette[i] >>> 8);
+                    png[data + i * 3 + 2] = (byte) palette[i];
+                }
+                offset = endChunk(png, offset, colors * 3);
+            }
+            if (transparent > 0) {
+                data = startChunk(png, offset, TRNS, transparent);
+                for (int i = 0; i < transparent; i++) {
+                    png[data + i] = (byte) (palette[i] >>> 24);
+                }
+                offset = endChunk(png, offset, transparent);
+            }
+
+            data = startChunk(png, offset, IDAT, compressedLength);
+            System.arraycopy(compressed, 0, png, data, compressedLength);
+            offset = endChunk(png, offset, compressedLength);
+
+            startChunk(png, offset, IEND, 0);
+            endChunk(png, offset, 0);
+            return png;
+        }
+
+        private int startChunk(byte[] png, int offset, byte[] type, int length) {
+            putInt(png, offset, length);
+            System.arraycopy(type, 0, png, offset + 4, 4);
+            return offset + 8;
+        }
+
+        private int endChunk(byte[] png, int offset, int length) {
+            crc.reset();
+            crc.update(png, offset + 4, length + 4);
+            putInt(png, offset + 8 + length, (int) crc.getValue());
+            return offset + CHUNK_OVERHEAD_BYTES + length;
+        }
+    }
+
+    private static int paeth(int left, int up, int upLeft) {
+        int estimate = left + up - upLeft;
+        int distanceLeft = Math.abs(estimate - left);
+        int distanceUp = Math.abs(estimate - up);
+        int distanceUpLeft = Math.abs(estimate - upLeft);
+        if (distanceLeft <= distanceUp && distanceLeft <= distanceUpLeft) {
+            return left;
+        }
+        return distanceUp <= distanceUpLeft ? up : upLeft;
+    }
+
+    private static void putInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+}
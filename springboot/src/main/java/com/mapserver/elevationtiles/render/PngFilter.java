@@ -0,0 +1,14 @@
+package com.mapserver.elevationtiles.render;
+
+/**
+ * PNG row filters. {@code ADAPTIVE} picks, for every row, the filter with the smallest sum of absolute
+ * differences, the heuristic libpng uses.
+ */
+public enum PngFilter {
+    NONE,
+    SUB,
+    UP,
+    AVERAGE,
+    PAETH,
+    ADAPTIVE
+}
@@ -0,0 +1,84 @@
+package com.mapserver.elevationtiles.render;
+
+import com.mapserver.elevationtiles.domain.TileLayer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * PNG encoding settings for tiles rendered in the JVM, with optional overrides per layer:
+ * <pre>
+ * elevationtiles.png.defaults.level: 6
+ * elevationtiles.png.layers.hillshade.filter: paeth
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "elevationtiles.png")
+public class PngProperties {
+
+    private Settings defaults = new Settings();
+    private Map<TileLayer, Settings> layers = new EnumMap<>(TileLayer.class);
+
+    public Settings getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Settings defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<TileLayer, Settings> getLayers() {
+        return layers;
+    }
+
+    public void setLayers(Map<TileLayer, Settings> layers) {
+        this.layers = layers;
+    }
+
+    public Settings forLayer(TileLayer layer) {
+        return layers.getOrDefault(layer, defaults);
+    }
+
+    public static class Settings {
+        /**
+         * Deflate level, from 0 (store) to 9 (smallest).
+         */
+        private int level = 6;
+        /**
+         * Row filter for truecolour tiles. Indexed tiles are always written unfiltered, which suits palette
+         * indices best.
+         */
+        private PngFilter filter = PngFilter.ADAPTIVE;
+        /**
+         * Writes an 8 bit palette instead of RGBA when the tile has at most 256 distinct colours, so the colours
+         * are exact either way.
+         */
+        private boolean indexed = true;
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+
+        public PngFilter getFilter() {
+            return filter;
+        }
+
+        public void setFilter(PngFilter filter) {
+            this.filter = filter;
+        }
+
+        public boolean isIndexed() {
+            return indexed;
+        }
+
+        public void setIndexed(boolean indexed) {
+            this.indexed = indexed;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.mapserver.elevationtiles.render;
+
+public enum RenderMode {
+    /**
+     * Colormaps, DEM derivatives and statistics are computed by PostGIS.
+     */
+    DATABASE,
+    /**
+     * The raw band is fetched once per tile and everything else is computed in the JVM.
+     */
+    JVM;
+
+    public static RenderMode of(String mode) {
+        return valueOf(mode.trim().toUpperCase());
+    }
+}
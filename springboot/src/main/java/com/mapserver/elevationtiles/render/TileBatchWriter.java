@@ -0,0 +1,62 @@
+package com.mapserver.elevationtiles.render;
+
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Streams several tiles as a little-endian header followed by one length-prefixed frame per tile, in the order the
+ * tiles become available:
+ * <pre>
+ * magic "ETBT" | version u8 | reserved u8[3] | tiles u32
+ * z u32 | x u32 | y u32 | length u32 | png
+ * </pre>
+ * A tile that does not exist is written with length 0. Every requested tile gets exactly one frame.
+ */
+public final class TileBatchWriter {
+
+    public static final int HEADER_BYTES = 12;
+    public static final int FRAME_HEADER_BYTES = 16;
+
+    private static final byte[] MAGIC = {'E', 'T', 'B', 'T'};
+    private static final int VERSION = 1;
+
+    private TileBatchWriter() {
+    }
+
+    public static void writeHeader(int tiles, OutputStream out) throws IOException {
+        out.write(ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .put(MAGIC)
+                .put((byte) VERSION)
+                .put(new byte[3])
+                .putInt(tiles)
+                .array());
+    }
+
+    /**
+     * Writes the frame and flushes it, so that the client can use the tile while the others are still rendered.
+     */
+    public static void writeTile(TileCoordinate tile, ByteBuffer png, OutputStream out) throws IOException {
+        ByteBuffer data = png.duplicate();
+        out.write(ByteBuffer.allocate(FRAME_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(tile.z())
+                .putInt(tile.x())
+                .putInt(tile.y())
+                .putInt(data.remaining())
+                .array());
+        if (data.hasArray()) {
+            out.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+        } else {
+            byte[] chunk = new byte[Math.min(data.remaining(), 8192)];
+            while (data.hasRemaining()) {
+                int length = Math.min(chunk.length, data.remaining());
+                data.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+        }
+        out.flush();
+    }
+}
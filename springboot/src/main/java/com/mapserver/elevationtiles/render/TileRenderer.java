@@ -0,0 +1,137 @@
+package com.mapserver.elevationtiles.render;
+
+import com.mapserver.elevationtiles.colormap.Colormap;
+import com.mapserver.elevationtiles.domain.TileLayer;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Applies a colormap to a band of values and encodes the result as PNG, the JVM counterpart of
+ * {@code ST_AsPNG(ST_ColorMap(...))}. Tiles with at most 256 distinct colours are written as indexed PNGs, which
+ * is lossless, unless the layer settings disable it.
+ */
+@Component
+public class TileRenderer {
+
+    private static final int MAX_PALETTE_ENTRIES = 256;
+
+    private final PngEncoder pngEncoder;
+    private final PngProperties pngProperties;
+
+    public TileRenderer(PngEncoder pngEncoder, PngProperties pngProperties) {
+        this.pngEncoder = pngEncoder;
+        this.pngProperties = pngProperties;
+    }
+
+    public byte[] render(TileLayer layer, float[] values, int width, int height, Colormap colormap) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        if (ColorRamp.isRelative(colormap)) {
+            for (float value : values) {
+                if (!Float.isNaN(value)) {
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+            }
+        }
+        ColorRamp ramp = ColorRamp.of(colormap, min, max);
+        PngProperties.Settings settings = pngProperties.forLayer(layer);
+        int[] argb = new int[width * height];
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = ramp.argb(values[i]);
+        }
+        if (settings.isIndexed()) {
+            Palette palette = new Palette();
+            byte[] indices = new byte[argb.length];
+            int i = 0;
+            for (int index; i < argb.length && (index = palette.indexOf(argb[i])) >= 0; i++) {
+                indices[i] = (byte) index;
+            }
+            if (i == argb.length) {
+                return pngEncoder.encodeIndexed(indices, width, height, palette.colors(), settings);
+            }
+        }
+        return pngEncoder.encodeArgb(argb, width, height, settings);
+    }
+
+    /**
+     * Packs the elevation values into the colour channels of a lossless PNG.
+     */
+    public byte[] encode(ElevationEncoding encoding, float[] values, int width, int height) {
+        int[] argb = new int[width * height];
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = encoding.argb(values[i]);
+        }
+        return pngEncoder.encodeArgb(argb, width, height, pngProperties.forLayer(encoding.getLayer()));
+    }
+
+    /**
+     * Cuts a PNG rendered for a block of {@code columns x rows} equally sized tiles into one PNG per tile, in row
+     * major order.
+     */
+    public byte[][] slice(TileLayer layer, byte[] png, int columns, int rows) {
+        BufferedImage image;
+        try {
+            image = ImageIO.read(new ByteArrayInputStream(png));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (image == null || image.getWidth() % columns != 0 || image.getHeight() % rows != 0) {
+            throw new IllegalArgumentException("The block is not a PNG of " + columns + "x" + rows + " equally sized tiles");
+        }
+        int width = image.getWidth() / columns;
+        int height = image.getHeight() / rows;
+        int[] argb = new int[width * height];
+        byte[][] tiles = new byte[columns * rows][];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                image.getRGB(column * width, row * height, width, height, argb, 0, width);
+                tiles[row * columns + column] = pngEncoder.encodeArgb(argb, width, height, pngProperties.forLayer(layer));
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * The distinct colours of a tile in the order they appear, up to the 256 of a PNG palette, in an open
+     * addressing table.
+     */
+    private static final class Palette {
+
+        private static final int SLOTS = 4 * MAX_PALETTE_ENTRIES;
+
+        private final int[] keys = new int[SLOTS];
+        private final short[] entries = new short[SLOTS];
+        private final int[] colors = new int[MAX_PALETTE_ENTRIES];
+        private int size;
+
+        /**
+         * Returns the index of the colour, added if it is new, or -1 when the palette is full.
+         */
+        int indexOf(int argb) {
+            int slot = (argb * 0x9E3779B9) >>> Integer.numberOfLeadingZeros(SLOTS - 1);
+            for (; entries[slot] != 0; slot = (slot + 1) & (SLOTS - 1)) {
+                if (keys[slot] == argb) {
+                    return entries[slot] - 1;
+                }
+            }
+            if (size == MAX_PALETTE_ENTRIES) {
+                return -1;
+            }
+            keys[slot] = argb;
+            colors[size] = argb;
+            entries[slot] = (short) ++size;
+            return size - 1;
+        }
+
+        int[] colors() {
+            return Arrays.copyOf(colors, size);
+        }
+    }
+}
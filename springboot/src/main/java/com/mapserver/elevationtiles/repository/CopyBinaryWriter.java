@@ -0,0 +1,61 @@
+package com.mapserver.elevationtiles.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes rows in the binary format of {@code COPY ... FROM STDIN (FORMAT binary)}: a signature, then for every
+ * row its number of fields and each field as its length followed by its value in the type's binary format.
+ */
+final class CopyBinaryWriter {
+
+    private static final byte[] SIGNATURE = "PGCOPY\n\377\r\n\0".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final ByteArrayOutputStream out;
+
+    CopyBinaryWriter(int expectedBytes) {
+        out = new ByteArrayOutputStream(expectedBytes);
+        out.writeBytes(SIGNATURE);
+        writeInt(0);
+        writeInt(0);
+    }
+
+    CopyBinaryWriter row(int fields) {
+        writeShort(fields);
+        return this;
+    }
+
+    CopyBinaryWriter int4(int value) {
+        writeInt(Integer.BYTES);
+        writeInt(value);
+        return this;
+    }
+
+    CopyBinaryWriter int8(long value) {
+        writeInt(Long.BYTES);
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+        return this;
+    }
+
+    CopyBinaryWriter bytea(byte[] value) {
+        writeInt(value.length);
+        out.writeBytes(value);
+        return this;
+    }
+
+    byte[] finish() {
+        writeShort(-1);
+        return out.toByteArray();
+    }
+
+    private void writeShort(int value) {
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private void writeInt(int value) {
+        writeShort(value >>> 16);
+        writeShort(value);
+    }
+}
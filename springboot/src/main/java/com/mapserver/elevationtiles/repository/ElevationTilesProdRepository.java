@@ -1,17 +1,25 @@
 package com.mapserver.elevationtiles.repository;
 
 import com.mapserver.elevationtiles.domain.ElevationTilesProd;
+import com.mapserver.elevationtiles.domain.QuadKey;
+import com.mapserver.elevationtiles.domain.TileRange;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Repository
+@Transactional(readOnly = true)
 public interface ElevationTilesProdRepository extends JpaRepository<ElevationTilesProd, Long> {
 
+    int MAX_KEY_RANGES = 64;
+
     @Query(value = """
             SELECT (stats).min as min,
                 (stats).max as max,
@@ -19,12 +27,23 @@ public interface ElevationTilesProdRepository extends JpaRepository<ElevationTil
                 (stats).sum as sum,
                 (stats).mean as mean,
                 (stats).stddev as stddev
-            FROM (SELECT rid, ST_SummaryStats(rast, 1) As stats
-                FROM elevation_tiles_prod
-                where z= :z and x= :x and y= :y) AS etp
+            FROM (SELECT ST_SummaryStats(rast, 1) As stats
+                FROM elevation_tiles
+                WHERE tile_key = tile_key(:z, :x, :y)) AS etp
             """, nativeQuery = true)
     Optional<Statistics> findStatisticsByZXY(@Param("z") int z, @Param("x") int x, @Param("y") int y);
 
+    /**
+     * Reads the tiles covering the envelope through ranges of their keys, instead of intersecting every tile of
+     * the zoom level with it.
+     */
+    default Optional<Statistics> findStatisticsByZAndEnvelope(int z, float xMin, float yMin, float xMax, float yMax) {
+        TileRange range = TileRange.ofEnvelope(z, xMin, yMin, xMax, yMax);
+        List<long[]> ranges = QuadKey.ranges(range, MAX_KEY_RANGES);
+        return findStatisticsByKeyRanges(keys(ranges, 0), keys(ranges, 1), range.xMin(), range.yMin(), range.xMax(),
+                range.yMax(), xMin, yMin, xMax, yMax);
+    }
+
     @Query(value = """
             WITH rectangle AS (
                    SELECT
@@ -33,10 +52,12 @@ public interface ElevationTilesProdRepository extends JpaRepository<ElevationTil
                SELECT
                    ST_SummaryStats(ST_UNION(ST_Clip(rast, r.geom)), 1) AS stats
                FROM
-                   elevation_tiles_prod etp,
+                   unnest(CAST(:firstKeys AS bigint[]), CAST(:lastKeys AS bigint[])) AS k(first_key, last_key)
+                   JOIN elevation_tiles etp ON etp.tile_key BETWEEN k.first_key AND k.last_key,
                    rectangle r
                WHERE
-                   z = :z
+                   etp.x BETWEEN :columnMin AND :columnMax
+                   AND etp.y BETWEEN :rowMin AND :rowMax
                    AND ST_Intersects(r.geom, etp.rast))
             SELECT (stats).min as min,
                 (stats).max as max,
@@ -46,16 +67,19 @@ public interface ElevationTilesProdRepository extends JpaRepository<ElevationTil
                 (stats).stddev as stddev
             FROM statistics
             """, nativeQuery = true)
-    Optional<Statistics> findStatisticsByZAndEnvelope(@Param("z") int z, @Param("xMin") float xMin, @Param("yMin") float yMin, @Param("xMax") float xMax, @Param("yMax") float yMax);
+    Optional<Statistics> findStatisticsByKeyRanges(@Param("firstKeys") String firstKeys, @Param("lastKeys") String lastKeys,
+                                                   @Param("columnMin") int columnMin, @Param("rowMin") int rowMin,
+                                                   @Param("columnMax") int columnMax, @Param("rowMax") int rowMax,
+                                                   @Param("xMin") float xMin, @Param("yMin") float yMin, @Param("xMax") float xMax, @Param("yMax") float yMax);
 
     @Query(value = """
             SELECT (stats).min as min,
                 (stats).max as max,
                 (stats).count as count,
                 (stats).percent as percent
-            FROM (SELECT rid, ST_Histogram(rast, 1, :bins) As stats
-                FROM elevation_tiles_prod
-                where z= :z and x= :x and y= :y) AS etp
+            FROM (SELECT ST_Histogram(rast, 1, :bins) As stats
+                FROM elevation_tiles
+                WHERE tile_key = tile_key(:z, :x, :y)) AS etp
             ORDER BY (stats).min
             """, nativeQuery = true)
     Collection<Histogram> findHistogramByZXY(@Param("z") int z, @Param("x") int x, @Param("y") int y, @Param("bins") int bins);
@@ -63,57 +87,72 @@ public interface ElevationTilesProdRepository extends JpaRepository<ElevationTil
 
     @Query(value = """
             SELECT (quantile).*
-            FROM (SELECT rid, ST_Quantile(rast, 1) AS quantile
-                FROM elevation_tiles_prod
-                WHERE z= :z AND x= :x AND y= :y) AS etp
+            FROM (SELECT ST_Quantile(rast, 1) AS quantile
+                FROM elevation_tiles
+                WHERE tile_key = tile_key(:z, :x, :y)) AS etp
             """, nativeQuery = true)
     Collection<Quantile> findQuantileByZXY(@Param("z") int z, @Param("x") int x, @Param("y") int y);
 
 
+    @Query(value = """
+            SELECT ST_AsBinary(rast, TRUE)
+                FROM elevation_tiles
+            WHERE tile_key = tile_key(:z, :x, :y)
+            """, nativeQuery = true)
+    byte[] getRaster(@Param("z") int z, @Param("x") int x, @Param("y") int y);
+
+
     @Query(value = """
             SELECT ST_AsPNG(ST_ColorMap(rast, 1, :colormap))
-                FROM elevation_tiles_prod
-            WHERE z= :z AND x= :x AND y= :y
+                FROM elevation_tiles
+            WHERE tile_key = tile_key(:z, :x, :y)
             """, nativeQuery = true)
     byte[] getPng(@Param("z") int z, @Param("x") int x, @Param("y") int y,  @Param("colormap") String colormap);
 
 
     @Query(value = """
             SELECT ST_AsPNG(ST_ColorMap(ST_Slope(rast), 1, :colormap))
-                FROM elevation_tiles_prod
-            WHERE z= :z AND x= :x AND y= :y
+                FROM elevation_tiles
+            WHERE tile_key = tile_key(:z, :x, :y)
             """, nativeQuery = true)
     byte[] getSlope(@Param("z") int z, @Param("x") int x, @Param("y") int y,  @Param("colormap") String colormap);
 
 
     @Query(value = """
             SELECT ST_AsPNG(ST_ColorMap(ST_TRI(rast), 1, :colormap))
-                FROM elevation_tiles_prod
-            WHERE z= :z AND x= :x AND y= :y
+                FROM elevation_tiles
+            WHERE tile_key = tile_key(:z, :x, :y)
             """, nativeQuery = true)
     byte[] getTerrainRoughnessIndex(@Param("z") int z, @Param("x") int x, @Param("y") int y,  @Param("colormap") String colormap);
 
     @Query(value = """
             SELECT ST_AsPNG(ST_ColorMap(ST_TPI(rast), 1, :colormap))
-                FROM elevation_tiles_prod
-            WHERE z= :z AND x= :x AND y= :y
+                FROM elevation_tiles
+            WHERE tile_key = tile_key(:z, :x, :y)
             """, nativeQuery = true)
     byte[] getTopographicPositionIndex(@Param("z") int z, @Param("x") int x, @Param("y") int y,  @Param("colormap") String colormap);
 
     @Query(value = """
             SELECT ST_AsPNG(ST_ColorMap(ST_HillShade(rast), 1, :colormap))
-                FROM elevation_tiles_prod
-            WHERE z= :z AND x= :x AND y= :y
+                FROM elevation_tiles
+            WHERE tile_key = tile_key(:z, :x, :y)
             """, nativeQuery = true)
     byte[] getHillShade(@Param("z") int z, @Param("x") int x, @Param("y") int y,  @Param("colormap") String colormap);
 
     @Query(value = """
             SELECT ST_AsPNG(ST_ColorMap(ST_Aspect(rast), 1, :colormap))
-                FROM elevation_tiles_prod
-            WHERE z= :z AND x= :x AND y= :y
+                FROM elevation_tiles
+            WHERE tile_key = tile_key(:z, :x, :y)
             """, nativeQuery = true)
     byte[] getAspect(@Param("z") int z, @Param("x") int x, @Param("y") int y,  @Param("colormap") String colormap);
 
+    /**
+     * The first or last keys of the ranges as a Postgres array literal.
+     */
+    private static String keys(List<long[]> ranges, int end) {
+        return ranges.stream().map(range -> String.valueOf(range[end])).collect(Collectors.joining(",", "{", "}"));
+    }
+
     interface BasicStatistics {
         double getMin();
         double getMax();
@@ -0,0 +1,84 @@
+package com.mapserver.elevationtiles.repository;
+
+import com.mapserver.elevationtiles.domain.QuadKey;
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Bulk loads tiles into {@code elevation_tiles_prod} with the {@code COPY} protocol.
+ * <p>
+ * PostGIS has no binary input function for rasters, so a batch is copied in binary into a temporary table with the
+ * WKB as {@code bytea}, and moved from there with one {@code INSERT ... SELECT} that replaces the tiles already
+ * loaded, so that loading a batch again is harmless.
+ */
+@Repository
+@Transactional
+public class IngestRepository {
+
+    private static final int ROW_OVERHEAD_BYTES = 2 + 3 * 8 + 12 + 4;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IngestRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Loads the rasters, given in WKB, in one transaction, and returns the number of tiles written.
+     */
+    public int copy(Map<TileCoordinate, byte[]> rasters) {
+        int bytes = 0;
+        for (byte[] wkb : rasters.values()) {
+            bytes += ROW_OVERHEAD_BYTES + wkb.length;
+        }
+        CopyBinaryWriter writer = new CopyBinaryWriter(bytes + 32);
+        rasters.forEach((tile, wkb) ->
+                writer.row(5).int4(tile.z()).int4(tile.x()).int4(tile.y()).int8(QuadKey.encode(tile)).bytea(wkb));
+        byte[] rows = writer.finish();
+
+        Integer written = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("""
+                        CREATE TEMPORARY TABLE elevation_tiles_ingest (z int, x int, y int, tile_key bigint, rast bytea)
+                        ON COMMIT DROP
+                        """);
+            }
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                copyManager.copyIn("COPY elevation_tiles_ingest (z, x, y, tile_key, rast) FROM STDIN (FORMAT binary)",
+                        new ByteArrayInputStream(rows));
+            } catch (IOException e) {
+                throw new SQLException("Failed to copy the tiles", e);
+            }
+            try (Statement statement = connection.createStatement()) {
+                return statement.executeUpdate("""
+                        INSERT INTO elevation_tiles_prod (z, x, y, tile_key, rast)
+                        SELECT z, x, y, tile_key, ST_RastFromWKB(rast) FROM elevation_tiles_ingest
+                        ON CONFLICT (tile_key) DO UPDATE SET rast = EXCLUDED.rast
+                        """);
+            }
+        });
+        return written == null ? 0 : written;
+    }
+
+    /**
+     * Counts the tiles of the zoom level on the primary, which the tiles were just written to.
+     */
+    public long count(int z) {
+        long[] keys = QuadKey.zoomLevel(z);
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM elevation_tiles_prod WHERE tile_key BETWEEN ? AND ?",
+                Long.class, keys[0], keys[1]);
+        return count == null ? 0 : count;
+    }
+}
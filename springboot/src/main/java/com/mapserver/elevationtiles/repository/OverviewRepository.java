@@ -0,0 +1,55 @@
+package com.mapserver.elevationtiles.repository;
+
+import com.mapserver.elevationtiles.domain.QuadKey;
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the in-db overview tiles, which the {@code elevation_tiles} view serves instead of the out-db tiles of
+ * {@code elevation_tiles_prod}.
+ */
+@Repository
+@Transactional
+public class OverviewRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OverviewRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Stores the rasters, given in WKB, replacing the overview tiles that already exist.
+     */
+    public void save(Map<TileCoordinate, byte[]> rasters) {
+        List<Object[]> rows = new ArrayList<>(rasters.size());
+        rasters.forEach((tile, wkb) -> rows.add(new Object[]{tile.z(), tile.x(), tile.y(), QuadKey.encode(tile), wkb}));
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO elevation_tiles_overview (z, x, y, tile_key, rast)
+                VALUES (?, ?, ?, ?, ST_RastFromWKB(?))
+                ON CONFLICT (tile_key) DO UPDATE SET rast = EXCLUDED.rast
+                """, rows);
+    }
+
+    /**
+     * Drops the overview tiles of the zoom levels above {@code maxZoom}, which are served from the out-db tiles
+     * again.
+     */
+    public int deleteAbove(int maxZoom) {
+        return jdbcTemplate.update("DELETE FROM elevation_tiles_overview WHERE tile_key > ?", QuadKey.zoomLevel(maxZoom)[1]);
+    }
+
+    @Transactional(readOnly = true)
+    public long count(int z) {
+        long[] keys = QuadKey.zoomLevel(z);
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM elevation_tiles_overview WHERE tile_key BETWEEN ? AND ?",
+                Long.class, keys[0], keys[1]);
+        return count == null ? 0 : count;
+    }
+}
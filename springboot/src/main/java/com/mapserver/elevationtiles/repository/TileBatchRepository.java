@@ -0,0 +1,139 @@
+package com.mapserver.elevationtiles.repository;
+
+import com.mapserver.elevationtiles.domain.QuadKey;
+import com.mapserver.elevationtiles.domain.TileBlock;
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import com.mapserver.elevationtiles.domain.TileLayer;
+import com.mapserver.elevationtiles.domain.TileRange;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Set-based lookups of many tiles with one statement: the keys of the tiles are passed as an array and joined
+ * through {@code unnest}. Tiles that do not exist are simply absent from the callbacks.
+ * <p>
+ * The callbacks run while the statement holds its connection, its transaction and a permit of the database limiter,
+ * so they should not wait on anything slower than the database, such as a client reading a response.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class TileBatchRepository {
+
+    /**
+     * Rows fetched per round trip. Tiles streamed to a client are looked up at most this many at a time, so that
+     * each statement completes in one round trip and is done with its connection before any tile is written.
+     */
+    public static final int FETCH_SIZE = 32;
+
+    private static final String TILES = """
+            unnest(?::bigint[]) AS t(tile_key)
+                JOIN elevation_tiles etp ON etp.tile_key = t.tile_key
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TileBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void findPngs(TileLayer layer, Collection<TileCoordinate> tiles, String colormap,
+                         BiConsumer<TileCoordinate, byte[]> consumer) {
+        String sql = "SELECT etp.z, etp.x, etp.y, ST_AsPNG(ST_ColorMap(" + derive(layer, "rast") + ", 1, ?)) FROM " + TILES;
+        query(sql, tiles, colormap, consumer);
+    }
+
+    /**
+     * Renders the tiles of the block as one mosaic, so that the out-db rasters are opened and the derivative
+     * computed in a single call, and the derivative is seamless inside the block.
+     */
+    public Optional<BlockPng> findBlockPng(TileLayer layer, TileBlock block, String colormap) {
+        String sql = """
+                SELECT min(x), min(y), max(x), max(y), array_agg(x), array_agg(y),
+                    ST_AsPNG(ST_ColorMap(%s, 1, ?))
+                FROM elevation_tiles
+                WHERE tile_key BETWEEN ? AND ? AND x BETWEEN ? AND ? AND y BETWEEN ? AND ?
+                """.formatted(derive(layer, "ST_Union(rast)"));
+        // an aligned block is one quadrant of the quadtree, hence one range of keys
+        long[] keys = QuadKey.ranges(range(block), 1).get(0);
+        return jdbcTemplate.query(sql, resultSet -> {
+            if (!resultSet.next() || resultSet.getBytes(7) == null) {
+                return Optional.<BlockPng>empty();
+            }
+            int minX = resultSet.getInt(1);
+            int minY = resultSet.getInt(2);
+            Integer[] xs = (Integer[]) resultSet.getArray(5).getArray();
+            Integer[] ys = (Integer[]) resultSet.getArray(6).getArray();
+            Set<TileCoordinate> tiles = new HashSet<>();
+            for (int i = 0; i < xs.length; i++) {
+                tiles.add(new TileCoordinate(block.z(), xs[i], ys[i]));
+            }
+            return Optional.of(new BlockPng(minX, minY, resultSet.getInt(3) - minX + 1, resultSet.getInt(4) - minY + 1,
+                    tiles, resultSet.getBytes(7)));
+        }, colormap, keys[0], keys[1], block.x(), block.x() + block.size() - 1, block.y(), block.y() + block.size() - 1);
+    }
+
+    public void findRasters(Collection<TileCoordinate> tiles, BiConsumer<TileCoordinate, byte[]> consumer) {
+        query("SELECT etp.z, etp.x, etp.y, ST_AsBinary(rast, TRUE) FROM " + TILES, tiles, null, consumer);
+    }
+
+    private static TileRange range(TileBlock block) {
+        return new TileRange(block.z(), block.x(), block.y(), block.x() + block.size() - 1, block.y() + block.size() - 1);
+    }
+
+    private static String derive(TileLayer layer, String raster) {
+        return switch (layer) {
+            case ELEVATION -> raster;
+            case SLOPE -> "ST_Slope(" + raster + ")";
+            case TRI -> "ST_TRI(" + raster + ")";
+            case TPI -> "ST_TPI(" + raster + ")";
+            case HILLSHADE -> "ST_HillShade(" + raster + ")";
+            case ASPECT -> "ST_Aspect(" + raster + ")";
+            case TERRAIN_RGB, TERRARIUM, CONTOURS -> throw new IllegalArgumentException(layer + " tiles are not rendered with a colormap");
+        };
+    }
+
+    private void query(String sql, Collection<TileCoordinate> tiles, String colormap,
+                       BiConsumer<TileCoordinate, byte[]> consumer) {
+        if (tiles.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query(connection -> prepare(connection, sql, tiles, colormap), (RowCallbackHandler) resultSet ->
+                consumer.accept(new TileCoordinate(resultSet.getInt(1), resultSet.getInt(2), resultSet.getInt(3)),
+                        resultSet.getBytes(4)));
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, Collection<TileCoordinate> tiles,
+                                              String colormap) throws SQLException {
+        Long[] keys = new Long[tiles.size()];
+        int i = 0;
+        for (TileCoordinate tile : tiles) {
+            keys[i++] = QuadKey.encode(tile);
+        }
+        PreparedStatement statement = connection.prepareStatement(sql);
+        int parameter = 1;
+        if (colormap != null) {
+            statement.setString(parameter++, colormap);
+        }
+        statement.setArray(parameter, connection.createArrayOf("bigint", keys));
+        statement.setFetchSize(FETCH_SIZE);
+        return statement;
+    }
+
+    /**
+     * A mosaic covering {@code columns x rows} tiles from ({@code minX}, {@code minY}), of which only {@code tiles}
+     * exist; the others are nodata.
+     */
+    public record BlockPng(int minX, int minY, int columns, int rows, Set<TileCoordinate> tiles, byte[] png) {
+    }
+}
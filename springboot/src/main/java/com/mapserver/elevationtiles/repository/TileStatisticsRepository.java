@@ -0,0 +1,87 @@
+package com.mapserver.elevationtiles.repository;
+
+import com.mapserver.elevationtiles.domain.TileRange;
+import com.mapserver.elevationtiles.statistics.PartialStatistics;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+/**
+ * Statistics of many tiles computed tile by tile. Every tile yields one row of partial statistics, which are
+ * fetched a few at a time and merged as they arrive, so that memory does not grow with the number of tiles.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class TileStatisticsRepository {
+
+    private static final int FETCH_SIZE = 64;
+
+    /**
+     * Tiles covered by the envelope are summarized whole, only the tiles crossing its border are clipped.
+     */
+    private static final String ENVELOPE_PARTIALS = """
+            WITH rectangle AS (
+                SELECT ST_Transform(ST_MakeEnvelope(?, ?, ?, ?, 4326), 3857) geom
+            )
+            SELECT (stats).count, (stats).sum, (stats).mean, (stats).stddev, (stats).min, (stats).max
+            FROM (SELECT
+                    CASE WHEN ST_CoveredBy(ST_Envelope(etp.rast), r.geom) THEN ST_SummaryStats(etp.rast, 1)
+                        ELSE ST_SummaryStats(ST_Clip(etp.rast, r.geom), 1)
+                    END AS stats
+                FROM
+                    unnest(?::bigint[], ?::bigint[]) AS k(first_key, last_key)
+                    JOIN elevation_tiles etp ON etp.tile_key BETWEEN k.first_key AND k.last_key,
+                    rectangle r
+                WHERE
+                    etp.x BETWEEN ? AND ?
+                    AND etp.y BETWEEN ? AND ?
+                    AND ST_Intersects(r.geom, etp.rast)) AS partials
+            WHERE (stats).count > 0
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TileStatisticsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Merges the partial statistics of the tiles of {@code range} within the key ranges {@code keyRanges} that
+     * intersect the WGS84 envelope, each clipped by it.
+     */
+    public PartialStatistics findEnvelopePartials(TileRange range, List<long[]> keyRanges,
+                                                  float xMin, float yMin, float xMax, float yMax) {
+        if (keyRanges.isEmpty()) {
+            return PartialStatistics.EMPTY;
+        }
+        PartialStatistics[] merged = {PartialStatistics.EMPTY};
+        jdbcTemplate.query(connection -> {
+            Long[] firstKeys = new Long[keyRanges.size()];
+            Long[] lastKeys = new Long[keyRanges.size()];
+            for (int i = 0; i < keyRanges.size(); i++) {
+                firstKeys[i] = keyRanges.get(i)[0];
+                lastKeys[i] = keyRanges.get(i)[1];
+            }
+            PreparedStatement statement = connection.prepareStatement(ENVELOPE_PARTIALS);
+            statement.setFloat(1, xMin);
+            statement.setFloat(2, yMin);
+            statement.setFloat(3, xMax);
+            statement.setFloat(4, yMax);
+            statement.setArray(5, connection.createArrayOf("bigint", firstKeys));
+            statement.setArray(6, connection.createArrayOf("bigint", lastKeys));
+            statement.setInt(7, range.xMin());
+            statement.setInt(8, range.xMax());
+            statement.setInt(9, range.yMin());
+            statement.setInt(10, range.yMax());
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> merged[0] = merged[0].merge(PartialStatistics.ofSummary(
+                resultSet.getLong(1), resultSet.getDouble(2), resultSet.getDouble(3), resultSet.getDouble(4),
+                resultSet.getDouble(5), resultSet.getDouble(6))));
+        return merged[0];
+    }
+}
@@ -0,0 +1,159 @@
+package com.mapserver.elevationtiles.repository;
+
+import com.mapserver.elevationtiles.domain.QuadKey;
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import com.mapserver.elevationtiles.domain.TileRange;
+import com.mapserver.elevationtiles.statistics.ElevationHistogram;
+import com.mapserver.elevationtiles.statistics.KllSketch;
+import com.mapserver.elevationtiles.statistics.PartialStatistics;
+import com.mapserver.elevationtiles.statistics.TileSummary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * The summaries of {@code elevation_tiles_summary}, one row per tile of {@code elevation_tiles}.
+ */
+@Repository
+@Transactional
+public class TileSummaryRepository {
+
+    private static final String COLUMNS = "count, sum, sum_of_squares, min, max, quantiles, histogram, sketch";
+    private static final int FETCH_SIZE = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TileSummaryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Whether {@code scripts/18_tile_summaries.sql} was applied to the database.
+     */
+    @Transactional(readOnly = true)
+    public boolean exists() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass('elevation_tiles_summary') IS NOT NULL", Boolean.class));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<TileSummary> find(int z, int x, int y) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM elevation_tiles_summary WHERE tile_key = ?",
+                (resultSet, row) -> summary(resultSet, 0), QuadKey.encode(z, x, y)).stream().findFirst();
+    }
+
+    /**
+     * Hands over every tile of {@code range} within the key ranges {@code keyRanges} with its summary, or without
+     * when it has none yet. The rows are fetched a few at a time, so that the summaries can be merged as they
+     * arrive.
+     */
+    @Transactional(readOnly = true)
+    public void findInRanges(TileRange range, List<long[]> keyRanges,
+                             BiConsumer<TileCoordinate, Optional<TileSummary>> consumer) {
+        if (keyRanges.isEmpty()) {
+            return;
+        }
+        String sql = """
+                SELECT etp.z, etp.x, etp.y, ets.tile_key IS NOT NULL, ets.count, ets.sum, ets.sum_of_squares,
+                    ets.min, ets.max, ets.quantiles, ets.histogram, ets.sketch
+                FROM
+                    unnest(?::bigint[], ?::bigint[]) AS k(first_key, last_key)
+                    JOIN elevation_tiles etp ON etp.tile_key BETWEEN k.first_key AND k.last_key
+                    LEFT JOIN elevation_tiles_summary ets ON ets.tile_key = etp.tile_key
+                WHERE etp.x BETWEEN ? AND ? AND etp.y BETWEEN ? AND ?
+                """;
+        jdbcTemplate.query(connection -> {
+            Long[] firstKeys = new Long[keyRanges.size()];
+            Long[] lastKeys = new Long[keyRanges.size()];
+            for (int i = 0; i < keyRanges.size(); i++) {
+                firstKeys[i] = keyRanges.get(i)[0];
+                lastKeys[i] = keyRanges.get(i)[1];
+            }
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("bigint", firstKeys));
+            statement.setArray(2, connection.createArrayOf("bigint", lastKeys));
+            statement.setInt(3, range.xMin());
+            statement.setInt(4, range.xMax());
+            statement.setInt(5, range.yMin());
+            statement.setInt(6, range.yMax());
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(
+                new TileCoordinate(resultSet.getInt(1), resultSet.getInt(2), resultSet.getInt(3)),
+                resultSet.getBoolean(4) ? Optional.of(summary(resultSet, 4)) : Optional.empty()));
+    }
+
+    /**
+     * Stores the summaries, replacing those of the tiles that already have one.
+     */
+    public void save(Map<TileCoordinate, TileSummary> summaries) {
+        List<Object[]> rows = new ArrayList<>(summaries.size());
+        summaries.forEach((tile, summary) -> {
+            PartialStatistics statistics = summary.statistics();
+            boolean empty = statistics.count() == 0;
+            rows.add(new Object[]{QuadKey.encode(tile), statistics.count(), statistics.sum(), statistics.sumOfSquares(),
+                    empty ? null : statistics.min(), empty ? null : statistics.max(), summary.quantiles(),
+                    summary.histogram().toBytes(), summary.sketch().toBytes()});
+        });
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO elevation_tiles_summary (tile_key, %s) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                ON CONFLICT (tile_key) DO UPDATE SET
+                    count = EXCLUDED.count, sum = EXCLUDED.sum, sum_of_squares = EXCLUDED.sum_of_squares,
+                    min = EXCLUDED.min, max = EXCLUDED.max, quantiles = EXCLUDED.quantiles,
+                    histogram = EXCLUDED.histogram, sketch = EXCLUDED.sketch, updated_at = now()
+                """.formatted(COLUMNS), rows);
+    }
+
+    /**
+     * The first {@code limit} tiles after {@code afterKey} in key order that have no summary yet.
+     */
+    @Transactional(readOnly = true)
+    public List<TileCoordinate> findMissing(long afterKey, int limit) {
+        return jdbcTemplate.query("""
+                SELECT z, x, y FROM elevation_tiles etp
+                WHERE tile_key > ?
+                    AND NOT EXISTS (SELECT 1 FROM elevation_tiles_summary ets WHERE ets.tile_key = etp.tile_key)
+                ORDER BY tile_key
+                LIMIT ?
+                """, (resultSet, row) -> new TileCoordinate(resultSet.getInt(1), resultSet.getInt(2), resultSet.getInt(3)),
+                afterKey, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public long countMissing() {
+        Long count = jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM elevation_tiles etp
+                WHERE NOT EXISTS (SELECT 1 FROM elevation_tiles_summary ets WHERE ets.tile_key = etp.tile_key)
+                """, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Reads the summary from the columns {@link #COLUMNS}, following the first {@code offset} columns.
+     */
+    private static TileSummary summary(ResultSet resultSet, int offset) throws SQLException {
+        long count = resultSet.getLong(offset + 1);
+        PartialStatistics statistics = count == 0 ? PartialStatistics.EMPTY : new PartialStatistics(count,
+                resultSet.getDouble(offset + 2), resultSet.getDouble(offset + 3), resultSet.getDouble(offset + 4),
+                resultSet.getDouble(offset + 5));
+        Array array = resultSet.getArray(offset + 6);
+        Double[] values = (Double[]) array.getArray();
+        double[] quantiles = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            quantiles[i] = values[i];
+        }
+        return new TileSummary(statistics, quantiles, ElevationHistogram.fromBytes(resultSet.getBytes(offset + 7)),
+                KllSketch.fromBytes(resultSet.getBytes(offset + 8)));
+    }
+}
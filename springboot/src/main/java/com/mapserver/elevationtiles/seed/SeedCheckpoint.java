@@ -0,0 +1,87 @@
+package com.mapserver.elevationtiles.seed;
+
+import com.mapserver.elevationtiles.domain.TileLayer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Where a seeding job got to: every tile of the zoom levels before {@code zoom}, and every tile of {@code zoom}
+ * with a Morton code below {@code code}, is done. {@code done} and {@code failed} count those tiles only, not the
+ * ones finished ahead of {@code code}, which a resumed job renders again.
+ * <p>
+ * Stored as a properties file, replaced atomically so that a crash leaves the previous checkpoint intact.
+ */
+public record SeedCheckpoint(SeedSpec spec, int zoom, long code, long done, long failed) {
+
+    public void write(Path path) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("minZoom", String.valueOf(spec.minZoom()));
+        properties.setProperty("maxZoom", String.valueOf(spec.maxZoom()));
+        properties.setProperty("lonMin", String.valueOf(spec.lonMin()));
+        properties.setProperty("latMin", String.valueOf(spec.latMin()));
+        properties.setProperty("lonMax", String.valueOf(spec.lonMax()));
+        properties.setProperty("latMax", String.valueOf(spec.latMax()));
+        properties.setProperty("layers", String.join(",", spec.layers().stream().map(TileLayer::getPath).toList()));
+        for (int i = 0; i < spec.colormaps().size(); i++) {
+            properties.setProperty("colormap." + i, spec.colormaps().get(i));
+        }
+        properties.setProperty("workers", String.valueOf(spec.workers()));
+        properties.setProperty("tilesPerSecond", String.valueOf(spec.tilesPerSecond()));
+        properties.setProperty("zoom", String.valueOf(zoom));
+        properties.setProperty("code", String.valueOf(code));
+        properties.setProperty("done", String.valueOf(done));
+        properties.setProperty("failed", String.valueOf(failed));
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary)) {
+                properties.store(writer, "Tile seeding checkpoint");
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    public static Optional<SeedCheckpoint> read(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        List<String> colormaps = new ArrayList<>();
+        for (int i = 0; properties.containsKey("colormap." + i); i++) {
+            colormaps.add(properties.getProperty("colormap." + i));
+        }
+        SeedSpec spec = new SeedSpec(
+                Integer.parseInt(properties.getProperty("minZoom")),
+                Integer.parseInt(properties.getProperty("maxZoom")),
+                Double.parseDouble(properties.getProperty("lonMin")),
+                Double.parseDouble(properties.getProperty("latMin")),
+                Double.parseDouble(properties.getProperty("lonMax")),
+                Double.parseDouble(properties.getProperty("latMax")),
+                Arrays.stream(properties.getProperty("layers").split(",")).map(TileLayer::fromPath).toList(),
+                colormaps,
+                Integer.parseInt(properties.getProperty("workers")),
+                Double.parseDouble(properties.getProperty("tilesPerSecond")));
+        return Optional.of(new SeedCheckpoint(spec,
+                Integer.parseInt(properties.getProperty("zoom")),
+                Long.parseLong(properties.getProperty("code")),
+                Long.parseLong(properties.getProperty("done")),
+                Long.parseLong(properties.getProperty("failed"))));
+    }
+}
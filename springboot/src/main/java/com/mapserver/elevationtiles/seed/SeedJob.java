@@ -0,0 +1,145 @@
+package com.mapserver.elevationtiles.seed;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a seeding job. Tiles counted as done or failed before a restart are kept, but throughput and ETA
+ * are measured over this run only.
+ */
+public class SeedJob {
+
+    public enum Status { RUNNING, COMPLETED, CANCELLED, STOPPED, FAILED }
+
+    private final SeedSpec spec;
+    private final long total;
+    private final long resumedTiles;
+    private final boolean resumed;
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong done;
+    private final AtomicLong failed;
+    private final AtomicLong throttledNanos = new AtomicLong();
+    private volatile Status status = Status.RUNNING;
+    private volatile boolean cancelled;
+    private volatile boolean stopping;
+    private volatile boolean throttled;
+    private volatile int zoom;
+    private volatile long finishNanos;
+
+    SeedJob(SeedSpec spec, long done, long failed, int zoom, boolean resumed) {
+        this.spec = spec;
+        this.total = spec.totalTiles();
+        this.done = new AtomicLong(done);
+        this.failed = new AtomicLong(failed);
+        this.resumedTiles = done + failed;
+        this.zoom = zoom;
+        this.resumed = resumed;
+    }
+
+    public SeedSpec getSpec() {
+        return spec;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getDone() {
+        return done.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public boolean isThrottled() {
+        return throttled;
+    }
+
+    public double getThrottledSeconds() {
+        return throttledNanos.get() / 1e9;
+    }
+
+    public double getElapsedSeconds() {
+        long end = status == Status.RUNNING ? System.nanoTime() : finishNanos;
+        return (end - startNanos) / 1e9;
+    }
+
+    public double getTilesPerSecond() {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? (getDone() + getFailed() - resumedTiles) / elapsed : 0;
+    }
+
+    /**
+     * The time left at the throughput of this run, or -1 until a tile has been seeded.
+     */
+    public long getEtaSeconds() {
+        if (status != Status.RUNNING) {
+            return 0;
+        }
+        double rate = getTilesPerSecond();
+        long remaining = Math.max(0, total - getDone() - getFailed());
+        return rate > 0 ? (long) Math.ceil(remaining / rate) : -1;
+    }
+
+    boolean isStopping() {
+        return stopping;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    void cancel() {
+        cancelled = true;
+        stopping = true;
+    }
+
+    void stop() {
+        stopping = true;
+    }
+
+    void setZoom(int zoom) {
+        this.zoom = zoom;
+    }
+
+    void succeeded() {
+        done.incrementAndGet();
+    }
+
+    void failed() {
+        failed.incrementAndGet();
+    }
+
+    void throttle() {
+        throttled = true;
+    }
+
+    void unthrottle(long throttledFor) {
+        throttled = false;
+        throttledNanos.addAndGet(throttledFor);
+    }
+
+    void finish(Status status) {
+        this.finishNanos = System.nanoTime();
+        this.throttled = false;
+        this.status = status;
+    }
+}
@@ -0,0 +1,373 @@
+package com.mapserver.elevationtiles.seed;
+
+import com.mapserver.elevationtiles.colormap.Colormap;
+import com.mapserver.elevationtiles.colormap.ColormapRegistry;
+import com.mapserver.elevationtiles.concurrent.DbConcurrencyLimiter;
+import com.mapserver.elevationtiles.concurrent.TokenBucket;
+import com.mapserver.elevationtiles.domain.MortonOrder;
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import com.mapserver.elevationtiles.domain.TileLayer;
+import com.mapserver.elevationtiles.exception.ConflictException;
+import com.mapserver.elevationtiles.exception.InvalidParameterException;
+import com.mapserver.elevationtiles.exception.ServiceUnavailableException;
+import com.mapserver.elevationtiles.render.ElevationEncoding;
+import com.mapserver.elevationtiles.service.TileService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Pre-renders the tiles of a zoom range into the tile cache, one job at a time.
+ * <p>
+ * Tiles are walked zoom level by zoom level in Morton order, so that neighbouring tiles, which share their halo
+ * and metatile, are rendered close together. A bounded number of workers render them, no faster than the job's
+ * rate, and the job pauses whenever live requests are queued for the database. Progress is checkpointed to disk
+ * and a job interrupted by a shutdown resumes where it stopped when the application starts again.
+ */
+@Service
+public class SeedService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SeedService.class);
+    private static final long BACKOFF_MILLIS = 50;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long SHUTDOWN_WAIT_MILLIS = 10_000;
+
+    private final TileService tileService;
+    private final ColormapRegistry colormapRegistry;
+    private final DbConcurrencyLimiter dbConcurrencyLimiter;
+    private final Path checkpointPath;
+    private final int maxWorkers;
+    private final int defaultWorkers;
+    private final double defaultTilesPerSecond;
+    private final long checkpointIntervalNanos;
+    private SeedJob job;
+    private Thread coordinator;
+
+    public SeedService(TileService tileService, ColormapRegistry colormapRegistry,
+                       DbConcurrencyLimiter dbConcurrencyLimiter,
+                       @Value("${elevationtiles.seed.checkpoint-path:}") String checkpointPath,
+                       @Value("${elevationtiles.seed.max-workers:4}") int maxWorkers,
+                       @Value("${elevationtiles.seed.workers:2}") int defaultWorkers,
+                       @Value("${elevationtiles.seed.tiles-per-second:20}") double defaultTilesPerSecond,
+                       @Value("${elevationtiles.seed.checkpoint-interval-ms:5000}") long checkpointIntervalMillis) {
+        this.tileService = tileService;
+        this.colormapRegistry = colormapRegistry;
+        this.dbConcurrencyLimiter = dbConcurrencyLimiter;
+        this.checkpointPath = StringUtils.hasText(checkpointPath) ? Path.of(checkpointPath) : null;
+        this.maxWorkers = maxWorkers;
+        this.defaultWorkers = defaultWorkers;
+        this.defaultTilesPerSecond = defaultTilesPerSecond;
+        this.checkpointIntervalNanos = TimeUnit.MILLISECONDS.toNanos(checkpointIntervalMillis);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        if (checkpointPath == null) {
+            return;
+        }
+        try {
+            SeedCheckpoint.read(checkpointPath).ifPresent(checkpoint -> {
+                LOGGER.info("Resuming tile seeding at zoom {} from {}", checkpoint.zoom(), checkpointPath);
+                launch(checkpoint.spec(), checkpoint.zoom(), checkpoint.code(), checkpoint.done(), checkpoint.failed(), true);
+            });
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring the unreadable seeding checkpoint {}", checkpointPath, e);
+        }
+    }
+
+    public SeedJob start(SeedSpec spec) {
+        validate(spec);
+        return launch(spec, spec.minZoom(), 0, 0, 0, false);
+    }
+
+    public int getDefaultWorkers() {
+        return defaultWorkers;
+    }
+
+    public double getDefaultTilesPerSecond() {
+        return defaultTilesPerSecond;
+    }
+
+    public synchronized Optional<SeedJob> getJob() {
+        return Optional.ofNullable(job);
+    }
+
+    /**
+     * Stops the running job once the tiles being rendered are done, and forgets its checkpoint.
+     */
+    public synchronized Optional<SeedJob> cancel() {
+        if (job != null && job.getStatus() == SeedJob.Status.RUNNING) {
+            job.cancel();
+        }
+        return Optional.ofNullable(job);
+    }
+
+    /**
+     * Stops the running job and keeps its checkpoint, so that it resumes on the next start.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread stopping;
+        synchronized (this) {
+            if (job == null || job.getStatus() != SeedJob.Status.RUNNING) {
+                return;
+            }
+            job.stop();
+            stopping = coordinator;
+        }
+        stopping.join(SHUTDOWN_WAIT_MILLIS);
+    }
+
+    private synchronized SeedJob launch(SeedSpec spec, int zoom, long code, long done, long failed, boolean resumed) {
+        if (job != null && job.getStatus() == SeedJob.Status.RUNNING) {
+            throw new ConflictException("A seeding job is already running");
+        }
+        SeedJob started = new SeedJob(spec, done, failed, zoom, resumed);
+        List<Consumer<TileCoordinate>> renders = renders(spec);
+        job = started;
+        coordinator = Thread.ofVirtual().name("tile-seeder").start(() -> run(started, renders, zoom, code));
+        return started;
+    }
+
+    private void validate(SeedSpec spec) {
+        if (spec.minZoom() < 0 || spec.maxZoom() > 15 || spec.minZoom() > spec.maxZoom()) {
+            throw new InvalidParameterException("The zoom levels should be between 0 and 15, min before max");
+        }
+        if (spec.lonMin() > spec.lonMax() || spec.latMin() > spec.latMax()) {
+            throw new InvalidParameterException("The envelope minimum should not exceed its maximum");
+        }
+        if (spec.layers().isEmpty()) {
+            throw new InvalidParameterException("At least one layer should be seeded");
+        }
+        if (spec.workers() < 1 || spec.workers() > maxWorkers) {
+            throw new InvalidParameterException("The number of workers should be between 1 and " + maxWorkers);
+        }
+        if (!(spec.tilesPerSecond() > 0)) {
+            throw new InvalidParameterException("The rate should be a positive number of tiles per second");
+        }
+    }
+
+    /**
+     * Resolves, once for the job, what is rendered for each tile: every colormap of every layer, the encoded
+     * elevation for the terrain-rgb and terrarium layers, or the vector tile of the contours layer.
+     */
+    private List<Consumer<TileCoordinate>> renders(SeedSpec spec) {
+        List<Consumer<TileCoordinate>> renders = new ArrayList<>();
+        for (TileLayer layer : spec.layers()) {
+            if (layer == TileLayer.CONTOURS) {
+                renders.add(tile -> tileService.getContours(tile.z(), tile.x(), tile.y()));
+                continue;
+            }
+            Optional<ElevationEncoding> encoding = ElevationEncoding.fromLayer(layer);
+            if (encoding.isPresent()) {
+                renders.add(tile -> tileService.getEncodedPng(encoding.get(), tile.z(), tile.x(), tile.y()));
+                continue;
+            }
+            List<String> references = spec.colormaps().isEmpty() ? List.of("") : spec.colormaps();
+            for (String reference : references) {
+                Colormap colormap = colormapRegistry.resolve(layer, reference);
+                renders.add(tile -> tileService.getPng(layer, tile.z(), tile.x(), tile.y(), colormap));
+            }
+        }
+        return renders;
+    }
+
+    /**
+     * Coordinates the job on its own thread. Every tile below the Morton code {@code from} of the first zoom level
+     * is done already.
+     */
+    private void run(SeedJob job, List<Consumer<TileCoordinate>> renders, int fromZoom, long from) {
+        SeedSpec spec = job.getSpec();
+        Semaphore workers = new Semaphore(spec.workers());
+        TokenBucket bucket = new TokenBucket(spec.tilesPerSecond());
+        NavigableSet<Long> inFlight = new ConcurrentSkipListSet<>();
+        Watermark watermark = new Watermark(job.getDone(), job.getFailed());
+        int zoom = fromZoom;
+        long next = from;
+        long lastCheckpoint = System.nanoTime();
+        SeedJob.Status status;
+        try {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                while (zoom <= spec.maxZoom() && !job.isStopping()) {
+                    job.setZoom(zoom);
+                    Iterator<TileCoordinate> tiles = MortonOrder.iterator(spec.range(zoom), next);
+                    while (tiles.hasNext() && !job.isStopping()) {
+                        TileCoordinate tile = tiles.next();
+                        awaitLiveTraffic(job);
+                        bucket.acquire();
+                        workers.acquire();
+                        long code = MortonOrder.encode(tile.x(), tile.y());
+                        inFlight.add(code);
+                        executor.execute(() -> {
+                            boolean succeeded = false;
+                            try {
+                                succeeded = seed(job, tile, renders);
+                            } finally {
+                                watermark.finished(code, succeeded);
+                                inFlight.remove(code);
+                                workers.release();
+                            }
+                        });
+                        next = code + 1;
+                        if (System.nanoTime() - lastCheckpoint > checkpointIntervalNanos) {
+                            Long oldest = inFlight.isEmpty() ? null : inFlight.first();
+                            long resumeFrom = oldest == null ? next : Math.min(oldest, next);
+                            watermark.advance(resumeFrom);
+                            checkpoint(job, zoom, resumeFrom, watermark);
+                            lastCheckpoint = System.nanoTime();
+                        }
+                    }
+                    workers.acquire(spec.workers());
+                    workers.release(spec.workers());
+                    if (job.isStopping()) {
+                        break;
+                    }
+                    watermark.advance(Long.MAX_VALUE);
+                    zoom++;
+                    next = 0;
+                }
+            } catch (InterruptedException e) {
+                // nothing interrupts the coordinator, it only ever waits for a moment and then checks the job
+                job.stop();
+            }
+            status = job.isCancelled() ? SeedJob.Status.CANCELLED
+                    : job.isStopping() ? SeedJob.Status.STOPPED : SeedJob.Status.COMPLETED;
+        } catch (RuntimeException e) {
+            LOGGER.error("Tile seeding failed at zoom {}", zoom, e);
+            status = SeedJob.Status.FAILED;
+        }
+        if (status == SeedJob.Status.STOPPED || status == SeedJob.Status.FAILED) {
+            watermark.advance(next);
+            checkpoint(job, zoom, next, watermark);
+        } else {
+            deleteCheckpoint();
+        }
+        job.finish(status);
+        LOGGER.info("Tile seeding {}: {} tiles done, {} failed", status, job.getDone(), job.getFailed());
+    }
+
+    /**
+     * Renders every layer and colormap of the tile. A render turned away by the database limiter is retried after
+     * its back off, since live traffic has priority. Returns whether every render succeeded.
+     */
+    private boolean seed(SeedJob job, TileCoordinate tile, List<Consumer<TileCoordinate>> renders) {
+        try {
+            for (Consumer<TileCoordinate> render : renders) {
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        render.accept(tile);
+                        break;
+                    } catch (ServiceUnavailableException e) {
+                        if (attempt == MAX_ATTEMPTS || job.isStopping()) {
+                            throw e;
+                        }
+                        Thread.sleep(TimeUnit.SECONDS.toMillis(e.getRetryAfterSeconds()));
+                    }
+                }
+            }
+            job.succeeded();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Failed to seed tile {}", tile, e);
+        }
+        job.failed();
+        return false;
+    }
+
+    private void awaitLiveTraffic(SeedJob job) throws InterruptedException {
+        if (dbConcurrencyLimiter.getWaiting() == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        job.throttle();
+        try {
+            while (dbConcurrencyLimiter.getWaiting() > 0 && !job.isStopping()) {
+                Thread.sleep(BACKOFF_MILLIS);
+            }
+        } finally {
+            job.unthrottle(System.nanoTime() - start);
+        }
+    }
+
+    private void checkpoint(SeedJob job, int zoom, long code, Watermark watermark) {
+        if (checkpointPath == null) {
+            return;
+        }
+        try {
+            new SeedCheckpoint(job.getSpec(), zoom, code, watermark.done, watermark.failed).write(checkpointPath);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write the seeding checkpoint {}", checkpointPath, e);
+        }
+    }
+
+    private void deleteCheckpoint() {
+        if (checkpointPath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(checkpointPath);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete the seeding checkpoint {}", checkpointPath, e);
+        }
+    }
+
+    /**
+     * The tiles counted by a checkpoint: those of the zoom levels before the current one, and those of the current
+     * one below the checkpointed Morton code. Tiles finished out of order, after one still being rendered, are held
+     * back until the code passes them, since a job resumed from the checkpoint renders them again.
+     */
+    private static final class Watermark {
+
+        private final NavigableMap<Long, Boolean> finished = new ConcurrentSkipListMap<>();
+        private long done;
+        private long failed;
+
+        Watermark(long done, long failed) {
+            this.done = done;
+            this.failed = failed;
+        }
+
+        void finished(long code, boolean succeeded) {
+            finished.put(code, succeeded);
+        }
+
+        /**
+         * Counts the tiles below {@code code}, which are all finished: none is in flight and every one was started.
+         */
+        void advance(long code) {
+            NavigableMap<Long, Boolean> below = finished.headMap(code, false);
+            for (boolean succeeded : below.values()) {
+                if (succeeded) {
+                    done++;
+                } else {
+                    failed++;
+                }
+            }
+            below.clear();
+        }
+    }
+}
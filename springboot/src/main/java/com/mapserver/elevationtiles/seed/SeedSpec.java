@@ -0,0 +1,26 @@
+package com.mapserver.elevationtiles.seed;
+
+import com.mapserver.elevationtiles.domain.TileLayer;
+import com.mapserver.elevationtiles.domain.TileRange;
+
+import java.util.List;
+
+/**
+ * What a seeding job renders: the tiles of zoom levels {@code minZoom} to {@code maxZoom} covering a WGS84
+ * envelope, for every layer and colormap. Without colormaps each layer is rendered with its default one.
+ */
+public record SeedSpec(int minZoom, int maxZoom, double lonMin, double latMin, double lonMax, double latMax,
+                       List<TileLayer> layers, List<String> colormaps, int workers, double tilesPerSecond) {
+
+    public TileRange range(int z) {
+        return TileRange.ofEnvelope(z, lonMin, latMin, lonMax, latMax);
+    }
+
+    public long totalTiles() {
+        long total = 0;
+        for (int z = minZoom; z <= maxZoom; z++) {
+            total += range(z).size();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,165 @@
+package com.mapserver.elevationtiles.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mapserver.elevationtiles.concurrent.SingleFlight;
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import com.mapserver.elevationtiles.raster.ElevationWindow;
+import com.mapserver.elevationtiles.raster.GeoTiffMirror;
+import com.mapserver.elevationtiles.raster.RasterWkbReader;
+import com.mapserver.elevationtiles.repository.ElevationTilesProdRepository;
+import com.mapserver.elevationtiles.repository.TileBatchRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Fetches the raw band of a tile once and keeps the decoded grid in a size-bounded cache shared by every
+ * layer rendered and every statistic computed in the JVM. Tiles are read from the local GeoTIFF mirror when there
+ * is one, and from the database otherwise.
+ */
+@Service
+public class ElevationGridService {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final ElevationTilesProdRepository elevationTilesProdRepository;
+    private final TileBatchRepository tileBatchRepository;
+    private final Cache<TileCoordinate, Optional<ElevationGrid>> grids;
+    private final SingleFlight singleFlight;
+    private final GeoTiffMirror geoTiffMirror;
+    private final boolean offHeap;
+
+    public ElevationGridService(ElevationTilesProdRepository elevationTilesProdRepository,
+                                TileBatchRepository tileBatchRepository, SingleFlight singleFlight,
+                                GeoTiffMirror geoTiffMirror,
+                                @Value("${elevationtiles.grid-cache.max-bytes:536870912}") long maxBytes,
+                                @Value("${elevationtiles.grid-cache.off-heap:true}") boolean offHeap) {
+        this.elevationTilesProdRepository = elevationTilesProdRepository;
+        this.tileBatchRepository = tileBatchRepository;
+        this.singleFlight = singleFlight;
+        this.geoTiffMirror = geoTiffMirror;
+        this.offHeap = offHeap;
+        this.grids = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((TileCoordinate tile, Optional<ElevationGrid> grid) ->
+                        grid.map(ElevationGrid::sizeInBytes).orElse(0) + ENTRY_OVERHEAD_BYTES)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The grid is loaded outside of the cache's own locking, which would pin a virtual thread to its carrier for the
+     * whole query, and concurrent loads of the same tile are coalesced instead.
+     */
+    public Optional<ElevationGrid> getGrid(int z, int x, int y) {
+        TileCoordinate tile = new TileCoordinate(z, x, y);
+        Optional<ElevationGrid> grid = grids.getIfPresent(tile);
+        if (grid != null) {
+            return grid;
+        }
+        return singleFlight.execute(tile, () -> {
+            Optional<ElevationGrid> loaded = grids.getIfPresent(tile);
+            if (loaded == null) {
+                loaded = load(tile);
+                grids.put(tile, loaded);
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * Returns the grid of the tile surrounded by {@code halo} pixels of its eight neighbours. Neighbours that are not
+     * cached yet are fetched together with the tile in a single query and cached for the requests that will follow
+     * for the tiles around it.
+     */
+    public Optional<ElevationWindow> getWindow(int z, int x, int y, int halo) {
+        TileCoordinate center = new TileCoordinate(z, x, y);
+        if (halo == 0) {
+            return getGrid(z, x, y).map(grid -> ElevationWindow.of(grid, 0));
+        }
+        List<TileCoordinate> tiles = new ArrayList<>(9);
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                center.neighbour(dx, dy).ifPresent(tiles::add);
+            }
+        }
+        Map<TileCoordinate, Optional<ElevationGrid>> neighbourhood = grids.getAll(tiles, this::loadAll);
+        return neighbourhood.get(center).map(grid -> {
+            ElevationWindow window = ElevationWindow.of(grid, Math.min(halo, Math.min(grid.getWidth(), grid.getHeight())));
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if (dx != 0 || dy != 0) {
+                        int column = dx;
+                        int row = dy;
+                        center.neighbour(dx, dy)
+                                .flatMap(neighbourhood::get)
+                                .filter(neighbour -> neighbour.getWidth() == grid.getWidth() && neighbour.getHeight() == grid.getHeight())
+                                .ifPresent(neighbour -> window.fill(neighbour, column, row));
+                    }
+                }
+            }
+            return window;
+        });
+    }
+
+    /**
+     * Loads the grids of the tiles, and of their eight neighbours when {@code halo} is positive, that are not cached
+     * yet, all with a single query.
+     */
+    public void prefetch(Collection<TileCoordinate> tiles, int halo) {
+        Set<TileCoordinate> wanted = new HashSet<>(tiles);
+        if (halo > 0) {
+            for (TileCoordinate tile : tiles) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        tile.neighbour(dx, dy).ifPresent(wanted::add);
+                    }
+                }
+            }
+        }
+        grids.getAll(wanted, this::loadAll);
+    }
+
+    /**
+     * Loads the grids of the tiles without caching them, for jobs that read every tile once.
+     */
+    public Map<TileCoordinate, Optional<ElevationGrid>> read(Collection<TileCoordinate> tiles) {
+        return loadAll(new HashSet<>(tiles));
+    }
+
+    private Optional<ElevationGrid> load(TileCoordinate tile) {
+        Optional<ElevationGrid> mirrored = geoTiffMirror.read(tile, offHeap);
+        if (mirrored.isPresent() || !geoTiffMirror.isFallbackToDatabase()) {
+            return mirrored;
+        }
+        return Optional.ofNullable(elevationTilesProdRepository.getRaster(tile.z(), tile.x(), tile.y()))
+                .map(wkb -> RasterWkbReader.read(wkb, offHeap));
+    }
+
+    private Map<TileCoordinate, Optional<ElevationGrid>> loadAll(Set<? extends TileCoordinate> tiles) {
+        Map<TileCoordinate, Optional<ElevationGrid>> loaded = new HashMap<>();
+        List<TileCoordinate> remote = new ArrayList<>();
+        for (TileCoordinate tile : tiles) {
+            Optional<ElevationGrid> mirrored = geoTiffMirror.read(tile, offHeap);
+            loaded.put(tile, mirrored);
+            if (mirrored.isEmpty() && geoTiffMirror.isFallbackToDatabase()) {
+                remote.add(tile);
+            }
+        }
+        if (!remote.isEmpty()) {
+            tileBatchRepository.findRasters(remote,
+                    (tile, wkb) -> loaded.put(tile, Optional.of(RasterWkbReader.read(wkb, offHeap))));
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,234 @@
+package com.mapserver.elevationtiles.service;
+
+import com.mapserver.elevationtiles.concurrent.SingleFlight;
+import com.mapserver.elevationtiles.domain.QuadKey;
+import com.mapserver.elevationtiles.domain.TileRange;
+import com.mapserver.elevationtiles.exception.InvalidParameterException;
+import com.mapserver.elevationtiles.exception.ServiceUnavailableException;
+import com.mapserver.elevationtiles.raster.GridStatistics;
+import com.mapserver.elevationtiles.render.RenderMode;
+import com.mapserver.elevationtiles.repository.ElevationTilesProdRepository;
+import com.mapserver.elevationtiles.repository.TileStatisticsRepository;
+import com.mapserver.elevationtiles.repository.TileSummaryRepository;
+import com.mapserver.elevationtiles.statistics.EnvelopeStatisticsMode;
+import com.mapserver.elevationtiles.statistics.EnvelopeSummaryService;
+import com.mapserver.elevationtiles.statistics.PartialStatistics;
+import com.mapserver.elevationtiles.statistics.TileSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Statistics of a tile are read from its summary when it has one, and otherwise computed from its raster, by
+ * PostGIS or in the JVM depending on the render mode. Summaries are only looked up when the summary table exists,
+ * so that a database without it keeps being served from the rasters. Histograms and quantiles of envelopes are
+ * merged from the summaries of their tiles.
+ */
+@Service
+public class StatisticsService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatisticsService.class);
+
+    private final ElevationTilesProdRepository elevationTilesProdRepository;
+    private final TileStatisticsRepository tileStatisticsRepository;
+    private final TileSummaryRepository tileSummaryRepository;
+    private final ElevationGridService elevationGridService;
+    private final EnvelopeSummaryService envelopeSummaryService;
+    private final SingleFlight singleFlight;
+    private final RenderMode renderMode;
+    private final EnvelopeStatisticsMode envelopeMode;
+    private final int envelopeParallelism;
+    private final int retryAfterSeconds;
+    private final boolean summaries;
+    private volatile Boolean summaryTable;
+
+    public StatisticsService(ElevationTilesProdRepository elevationTilesProdRepository,
+                             TileStatisticsRepository tileStatisticsRepository,
+                             TileSummaryRepository tileSummaryRepository,
+                             ElevationGridService elevationGridService,
+                             EnvelopeSummaryService envelopeSummaryService, SingleFlight singleFlight,
+                             @Value("${elevationtiles.render.mode:database}") String renderMode,
+                             @Value("${elevationtiles.statistics.envelope-mode:partials}") String envelopeMode,
+                             @Value("${elevationtiles.statistics.envelope-parallelism:4}") int envelopeParallelism,
+                             @Value("${elevationtiles.db.retry-after-seconds:1}") int retryAfterSeconds,
+                             @Value("${elevationtiles.summary.enabled:true}") boolean summaries) {
+        if (envelopeParallelism < 1) {
+            throw new IllegalArgumentException("elevationtiles.statistics.envelope-parallelism must be at least 1");
+        }
+        this.elevationTilesProdRepository = elevationTilesProdRepository;
+        this.tileStatisticsRepository = tileStatisticsRepository;
+        this.tileSummaryRepository = tileSummaryRepository;
+        this.elevationGridService = elevationGridService;
+        this.envelopeSummaryService = envelopeSummaryService;
+        this.singleFlight = singleFlight;
+        this.renderMode = RenderMode.of(renderMode);
+        this.envelopeMode = EnvelopeStatisticsMode.of(envelopeMode);
+        this.envelopeParallelism = envelopeParallelism;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.summaries = summaries;
+    }
+
+    public Optional<? extends ElevationTilesProdRepository.Statistics> findStatisticsByZXY(int z, int x, int y) {
+        return singleFlight.execute(List.of("statistics", z, x, y), () -> {
+            Optional<TileSummary> summary = findSummary(z, x, y);
+            if (summary.isPresent()) {
+                return summary.map(TileSummary::summary);
+            }
+            if (renderMode == RenderMode.JVM) {
+                return elevationGridService.getGrid(z, x, y).map(GridStatistics::summary);
+            }
+            return elevationTilesProdRepository.findStatisticsByZXY(z, x, y);
+        });
+    }
+
+    public Optional<? extends ElevationTilesProdRepository.Statistics> findStatisticsByZAndEnvelope(int z, float xMin, float yMin, float xMax, float yMax) {
+        return singleFlight.execute(List.of("envelope-statistics", z, xMin, yMin, xMax, yMax), () -> {
+            if (envelopeMode == EnvelopeStatisticsMode.UNION) {
+                return elevationTilesProdRepository.findStatisticsByZAndEnvelope(z, xMin, yMin, xMax, yMax);
+            }
+            PartialStatistics partials = findEnvelopePartials(z, xMin, yMin, xMax, yMax);
+            return partials.count() == 0 ? Optional.empty() : Optional.of(partials.summary());
+        });
+    }
+
+    /**
+     * Splits the key ranges covering the envelope into runs of consecutive ranges, one query each, and merges the
+     * partial statistics of the queries as they complete.
+     */
+    private PartialStatistics findEnvelopePartials(int z, float xMin, float yMin, float xMax, float yMax) {
+        TileRange range = TileRange.ofEnvelope(z, xMin, yMin, xMax, yMax);
+        List<long[]> keyRanges = QuadKey.ranges(range, ElevationTilesProdRepository.MAX_KEY_RANGES);
+        int queries = Math.min(envelopeParallelism, keyRanges.size());
+        if (queries <= 1) {
+            return tileStatisticsRepository.findEnvelopePartials(range, keyRanges, xMin, yMin, xMax, yMax);
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<PartialStatistics>> futures = new ArrayList<>(queries);
+            for (int query = 0; query < queries; query++) {
+                List<long[]> run = keyRanges.subList(keyRanges.size() * query / queries,
+                        keyRanges.size() * (query + 1) / queries);
+                futures.add(executor.submit(
+                        () -> tileStatisticsRepository.findEnvelopePartials(range, run, xMin, yMin, xMax, yMax)));
+            }
+            PartialStatistics merged = PartialStatistics.EMPTY;
+            for (Future<PartialStatistics> future : futures) {
+                merged = merged.merge(future.get());
+            }
+            return merged;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted computing envelope statistics", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public Collection<? extends ElevationTilesProdRepository.Histogram> findHistogramByZXY(int z, int x, int y, int bins) {
+        return singleFlight.execute(List.of("histogram", z, x, y, bins), () -> {
+            Optional<TileSummary> summary = findSummary(z, x, y);
+            if (summary.isPresent()) {
+                return summary.get().histogram(bins);
+            }
+            if (renderMode == RenderMode.JVM) {
+                return elevationGridService.getGrid(z, x, y)
+                        .map(grid -> GridStatistics.histogram(grid, bins))
+                        .orElse(List.of());
+            }
+            return elevationTilesProdRepository.findHistogramByZXY(z, x, y, bins);
+        });
+    }
+
+    public Collection<? extends ElevationTilesProdRepository.Quantile> findQuantileByZXY(int z, int x, int y) {
+        return singleFlight.execute(List.of("quantiles", z, x, y), () -> {
+            Optional<TileSummary> summary = findSummary(z, x, y);
+            if (summary.isPresent()) {
+                return summary.get().quantileValues();
+            }
+            if (renderMode == RenderMode.JVM) {
+                return elevationGridService.getGrid(z, x, y)
+                        .map(grid -> GridStatistics.quantiles(grid, GridStatistics.DEFAULT_QUANTILES))
+                        .orElse(List.of());
+            }
+            return elevationTilesProdRepository.findQuantileByZXY(z, x, y);
+        });
+    }
+
+    /**
+     * Histogram of the pixels of an envelope, merged from the 1 m histograms of its tiles and rebinned, exact for
+     * whole-meter elevations.
+     */
+    public Collection<? extends ElevationTilesProdRepository.Histogram> findHistogramByZAndEnvelope(int z, float xMin, float yMin, float xMax, float yMax, int bins) {
+        return singleFlight.execute(List.of("envelope-histogram", z, xMin, yMin, xMax, yMax, bins), () ->
+                envelopeSummaryService.summarize(z, xMin, yMin, xMax, yMax, envelopeSummaryService.getMinRankError())
+                        .histogram(bins));
+    }
+
+    /**
+     * Quantiles of the pixels of an envelope from the merged sketches of its tiles, each within {@code rankError}
+     * of its rank, by default the rank error of the stored sketches. A larger rank error merges into a smaller sketch.
+     */
+    public Collection<? extends ElevationTilesProdRepository.Quantile> findQuantileByZAndEnvelope(int z, float xMin, float yMin, float xMax, float yMax,
+                                                                                                 double[] quantiles, Double rankError) {
+        for (double quantile : quantiles) {
+            if (!(quantile >= 0 && quantile <= 1)) {
+                throw new InvalidParameterException("Quantiles should be between 0 and 1");
+            }
+        }
+        double minRankError = envelopeSummaryService.getMinRankError();
+        double error = rankError == null ? minRankError : rankError;
+        if (!(error >= minRankError && error < 1)) {
+            throw new InvalidParameterException(String.format(Locale.ROOT,
+                    "Rank error should be between %.4f and 1", minRankError));
+        }
+        return singleFlight.execute(List.of("envelope-quantiles", z, xMin, yMin, xMax, yMax, Arrays.toString(quantiles), error), () ->
+                envelopeSummaryService.summarize(z, xMin, yMin, xMax, yMax, error).quantiles(quantiles));
+    }
+
+    /**
+     * Looks for the summary table once the application is up, rather than on the first request.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void detectSummaryTable() {
+        if (summaries) {
+            try {
+                hasSummaryTable();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not check for the tile summary table, checking again on the first request", e);
+            }
+        }
+    }
+
+    private Optional<TileSummary> findSummary(int z, int x, int y) {
+        return summaries && hasSummaryTable() ? tileSummaryRepository.find(z, x, y) : Optional.empty();
+    }
+
+    private boolean hasSummaryTable() {
+        Boolean exists = summaryTable;
+        if (exists == null) {
+            exists = tileSummaryRepository.exists();
+            summaryTable = exists;
+            if (!exists) {
+                LOGGER.warn("There is no elevation_tiles_summary table, tile statistics are computed from the rasters;"
+                        + " apply scripts/18_tile_summaries.sql to use the summaries");
+            }
+        }
+        return exists;
+    }
+}
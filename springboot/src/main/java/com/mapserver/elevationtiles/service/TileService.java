@@ -0,0 +1,253 @@
+package com.mapserver.elevationtiles.service;
+
+import com.mapserver.elevationtiles.cache.DiskTileStore;
+import com.mapserver.elevationtiles.cache.TileCache;
+import com.mapserver.elevationtiles.cache.TileKey;
+import com.mapserver.elevationtiles.colormap.Colormap;
+import com.mapserver.elevationtiles.concurrent.SingleFlight;
+import com.mapserver.elevationtiles.contour.ContourRenderer;
+import com.mapserver.elevationtiles.domain.TileBlock;
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import com.mapserver.elevationtiles.domain.TileLayer;
+import com.mapserver.elevationtiles.render.ElevationEncoding;
+import com.mapserver.elevationtiles.render.RenderMode;
+import com.mapserver.elevationtiles.render.TileRenderer;
+import com.mapserver.elevationtiles.repository.ElevationTilesProdRepository;
+import com.mapserver.elevationtiles.repository.TileBatchRepository;
+import com.mapserver.elevationtiles.terrain.TerrainService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Service
+public class TileService {
+
+    private static final byte[] NO_TILE = new byte[0];
+    private static final String RAW = "raw";
+
+    private final ElevationTilesProdRepository elevationTilesProdRepository;
+    private final TileBatchRepository tileBatchRepository;
+    private final TileCache tileCache;
+    private final DiskTileStore diskTileStore;
+    private final ElevationGridService elevationGridService;
+    private final TerrainService terrainService;
+    private final TileRenderer tileRenderer;
+    private final ContourRenderer contourRenderer;
+    private final SingleFlight singleFlight;
+    private final RenderMode renderMode;
+    private final int halo;
+    private final int metatileSize;
+
+    public TileService(ElevationTilesProdRepository elevationTilesProdRepository, TileBatchRepository tileBatchRepository,
+                       TileCache tileCache, DiskTileStore diskTileStore, ElevationGridService elevationGridService, TerrainService terrainService, TileRenderer tileRenderer, ContourRenderer contourRenderer, SingleFlight singleFlight,
+                       @Value("${elevationtiles.render.mode:database}") String renderMode,
+                       @Value("${elevationtiles.render.halo:1}") int halo,
+                       @Value("${elevationtiles.render.metatile:1}") int metatileSize) {
+        // a block must be one quadrant of the quadtree for findBlockPng to read it as a single range of keys
+        if (Integer.bitCount(metatileSize) != 1) {
+            throw new IllegalArgumentException("elevationtiles.render.metatile must be a power of two");
+        }
+        this.elevationTilesProdRepository = elevationTilesProdRepository;
+        this.tileBatchRepository = tileBatchRepository;
+        this.tileCache = tileCache;
+        this.diskTileStore = diskTileStore;
+        this.elevationGridService = elevationGridService;
+        this.terrainService = terrainService;
+        this.tileRenderer = tileRenderer;
+        this.contourRenderer = contourRenderer;
+        this.singleFlight = singleFlight;
+        this.renderMode = RenderMode.of(renderMode);
+        this.halo = halo;
+        this.metatileSize = metatileSize;
+    }
+
+    /**
+     * Returns the rendered PNG for the tile, or an empty buffer when the tile does not exist.
+     */
+    public ByteBuffer getPng(TileLayer layer, int z, int x, int y, Colormap colormap) {
+        TileKey key = new TileKey(layer, z, x, y, colormap.id());
+        if (metatileSize > 1) {
+            return getCachedBlock(key, block -> renderBlock(layer, block, colormap));
+        }
+        return getCached(key, () -> render(layer, z, x, y, colormap));
+    }
+
+    /**
+     * Returns the elevation of the tile packed into a PNG, or an empty buffer when the tile does not exist.
+     * The tile is encoded from the raw band whatever the render mode, and serves every style the client applies.
+     */
+    public ByteBuffer getEncodedPng(ElevationEncoding encoding, int z, int x, int y) {
+        TileKey key = new TileKey(encoding.getLayer(), z, x, y, RAW);
+        if (metatileSize > 1) {
+            return getCachedBlock(key, block -> {
+                elevationGridService.prefetch(block.tiles(), 0);
+                Map<TileCoordinate, byte[]> pngs = new HashMap<>();
+                for (TileCoordinate tile : block.tiles()) {
+                    pngs.put(tile, encode(encoding, tile.z(), tile.x(), tile.y()));
+                }
+                return pngs;
+            });
+        }
+        return getCached(key, () -> encode(encoding, z, x, y));
+    }
+
+    /**
+     * Returns the contour lines of the tile as a Mapbox Vector Tile, or an empty buffer when the tile does not exist
+     * or has no contour. Contours are traced from the raw band whatever the render mode, over a halo of the
+     * neighbouring tiles so that the lines meet across tiles.
+     */
+    public ByteBuffer getContours(int z, int x, int y) {
+        return getCached(new TileKey(TileLayer.CONTOURS, z, x, y, RAW), () ->
+                elevationGridService.getWindow(z, x, y, ContourRenderer.HALO)
+                        .map(window -> contourRenderer.render(window, z))
+                        .orElse(NO_TILE));
+    }
+
+    /**
+     * Hands the PNG of every tile to {@code consumer} as soon as it is available: cached tiles first, then the
+     * others. A tile that does not exist is handed over as an empty buffer.
+     * <p>
+     * In database mode the others are rendered by one query per page of {@link TileBatchRepository#FETCH_SIZE}
+     * tiles, and a page is handed over once its query is done, so that a slow consumer does not hold a connection.
+     */
+    public void getPngs(TileLayer layer, Collection<TileCoordinate> tiles, Colormap colormap,
+                        BiConsumer<TileCoordinate, ByteBuffer> consumer) {
+        Optional<ElevationEncoding> encoding = ElevationEncoding.fromLayer(layer);
+        String fingerprint = encoding.isPresent() ? RAW : colormap.id();
+        List<TileCoordinate> missing = new ArrayList<>();
+        for (TileCoordinate tile : tiles) {
+            TileKey key = new TileKey(layer, tile.z(), tile.x(), tile.y(), fingerprint);
+            tileCache.get(key)
+                    .or(() -> diskTileStore.get(key))
+                    .ifPresentOrElse(png -> consumer.accept(tile, png), () -> missing.add(tile));
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        if (renderMode == RenderMode.DATABASE && encoding.isEmpty()) {
+            for (int from = 0; from < missing.size(); from += TileBatchRepository.FETCH_SIZE) {
+                List<TileCoordinate> page = missing.subList(from, Math.min(missing.size(), from + TileBatchRepository.FETCH_SIZE));
+                Map<TileCoordinate, byte[]> pngs = new HashMap<>();
+                tileBatchRepository.findPngs(layer, page, colormap.ramp(), pngs::putIfAbsent);
+                for (TileCoordinate tile : page) {
+                    consumer.accept(tile, store(new TileKey(layer, tile.z(), tile.x(), tile.y(), fingerprint),
+                            pngs.getOrDefault(tile, NO_TILE)));
+                }
+            }
+            return;
+        }
+        elevationGridService.prefetch(missing, layer == TileLayer.ELEVATION || encoding.isPresent() ? 0 : halo);
+        for (TileCoordinate tile : missing) {
+            consumer.accept(tile, encoding.isPresent()
+                    ? getEncodedPng(encoding.get(), tile.z(), tile.x(), tile.y())
+                    : getPng(layer, tile.z(), tile.x(), tile.y(), colormap));
+        }
+    }
+
+    /**
+     * Concurrent misses for the same tile are rendered once, the other callers get a view of the same buffer.
+     */
+    private ByteBuffer getCached(TileKey key, Supplier<byte[]> renderer) {
+        return tileCache.get(key)
+                .or(() -> diskTileStore.get(key))
+                .orElseGet(() -> singleFlight.execute(key, () -> tileCache.get(key)
+                        .orElseGet(() -> store(key, renderer.get()))).duplicate());
+    }
+
+    /**
+     * On a miss the whole metatile around the tile is rendered and cached, concurrent misses for any tile of the
+     * metatile wait for the same rendering.
+     */
+    private ByteBuffer getCachedBlock(TileKey key, Function<TileBlock, Map<TileCoordinate, byte[]>> renderer) {
+        TileCoordinate coordinate = new TileCoordinate(key.z(), key.x(), key.y());
+        TileBlock block = TileBlock.containing(coordinate, metatileSize);
+        return tileCache.get(key)
+                .or(() -> diskTileStore.get(key))
+                .orElseGet(() -> singleFlight.execute(List.of(key.layer(), key.colormapFingerprint(), block), () -> {
+                    Map<TileCoordinate, ByteBuffer> cached = new HashMap<>();
+                    for (TileCoordinate tile : block.tiles()) {
+                        tileCache.get(blockKey(key, tile)).ifPresent(png -> cached.put(tile, png));
+                    }
+                    if (cached.size() == block.size() * block.size()) {
+                        return cached;
+                    }
+                    Map<TileCoordinate, ByteBuffer> stored = new HashMap<>();
+                    renderer.apply(block).forEach((tile, png) -> stored.put(tile, store(blockKey(key, tile), png)));
+                    return stored;
+                }).get(coordinate).duplicate());
+    }
+
+    private static TileKey blockKey(TileKey key, TileCoordinate tile) {
+        return new TileKey(key.layer(), tile.z(), tile.x(), tile.y(), key.colormapFingerprint());
+    }
+
+    private ByteBuffer store(TileKey key, byte[] png) {
+        diskTileStore.put(key, png);
+        return tileCache.put(key, png);
+    }
+
+    /**
+     * Renders every tile of the block. In JVM mode the grids of the block and of its surroundings are fetched with
+     * one query; in database mode the block is rendered by PostGIS as one mosaic and sliced here.
+     */
+    private Map<TileCoordinate, byte[]> renderBlock(TileLayer layer, TileBlock block, Colormap colormap) {
+        Map<TileCoordinate, byte[]> pngs = new HashMap<>();
+        if (renderMode == RenderMode.JVM) {
+            elevationGridService.prefetch(block.tiles(), layer == TileLayer.ELEVATION ? 0 : halo);
+            for (TileCoordinate tile : block.tiles()) {
+                pngs.put(tile, render(layer, tile.z(), tile.x(), tile.y(), colormap));
+            }
+            return pngs;
+        }
+        for (TileCoordinate tile : block.tiles()) {
+            pngs.put(tile, NO_TILE);
+        }
+        tileBatchRepository.findBlockPng(layer, block, colormap.ramp()).ifPresent(mosaic -> {
+            byte[][] slices = tileRenderer.slice(layer, mosaic.png(), mosaic.columns(), mosaic.rows());
+            for (TileCoordinate tile : mosaic.tiles()) {
+                pngs.put(tile, slices[(tile.y() - mosaic.minY()) * mosaic.columns() + tile.x() - mosaic.minX()]);
+            }
+        });
+        return pngs;
+    }
+
+    private byte[] encode(ElevationEncoding encoding, int z, int x, int y) {
+        return elevationGridService.getGrid(z, x, y)
+                .map(grid -> tileRenderer.encode(encoding, grid.toArray(), grid.getWidth(), grid.getHeight()))
+                .orElse(NO_TILE);
+    }
+
+    private byte[] render(TileLayer layer, int z, int x, int y, Colormap colormap) {
+        if (renderMode == RenderMode.JVM && layer == TileLayer.ELEVATION) {
+            return elevationGridService.getGrid(z, x, y)
+                    .map(grid -> tileRenderer.render(layer, grid.toArray(), grid.getWidth(), grid.getHeight(), colormap))
+                    .orElse(NO_TILE);
+        }
+        if (renderMode == RenderMode.JVM) {
+            return elevationGridService.getWindow(z, x, y, halo)
+                    .map(window -> tileRenderer.render(layer, terrainService.compute(layer, window), window.getWidth(), window.getHeight(), colormap))
+                    .orElse(NO_TILE);
+        }
+        String ramp = colormap.ramp();
+        byte[] png = switch (layer) {
+            case ELEVATION -> elevationTilesProdRepository.getPng(z, x, y, ramp);
+            case SLOPE -> elevationTilesProdRepository.getSlope(z, x, y, ramp);
+            case TRI -> elevationTilesProdRepository.getTerrainRoughnessIndex(z, x, y, ramp);
+            case TPI -> elevationTilesProdRepository.getTopographicPositionIndex(z, x, y, ramp);
+            case HILLSHADE -> elevationTilesProdRepository.getHillShade(z, x, y, ramp);
+            case ASPECT -> elevationTilesProdRepository.getAspect(z, x, y, ramp);
+            case TERRAIN_RGB, TERRARIUM, CONTOURS -> throw new IllegalArgumentException(layer + " tiles are not rendered with a colormap");
+        };
+        return png == null ? NO_TILE : png;
+    }
+}
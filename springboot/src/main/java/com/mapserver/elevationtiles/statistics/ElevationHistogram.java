@@ -0,0 +1,142 @@
+package com.mapserver.elevationtiles.statistics;
+
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import com.mapserver.elevationtiles.raster.GridStatistics;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counts of elevations in bins of {@link #BIN_WIDTH} meters, bin {@code i} holding the values from
+ * {@code i * BIN_WIDTH} inclusive to {@code (i + 1) * BIN_WIDTH} exclusive. The bins are the same for every tile, so
+ * that the histograms of tiles are merged by adding their counts, and only the span of bins from the lowest to the
+ * highest value is kept.
+ * <p>
+ * Any coarser histogram is re-binned from it, each fine bin counting for the coarse bin of its lower bound, so that
+ * it is exact for whole-meter elevations and otherwise off by less than a fine bin at the coarse bin bounds.
+ */
+public final class ElevationHistogram {
+
+    public static final double BIN_WIDTH = 1.0;
+
+    private static final ElevationHistogram EMPTY = new ElevationHistogram(0, new long[0]);
+
+    private final int firstBin;
+    private final long[] counts;
+
+    private ElevationHistogram(int firstBin, long[] counts) {
+        this.firstBin = firstBin;
+        this.counts = counts;
+    }
+
+    public static ElevationHistogram empty() {
+        return EMPTY;
+    }
+
+    public static ElevationHistogram of(ElevationGrid grid, double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max)) {
+            return EMPTY;
+        }
+        int firstBin = bin(min);
+        long[] counts = new long[bin(max) - firstBin + 1];
+        for (int i = 0; i < grid.size(); i++) {
+            float value = grid.get(i);
+            if (!Float.isNaN(value)) {
+                counts[bin(value) - firstBin]++;
+            }
+        }
+        return new ElevationHistogram(firstBin, counts);
+    }
+
+    public ElevationHistogram merge(ElevationHistogram other) {
+        if (other.counts.length == 0) {
+            return this;
+        }
+        if (counts.length == 0) {
+            return other;
+        }
+        int first = Math.min(firstBin, other.firstBin);
+        int last = Math.max(firstBin + counts.length, other.firstBin + other.counts.length);
+        long[] merged = new long[last - first];
+        for (int i = 0; i < counts.length; i++) {
+            merged[firstBin - first + i] += counts[i];
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            merged[other.firstBin - first + i] += other.counts[i];
+        }
+        return new ElevationHistogram(first, merged);
+    }
+
+    public long getCount() {
+        return Arrays.stream(counts).sum();
+    }
+
+    /**
+     * Re-bins the counts into {@code bins} bins of equal width from {@code min} to {@code max}, as
+     * {@code ST_Histogram} does, the last bin including {@code max}.
+     */
+    public List<GridStatistics.Bin> rebin(int bins, double min, double max) {
+        long total = getCount();
+        if (total == 0) {
+            return List.of();
+        }
+        long[] coarse = new long[bins];
+        double width = (max - min) / bins;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                double lower = Math.max((firstBin + i) * BIN_WIDTH, min);
+                coarse[GridStatistics.binIndex(lower, min, width, bins)] += counts[i];
+            }
+        }
+        return GridStatistics.bins(coarse, min, width, total);
+    }
+
+    /**
+     * The first bin and the number of bins as zigzag varints, followed by the counts as varints.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(counts.length + 10);
+        writeVarint(bytes, (long) firstBin << 1 ^ firstBin >> 31);
+        writeVarint(bytes, counts.length);
+        for (long count : counts) {
+            writeVarint(bytes, count);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static ElevationHistogram fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long zigzag = readVarint(buffer);
+        int firstBin = (int) (zigzag >>> 1 ^ -(zigzag & 1));
+        long[] counts = new long[(int) readVarint(buffer)];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = readVarint(buffer);
+        }
+        return counts.length == 0 ? EMPTY : new ElevationHistogram(firstBin, counts);
+    }
+
+    private static int bin(double value) {
+        return (int) Math.floor(value / BIN_WIDTH);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream bytes, long value) {
+        while ((value & ~0x7fL) != 0) {
+            bytes.write((int) (value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        bytes.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
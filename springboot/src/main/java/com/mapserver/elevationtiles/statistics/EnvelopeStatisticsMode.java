@@ -0,0 +1,17 @@
+package com.mapserver.elevationtiles.statistics;
+
+public enum EnvelopeStatisticsMode {
+    /**
+     * The tiles are clipped by the envelope and unioned into one raster, which PostGIS summarizes.
+     */
+    UNION,
+    /**
+     * Every tile is summarized on its own, clipped only when it crosses the border of the envelope, and the
+     * partials are merged in the JVM.
+     */
+    PARTIALS;
+
+    public static EnvelopeStatisticsMode of(String mode) {
+        return valueOf(mode.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,78 @@
+package com.mapserver.elevationtiles.statistics;
+
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import com.mapserver.elevationtiles.raster.GridStatistics;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The merge of the summaries of the tiles of an envelope, whole or clipped, into statistics, a fine histogram and
+ * a quantile sketch of parameter {@code k}. Memory depends on {@code k} and on the range of elevations only.
+ */
+public final class EnvelopeSummary {
+
+    private final KllSketch sketch;
+    private PartialStatistics statistics = PartialStatistics.EMPTY;
+    private ElevationHistogram histogram = ElevationHistogram.empty();
+
+    public EnvelopeSummary(int k) {
+        this.sketch = new KllSketch(k);
+    }
+
+    /**
+     * Keeps only the pixels of the grid whose center lies within the Web Mercator bounds, the others becoming
+     * nodata, as {@code ST_Clip} does.
+     */
+    public static ElevationGrid clip(ElevationGrid grid, double minX, double minY, double maxX, double maxY) {
+        float[] values = new float[grid.size()];
+        for (int row = 0; row < grid.getHeight(); row++) {
+            double y = grid.getUpperLeftY() + (row + 0.5) * grid.getScaleY();
+            for (int column = 0; column < grid.getWidth(); column++) {
+                double x = grid.getUpperLeftX() + (column + 0.5) * grid.getScaleX();
+                boolean inside = x >= minX && x <= maxX && y >= minY && y <= maxY;
+                values[row * grid.getWidth() + column] = inside ? grid.get(column, row) : Float.NaN;
+            }
+        }
+        return new ElevationGrid(grid.getWidth(), grid.getHeight(), grid.getUpperLeftX(), grid.getUpperLeftY(),
+                grid.getScaleX(), grid.getScaleY(), FloatBuffer.wrap(values));
+    }
+
+    public int getK() {
+        return sketch.getK();
+    }
+
+    public synchronized void add(TileSummary summary) {
+        statistics = statistics.merge(summary.statistics());
+        histogram = histogram.merge(summary.histogram());
+        sketch.merge(summary.sketch());
+    }
+
+    public synchronized PartialStatistics getStatistics() {
+        return statistics;
+    }
+
+    public synchronized List<GridStatistics.Bin> histogram(int bins) {
+        if (statistics.count() == 0) {
+            return List.of();
+        }
+        return histogram.rebin(bins, statistics.min(), statistics.max());
+    }
+
+    /**
+     * The quantiles from the sketch, but for the minimum and maximum, which are exact.
+     */
+    public synchronized List<GridStatistics.QuantileValue> quantiles(double... quantiles) {
+        if (statistics.count() == 0) {
+            return List.of();
+        }
+        double[] values = sketch.quantiles(quantiles);
+        List<GridStatistics.QuantileValue> result = new ArrayList<>(quantiles.length);
+        for (int i = 0; i < quantiles.length; i++) {
+            double value = quantiles[i] == 0 ? statistics.min() : quantiles[i] == 1 ? statistics.max() : values[i];
+            result.add(new GridStatistics.QuantileValue(quantiles[i], value));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,159 @@
+package com.mapserver.elevationtiles.statistics;
+
+import com.mapserver.elevationtiles.domain.QuadKey;
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import com.mapserver.elevationtiles.domain.TileMath;
+import com.mapserver.elevationtiles.domain.TileRange;
+import com.mapserver.elevationtiles.exception.ServiceUnavailableException;
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import com.mapserver.elevationtiles.repository.ElevationTilesProdRepository;
+import com.mapserver.elevationtiles.repository.TileSummaryRepository;
+import com.mapserver.elevationtiles.service.ElevationGridService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Summarizes the pixels of a WGS84 envelope at a zoom level by merging tile summaries. The tiles lying entirely
+ * inside the envelope contribute their stored summaries, which are streamed from the database and merged as they
+ * arrive; those without one yet are summarized from their raster and the summary is stored for the next requests.
+ * The tiles crossing the border of the envelope are read, clipped and summarized on the fly.
+ */
+@Service
+public class EnvelopeSummaryService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EnvelopeSummaryService.class);
+
+    private final TileSummaryRepository tileSummaryRepository;
+    private final ElevationGridService elevationGridService;
+    private final int sketchK;
+    private final int workers;
+    private final int batchSize;
+    private final int retryAfterSeconds;
+
+    public EnvelopeSummaryService(TileSummaryRepository tileSummaryRepository,
+                                  ElevationGridService elevationGridService,
+                                  @Value("${elevationtiles.summary.sketch-k:200}") int sketchK,
+                                  @Value("${elevationtiles.summary.workers:4}") int workers,
+                                  @Value("${elevationtiles.summary.batch-size:64}") int batchSize,
+                                  @Value("${elevationtiles.db.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.tileSummaryRepository = tileSummaryRepository;
+        this.elevationGridService = elevationGridService;
+        this.sketchK = sketchK;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * The smallest rank error of the quantiles of an envelope, that of the stored sketches.
+     */
+    public double getMinRankError() {
+        return KllSketch.rankError(sketchK);
+    }
+
+    /**
+     * Merges the summaries of the envelope into a sketch of the given rank error, which is at least
+     * {@link #getMinRankError()}.
+     */
+    public EnvelopeSummary summarize(int z, double lonMin, double latMin, double lonMax, double latMax, double rankError) {
+        EnvelopeSummary merged = new EnvelopeSummary(Math.min(sketchK, KllSketch.k(rankError)));
+        TileRange range = TileRange.ofEnvelope(z, lonMin, latMin, lonMax, latMax);
+        TileRange inside = TileRange.within(z, lonMin, latMin, lonMax, latMax);
+
+        List<TileCoordinate> unsummarized = new ArrayList<>();
+        if (!inside.isEmpty()) {
+            tileSummaryRepository.findInRanges(inside,
+                    QuadKey.ranges(inside, ElevationTilesProdRepository.MAX_KEY_RANGES),
+                    (tile, summary) -> summary.ifPresentOrElse(merged::add, () -> unsummarized.add(tile)));
+        }
+        List<TileCoordinate> border = new ArrayList<>();
+        for (int y = range.yMin(); y <= range.yMax(); y++) {
+            for (int x = range.xMin(); x <= range.xMax(); x++) {
+                if (inside.isEmpty() || !inside.contains(x, y)) {
+                    border.add(new TileCoordinate(z, x, y));
+                }
+            }
+        }
+        double minX = TileMath.mercatorX(lonMin);
+        double maxX = TileMath.mercatorX(lonMax);
+        double minY = TileMath.mercatorY(latMin);
+        double maxY = TileMath.mercatorY(latMax);
+        forEachPage(unsummarized, page -> {
+            Map<TileCoordinate, TileSummary> summaries = new HashMap<>();
+            elevationGridService.read(page).forEach((tile, grid) ->
+                    grid.ifPresent(loaded -> summaries.put(tile, TileSummary.of(loaded, sketchK))));
+            summaries.values().forEach(merged::add);
+            store(summaries);
+        });
+        forEachPage(border, page -> elevationGridService.read(page).values().forEach(grid -> grid.ifPresent(loaded -> {
+            ElevationGrid clipped = EnvelopeSummary.clip(loaded, minX, minY, maxX, maxY);
+            merged.add(TileSummary.of(clipped, merged.getK()));
+        })));
+        return merged;
+    }
+
+    /**
+     * Stores the summaries computed for a request; a failure only costs the next request the same work.
+     */
+    private void store(Map<TileCoordinate, TileSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+        try {
+            tileSummaryRepository.save(summaries);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to store the summaries of {} tiles", summaries.size(), e);
+        }
+    }
+
+    /**
+     * Runs the pages of {@code batch-size} tiles on up to {@code workers} threads.
+     */
+    private void forEachPage(List<TileCoordinate> tiles, Consumer<List<TileCoordinate>> action) {
+        if (tiles.isEmpty()) {
+            return;
+        }
+        if (tiles.size() <= batchSize) {
+            action.accept(tiles);
+            return;
+        }
+        List<List<TileCoordinate>> pages = new ArrayList<>();
+        for (int from = 0; from < tiles.size(); from += batchSize) {
+            pages.add(tiles.subList(from, Math.min(tiles.size(), from + batchSize)));
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int worker = 0; worker < Math.min(workers, pages.size()); worker++) {
+                int first = worker;
+                futures.add(executor.submit(() -> {
+                    for (int page = first; page < pages.size(); page += workers) {
+                        action.accept(pages.get(page));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted summarizing an envelope", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
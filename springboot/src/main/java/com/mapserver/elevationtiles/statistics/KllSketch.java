@@ -0,0 +1,292 @@
+package com.mapserver.elevationtiles.statistics;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A KLL quantile sketch of float values (Karnin, Lang and Liberty, 2016). Values are kept in levels, an item of
+ * level {@code h} standing for {@code 2^h} values. When the sketch outgrows its capacity, the lowest full level is
+ * sorted and every other item, from a random first one, is promoted to the level above. The capacity of a level
+ * shrinks geometrically with its distance to the top, so that the sketch keeps about {@code 3k} items whatever the
+ * number of values, and answers quantiles within {@link #rankError(int)} of the exact rank.
+ * <p>
+ * Sketches are mergeable: the merge of the sketches of disjoint sets of values is a sketch of their union, with the
+ * accuracy of the smallest {@code k}.
+ */
+public final class KllSketch {
+
+    public static final int DEFAULT_K = 200;
+    public static final int MIN_K = 8;
+    public static final int MAX_K = 65535;
+
+    private static final double CAPACITY_RATIO = 2.0 / 3.0;
+    private static final int MIN_LEVEL_CAPACITY = 8;
+    private static final byte VERSION = 1;
+
+    private final int k;
+    private final List<Level> levels = new ArrayList<>();
+    private long count;
+    private float min = Float.NaN;
+    private float max = Float.NaN;
+
+    public KllSketch(int k) {
+        if (k < MIN_K || k > MAX_K) {
+            throw new IllegalArgumentException("k should be between " + MIN_K + " and " + MAX_K + ", not " + k);
+        }
+        this.k = k;
+        levels.add(new Level());
+    }
+
+    /**
+     * The normalized rank error of a quantile answered by a sketch of parameter {@code k}, with 99% confidence, as
+     * measured for the reference implementation of Apache DataSketches.
+     */
+    public static double rankError(int k) {
+        return 2.296 / Math.pow(k, 0.9723);
+    }
+
+    /**
+     * The smallest {@code k} whose {@link #rankError(int)} is at most {@code rankError}.
+     */
+    public static int k(double rankError) {
+        int k = (int) Math.ceil(Math.pow(2.296 / rankError, 1 / 0.9723));
+        return Math.max(MIN_K, Math.min(MAX_K, k));
+    }
+
+    public void update(float value) {
+        if (Float.isNaN(value)) {
+            return;
+        }
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        count++;
+        levels.get(0).add(value);
+        compress();
+    }
+
+    /**
+     * Adds the values of the other sketch to this one.
+     */
+    public void merge(KllSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        for (int h = 0; h < other.levels.size(); h++) {
+            if (h == levels.size()) {
+                levels.add(new Level());
+            }
+            levels.get(h).addAll(other.levels.get(h));
+        }
+        compress();
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public float getMin() {
+        return min;
+    }
+
+    public float getMax() {
+        return max;
+    }
+
+    /**
+     * Number of items kept for the values seen.
+     */
+    public int getRetained() {
+        int retained = 0;
+        for (Level level : levels) {
+            retained += level.size;
+        }
+        return retained;
+    }
+
+    /**
+     * The value of rank {@code quantile * count}: the minimum for 0, the maximum for 1 and NaN when the sketch is
+     * empty.
+     */
+    public double quantile(double quantile) {
+        return quantiles(quantile)[0];
+    }
+
+    public double[] quantiles(double... quantiles) {
+        double[] values = new double[quantiles.length];
+        if (count == 0) {
+            Arrays.fill(values, Double.NaN);
+            return values;
+        }
+        float[] items = new float[getRetained()];
+        long[] weights = new long[items.length];
+        sortedItems(items, weights);
+        for (int i = 0; i < quantiles.length; i++) {
+            double quantile = quantiles[i];
+            if (quantile < 0 || quantile > 1) {
+                throw new IllegalArgumentException("A quantile should be between 0 and 1, not " + quantile);
+            }
+            if (quantile == 0) {
+                values[i] = min;
+            } else if (quantile == 1) {
+                values[i] = max;
+            } else {
+                double rank = quantile * count;
+                long cumulative = 0;
+                int item = 0;
+                while (item < items.length - 1 && cumulative + weights[item] < rank) {
+                    cumulative += weights[item++];
+                }
+                values[i] = items[item];
+            }
+        }
+        return values;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(2 + 2 + 8 + 4 + 4 + 1 + 4 * levels.size() + 4 * getRetained())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(VERSION).putShort((short) k).put((byte) 0).putLong(count).putFloat(min).putFloat(max)
+                .put((byte) levels.size());
+        for (Level level : levels) {
+            buffer.putInt(level.size);
+            for (int i = 0; i < level.size; i++) {
+                buffer.putFloat(level.items[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    public static KllSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported sketch version " + version);
+        }
+        KllSketch sketch = new KllSketch(Short.toUnsignedInt(buffer.getShort()));
+        buffer.get();
+        sketch.count = buffer.getLong();
+        sketch.min = buffer.getFloat();
+        sketch.max = buffer.getFloat();
+        int levels = buffer.get();
+        for (int h = 0; h < levels; h++) {
+            if (h == sketch.levels.size()) {
+                sketch.levels.add(new Level());
+            }
+            int size = buffer.getInt();
+            for (int i = 0; i < size; i++) {
+                sketch.levels.get(h).add(buffer.getFloat());
+            }
+        }
+        return sketch;
+    }
+
+    /**
+     * Compacts the lowest level at capacity until the sketch fits in its capacity.
+     */
+    private void compress() {
+        while (getRetained() > capacity()) {
+            for (int h = 0; h < levels.size(); h++) {
+                if (levels.get(h).size >= levelCapacity(h)) {
+                    compact(h);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void compact(int h) {
+        if (h + 1 == levels.size()) {
+            levels.add(new Level());
+        }
+        Level level = levels.get(h);
+        Level above = levels.get(h + 1);
+        Arrays.sort(level.items, 0, level.size);
+        // an odd item out stays at its level, keeping the weight of the sketch equal to the count
+        int kept = level.size & 1;
+        for (int i = kept + (ThreadLocalRandom.current().nextBoolean() ? 1 : 0); i < level.size; i += 2) {
+            above.add(level.items[i]);
+        }
+        level.size = kept;
+    }
+
+    private int capacity() {
+        int capacity = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            capacity += levelCapacity(h);
+        }
+        return capacity;
+    }
+
+    private int levelCapacity(int h) {
+        int depth = levels.size() - h - 1;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_RATIO, depth)));
+    }
+
+    /**
+     * Fills {@code items} with the items of every level sorted by value, and {@code weights} with their weights.
+     */
+    private void sortedItems(float[] items, long[] weights) {
+        long[] packed = new long[items.length];
+        int n = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            Level level = levels.get(h);
+            for (int i = 0; i < level.size; i++) {
+                packed[n++] = (long) sortable(level.items[i]) << 32 | h;
+            }
+        }
+        Arrays.sort(packed);
+        for (int i = 0; i < n; i++) {
+            items[i] = unsortable((int) (packed[i] >> 32));
+            weights[i] = 1L << (int) (packed[i] & 0xff);
+        }
+    }
+
+    /**
+     * Maps a float to an int of the same order.
+     */
+    private static int sortable(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ (bits >> 31 & 0x7fffffff);
+    }
+
+    private static float unsortable(int sortable) {
+        return Float.intBitsToFloat(sortable ^ (sortable >> 31 & 0x7fffffff));
+    }
+
+    private static final class Level {
+
+        private float[] items = new float[MIN_LEVEL_CAPACITY];
+        private int size;
+
+        void add(float value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+
+        void addAll(Level other) {
+            if (size + other.size > items.length) {
+                items = Arrays.copyOf(items, Math.max(size + other.size, items.length * 2));
+            }
+            System.arraycopy(other.items, 0, items, size, other.size);
+            size += other.size;
+        }
+    }
+}
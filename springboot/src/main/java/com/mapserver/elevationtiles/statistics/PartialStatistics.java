@@ -0,0 +1,38 @@
+package com.mapserver.elevationtiles.statistics;
+
+import com.mapserver.elevationtiles.raster.GridStatistics;
+
+/**
+ * Summary statistics of part of a raster that can be merged with those of any other part: the statistics of a
+ * union of disjoint parts are the merge of theirs, in any order.
+ */
+public record PartialStatistics(long count, double sum, double sumOfSquares, double min, double max) {
+
+    public static final PartialStatistics EMPTY =
+            new PartialStatistics(0, 0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+
+    /**
+     * The partial of a row of {@code ST_SummaryStats}, whose standard deviation is that of the population.
+     */
+    public static PartialStatistics ofSummary(long count, double sum, double mean, double stddev, double min, double max) {
+        if (count == 0) {
+            return EMPTY;
+        }
+        return new PartialStatistics(count, sum, count * (stddev * stddev + mean * mean), min, max);
+    }
+
+    public PartialStatistics merge(PartialStatistics other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            return other;
+        }
+        return new PartialStatistics(count + other.count, sum + other.sum, sumOfSquares + other.sumOfSquares,
+                Math.min(min, other.min), Math.max(max, other.max));
+    }
+
+    public GridStatistics.Summary summary() {
+        return GridStatistics.Summary.of(count, sum, sumOfSquares, min, max);
+    }
+}
@@ -0,0 +1,105 @@
+package com.mapserver.elevationtiles.statistics;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a summary backfill over the tiles that had no summary when it started.
+ */
+public class SummaryBackfill {
+
+    public enum Status { RUNNING, COMPLETED, CANCELLED, STOPPED, FAILED }
+
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong summarized = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile Status status = Status.RUNNING;
+    private volatile boolean cancelled;
+    private volatile boolean stopping;
+    private volatile long total = -1;
+    private volatile long finishNanos;
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Number of tiles without a summary when the backfill started, or -1 until they are counted.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public long getSummarized() {
+        return summarized.get();
+    }
+
+    /**
+     * Number of tiles whose raster could not be read or whose summary could not be stored. They are tried again by
+     * the next backfill.
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public double getElapsedSeconds() {
+        long end = status == Status.RUNNING ? System.nanoTime() : finishNanos;
+        return (end - startNanos) / 1e9;
+    }
+
+    public double getTilesPerSecond() {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? (getSummarized() + getFailed()) / elapsed : 0;
+    }
+
+    /**
+     * The time left at the throughput so far, or -1 until a tile has been summarized.
+     */
+    public long getEtaSeconds() {
+        if (status != Status.RUNNING) {
+            return 0;
+        }
+        double rate = getTilesPerSecond();
+        long remaining = Math.max(0, total - getSummarized() - getFailed());
+        return rate > 0 && total >= 0 ? (long) Math.ceil(remaining / rate) : -1;
+    }
+
+    boolean isStopping() {
+        return stopping;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    void cancel() {
+        cancelled = true;
+        stopping = true;
+    }
+
+    void stop() {
+        stopping = true;
+    }
+
+    void setTotal(long total) {
+        this.total = total;
+    }
+
+    void summarized(int tiles) {
+        summarized.addAndGet(tiles);
+    }
+
+    void failed(int tiles) {
+        failed.addAndGet(tiles);
+    }
+
+    void finish(Status status) {
+        this.finishNanos = System.nanoTime();
+        this.status = status;
+    }
+}
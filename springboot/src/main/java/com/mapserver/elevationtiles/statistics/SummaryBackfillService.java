@@ -0,0 +1,164 @@
+package com.mapserver.elevationtiles.statistics;
+
+import com.mapserver.elevationtiles.domain.QuadKey;
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import com.mapserver.elevationtiles.exception.ConflictException;
+import com.mapserver.elevationtiles.repository.TileSummaryRepository;
+import com.mapserver.elevationtiles.service.ElevationGridService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Computes the summaries of the tiles that have none, one backfill at a time.
+ * <p>
+ * The tiles without a summary are paged through in key order, and a bounded number of workers read the rasters
+ * of a page with one query, summarize them and store the summaries with one batch insert. The summaries are the
+ * progress: a backfill interrupted by a shutdown or a failure starts over with the tiles still missing one.
+ */
+@Service
+public class SummaryBackfillService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SummaryBackfillService.class);
+    private static final long SHUTDOWN_WAIT_MILLIS = 10_000;
+
+    private final TileSummaryRepository tileSummaryRepository;
+    private final ElevationGridService elevationGridService;
+    private final int sketchK;
+    private final int workers;
+    private final int batchSize;
+    private final boolean backfillOnStartup;
+    private SummaryBackfill backfill;
+    private Thread coordinator;
+
+    public SummaryBackfillService(TileSummaryRepository tileSummaryRepository,
+                                  ElevationGridService elevationGridService,
+                                  @Value("${elevationtiles.summary.sketch-k:200}") int sketchK,
+                                  @Value("${elevationtiles.summary.workers:4}") int workers,
+                                  @Value("${elevationtiles.summary.batch-size:64}") int batchSize,
+                                  @Value("${elevationtiles.summary.backfill-on-startup:false}") boolean backfillOnStartup) {
+        if (sketchK < KllSketch.MIN_K || sketchK > KllSketch.MAX_K) {
+            throw new IllegalArgumentException("elevationtiles.summary.sketch-k must be between " + KllSketch.MIN_K
+                    + " and " + KllSketch.MAX_K);
+        }
+        if (workers < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("elevationtiles.summary.workers and batch-size must be at least 1");
+        }
+        this.tileSummaryRepository = tileSummaryRepository;
+        this.elevationGridService = elevationGridService;
+        this.sketchK = sketchK;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEnabled() {
+        if (backfillOnStartup) {
+            LOGGER.info("Backfilling the tile summaries");
+            start();
+        }
+    }
+
+    public synchronized SummaryBackfill start() {
+        if (backfill != null && backfill.getStatus() == SummaryBackfill.Status.RUNNING) {
+            throw new ConflictException("The tile summaries are already being backfilled");
+        }
+        SummaryBackfill started = new SummaryBackfill();
+        backfill = started;
+        coordinator = Thread.ofVirtual().name("summary-backfill").start(() -> run(started));
+        return started;
+    }
+
+    public synchronized Optional<SummaryBackfill> getBackfill() {
+        return Optional.ofNullable(backfill);
+    }
+
+    /**
+     * Stops the running backfill once the pages being summarized are done.
+     */
+    public synchronized Optional<SummaryBackfill> cancel() {
+        if (backfill != null && backfill.getStatus() == SummaryBackfill.Status.RUNNING) {
+            backfill.cancel();
+        }
+        return Optional.ofNullable(backfill);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread stopping;
+        synchronized (this) {
+            if (backfill == null || backfill.getStatus() != SummaryBackfill.Status.RUNNING) {
+                return;
+            }
+            backfill.stop();
+            stopping = coordinator;
+        }
+        stopping.join(SHUTDOWN_WAIT_MILLIS);
+    }
+
+    private void run(SummaryBackfill backfill) {
+        Semaphore permits = new Semaphore(workers);
+        SummaryBackfill.Status status;
+        try {
+            backfill.setTotal(tileSummaryRepository.countMissing());
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                long afterKey = -1;
+                while (!backfill.isStopping()) {
+                    List<TileCoordinate> page = tileSummaryRepository.findMissing(afterKey, batchSize);
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    afterKey = QuadKey.encode(page.get(page.size() - 1));
+                    permits.acquire();
+                    executor.execute(() -> {
+                        try {
+                            summarize(backfill, page);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                // nothing interrupts the coordinator, it only ever waits for a worker and then checks the backfill
+                backfill.stop();
+            }
+            status = backfill.isCancelled() ? SummaryBackfill.Status.CANCELLED
+                    : backfill.isStopping() ? SummaryBackfill.Status.STOPPED : SummaryBackfill.Status.COMPLETED;
+        } catch (RuntimeException e) {
+            LOGGER.error("Tile summary backfill failed", e);
+            status = SummaryBackfill.Status.FAILED;
+        }
+        backfill.finish(status);
+        LOGGER.info("Tile summary backfill {}: {} tiles summarized, {} failed", status, backfill.getSummarized(),
+                backfill.getFailed());
+    }
+
+    private void summarize(SummaryBackfill backfill, List<TileCoordinate> page) {
+        try {
+            Map<TileCoordinate, TileSummary> summaries = new HashMap<>();
+            elevationGridService.read(page).forEach((tile, grid) -> grid.ifPresent(
+                    loaded -> summaries.put(tile, TileSummary.of(loaded, sketchK))));
+            if (!summaries.isEmpty()) {
+                tileSummaryRepository.save(summaries);
+            }
+            backfill.summarized(summaries.size());
+            backfill.failed(page.size() - summaries.size());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to summarize {} tiles starting at {}", page.size(), page.get(0), e);
+            backfill.failed(page.size());
+        }
+    }
+}
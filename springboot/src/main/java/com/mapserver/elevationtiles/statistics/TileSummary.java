@@ -0,0 +1,64 @@
+package com.mapserver.elevationtiles.statistics;
+
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import com.mapserver.elevationtiles.raster.GridStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything the statistical endpoints need of a tile, computed once from its band: the summary statistics, the
+ * values of the {@link GridStatistics#DEFAULT_QUANTILES}, a fine histogram that any number of bins is re-binned
+ * from, and a quantile sketch that merges with those of other tiles.
+ */
+public record TileSummary(PartialStatistics statistics, double[] quantiles, ElevationHistogram histogram,
+                          KllSketch sketch) {
+
+    public static TileSummary of(ElevationGrid grid, int sketchK) {
+        long count = 0;
+        double sum = 0;
+        double sumOfSquares = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        KllSketch sketch = new KllSketch(sketchK);
+        for (int i = 0; i < grid.size(); i++) {
+            float value = grid.get(i);
+            if (Float.isNaN(value)) {
+                continue;
+            }
+            count++;
+            sum += value;
+            sumOfSquares += (double) value * value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sketch.update(value);
+        }
+        if (count == 0) {
+            return new TileSummary(PartialStatistics.EMPTY, new double[0], ElevationHistogram.empty(), sketch);
+        }
+        double[] quantiles = GridStatistics.quantiles(grid, GridStatistics.DEFAULT_QUANTILES).stream()
+                .mapToDouble(GridStatistics.QuantileValue::value)
+                .toArray();
+        return new TileSummary(new PartialStatistics(count, sum, sumOfSquares, min, max), quantiles,
+                ElevationHistogram.of(grid, min, max), sketch);
+    }
+
+    public GridStatistics.Summary summary() {
+        return statistics.summary();
+    }
+
+    public List<GridStatistics.Bin> histogram(int bins) {
+        if (statistics.count() == 0) {
+            return List.of();
+        }
+        return histogram.rebin(bins, statistics.min(), statistics.max());
+    }
+
+    public List<GridStatistics.QuantileValue> quantileValues() {
+        List<GridStatistics.QuantileValue> values = new ArrayList<>(quantiles.length);
+        for (int i = 0; i < quantiles.length; i++) {
+            values.add(new GridStatistics.QuantileValue(GridStatistics.DEFAULT_QUANTILES[i], quantiles[i]));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,122 @@
+package com.mapserver.elevationtiles.terrain;
+
+public class ScalarTerrainKernels implements TerrainKernels {
+
+    private static final double TO_DEGREES = 180 / Math.PI;
+
+    @Override
+    public void slope(float[] src, int width, int height, double scaleX, double scaleY, float[] dst) {
+        int stride = width + 2;
+        double ewres = 8 * Math.abs(scaleX);
+        double nsres = 8 * Math.abs(scaleY);
+        for (int row = 0; row < height; row++) {
+            int top = row * stride;
+            int middle = top + stride;
+            int bottom = middle + stride;
+            for (int column = 0; column < width; column++) {
+                double dx = eastGradient(src, top + column, middle + column, bottom + column) / ewres;
+                double dy = southGradient(src, top + column, bottom + column) / nsres;
+                dst[row * width + column] = (float) (Math.atan(Math.sqrt(dx * dx + dy * dy)) * TO_DEGREES);
+            }
+        }
+    }
+
+    @Override
+    public void aspect(float[] src, int width, int height, double scaleX, double scaleY, float[] dst) {
+        int stride = width + 2;
+        double ewres = 8 * Math.abs(scaleX);
+        double nsres = 8 * Math.abs(scaleY);
+        for (int row = 0; row < height; row++) {
+            int top = row * stride;
+            int middle = top + stride;
+            int bottom = middle + stride;
+            for (int column = 0; column < width; column++) {
+                double dx = eastGradient(src, top + column, middle + column, bottom + column) / ewres;
+                double dy = southGradient(src, top + column, bottom + column) / nsres;
+                dst[row * width + column] = (float) compassAspect(dx, dy);
+            }
+        }
+    }
+
+    @Override
+    public void hillshade(float[] src, int width, int height, double scaleX, double scaleY,
+                          double azimuth, double altitude, double maxBright, float[] dst) {
+        int stride = width + 2;
+        double ewres = 8 * Math.abs(scaleX);
+        double nsres = 8 * Math.abs(scaleY);
+        double zenith = Math.toRadians(90 - altitude);
+        double cosZenith = Math.cos(zenith);
+        double sinZenith = Math.sin(zenith);
+        double light = Math.toRadians(450 - azimuth);
+        for (int row = 0; row < height; row++) {
+            int top = row * stride;
+            int middle = top + stride;
+            int bottom = middle + stride;
+            for (int column = 0; column < width; column++) {
+                double dx = eastGradient(src, top + column, middle + column, bottom + column) / ewres;
+                double dy = southGradient(src, top + column, bottom + column) / nsres;
+                double slope = Math.atan(Math.sqrt(dx * dx + dy * dy));
+                double aspect = Math.atan2(dy, -dx);
+                double shade = maxBright * (cosZenith * Math.cos(slope) + sinZenith * Math.sin(slope) * Math.cos(light - aspect));
+                dst[row * width + column] = (float) Math.max(shade, 0);
+            }
+        }
+    }
+
+    @Override
+    public void tri(float[] src, int width, int height, float[] dst) {
+        int stride = width + 2;
+        for (int row = 0; row < height; row++) {
+            int top = row * stride;
+            int middle = top + stride;
+            int bottom = middle + stride;
+            for (int column = 0; column < width; column++) {
+                float center = src[middle + column + 1];
+                float sum = Math.abs(src[top + column] - center) + Math.abs(src[top + column + 1] - center)
+                        + Math.abs(src[top + column + 2] - center) + Math.abs(src[middle + column] - center)
+                        + Math.abs(src[middle + column + 2] - center) + Math.abs(src[bottom + column] - center)
+                        + Math.abs(src[bottom + column + 1] - center) + Math.abs(src[bottom + column + 2] - center);
+                dst[row * width + column] = sum / 8;
+            }
+        }
+    }
+
+    @Override
+    public void tpi(float[] src, int width, int height, float[] dst) {
+        int stride = width + 2;
+        for (int row = 0; row < height; row++) {
+            int top = row * stride;
+            int middle = top + stride;
+            int bottom = middle + stride;
+            for (int column = 0; column < width; column++) {
+                float sum = src[top + column] + src[top + column + 1] + src[top + column + 2]
+                        + src[middle + column] + src[middle + column + 2]
+                        + src[bottom + column] + src[bottom + column + 1] + src[bottom + column + 2];
+                dst[row * width + column] = src[middle + column + 1] - sum / 8;
+            }
+        }
+    }
+
+    /**
+     * {@code (c + 2f + i) - (a + 2d + g)} for the window {@code a b c / d e f / g h i} starting at the given offsets.
+     */
+    static double eastGradient(float[] src, int top, int middle, int bottom) {
+        return (src[top + 2] + 2.0 * src[middle + 2] + src[bottom + 2]) - (src[top] + 2.0 * src[middle] + src[bottom]);
+    }
+
+    /**
+     * {@code (g + 2h + i) - (a + 2b + c)}, positive when the terrain rises towards the south.
+     */
+    static double southGradient(float[] src, int top, int bottom) {
+        return (src[bottom] + 2.0 * src[bottom + 1] + src[bottom + 2]) - (src[top] + 2.0 * src[top + 1] + src[top + 2]);
+    }
+
+    static double compassAspect(double dx, double dy) {
+        if (dx == 0 && dy == 0) {
+            return -1;
+        }
+        double aspect = Math.atan2(dy, -dx) * TO_DEGREES;
+        aspect = aspect > 90 ? 450 - aspect : 90 - aspect;
+        return aspect == 360 ? 0 : aspect;
+    }
+}
@@ -0,0 +1,44 @@
+package com.mapserver.elevationtiles.terrain;
+
+/**
+ * DEM derivatives over a 3x3 neighbourhood, using Horn's method for the gradient as {@code ST_Slope},
+ * {@code ST_Aspect} and {@code ST_HillShade} do.
+ * <p>
+ * The source is row-major and one pixel wider on each side than the output, so {@code src} holds
+ * {@code (width + 2) * (height + 2)} values and the pixel {@code (column, row)} of the output is centred on
+ * {@code src[(row + 1) * (width + 2) + column + 1]}. Nodata is {@code NaN} and propagates to every output pixel
+ * whose neighbourhood touches it. Implementations write into {@code dst} and do not allocate.
+ * <p>
+ * Where the neighbourhood has no nodata, the kernels follow the formulas of {@code ST_Slope}, {@code ST_Aspect},
+ * {@code ST_HillShade}, {@code ST_TRI} and {@code ST_TPI} with their default arguments. PostGIS substitutes the
+ * center for missing neighbours instead, so the pixels next to nodata, and the border of a tile rendered without its
+ * neighbours, differ between the two render modes.
+ */
+public interface TerrainKernels {
+
+    /**
+     * Slope in degrees.
+     */
+    void slope(float[] src, int width, int height, double scaleX, double scaleY, float[] dst);
+
+    /**
+     * Aspect in degrees clockwise from north, {@code -1} for flat areas.
+     */
+    void aspect(float[] src, int width, int height, double scaleX, double scaleY, float[] dst);
+
+    /**
+     * Hillshade between 0 and {@code maxBright} for a light source at {@code azimuth} and {@code altitude} degrees.
+     */
+    void hillshade(float[] src, int width, int height, double scaleX, double scaleY,
+                   double azimuth, double altitude, double maxBright, float[] dst);
+
+    /**
+     * Terrain ruggedness index: mean absolute difference between a pixel and its eight neighbours.
+     */
+    void tri(float[] src, int width, int height, float[] dst);
+
+    /**
+     * Topographic position index: difference between a pixel and the mean of its eight neighbours.
+     */
+    void tpi(float[] src, int width, int height, float[] dst);
+}
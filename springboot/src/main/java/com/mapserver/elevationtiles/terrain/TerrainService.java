@@ -0,0 +1,109 @@
+package com.mapserver.elevationtiles.terrain;
+
+import com.mapserver.elevationtiles.domain.TileLayer;
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import com.mapserver.elevationtiles.raster.ElevationWindow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Computes the band behind each {@link TileLayer} from an elevation grid, with the same defaults as the
+ * PostGIS functions the database render mode calls.
+ */
+@Service
+public class TerrainService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TerrainService.class);
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNELS = "com.mapserver.elevationtiles.terrain.VectorTerrainKernels";
+
+    static final double HILLSHADE_AZIMUTH = 315;
+    static final double HILLSHADE_ALTITUDE = 45;
+    static final double HILLSHADE_MAX_BRIGHT = 255;
+
+    private final TerrainKernels kernels;
+
+    public TerrainService(@Value("${elevationtiles.render.vector-api:true}") boolean vectorApi) {
+        this.kernels = createKernels(vectorApi);
+        LOGGER.info("Computing terrain derivatives with {}", kernels.getClass().getSimpleName());
+    }
+
+    /**
+     * Returns the values of {@code layer} for the grid. Pixels on the border of the tile have no neighbours
+     * and come out as nodata.
+     */
+    public float[] compute(TileLayer layer, ElevationGrid grid) {
+        if (layer == TileLayer.ELEVATION) {
+            return grid.toArray();
+        }
+        return compute(layer, ElevationWindow.of(grid, 1));
+    }
+
+    /**
+     * Returns the values of {@code layer} for the tile in the window, using its halo for the pixels on the border.
+     */
+    public float[] compute(TileLayer layer, ElevationWindow window) {
+        return compute(layer, window.padded(1), window.getWidth(), window.getHeight(), window.getScaleX(), window.getScaleY());
+    }
+
+    /**
+     * Returns the values of {@code layer} for a grid already padded by one pixel on every side. Layers that are not
+     * computed from the elevation band, like the encoded and vector ones, are rejected.
+     */
+    public float[] compute(TileLayer layer, float[] padded, int width, int height, double scaleX, double scaleY) {
+        float[] values = new float[width * height];
+        return switch (layer) {
+            case ELEVATION -> {
+                for (int row = 0; row < height; row++) {
+                    System.arraycopy(padded, (row + 1) * (width + 2) + 1, values, row * width, width);
+                }
+                yield values;
+            }
+            case SLOPE -> {
+                kernels.slope(padded, width, height, scaleX, scaleY, values);
+                yield values;
+            }
+            case ASPECT -> {
+                kernels.aspect(padded, width, height, scaleX, scaleY, values);
+                yield values;
+            }
+            case HILLSHADE -> {
+                kernels.hillshade(padded, width, height, scaleX, scaleY,
+                        HILLSHADE_AZIMUTH, HILLSHADE_ALTITUDE, HILLSHADE_MAX_BRIGHT, values);
+                yield values;
+            }
+            case TRI -> {
+                kernels.tri(padded, width, height, values);
+                yield values;
+            }
+            case TPI -> {
+                kernels.tpi(padded, width, height, values);
+                yield values;
+            }
+            case TERRAIN_RGB, TERRARIUM, CONTOURS ->
+                    throw new IllegalArgumentException(layer + " tiles are not computed from the terrain");
+        };
+    }
+
+    TerrainKernels getKernels() {
+        return kernels;
+    }
+
+    /**
+     * The vector kernels are loaded reflectively so that the scalar ones still work when the JVM was started
+     * without the incubator module.
+     */
+    static TerrainKernels createKernels(boolean vectorApi) {
+        if (vectorApi && ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                return (TerrainKernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                LOGGER.warn("Could not load the vector terrain kernels, falling back to scalar ones", e);
+            }
+        }
+        return new ScalarTerrainKernels();
+    }
+}
@@ -0,0 +1,190 @@
+package com.mapserver.elevationtiles.terrain;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link TerrainKernels} evaluated over as many columns as the preferred vector species holds at once, with the
+ * remaining columns of each row handled by {@link ScalarTerrainKernels}. Needs {@code --add-modules jdk.incubator.vector}.
+ */
+public class VectorTerrainKernels implements TerrainKernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final float TO_DEGREES = (float) (180 / Math.PI);
+
+    private final ScalarTerrainKernels tail = new ScalarTerrainKernels();
+
+    @Override
+    public void slope(float[] src, int width, int height, double scaleX, double scaleY, float[] dst) {
+        int stride = width + 2;
+        int bound = SPECIES.loopBound(width);
+        float ewres = (float) (8 * Math.abs(scaleX));
+        float nsres = (float) (8 * Math.abs(scaleY));
+        for (int row = 0; row < height; row++) {
+            int top = row * stride;
+            int middle = top + stride;
+            int bottom = middle + stride;
+            for (int column = 0; column < bound; column += SPECIES.length()) {
+                FloatVector dx = eastGradient(src, top + column, middle + column, bottom + column).div(ewres);
+                FloatVector dy = southGradient(src, top + column, bottom + column).div(nsres);
+                dx.mul(dx).add(dy.mul(dy))
+                        .lanewise(VectorOperators.SQRT)
+                        .lanewise(VectorOperators.ATAN)
+                        .mul(TO_DEGREES)
+                        .intoArray(dst, row * width + column);
+            }
+            for (int column = bound; column < width; column++) {
+                double dx = ScalarTerrainKernels.eastGradient(src, top + column, middle + column, bottom + column) / ewres;
+                double dy = ScalarTerrainKernels.southGradient(src, top + column, bottom + column) / nsres;
+                dst[row * width + column] = (float) Math.toDegrees(Math.atan(Math.sqrt(dx * dx + dy * dy)));
+            }
+        }
+    }
+
+    @Override
+    public void aspect(float[] src, int width, int height, double scaleX, double scaleY, float[] dst) {
+        int stride = width + 2;
+        int bound = SPECIES.loopBound(width);
+        float ewres = (float) (8 * Math.abs(scaleX));
+        float nsres = (float) (8 * Math.abs(scaleY));
+        for (int row = 0; row < height; row++) {
+            int top = row * stride;
+            int middle = top + stride;
+            int bottom = middle + stride;
+            for (int column = 0; column < bound; column += SPECIES.length()) {
+                FloatVector dx = eastGradient(src, top + column, middle + column, bottom + column).div(ewres);
+                FloatVector dy = southGradient(src, top + column, bottom + column).div(nsres);
+                FloatVector angle = dy.lanewise(VectorOperators.ATAN2, dx.neg()).mul(TO_DEGREES);
+                FloatVector aspect = angle.neg().add(90f).blend(angle.neg().add(450f), angle.compare(VectorOperators.GT, 90f));
+                aspect = aspect.blend(0f, aspect.compare(VectorOperators.EQ, 360f));
+                VectorMask<Float> flat = dx.compare(VectorOperators.EQ, 0f).and(dy.compare(VectorOperators.EQ, 0f));
+                aspect.blend(-1f, flat).intoArray(dst, row * width + column);
+            }
+            for (int column = bound; column < width; column++) {
+                double dx = ScalarTerrainKernels.eastGradient(src, top + column, middle + column, bottom + column) / ewres;
+                double dy = ScalarTerrainKernels.southGradient(src, top + column, bottom + column) / nsres;
+                dst[row * width + column] = (float) ScalarTerrainKernels.compassAspect(dx, dy);
+            }
+        }
+    }
+
+    @Override
+    public void hillshade(float[] src, int width, int height, double scaleX, double scaleY,
+                          double azimuth, double altitude, double maxBright, float[] dst) {
+        int stride = width + 2;
+        int bound = SPECIES.loopBound(width);
+        float ewres = (float) (8 * Math.abs(scaleX));
+        float nsres = (float) (8 * Math.abs(scaleY));
+        double zenith = Math.toRadians(90 - altitude);
+        float cosZenith = (float) (maxBright * Math.cos(zenith));
+        float sinZenith = (float) (maxBright * Math.sin(zenith));
+        float light = (float) Math.toRadians(450 - azimuth);
+        for (int row = 0; row < height; row++) {
+            int top = row * stride;
+            int middle = top + stride;
+            int bottom = middle + stride;
+            for (int column = 0; column < bound; column += SPECIES.length()) {
+                FloatVector dx = eastGradient(src, top + column, middle + column, bottom + column).div(ewres);
+                FloatVector dy = southGradient(src, top + column, bottom + column).div(nsres);
+                FloatVector slope = dx.mul(dx).add(dy.mul(dy))
+                        .lanewise(VectorOperators.SQRT)
+                        .lanewise(VectorOperators.ATAN);
+                FloatVector aspect = dy.lanewise(VectorOperators.ATAN2, dx.neg());
+                FloatVector incidence = aspect.neg().add(light).lanewise(VectorOperators.COS);
+                slope.lanewise(VectorOperators.COS).mul(cosZenith)
+                        .add(slope.lanewise(VectorOperators.SIN).mul(sinZenith).mul(incidence))
+                        .max(0f)
+                        .intoArray(dst, row * width + column);
+            }
+            if (bound < width) {
+                hillshadeTail(src, width, row, bound, ewres, nsres, cosZenith, sinZenith, light, dst);
+            }
+        }
+    }
+
+    @Override
+    public void tri(float[] src, int width, int height, float[] dst) {
+        int stride = width + 2;
+        int bound = SPECIES.loopBound(width);
+        for (int row = 0; row < height; row++) {
+            int top = row * stride;
+            int middle = top + stride;
+            int bottom = middle + stride;
+            for (int column = 0; column < bound; column += SPECIES.length()) {
+                FloatVector center = FloatVector.fromArray(SPECIES, src, middle + column + 1);
+                FloatVector sum = load(src, top + column).sub(center).abs()
+                        .add(load(src, top + column + 1).sub(center).abs())
+                        .add(load(src, top + column + 2).sub(center).abs())
+                        .add(load(src, middle + column).sub(center).abs())
+                        .add(load(src, middle + column + 2).sub(center).abs())
+                        .add(load(src, bottom + column).sub(center).abs())
+                        .add(load(src, bottom + column + 1).sub(center).abs())
+                        .add(load(src, bottom + column + 2).sub(center).abs());
+                sum.div(8f).intoArray(dst, row * width + column);
+            }
+            for (int column = bound; column < width; column++) {
+                float center = src[middle + column + 1];
+                float sum = Math.abs(src[top + column] - center) + Math.abs(src[top + column + 1] - center)
+                        + Math.abs(src[top + column + 2] - center) + Math.abs(src[middle + column] - center)
+                        + Math.abs(src[middle + column + 2] - center) + Math.abs(src[bottom + column] - center)
+                        + Math.abs(src[bottom + column + 1] - center) + Math.abs(src[bottom + column + 2] - center);
+                dst[row * width + column] = sum / 8;
+            }
+        }
+    }
+
+    @Override
+    public void tpi(float[] src, int width, int height, float[] dst) {
+        int stride = width + 2;
+        int bound = SPECIES.loopBound(width);
+        for (int row = 0; row < height; row++) {
+            int top = row * stride;
+            int middle = top + stride;
+            int bottom = middle + stride;
+            for (int column = 0; column < bound; column += SPECIES.length()) {
+                FloatVector sum = load(src, top + column).add(load(src, top + column + 1)).add(load(src, top + column + 2))
+                        .add(load(src, middle + column)).add(load(src, middle + column + 2))
+                        .add(load(src, bottom + column)).add(load(src, bottom + column + 1)).add(load(src, bottom + column + 2));
+                load(src, middle + column + 1).sub(sum.div(8f)).intoArray(dst, row * width + column);
+            }
+            for (int column = bound; column < width; column++) {
+                float sum = src[top + column] + src[top + column + 1] + src[top + column + 2]
+                        + src[middle + column] + src[middle + column + 2]
+                        + src[bottom + column] + src[bottom + column + 1] + src[bottom + column + 2];
+                dst[row * width + column] = src[middle + column + 1] - sum / 8;
+            }
+        }
+    }
+
+    private void hillshadeTail(float[] src, int width, int row, int from, float ewres, float nsres,
+                               float cosZenith, float sinZenith, float light, float[] dst) {
+        int stride = width + 2;
+        int top = row * stride;
+        int middle = top + stride;
+        int bottom = middle + stride;
+        for (int column = from; column < width; column++) {
+            double dx = ScalarTerrainKernels.eastGradient(src, top + column, middle + column, bottom + column) / ewres;
+            double dy = ScalarTerrainKernels.southGradient(src, top + column, bottom + column) / nsres;
+            double slope = Math.atan(Math.sqrt(dx * dx + dy * dy));
+            double aspect = Math.atan2(dy, -dx);
+            double shade = cosZenith * Math.cos(slope) + sinZenith * Math.sin(slope) * Math.cos(light - aspect);
+            dst[row * width + column] = (float) Math.max(shade, 0);
+        }
+    }
+
+    private static FloatVector load(float[] src, int offset) {
+        return FloatVector.fromArray(SPECIES, src, offset);
+    }
+
+    private static FloatVector eastGradient(float[] src, int top, int middle, int bottom) {
+        return load(src, top + 2).add(load(src, middle + 2).mul(2f)).add(load(src, bottom + 2))
+                .sub(load(src, top).add(load(src, middle).mul(2f)).add(load(src, bottom)));
+    }
+
+    private static FloatVector southGradient(float[] src, int top, int bottom) {
+        return load(src, bottom).add(load(src, bottom + 1).mul(2f)).add(load(src, bottom + 2))
+                .sub(load(src, top).add(load(src, top + 1).mul(2f)).add(load(src, top + 2)));
+    }
+}
@@ -0,0 +1,93 @@
+package com.mapserver.elevationtiles.cache;
+
+import com.mapserver.elevationtiles.domain.TileLayer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiskTileStoreTest {
+
+    private static final int SEGMENT_BYTES = 16 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void serves_tiles_after_restart() {
+        TileKey key = new TileKey(TileLayer.HILLSHADE, 3, 1, 2, "grayscale");
+        DiskTileStore store = new DiskTileStore(directory.toString(), 4 * SEGMENT_BYTES, SEGMENT_BYTES);
+        store.put(key, new byte[]{7, 8, 9});
+        store.flush();
+
+        DiskTileStore reopened = new DiskTileStore(directory.toString(), 4 * SEGMENT_BYTES, SEGMENT_BYTES);
+        ByteBuffer tile = reopened.get(key).orElseThrow();
+
+        assertThat(tile.isReadOnly()).isTrue();
+        assertThat(tile.isDirect()).isTrue();
+        assertThat(bytes(tile)).containsExactly(7, 8, 9);
+    }
+
+    @Test
+    void keeps_size_under_cap_and_retains_recently_read_tiles() {
+        DiskTileStore store = new DiskTileStore(directory.toString(), 4 * SEGMENT_BYTES, SEGMENT_BYTES);
+        TileKey hot = new TileKey(TileLayer.ELEVATION, 0, 0, 0, "arctic");
+        store.put(hot, new byte[1000]);
+        for (int x = 0; x < 200; x++) {
+            store.put(new TileKey(TileLayer.ELEVATION, 8, x, 0, "arctic"), new byte[1000]);
+            store.get(hot);
+        }
+        store.maintain();
+
+        assertThat(store.getSegments()).isLessThanOrEqualTo(4);
+        assertThat(store.getEvictions()).isPositive();
+        assertThat(store.get(hot)).isPresent();
+    }
+
+    @Test
+    void keeps_the_file_of_a_dropped_segment_while_a_tile_of_it_is_held() throws InterruptedException {
+        DiskTileStore store = new DiskTileStore(directory.toString(), 2 * SEGMENT_BYTES, SEGMENT_BYTES);
+        TileKey held = new TileKey(TileLayer.ELEVATION, 0, 0, 0, "arctic");
+        store.put(held, new byte[]{4, 5, 6});
+        Path first = directory.resolve("0000000000.tiles");
+        ByteBuffer tile = store.get(held).orElseThrow();
+        for (int x = 0; x < 50; x++) {
+            store.put(new TileKey(TileLayer.ELEVATION, 8, x, 0, "arctic"), new byte[1000]);
+        }
+        store.maintain();
+
+        // the tile was read, so it moved to a newer segment, but the view still reads the dropped one
+        assertThat(store.getSegments()).isLessThanOrEqualTo(2);
+        assertThat(Files.exists(first)).isTrue();
+        assertThat(bytes(tile)).containsExactly(4, 5, 6);
+
+        tile = null;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (Files.exists(first) && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(Files.exists(first)).isFalse();
+    }
+
+    @Test
+    void is_a_no_op_without_path() {
+        DiskTileStore store = new DiskTileStore("", 4 * SEGMENT_BYTES, SEGMENT_BYTES);
+        TileKey key = new TileKey(TileLayer.ELEVATION, 0, 0, 0, "arctic");
+        store.put(key, new byte[]{1});
+
+        assertThat(store.isEnabled()).isFalse();
+        assertThat(store.get(key)).isEmpty();
+    }
+
+    private static byte[] bytes(ByteBuffer tile) {
+        byte[] bytes = new byte[tile.remaining()];
+        tile.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,37 @@
+package com.mapserver.elevationtiles.cache;
+
+import com.mapserver.elevationtiles.domain.TileLayer;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TileCacheTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void returns_cached_tile_and_counts_hits_and_misses(boolean offHeap) {
+        TileCache tileCache = new TileCache(1024 * 1024, offHeap);
+        TileKey key = new TileKey(TileLayer.SLOPE, 2, 0, 0, "grayscale");
+
+        assertThat(tileCache.get(key)).isEmpty();
+        tileCache.put(key, new byte[]{1, 2, 3});
+
+        ByteBuffer tile = tileCache.get(key).orElseThrow();
+        assertThat(tile.remaining()).isEqualTo(3);
+        assertThat(tile.isDirect()).isEqualTo(offHeap);
+        assertThat(tileCache.statistics().hitCount()).isEqualTo(1);
+        assertThat(tileCache.statistics().missCount()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void distinguishes_colormaps(boolean offHeap) {
+        TileCache tileCache = new TileCache(1024 * 1024, offHeap);
+        tileCache.put(new TileKey(TileLayer.ELEVATION, 0, 0, 0, "grayscale"), new byte[]{1});
+
+        assertThat(tileCache.get(new TileKey(TileLayer.ELEVATION, 0, 0, 0, "fire"))).isEmpty();
+    }
+}
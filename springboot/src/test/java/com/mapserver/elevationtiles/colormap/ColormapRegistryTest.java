@@ -0,0 +1,58 @@
+package com.mapserver.elevationtiles.colormap;
+
+import com.mapserver.elevationtiles.domain.TileLayer;
+import com.mapserver.elevationtiles.exception.InvalidColormapException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColormapRegistryTest {
+
+    private final ColormapRegistry colormapRegistry = new ColormapRegistry(2);
+
+    @Test
+    void preloads_bundled_colormaps_by_name_and_id() {
+        Colormap arctic = colormapRegistry.get(ColormapRegistry.ARCTIC);
+
+        assertThat(arctic.entries()).hasSize(113);
+        assertThat(colormapRegistry.find(arctic.id())).contains(arctic);
+    }
+
+    @Test
+    void passes_keywords_through_to_postgis() {
+        Colormap fire = colormapRegistry.resolve("fire", ColormapRegistry.GRAY_DK);
+
+        assertThat(fire.ramp()).isEqualTo("fire");
+        assertThat(fire.entries()).hasSize(18);
+    }
+
+    @Test
+    void resolves_the_colormap_of_each_layer() {
+        String ramp = "100 255 0 0 255\n0 0 0 255 255";
+
+        assertThat(colormapRegistry.resolve(TileLayer.ELEVATION, null)).isEqualTo(colormapRegistry.get(ColormapRegistry.ARCTIC));
+        assertThat(colormapRegistry.resolve(TileLayer.ELEVATION, ramp)).isEqualTo(colormapRegistry.get(ColormapRegistry.MBY));
+        assertThat(colormapRegistry.resolve(TileLayer.HILLSHADE, "")).isEqualTo(colormapRegistry.get(ColormapRegistry.BW_LINEAR));
+        assertThat(colormapRegistry.resolve(TileLayer.SLOPE, null)).isEqualTo(colormapRegistry.get(ColormapRegistry.GRAY_DK));
+        assertThat(colormapRegistry.resolve(TileLayer.SLOPE, ramp).ramp()).isEqualTo(ramp);
+        assertThat(colormapRegistry.resolve(TileLayer.ASPECT, "fire").ramp()).isEqualTo("fire");
+    }
+
+    @Test
+    void registers_ramps_by_content_hash() {
+        Colormap registered = colormapRegistry.register("100 255 0 0 255\n0 0 0 255 255");
+        Colormap reformatted = colormapRegistry.register("100,255,0,0,255\n\n0:0:0:255:255\n");
+
+        assertThat(registered.id()).hasSize(12).isEqualTo(reformatted.id());
+        assertThat(colormapRegistry.find(registered.id())).isPresent();
+    }
+
+    @Test
+    void rejects_invalid_ramps() {
+        assertThatThrownBy(() -> colormapRegistry.resolve("100 256 0 0", ColormapRegistry.GRAY_DK))
+                .isInstanceOf(InvalidColormapException.class);
+        assertThatThrownBy(() -> colormapRegistry.register("high 1 2 3"))
+                .isInstanceOf(InvalidColormapException.class);
+    }
+}
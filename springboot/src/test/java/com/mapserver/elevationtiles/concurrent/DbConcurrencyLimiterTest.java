@@ -0,0 +1,70 @@
+package com.mapserver.elevationtiles.concurrent;
+
+import com.mapserver.elevationtiles.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DbConcurrencyLimiterTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void releaseQueries() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void rejects_when_the_deadline_passes_while_queued() throws InterruptedException {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(1, 10, 20, 2);
+        occupy(limiter);
+
+        assertThatThrownBy(() -> limiter.call(() -> 1))
+                .isInstanceOfSatisfying(ServiceUnavailableException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(2));
+        assertThat(limiter.getRejected()).isEqualTo(1);
+        assertThat(limiter.getWaiting()).isZero();
+    }
+
+    @Test
+    void rejects_immediately_when_the_queue_is_full() throws InterruptedException {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(1, 0, 60_000, 1);
+        occupy(limiter);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> limiter.call(() -> 1)).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(System.nanoTime() - start).isLessThan(1_000_000_000L);
+    }
+
+    @Test
+    void lets_nested_calls_through_and_releases_permits() {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(1, 0, 10, 1);
+
+        assertThat(limiter.call(() -> limiter.call(() -> 42))).isEqualTo(42);
+        assertThat(limiter.getActive()).isZero();
+        assertThat(limiter.call(() -> 7)).isEqualTo(7);
+        assertThat(limiter.getAcquired()).isEqualTo(2);
+    }
+
+    private void occupy(DbConcurrencyLimiter limiter) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> limiter.call(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        }));
+        started.await();
+    }
+}
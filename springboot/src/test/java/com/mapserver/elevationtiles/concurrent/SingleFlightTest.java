@@ -0,0 +1,89 @@
+package com.mapserver.elevationtiles.concurrent;
+
+import com.mapserver.elevationtiles.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @Test
+    void runs_concurrent_identical_work_once() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(5000, 1);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Integer> leader = executor.submit(() -> singleFlight.execute("tile", () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            await(release);
+            return 42;
+        }));
+        started.await();
+
+        List<Future<Integer>> followers = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            followers.add(executor.submit(() -> singleFlight.execute("tile", () -> runs.incrementAndGet() * 0)));
+        }
+        while (singleFlight.getCoalesced() < 7) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertThat(leader.get()).isEqualTo(42);
+        for (Future<Integer> follower : followers) {
+            assertThat(follower.get()).isEqualTo(42);
+        }
+        assertThat(runs).hasValue(1);
+        assertThat(singleFlight.getExecutions()).isEqualTo(1);
+        assertThat(singleFlight.getInFlight()).isZero();
+    }
+
+    @Test
+    void gives_up_waiting_after_the_timeout() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(20, 3);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> singleFlight.execute("slow", () -> {
+            started.countDown();
+            await(release);
+            return 1;
+        }));
+        started.await();
+
+        assertThatThrownBy(() -> singleFlight.execute("slow", () -> 2))
+                .isInstanceOfSatisfying(ServiceUnavailableException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(3));
+        assertThat(singleFlight.getTimeouts()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    void runs_again_once_the_previous_flight_landed() {
+        SingleFlight singleFlight = new SingleFlight(1000, 1);
+
+        assertThatThrownBy(() -> singleFlight.execute("failing", () -> {
+            throw new IllegalStateException("boom");
+        })).hasMessage("boom");
+        assertThat(singleFlight.<Integer>execute("failing", () -> 7)).isEqualTo(7);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
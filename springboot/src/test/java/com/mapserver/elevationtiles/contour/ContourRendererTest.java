@@ -0,0 +1,228 @@
+package com.mapserver.elevationtiles.contour;
+
+import com.mapserver.elevationtiles.raster.ElevationWindow;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.DoubleBinaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContourRendererTest {
+
+    private static final int SIZE = 64;
+    private static final int HALO = ContourRenderer.HALO;
+
+    @Test
+    void renders_a_feature_per_level() {
+        int size = 8;
+        int halo = 2;
+        int stride = size + 2 * halo;
+        float[] values = new float[stride * stride];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 95 + (i % stride) * 3;
+        }
+        ContourRenderer renderer = new ContourRenderer(0.5);
+
+        Map<Long, List<int[]>> levels = decode(renderer.render(new ElevationWindow(size, size, halo, 1, -1, values), 13));
+
+        assertThat(new ArrayList<>(levels.keySet())).containsExactly(100L, 110L, 120L);
+        assertThat(ContourRenderer.interval(13)).isEqualTo(10);
+        assertThat(ContourRenderer.interval(3)).isEqualTo(1000);
+    }
+
+    @Test
+    void meets_the_lines_of_the_neighbouring_tile_on_their_shared_edge() {
+        // one relief, cut into two tiles side by side whose halos overlap
+        DoubleBinaryOperator relief = (x, y) -> 200 + 0.8 * x + 30 * Math.sin(x / 7) + 25 * Math.cos(y / 5);
+        ContourRenderer renderer = new ContourRenderer(0.5);
+
+        Map<Long, List<int[]>> west = decode(renderer.render(window(relief, 0), 13));
+        Map<Long, List<int[]>> east = decode(renderer.render(window(relief, SIZE), 13));
+
+        Map<Long, List<Double>> westEdge = crossings(west, VectorTileEncoder.EXTENT);
+        Map<Long, List<Double>> eastEdge = crossings(east, 0);
+        assertThat(westEdge.values().stream().mapToInt(List::size).sum()).isGreaterThan(5);
+        assertThat(eastEdge).isEqualTo(westEdge);
+    }
+
+    /**
+     * The window of the tile whose first column is {@code column} in a row of tiles, sampled from the relief at the
+     * pixel centres.
+     */
+    private static ElevationWindow window(DoubleBinaryOperator relief, int column) {
+        int stride = SIZE + 2 * HALO;
+        float[] values = new float[stride * stride];
+        for (int row = 0; row < stride; row++) {
+            for (int col = 0; col < stride; col++) {
+                values[row * stride + col] = (float) relief.applyAsDouble(column + col - HALO, row - HALO);
+            }
+        }
+        return new ElevationWindow(SIZE, SIZE, HALO, 1, -1, values);
+    }
+
+    /**
+     * Where the lines of each elevation cross the vertical {@code x}, sorted.
+     */
+    private static Map<Long, List<Double>> crossings(Map<Long, List<int[]>> levels, int x) {
+        Map<Long, List<Double>> crossings = new TreeMap<>();
+        levels.forEach((elevation, lines) -> {
+            List<Double> ys = new ArrayList<>();
+            for (int[] line : lines) {
+                for (int i = 2; i < line.length; i += 2) {
+                    int x0 = line[i - 2];
+                    int x1 = line[i];
+                    if (x0 != x1 && (x0 < x) != (x1 < x)) {
+                        double t = (double) (x - x0) / (x1 - x0);
+                        ys.add(line[i - 1] + t * (line[i + 1] - line[i - 1]));
+                    }
+                }
+            }
+            if (!ys.isEmpty()) {
+                ys.sort(null);
+                crossings.put(elevation, ys);
+            }
+        });
+        return crossings;
+    }
+
+    /**
+     * Decodes the lines of every elevation of a contour tile, as flat arrays of points in tile extent units.
+     */
+    private static Map<Long, List<int[]>> decode(byte[] tile) {
+        Map<Long, List<int[]>> levels = new TreeMap<>();
+        Protobuf message = new Protobuf(tile);
+        while (message.hasNext()) {
+            int tag = message.varint();
+            if (tag >>> 3 != 3) {
+                message.skip(tag);
+                continue;
+            }
+            Protobuf layer = new Protobuf(message.bytes());
+            List<String> keys = new ArrayList<>();
+            List<Object> values = new ArrayList<>();
+            List<byte[]> features = new ArrayList<>();
+            while (layer.hasNext()) {
+                int field = layer.varint();
+                switch (field >>> 3) {
+                    case 2 -> features.add(layer.bytes());
+                    case 3 -> keys.add(new String(layer.bytes(), StandardCharsets.UTF_8));
+                    case 4 -> values.add(value(new Protobuf(layer.bytes())));
+                    default -> layer.skip(field);
+                }
+            }
+            for (byte[] bytes : features) {
+                Protobuf feature = new Protobuf(bytes);
+                Long elevation = null;
+                List<int[]> lines = new ArrayList<>();
+                while (feature.hasNext()) {
+                    int field = feature.varint();
+                    switch (field >>> 3) {
+                        case 2 -> {
+                            Protobuf tags = new Protobuf(feature.bytes());
+                            while (tags.hasNext()) {
+                                String key = keys.get(tags.varint());
+                                Object value = values.get(tags.varint());
+                                if (key.equals("elevation")) {
+                                    elevation = (Long) value;
+                                }
+                            }
+                        }
+                        case 4 -> lines = geometry(new Protobuf(feature.bytes()));
+                        default -> feature.skip(field);
+                    }
+                }
+                levels.computeIfAbsent(elevation, e -> new ArrayList<>()).addAll(lines);
+            }
+        }
+        return levels;
+    }
+
+    private static Object value(Protobuf value) {
+        int field = value.varint();
+        return switch (field >>> 3) {
+            case 6 -> {
+                long zigzag = value.varint();
+                yield zigzag >>> 1 ^ -(zigzag & 1);
+            }
+            case 7 -> value.varint() != 0;
+            default -> null;
+        };
+    }
+
+    private static List<int[]> geometry(Protobuf geometry) {
+        List<int[]> lines = new ArrayList<>();
+        int x = 0;
+        int y = 0;
+        List<Integer> line = new ArrayList<>();
+        while (geometry.hasNext()) {
+            int command = geometry.varint();
+            for (int i = 0; i < command >>> 3; i++) {
+                if ((command & 7) == 1 && !line.isEmpty()) {
+                    lines.add(line.stream().mapToInt(Integer::intValue).toArray());
+                    line.clear();
+                }
+                int dx = geometry.varint();
+                int dy = geometry.varint();
+                x += dx >>> 1 ^ -(dx & 1);
+                y += dy >>> 1 ^ -(dy & 1);
+                line.add(x);
+                line.add(y);
+            }
+        }
+        if (!line.isEmpty()) {
+            lines.add(line.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return lines;
+    }
+
+    /**
+     * Reads the fields of a protobuf message, the varints of the values used by vector tiles fitting in an int.
+     */
+    private static final class Protobuf {
+
+        private final byte[] bytes;
+        private int position;
+
+        Protobuf(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        boolean hasNext() {
+            return position < bytes.length;
+        }
+
+        int varint() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return (int) value;
+                }
+            }
+        }
+
+        byte[] bytes() {
+            int length = varint();
+            byte[] field = new byte[length];
+            System.arraycopy(bytes, position, field, 0, length);
+            position += length;
+            return field;
+        }
+
+        void skip(int tag) {
+            switch (tag & 7) {
+                case 0 -> varint();
+                case 1 -> position += 8;
+                case 2 -> bytes();
+                case 5 -> position += 4;
+                default -> throw new IllegalArgumentException("Unknown wire type " + (tag & 7));
+            }
+        }
+    }
+}
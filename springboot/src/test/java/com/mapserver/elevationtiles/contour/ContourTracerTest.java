@@ -0,0 +1,62 @@
+package com.mapserver.elevationtiles.contour;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ContourTracerTest {
+
+    @Test
+    void traces_a_closed_line_around_a_peak() {
+        int size = 21;
+        float[] values = new float[size * size];
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                values[row * size + column] = (float) (100 - Math.hypot(column - 10, row - 10) * 10);
+            }
+        }
+
+        List<double[]> lines = new ContourTracer(values, size, size).trace(50);
+
+        assertThat(lines).hasSize(1);
+        double[] line = lines.get(0);
+        assertThat(line[0]).isEqualTo(line[line.length - 2]);
+        assertThat(line[1]).isEqualTo(line[line.length - 1]);
+        for (int i = 0; i < line.length; i += 2) {
+            assertThat(Math.hypot(line[i] - 10, line[i + 1] - 10)).isCloseTo(5, within(0.1));
+        }
+    }
+
+    @Test
+    void stops_lines_at_nodata_and_at_the_border() {
+        float[] values = {
+                0, 10, 20, 30,
+                0, 10, 20, 30,
+                0, Float.NaN, 20, 30,
+                0, 10, 20, 30,
+                0, 10, 20, 30
+        };
+
+        List<double[]> lines = new ContourTracer(values, 4, 5).trace(15);
+
+        assertThat(lines).hasSize(2);
+        for (double[] line : lines) {
+            assertThat(line).containsExactly(1.5, line[1], 1.5, line[1] + 1);
+        }
+    }
+
+    @Test
+    void clips_and_simplifies_lines() {
+        double[] line = {-10, 4, 10, 6, 20, 6, 30, 6};
+
+        List<double[]> parts = LineClipper.clip(List.of(line), 0, 0, 25, 10);
+
+        assertThat(parts).hasSize(1);
+        assertThat(parts.get(0)).containsExactly(0, 5, 10, 6, 20, 6, 25, 6);
+        assertThat(LineSimplifier.simplify(parts.get(0), 1)).containsExactly(0, 5, 25, 6);
+        assertThat(LineClipper.clip(List.of(line), 0, 7, 25, 10)).isEmpty();
+    }
+}
@@ -0,0 +1,47 @@
+package com.mapserver.elevationtiles.contour;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VectorTileEncoderTest {
+
+    @Test
+    void encodes_a_layer_of_lines() {
+        VectorTileEncoder encoder = new VectorTileEncoder("contours");
+        encoder.addLines(List.of(new int[]{2, 2, 2, 10}, new int[]{3, 3, 4, 4}), Map.of("elevation", 100L));
+
+        byte[] tile = encoder.encode();
+
+        // tile.layers (3), layer length
+        assertThat(tile[0]).isEqualTo((byte) 0x1A);
+        assertThat(tile[1]).isEqualTo((byte) (tile.length - 2));
+        byte[] feature = {
+                0x08, 0x01,                     // id 1
+                0x12, 0x02, 0x00, 0x00,         // tags: key 0, value 0
+                0x18, 0x02,                     // LINESTRING
+                0x22, 0x0C,                     // geometry, 12 integers
+                0x09, 0x04, 0x04, 0x0A, 0x00, 0x10,   // MoveTo(2, 2) LineTo(+0, +8)
+                0x09, 0x02, 0x0D, 0x0A, 0x02, 0x02    // MoveTo(+1, -7) LineTo(+1, +1)
+        };
+        assertThat(indexOf(tile, feature)).isPositive();
+        assertThat(indexOf(tile, new byte[]{0x22, 0x03, 0x30, (byte) 0xC8, 0x01})).isPositive();
+        assertThat(new VectorTileEncoder("contours").encode()).isEmpty();
+    }
+
+    private static int indexOf(byte[] bytes, byte[] sequence) {
+        outer:
+        for (int i = 0; i + sequence.length <= bytes.length; i++) {
+            for (int j = 0; j < sequence.length; j++) {
+                if (bytes[i + j] != sequence[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,163 @@
+package com.mapserver.elevationtiles.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final StubDataSource primary = new StubDataSource();
+    private final StubDataSource first = new StubDataSource();
+    private final StubDataSource second = new StubDataSource();
+
+    @BeforeEach
+    void readOnlyTransaction() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void sends_writes_to_the_primary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        routing(Balancing.LEAST_OUTSTANDING, 3, 1000, true).getConnection().close();
+
+        assertThat(primary.opened.get()).isEqualTo(1);
+        assertThat(first.opened.get() + second.opened.get()).isZero();
+    }
+
+    @Test
+    void sends_reads_to_the_replica_with_the_fewest_connections_in_use() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(Balancing.LEAST_OUTSTANDING, 3, 1000, true);
+
+        Connection held = routing.getConnection();
+        for (int i = 0; i < 4; i++) {
+            routing.getConnection().close();
+        }
+        held.close();
+
+        assertThat(primary.opened.get()).isZero();
+        assertThat(first.opened.get() + second.opened.get()).isEqualTo(5);
+        assertThat(Math.max(first.opened.get(), second.opened.get())).isEqualTo(4);
+        assertThat(routing.getReplicas()).allSatisfy(replica -> assertThat(replica.getOutstanding()).isZero());
+    }
+
+    @Test
+    void opens_the_circuit_of_a_failing_replica_and_tries_it_again_later() throws SQLException, InterruptedException {
+        ReplicaRoutingDataSource routing = routing(Balancing.LATENCY, 2, 50, true);
+        first.down = true;
+
+        for (int i = 0; i < 10; i++) {
+            routing.getConnection().close();
+        }
+        assertThat(first.attempts.get()).isEqualTo(2);
+        assertThat(second.opened.get()).isEqualTo(10);
+        assertThat(routing.getReplicas().get(0).isOpen()).isTrue();
+
+        first.down = false;
+        Thread.sleep(60);
+        for (int i = 0; i < 10; i++) {
+            routing.getConnection().close();
+        }
+        assertThat(first.opened.get()).isPositive();
+        assertThat(routing.getReplicas().get(0).isOpen()).isFalse();
+    }
+
+    @Test
+    void falls_back_to_the_primary_when_no_replica_is_available() throws SQLException {
+        first.down = true;
+        second.down = true;
+
+        routing(Balancing.LEAST_OUTSTANDING, 1, 1000, true).getConnection().close();
+        assertThat(primary.opened.get()).isEqualTo(1);
+
+        ReplicaRoutingDataSource strict = routing(Balancing.LEAST_OUTSTANDING, 1, 1000, false);
+        assertThatThrownBy(strict::getConnection).isInstanceOf(SQLException.class);
+    }
+
+    private ReplicaRoutingDataSource routing(Balancing balancing, int failureThreshold, long openMillis,
+                                             boolean fallbackToPrimary) {
+        long openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        return new ReplicaRoutingDataSource(primary, List.of(
+                new Replica("first", first, failureThreshold, openNanos),
+                new Replica("second", second, failureThreshold, openNanos)), balancing, fallbackToPrimary);
+    }
+
+    private static class StubDataSource implements DataSource {
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final AtomicInteger opened = new AtomicInteger();
+        private volatile boolean down;
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            attempts.incrementAndGet();
+            if (down) {
+                throw new SQLException("Connection refused", "08001");
+            }
+            opened.incrementAndGet();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "isValid" -> !down;
+                        case "isClosed" -> false;
+                        default -> null;
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return null;
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) {
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) {
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return 0;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            throw new SQLException("Not a wrapper");
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return false;
+        }
+    }
+}
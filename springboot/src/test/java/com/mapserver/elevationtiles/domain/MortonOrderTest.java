@@ -0,0 +1,55 @@
+package com.mapserver.elevationtiles.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MortonOrderTest {
+
+    @Test
+    void interleaves_x_in_the_even_bits() {
+        assertThat(MortonOrder.encode(1, 0)).isEqualTo(1);
+        assertThat(MortonOrder.encode(0, 1)).isEqualTo(2);
+        assertThat(MortonOrder.encode(3, 5)).isEqualTo(0b100111);
+        assertThat(MortonOrder.decodeX(MortonOrder.encode(32767, 12345))).isEqualTo(32767);
+        assertThat(MortonOrder.decodeY(MortonOrder.encode(32767, 12345))).isEqualTo(12345);
+    }
+
+    @Test
+    void walks_every_tile_of_the_range_in_increasing_code_order() {
+        TileRange range = new TileRange(4, 3, 5, 9, 6);
+
+        List<TileCoordinate> tiles = collect(MortonOrder.iterator(range, 0));
+
+        assertThat(tiles).hasSize((int) range.size());
+        assertThat(tiles).allMatch(tile -> tile.z() == 4 && range.contains(tile.x(), tile.y()));
+        for (int i = 1; i < tiles.size(); i++) {
+            assertThat(code(tiles.get(i))).isGreaterThan(code(tiles.get(i - 1)));
+        }
+    }
+
+    @Test
+    void resumes_at_the_first_tile_not_below_the_code() {
+        TileRange range = TileRange.world(3);
+        List<TileCoordinate> all = collect(MortonOrder.iterator(range, 0));
+        long from = code(all.get(21));
+
+        List<TileCoordinate> resumed = collect(MortonOrder.iterator(range, from));
+
+        assertThat(resumed).containsExactlyElementsOf(all.subList(21, all.size()));
+    }
+
+    private static long code(TileCoordinate tile) {
+        return MortonOrder.encode(tile.x(), tile.y());
+    }
+
+    private static List<TileCoordinate> collect(Iterator<TileCoordinate> iterator) {
+        List<TileCoordinate> tiles = new ArrayList<>();
+        iterator.forEachRemaining(tiles::add);
+        return tiles;
+    }
+}
@@ -0,0 +1,81 @@
+package com.mapserver.elevationtiles.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuadKeyTest {
+
+    @Test
+    void puts_the_zoom_level_above_the_morton_code() {
+        assertThat(QuadKey.encode(0, 0, 0)).isEqualTo(0);
+        assertThat(QuadKey.encode(1, 1, 0)).isEqualTo(1L << 58 | 1);
+        assertThat(QuadKey.encode(3, 3, 5)).isEqualTo(3L << 58 | 0b100111);
+        assertThat(QuadKey.decode(QuadKey.encode(15, 32767, 12345))).isEqualTo(new TileCoordinate(15, 32767, 12345));
+        assertThat(QuadKey.encode(2, 3, 3)).isLessThan(QuadKey.encode(3, 0, 0));
+    }
+
+    @Test
+    void finds_the_parent_and_the_descendants_of_a_tile() {
+        long key = QuadKey.encode(7, 45, 81);
+
+        assertThat(QuadKey.decode(QuadKey.parent(key))).isEqualTo(new TileCoordinate(6, 22, 40));
+        long[] children = QuadKey.descendants(key, 8);
+        Set<TileCoordinate> tiles = new HashSet<>();
+        for (long child = children[0]; child <= children[1]; child++) {
+            tiles.add(QuadKey.decode(child));
+        }
+        assertThat(tiles).containsExactlyInAnyOrder(new TileCoordinate(8, 90, 162), new TileCoordinate(8, 91, 162),
+                new TileCoordinate(8, 90, 163), new TileCoordinate(8, 91, 163));
+        long[] level = QuadKey.zoomLevel(4);
+        assertThat(level[1] - level[0] + 1).isEqualTo(256);
+    }
+
+    @Test
+    void covers_a_rectangle_exactly_with_enough_ranges() {
+        Random random = new Random(7);
+        for (int i = 0; i < 50; i++) {
+            int z = 1 + random.nextInt(6);
+            int size = 1 << z;
+            int x0 = random.nextInt(size);
+            int y0 = random.nextInt(size);
+            TileRange range = new TileRange(z, x0, y0, x0 + random.nextInt(size - x0), y0 + random.nextInt(size - y0));
+
+            List<long[]> ranges = QuadKey.ranges(range, Integer.MAX_VALUE);
+
+            long covered = 0;
+            for (int j = 0; j < ranges.size(); j++) {
+                long[] keys = ranges.get(j);
+                if (j > 0) {
+                    assertThat(keys[0]).isGreaterThan(ranges.get(j - 1)[1] + 1);
+                }
+                for (long key = keys[0]; key <= keys[1]; key++) {
+                    TileCoordinate tile = QuadKey.decode(key);
+                    assertThat(tile.z() == z && range.contains(tile.x(), tile.y())).isTrue();
+                }
+                covered += keys[1] - keys[0] + 1;
+            }
+            assertThat(covered).isEqualTo(range.size());
+        }
+    }
+
+    @Test
+    void coarsens_the_ranges_to_stay_within_the_limit() {
+        TileRange range = new TileRange(10, 100, 200, 612, 713);
+
+        List<long[]> ranges = QuadKey.ranges(range, 8);
+
+        assertThat(ranges.size()).isLessThanOrEqualTo(8);
+        for (int x = range.xMin(); x <= range.xMax(); x += 37) {
+            for (int y = range.yMin(); y <= range.yMax(); y += 41) {
+                long key = QuadKey.encode(10, x, y);
+                assertThat(ranges.stream().anyMatch(keys -> keys[0] <= key && key <= keys[1])).isTrue();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.mapserver.elevationtiles.ingest;
+
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngestCheckpointTest {
+
+    private static final IngestSpec SPEC = new IngestSpec("/data/tiles", 2, 5, IngestStorage.IN_DB, 4, 128);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reads_back_the_checkpoint_it_writes() throws IOException {
+        Path path = directory.resolve("state/ingest.properties");
+        List<ZoomReport> reports = List.of(
+                new ZoomReport(2, 16, 16, 16, 0, 16, List.of()),
+                new ZoomReport(3, 64, 60, 57, 3, 57, List.of(new TileCoordinate(3, 1, 2), new TileCoordinate(3, 7, 0))));
+        IngestCheckpoint checkpoint = new IngestCheckpoint(SPEC, 4, 9, 1100, 52, reports);
+
+        checkpoint.write(path);
+
+        assertThat(IngestCheckpoint.read(path)).hasValue(checkpoint);
+        try (Stream<Path> files = Files.list(path.getParent())) {
+            assertThat(files.toList()).containsExactly(path);
+        }
+    }
+
+    @Test
+    void replaces_the_previous_checkpoint_and_resumes_from_the_latest() throws IOException {
+        Path path = directory.resolve("ingest.properties");
+        new IngestCheckpoint(SPEC, 3, 40, 5000, 2, List.of(new ZoomReport(2, 16, 16, 16, 0, 16, List.of())))
+                .write(path);
+        ZoomReport z3 = new ZoomReport(3, 64, 64, 64, 0, 64, List.of());
+        new IngestCheckpoint(SPEC, 4, 0, 0, 0, List.of(new ZoomReport(2, 16, 16, 16, 0, 16, List.of()), z3))
+                .write(path);
+
+        IngestCheckpoint resumed = IngestCheckpoint.read(path).orElseThrow();
+
+        assertThat(resumed.spec()).isEqualTo(SPEC);
+        assertThat(resumed.zoom()).isEqualTo(4);
+        assertThat(resumed.batch()).isEqualTo(0);
+        assertThat(resumed.zoomLoaded()).isEqualTo(0);
+        assertThat(resumed.reports()).hasSize(2);
+        assertThat(resumed.reports().get(1)).isEqualTo(z3);
+    }
+
+    @Test
+    void ignores_the_reports_of_the_zoom_level_being_resumed() throws IOException {
+        Path path = directory.resolve("ingest.properties");
+        new IngestCheckpoint(SPEC, 3, 2, 256, 0, List.of(
+                new ZoomReport(2, 16, 16, 16, 0, 16, List.of()),
+                new ZoomReport(3, 64, 64, 10, 0, 10, List.of()))).write(path);
+
+        IngestCheckpoint resumed = IngestCheckpoint.read(path).orElseThrow();
+
+        assertThat(resumed.reports().stream().map(ZoomReport::z).toList()).containsExactly(2);
+    }
+
+    @Test
+    void has_no_checkpoint_before_the_first_one_is_written() throws IOException {
+        assertThat(IngestCheckpoint.read(directory.resolve("ingest.properties"))).isEmpty();
+    }
+}
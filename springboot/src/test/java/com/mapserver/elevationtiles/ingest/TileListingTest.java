@@ -0,0 +1,58 @@
+package com.mapserver.elevationtiles.ingest;
+
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TileListingTest {
+
+    private static final String PREFIX = "/vsis3/elevation-tiles-prod/";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void lists_the_tiles_of_a_directory_in_morton_order() throws IOException {
+        for (String file : List.of("2/1/1.tif", "2/0/0.tif", "2/1/0.tif", "2/3/3.tif", "3/0/0.tif", "2/0/readme.txt")) {
+            Path path = directory.resolve(file);
+            Files.createDirectories(path.getParent());
+            Files.write(path, new byte[]{0});
+        }
+
+        List<SourceTile> tiles = TileListing.list(directory, PREFIX, 2);
+
+        assertThat(tiles.stream().map(SourceTile::tile).toList()).containsExactly(
+                new TileCoordinate(2, 0, 0), new TileCoordinate(2, 1, 0), new TileCoordinate(2, 1, 1),
+                new TileCoordinate(2, 3, 3));
+        assertThat(tiles.get(0).location()).isEqualTo(directory.resolve("2/0/0.tif").toAbsolutePath().toString());
+        assertThat(TileListing.list(directory, PREFIX, 5)).isEmpty();
+    }
+
+    @Test
+    void reads_paths_and_aws_s3_ls_output_from_a_listing() throws IOException {
+        Path listing = directory.resolve("listing.txt");
+        Files.writeString(listing, """
+                2024-01-01 10:00:00     139862 v2/geotiff/7/1/0.tif
+                v2/geotiff/7/0/0.tif
+                /vsis3/my-bucket/v2/geotiff/7/0/1.tif
+
+                v2/geotiff/7/0/0.tif
+                v2/geotiff/7/128/0.tif
+                v2/geotiff/6/0/0.tif
+                """);
+
+        List<SourceTile> tiles = TileListing.list(listing, PREFIX, 7);
+
+        assertThat(tiles).containsExactly(
+                new SourceTile(new TileCoordinate(7, 0, 0), PREFIX + "v2/geotiff/7/0/0.tif"),
+                new SourceTile(new TileCoordinate(7, 1, 0), PREFIX + "v2/geotiff/7/1/0.tif"),
+                new SourceTile(new TileCoordinate(7, 0, 1), "/vsis3/my-bucket/v2/geotiff/7/0/1.tif"));
+    }
+}
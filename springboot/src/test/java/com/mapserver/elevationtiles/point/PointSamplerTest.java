@@ -0,0 +1,39 @@
+package com.mapserver.elevationtiles.point;
+
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PointSamplerTest {
+
+    /**
+     * 2 x 2 pixels of 10 m, the upper left corner at (0, 20).
+     */
+    private static final ElevationGrid GRID = new ElevationGrid(2, 2, 0, 20, 10, -10,
+            FloatBuffer.wrap(new float[]{100, 200, 300, Float.NaN}));
+
+    @Test
+    void reads_the_pixel_holding_the_point() {
+        assertThat(PointSampler.sample(GRID, 9, 11, Interpolation.NEAREST)).isEqualTo(100f);
+        assertThat(PointSampler.sample(GRID, 11, 11, Interpolation.NEAREST)).isEqualTo(200f);
+        assertThat(PointSampler.sample(GRID, 1, 1, Interpolation.NEAREST)).isEqualTo(300f);
+    }
+
+    @Test
+    void interpolates_between_pixel_centers() {
+        assertThat((double) PointSampler.sample(GRID, 10, 15, Interpolation.BILINEAR)).isCloseTo(150, within(1e-4));
+        assertThat((double) PointSampler.sample(GRID, 5, 10, Interpolation.BILINEAR)).isCloseTo(200, within(1e-4));
+        assertThat((double) PointSampler.sample(GRID, 0, 20, Interpolation.BILINEAR)).isCloseTo(100, within(1e-4));
+    }
+
+    @Test
+    void leaves_nodata_out() {
+        assertThat((double) PointSampler.sample(GRID, 10, 10, Interpolation.BILINEAR)).isCloseTo(200, within(1e-4));
+        assertThat(PointSampler.sample(GRID, 15, 5, Interpolation.BILINEAR)).isNaN();
+        assertThat(PointSampler.sample(GRID, 15, 5, Interpolation.NEAREST)).isNaN();
+    }
+}
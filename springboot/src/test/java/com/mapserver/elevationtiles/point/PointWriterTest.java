@@ -0,0 +1,60 @@
+package com.mapserver.elevationtiles.point;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PointWriterTest {
+
+    private static final PointElevations POINTS = new PointElevations(new double[]{7.5, -3.25}, new double[]{46.0, 40.5},
+            new float[]{1234.5f, Float.NaN}, new byte[]{12, PointElevations.NO_ZOOM});
+
+    @Test
+    void writes_json_and_ndjson_in_input_order() throws IOException {
+        assertThat(write(PointFormat.JSON)).isEqualTo("[{\"lon\":7.5,\"lat\":46.0,\"elevation\":1234.5,\"z\":12},"
+                + "{\"lon\":-3.25,\"lat\":40.5,\"elevation\":null,\"z\":null}]");
+        assertThat(write(PointFormat.NDJSON)).isEqualTo("{\"lon\":7.5,\"lat\":46.0,\"elevation\":1234.5,\"z\":12}\n"
+                + "{\"lon\":-3.25,\"lat\":40.5,\"elevation\":null,\"z\":null}\n");
+    }
+
+    @Test
+    void writes_the_elevations_then_the_zoom_levels() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PointWriter.write(POINTS, PointFormat.BINARY, out);
+
+        ByteBuffer body = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat((long) body.remaining()).isEqualTo(PointWriter.contentLength(POINTS, PointFormat.BINARY));
+        byte[] magic = new byte[4];
+        body.get(magic);
+        assertThat(new String(magic)).isEqualTo("ETPE");
+        body.position(8);
+        assertThat(body.getInt()).isEqualTo(2);
+        assertThat(body.getFloat()).isEqualTo(1234.5f);
+        assertThat(body.getFloat()).isNaN();
+        assertThat(body.get()).isEqualTo((byte) 12);
+        assertThat(body.get() & 0xff).isEqualTo(255);
+    }
+
+    @Test
+    void reads_lon_lat_pairs() {
+        byte[] body = ByteBuffer.allocate(2 * PointReader.POINT_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putDouble(7.5).putDouble(46.0).putDouble(-3.25).putDouble(40.5).array();
+
+        double[][] points = PointReader.read(body);
+
+        assertThat(points[0]).containsExactly(7.5, -3.25);
+        assertThat(points[1]).containsExactly(46.0, 40.5);
+    }
+
+    private static String write(PointFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PointWriter.write(POINTS, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,49 @@
+package com.mapserver.elevationtiles.profile;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ProfileLineTest {
+
+    @Test
+    void walks_the_line_at_the_spacing_and_ends_on_its_last_point() {
+        ProfileLine line = new ProfileLine(new double[]{0, 0.001, 0.001}, new double[]{0, 0, 0.001});
+        List<double[]> points = new ArrayList<>();
+
+        line.walk(50, (distance, lon, lat) -> points.add(new double[]{distance, lon, lat}));
+
+        double length = line.length();
+        assertThat(length).isCloseTo(2 * 111.195, within(0.01));
+        assertThat(points).hasSize(6);
+        for (int i = 0; i < 5; i++) {
+            assertThat(points.get(i)[0]).isEqualTo(i * 50.0);
+        }
+        assertThat(points.get(5)).containsExactly(length, 0.001, 0.001);
+        assertThat(points.get(2)[2]).isEqualTo(0.0);
+        assertThat(points.get(3)[1]).isCloseTo(0.001, within(1e-12));
+        assertThat(points.get(3)[2]).isGreaterThan(0.0);
+    }
+
+    @Test
+    void skips_repeated_points() {
+        ProfileLine line = new ProfileLine(new double[]{7, 7, 7}, new double[]{46, 46, 46});
+        List<Double> distances = new ArrayList<>();
+
+        line.walk(10, (distance, lon, lat) -> distances.add(distance));
+
+        assertThat(distances).containsExactly(0.0);
+    }
+
+    @Test
+    void picks_the_zoom_level_whose_pixels_match_the_spacing() {
+        assertThat(ProfileService.zoom(30, 46, 15)).isEqualTo(12);
+        assertThat(ProfileService.zoom(30, 0, 15)).isEqualTo(13);
+        assertThat(ProfileService.zoom(1, 0, 15)).isEqualTo(15);
+        assertThat(ProfileService.zoom(1_000_000, 0, 15)).isEqualTo(0);
+    }
+}
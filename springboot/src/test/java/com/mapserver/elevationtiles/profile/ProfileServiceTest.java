@@ -0,0 +1,82 @@
+package com.mapserver.elevationtiles.profile;
+
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import com.mapserver.elevationtiles.domain.TileMath;
+import com.mapserver.elevationtiles.point.Interpolation;
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import com.mapserver.elevationtiles.service.ElevationGridService;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfileServiceTest {
+
+    private static final int Z = 3;
+
+    private final StubElevationGridService elevationGridService = new StubElevationGridService();
+
+    @Test
+    void reads_each_tile_once_per_visit_keeping_two_pages() throws IOException {
+        // one tile per page; the line crosses columns 4, 5 and 6, then comes back through 5 to 4
+        ProfileService profileService = new ProfileService(elevationGridService, 15, 1_000_000, 1, 1);
+        ProfileLine line = new ProfileLine(new double[]{1, 100, 1}, new double[]{10, 10, 10});
+        ProfilePlan plan = profileService.plan(line, 100_000, Z);
+        List<Integer> columns = new ArrayList<>();
+        List<Integer> readsAhead = new ArrayList<>();
+
+        profileService.profile(plan, Interpolation.NEAREST, sample -> {
+            int column = TileMath.column(Z, sample.lon());
+            if (columns.isEmpty() || columns.get(columns.size() - 1) != column) {
+                columns.add(column);
+            }
+            assertThat(sample.elevation()).isEqualTo(column * 100f);
+            readsAhead.add(elevationGridService.reads.size() - columns.size());
+        });
+
+        assertThat(columns).containsExactly(4, 5, 6, 5, 4);
+        // column 5 is still in the last two pages when the line comes back to it, column 4 has been dropped
+        assertThat(elevationGridService.reads).containsExactly(
+                List.of(column(4)), List.of(column(5)), List.of(column(6)), List.of(column(4)));
+        assertThat(readsAhead).allMatch(ahead -> ahead <= 1);
+    }
+
+    private static TileCoordinate column(int x) {
+        return new TileCoordinate(Z, x, TileMath.row(Z, 10));
+    }
+
+    /**
+     * Records every read, and answers with a grid covering the tile whose elevation is a hundred times its column.
+     */
+    private static class StubElevationGridService extends ElevationGridService {
+
+        final List<List<TileCoordinate>> reads = Collections.synchronizedList(new ArrayList<>());
+
+        StubElevationGridService() {
+            super(null, null, null, null, 1 << 20, false);
+        }
+
+        @Override
+        public Map<TileCoordinate, Optional<ElevationGrid>> read(Collection<TileCoordinate> tiles) {
+            reads.add(List.copyOf(tiles));
+            Map<TileCoordinate, Optional<ElevationGrid>> grids = new HashMap<>();
+            for (TileCoordinate tile : tiles) {
+                double pixel = TileMath.tileSize(tile.z()) / 2;
+                float elevation = tile.x() * 100f;
+                grids.put(tile, Optional.of(new ElevationGrid(2, 2, TileMath.minX(tile.z(), tile.x()),
+                        TileMath.maxY(tile.z(), tile.y()), pixel, -pixel,
+                        FloatBuffer.wrap(new float[]{elevation, elevation, elevation, elevation}))));
+            }
+            return grids;
+        }
+    }
+}
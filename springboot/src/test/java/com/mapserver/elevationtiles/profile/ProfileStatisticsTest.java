@@ -0,0 +1,36 @@
+package com.mapserver.elevationtiles.profile;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ProfileStatisticsTest {
+
+    @Test
+    void totals_the_climbs_across_nodata() {
+        ProfileStatistics statistics = new ProfileStatistics();
+        float[] elevations = {100, 110, Float.NaN, 130, 120, 125};
+        for (int i = 0; i < elevations.length; i++) {
+            statistics.add(new ProfileSample(i * 10.0, 0, 0, elevations[i]));
+        }
+
+        assertThat(statistics.getSamples()).isEqualTo(6L);
+        assertThat(statistics.getDistance()).isEqualTo(50.0);
+        assertThat(statistics.getAscent()).isEqualTo(35.0);
+        assertThat(statistics.getDescent()).isEqualTo(10.0);
+        assertThat(statistics.getMaxGrade()).isCloseTo(100.0, within(1e-9));
+        assertThat(statistics.getMinElevation()).isEqualTo(100f);
+        assertThat(statistics.getMaxElevation()).isEqualTo(130f);
+    }
+
+    @Test
+    void has_no_elevation_without_data() {
+        ProfileStatistics statistics = new ProfileStatistics();
+        statistics.add(new ProfileSample(0, 0, 0, Float.NaN));
+
+        assertThat(statistics.getSamples()).isEqualTo(1L);
+        assertThat(statistics.getAscent()).isEqualTo(0.0);
+        assertThat(statistics.getMinElevation()).isNaN();
+    }
+}
@@ -0,0 +1,47 @@
+package com.mapserver.elevationtiles.raster;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ElevationWindowTest {
+
+    @Test
+    void borrows_the_halo_from_neighbours() {
+        ElevationWindow window = ElevationWindow.of(grid(0), 1);
+        window.fill(grid(100), -1, 0);
+        window.fill(grid(200), 1, 1);
+
+        float[] values = window.getValues();
+        assertThat(values).hasSize(25);
+        assertThat(values[6]).isEqualTo(0f);
+        assertThat(values[18]).isEqualTo(8f);
+        assertThat(values[5]).isEqualTo(102f);
+        assertThat(values[15]).isEqualTo(108f);
+        assertThat(values[24]).isEqualTo(200f);
+        assertThat(values[0]).isNaN();
+        assertThat(values[4]).isNaN();
+    }
+
+    @Test
+    void crops_or_widens_the_halo() {
+        ElevationWindow window = ElevationWindow.of(grid(0), 2);
+
+        assertThat(window.padded(0)).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8);
+        float[] padded = window.padded(1);
+        assertThat(padded).hasSize(25);
+        assertThat(padded[6]).isEqualTo(0f);
+        assertThat(padded[0]).isNaN();
+        assertThat(ElevationWindow.of(grid(0), 0).padded(1)[12]).isEqualTo(4f);
+    }
+
+    private static ElevationGrid grid(float first) {
+        float[] values = new float[9];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = first + i;
+        }
+        return new ElevationGrid(3, 3, 0, 0, 10, -10, FloatBuffer.wrap(values));
+    }
+}
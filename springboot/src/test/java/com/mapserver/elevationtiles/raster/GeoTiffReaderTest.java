@@ -0,0 +1,362 @@
+package com.mapserver.elevationtiles.raster;
+
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeoTiffReaderTest {
+
+    private static final int NONE = 1;
+    private static final int LZW = 5;
+    private static final int DEFLATE = 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reads_uncompressed_int16_strips_with_nodata_and_georeferencing() throws IOException {
+        float[] values = elevations(5, 4);
+        values[7] = -32768;
+        Path file = write(new Fixture(ByteOrder.LITTLE_ENDIAN, 5, 4, values).int16().strips(3).compression(NONE, 1));
+
+        ElevationGrid grid = GeoTiffReader.read(file, false);
+
+        assertThat(grid.getWidth()).isEqualTo(5);
+        assertThat(grid.getHeight()).isEqualTo(4);
+        assertThat(grid.getUpperLeftX()).isEqualTo(1000);
+        assertThat(grid.getUpperLeftY()).isEqualTo(2000);
+        assertThat(grid.getScaleX()).isEqualTo(10);
+        assertThat(grid.getScaleY()).isEqualTo(-10);
+        assertThat(grid.get(7)).isNaN();
+        values[7] = Float.NaN;
+        assertThat(grid.toArray()).containsExactly(values);
+    }
+
+    @Test
+    void reads_lzw_int16_strips_with_the_horizontal_predictor() throws IOException {
+        float[] values = elevations(300, 7);
+        Path file = write(new Fixture(ByteOrder.BIG_ENDIAN, 300, 7, values).int16().strips(2).compression(LZW, 2));
+
+        assertThat(GeoTiffReader.read(file, true).toArray()).containsExactly(values);
+    }
+
+    @Test
+    void reads_deflate_float32_tiles_with_the_floating_point_predictor() throws IOException {
+        float[] values = elevations(20, 18);
+        values[0] = -0.25f;
+        for (Fixture fixture : List.of(
+                new Fixture(ByteOrder.BIG_ENDIAN, 20, 18, values).tiles(16).compression(DEFLATE, 3),
+                new Fixture(ByteOrder.LITTLE_ENDIAN, 20, 18, values).tiles(16).compression(LZW, 3))) {
+            assertThat(GeoTiffReader.read(write(fixture), false).toArray()).containsExactly(values);
+        }
+    }
+
+    @Test
+    void mirror_reads_the_z_x_y_layout() throws IOException {
+        Path tile = directory.resolve("mirror/7/65/43.tif");
+        Files.createDirectories(tile.getParent());
+        Files.move(write(new Fixture(ByteOrder.LITTLE_ENDIAN, 2, 2, new float[]{1, 2, 3, 4}).strips(2)), tile);
+        GeoTiffMirror mirror = new GeoTiffMirror(directory.resolve("mirror").toString(), false);
+
+        assertThat(mirror.read(new TileCoordinate(7, 65, 43), false)).hasValueSatisfying(grid ->
+                assertThat(grid.toArray()).containsExactly(1, 2, 3, 4));
+        assertThat(mirror.read(new TileCoordinate(7, 65, 44), false)).isEmpty();
+        assertThat(mirror.isFallbackToDatabase()).isFalse();
+    }
+
+    private static float[] elevations(int width, int height) {
+        float[] values = new float[width * height];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i * 37 % 1500) - 200;
+        }
+        return values;
+    }
+
+    private Path write(Fixture fixture) throws IOException {
+        Path file = Files.createTempFile(directory, "fixture", ".tif");
+        Files.write(file, fixture.encode());
+        return file;
+    }
+
+    /**
+     * Writes single band GeoTIFFs the way GDAL does, compressing every strip or tile on its own.
+     */
+    private static final class Fixture {
+        private final ByteOrder order;
+        private final int width;
+        private final int height;
+        private final float[] values;
+        private boolean int16;
+        private boolean tiled;
+        private int chunkWidth;
+        private int chunkHeight;
+        private int compression = NONE;
+        private int predictor = 1;
+
+        Fixture(ByteOrder order, int width, int height, float[] values) {
+            this.order = order;
+            this.width = width;
+            this.height = height;
+            this.values = values;
+        }
+
+        Fixture int16() {
+            int16 = true;
+            return this;
+        }
+
+        Fixture strips(int rows) {
+            chunkWidth = width;
+            chunkHeight = rows;
+            return this;
+        }
+
+        Fixture tiles(int size) {
+            tiled = true;
+            chunkWidth = size;
+            chunkHeight = size;
+            return this;
+        }
+
+        Fixture compression(int compression, int predictor) {
+            this.compression = compression;
+            this.predictor = predictor;
+            return this;
+        }
+
+        byte[] encode() {
+            int sampleBytes = int16 ? 2 : 4;
+            List<byte[]> chunks = new ArrayList<>();
+            for (int y0 = 0; y0 < height; y0 += chunkHeight) {
+                for (int x0 = 0; x0 < width; x0 += chunkWidth) {
+                    int rows = tiled ? chunkHeight : Math.min(chunkHeight, height - y0);
+                    ByteBuffer chunk = ByteBuffer.allocate(chunkWidth * rows * sampleBytes).order(order);
+                    for (int row = 0; row < rows; row++) {
+                        for (int column = 0; column < chunkWidth; column++) {
+                            int x = x0 + column;
+                            int y = y0 + row;
+                            float value = x < width && y < height ? values[y * width + x] : 0;
+                            if (int16) {
+                                chunk.putShort((short) value);
+                            } else {
+                                chunk.putFloat(value);
+                            }
+                        }
+                    }
+                    chunks.add(compress(predict(chunk.array(), rows, sampleBytes)));
+                }
+            }
+
+            Map<Integer, Object> tags = new TreeMap<>();
+            tags.put(256, new int[]{width});
+            tags.put(257, new int[]{height});
+            tags.put(258, new short[]{(short) (sampleBytes * 8)});
+            tags.put(259, new short[]{(short) compression});
+            tags.put(277, new short[]{1});
+            tags.put(317, new short[]{(short) predictor});
+            tags.put(339, new short[]{(short) (int16 ? 2 : 3)});
+            tags.put(tiled ? 322 : 278, new int[]{tiled ? chunkWidth : chunkHeight});
+            if (tiled) {
+                tags.put(323, new int[]{chunkHeight});
+            }
+            tags.put(33550, new double[]{10, 10, 0});
+            tags.put(33922, new double[]{0, 0, 0, 1000, 2000, 0});
+            tags.put(42113, "-32768\0");
+
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            data.writeBytes(new byte[8]);
+            int[] offsets = new int[chunks.size()];
+            int[] counts = new int[chunks.size()];
+            for (int i = 0; i < chunks.size(); i++) {
+                offsets[i] = data.size();
+                counts[i] = chunks.get(i).length;
+                data.writeBytes(chunks.get(i));
+            }
+            tags.put(tiled ? 324 : 273, offsets);
+            tags.put(tiled ? 325 : 279, counts);
+
+            Map<Integer, Integer> external = new HashMap<>();
+            for (Map.Entry<Integer, Object> tag : tags.entrySet()) {
+                byte[] bytes = bytes(tag.getValue());
+                if (bytes.length > 4) {
+                    external.put(tag.getKey(), data.size());
+                    data.writeBytes(bytes);
+                }
+            }
+            int directoryOffset = data.size();
+            ByteBuffer ifd = ByteBuffer.allocate(2 + tags.size() * 12 + 4).order(order);
+            ifd.putShort((short) tags.size());
+            for (Map.Entry<Integer, Object> tag : tags.entrySet()) {
+                Object value = tag.getValue();
+                byte[] bytes = bytes(value);
+                ifd.putShort((short) (int) tag.getKey());
+                ifd.putShort((short) type(value));
+                ifd.putInt(count(value));
+                if (bytes.length > 4) {
+                    ifd.putInt(external.get(tag.getKey()));
+                } else {
+                    ifd.put(bytes).put(new byte[4 - bytes.length]);
+                }
+            }
+            ifd.putInt(0);
+            data.writeBytes(ifd.array());
+
+            byte[] tiff = data.toByteArray();
+            ByteBuffer header = ByteBuffer.wrap(tiff).order(order);
+            header.put(0, (byte) (order == ByteOrder.LITTLE_ENDIAN ? 'I' : 'M'));
+            header.put(1, (byte) (order == ByteOrder.LITTLE_ENDIAN ? 'I' : 'M'));
+            header.putShort(2, (short) 42);
+            header.putInt(4, directoryOffset);
+            return tiff;
+        }
+
+        private byte[] predict(byte[] chunk, int rows, int sampleBytes) {
+            int rowBytes = chunkWidth * sampleBytes;
+            ByteBuffer buffer = ByteBuffer.wrap(chunk).order(order);
+            for (int row = 0; row < rows; row++) {
+                int start = row * rowBytes;
+                if (predictor == 2) {
+                    for (int i = start + rowBytes - sampleBytes; i > start; i -= sampleBytes) {
+                        buffer.putShort(i, (short) (buffer.getShort(i) - buffer.getShort(i - sampleBytes)));
+                    }
+                } else if (predictor == 3) {
+                    byte[] planes = new byte[rowBytes];
+                    for (int sample = 0; sample < chunkWidth; sample++) {
+                        for (int b = 0; b < sampleBytes; b++) {
+                            int significance = order == ByteOrder.LITTLE_ENDIAN ? sampleBytes - 1 - b : b;
+                            planes[b * chunkWidth + sample] = chunk[start + sample * sampleBytes + significance];
+                        }
+                    }
+                    for (int i = rowBytes - 1; i > 0; i--) {
+                        planes[i] -= planes[i - 1];
+                    }
+                    System.arraycopy(planes, 0, chunk, start, rowBytes);
+                }
+            }
+            return chunk;
+        }
+
+        private byte[] compress(byte[] chunk) {
+            if (compression == DEFLATE) {
+                Deflater deflater = new Deflater();
+                deflater.setInput(chunk);
+                deflater.finish();
+                byte[] buffer = new byte[chunk.length * 2 + 64];
+                int length = deflater.deflate(buffer);
+                deflater.end();
+                return java.util.Arrays.copyOf(buffer, length);
+            }
+            return compression == LZW ? lzw(chunk) : chunk;
+        }
+
+        /**
+         * LZW as libtiff writes it, with the code width growing once the next free code no longer fits.
+         */
+        private static byte[] lzw(byte[] data) {
+            BitWriter out = new BitWriter();
+            Map<Integer, Integer> table = new HashMap<>();
+            int width = 9;
+            int next = 258;
+            out.write(256, width);
+            int current = data[0] & 0xFF;
+            for (int i = 1; i < data.length; i++) {
+                int c = data[i] & 0xFF;
+                Integer code = table.get(current << 8 | c);
+                if (code != null) {
+                    current = code;
+                    continue;
+                }
+                out.write(current, width);
+                table.put(current << 8 | c, next++);
+                if (next == 1 << width && width < 12) {
+                    width++;
+                }
+                if (next == 4093) {
+                    out.write(256, width);
+                    table.clear();
+                    next = 258;
+                    width = 9;
+                }
+                current = c;
+            }
+            out.write(current, width);
+            if (++next == 1 << width && width < 12) {
+                width++;
+            }
+            out.write(257, width);
+            return out.toByteArray();
+        }
+
+        private byte[] bytes(Object value) {
+            ByteBuffer buffer;
+            if (value instanceof int[] ints) {
+                buffer = ByteBuffer.allocate(ints.length * 4).order(order);
+                for (int v : ints) {
+                    buffer.putInt(v);
+                }
+            } else if (value instanceof short[] shorts) {
+                buffer = ByteBuffer.allocate(shorts.length * 2).order(order);
+                for (short v : shorts) {
+                    buffer.putShort(v);
+                }
+            } else if (value instanceof double[] doubles) {
+                buffer = ByteBuffer.allocate(doubles.length * 8).order(order);
+                for (double v : doubles) {
+                    buffer.putDouble(v);
+                }
+            } else {
+                return ((String) value).getBytes(StandardCharsets.US_ASCII);
+            }
+            return buffer.array();
+        }
+
+        private static int type(Object value) {
+            return value instanceof int[] ? 4 : value instanceof short[] ? 3 : value instanceof double[] ? 12 : 2;
+        }
+
+        private static int count(Object value) {
+            return value instanceof int[] ints ? ints.length
+                    : value instanceof short[] shorts ? shorts.length
+                    : value instanceof double[] doubles ? doubles.length
+                    : ((String) value).length();
+        }
+    }
+
+    private static final class BitWriter {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private long buffer;
+        private int bits;
+
+        void write(int code, int width) {
+            buffer = buffer << width | code;
+            bits += width;
+            while (bits >= 8) {
+                out.write((int) (buffer >>> bits - 8));
+                bits -= 8;
+            }
+        }
+
+        byte[] toByteArray() {
+            if (bits > 0) {
+                out.write((int) (buffer << 8 - bits));
+            }
+            return out.toByteArray();
+        }
+    }
+}
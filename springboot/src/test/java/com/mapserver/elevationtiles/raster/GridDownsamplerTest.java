@@ -0,0 +1,43 @@
+package com.mapserver.elevationtiles.raster;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GridDownsamplerTest {
+
+    @Test
+    void averages_each_block_of_the_children_without_nodata() {
+        ElevationGrid northWest = grid(1, 3, 5, Float.NaN);
+        ElevationGrid southEast = grid(Float.NaN, Float.NaN, Float.NaN, Float.NaN);
+
+        ElevationGrid parent = GridDownsampler.downsample(new ElevationGrid[]{northWest, null, null, southEast},
+                2, 100, 200, 20, -20);
+
+        assertThat(parent.get(0, 0)).isEqualTo(3f);
+        assertThat(parent.get(1, 0)).isNaN();
+        assertThat(parent.get(0, 1)).isNaN();
+        assertThat(parent.get(1, 1)).isNaN();
+        assertThat(parent.getUpperLeftX()).isEqualTo(100);
+        assertThat(parent.getScaleY()).isEqualTo(-20);
+    }
+
+    @Test
+    void writes_a_raster_the_reader_decodes() {
+        ElevationGrid grid = grid(-10.4f, 20.6f, Float.NaN, 8848);
+
+        ElevationGrid int16 = RasterWkbReader.read(RasterWkbWriter.write(grid, 3857, GridFormat.INT16), false);
+        ElevationGrid float32 = RasterWkbReader.read(RasterWkbWriter.write(grid, 3857, GridFormat.FLOAT32), false);
+
+        assertThat(int16.toArray()).containsExactly(-10f, 21f, Float.NaN, 8848f);
+        assertThat(float32.toArray()).containsExactly(-10.4f, 20.6f, Float.NaN, 8848f);
+        assertThat(float32.getScaleX()).isEqualTo(10);
+        assertThat(float32.getUpperLeftY()).isEqualTo(50);
+    }
+
+    private static ElevationGrid grid(float... values) {
+        return new ElevationGrid(2, 2, 0, 50, 10, -10, FloatBuffer.wrap(values));
+    }
+}
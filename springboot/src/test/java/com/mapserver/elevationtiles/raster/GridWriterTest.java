@@ -0,0 +1,69 @@
+package com.mapserver.elevationtiles.raster;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GridWriterTest {
+
+    @Test
+    void writes_whole_elevations_losslessly_as_int16() throws IOException {
+        ElevationGrid grid = grid(-10, 20, Float.NaN, 8848);
+
+        ByteBuffer out = write(grid, GridFormat.INT16);
+
+        assertThat(out.limit()).isEqualTo(GridWriter.contentLength(grid, GridFormat.INT16));
+        assertThat(out.get(5)).isEqualTo((byte) 2);
+        assertThat(out.getInt(8)).isEqualTo(2);
+        assertThat(out.getInt(12)).isEqualTo(2);
+        assertThat(out.getFloat(16)).isEqualTo(1f);
+        assertThat(out.getFloat(20)).isEqualTo(0f);
+        out.position(GridWriter.HEADER_BYTES);
+        assertThat(new short[]{out.getShort(), out.getShort(), out.getShort(), out.getShort()})
+                .containsExactly((short) -10, (short) 20, GridWriter.INT16_NODATA, (short) 8848);
+    }
+
+    @Test
+    void quantizes_fractional_values_over_their_range() throws IOException {
+        ElevationGrid grid = grid(-0.25f, 0.5f, 1000.125f, Float.NaN);
+
+        ByteBuffer out = write(grid, GridFormat.INT16);
+
+        float scale = out.getFloat(16);
+        float offset = out.getFloat(20);
+        out.position(GridWriter.HEADER_BYTES);
+        assertThat(offset + scale * out.getShort()).isCloseTo(-0.25f, within(scale));
+        assertThat(offset + scale * out.getShort()).isCloseTo(0.5f, within(scale));
+        assertThat(offset + scale * out.getShort()).isCloseTo(1000.125f, within(scale));
+        assertThat(out.getShort()).isEqualTo(GridWriter.INT16_NODATA);
+    }
+
+    @Test
+    void writes_float32_values() throws IOException {
+        ByteBuffer out = write(grid(-0.25f, 0.5f, Float.NaN, 3), GridFormat.FLOAT32);
+
+        assertThat(out.get(5)).isEqualTo((byte) 1);
+        out.position(GridWriter.HEADER_BYTES);
+        assertThat(out.getFloat()).isEqualTo(-0.25f);
+        assertThat(out.getFloat()).isEqualTo(0.5f);
+        assertThat(out.getFloat()).isNaN();
+        assertThat(out.getFloat()).isEqualTo(3f);
+    }
+
+    private static ElevationGrid grid(float... values) {
+        return new ElevationGrid(2, 2, 0, 0, 10, -10, FloatBuffer.wrap(values));
+    }
+
+    private static ByteBuffer write(ElevationGrid grid, GridFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GridWriter.write(grid, format, out);
+        return ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
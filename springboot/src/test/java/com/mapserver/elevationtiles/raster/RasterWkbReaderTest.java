@@ -0,0 +1,56 @@
+package com.mapserver.elevationtiles.raster;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RasterWkbReaderTest {
+
+    private static final short NODATA = Short.MIN_VALUE;
+
+    @Test
+    void decodes_int16_band_with_nodata() {
+        ElevationGrid grid = RasterWkbReader.read(int16Raster(2, 2, new short[]{-10, 20, NODATA, 50}), false);
+
+        assertThat(grid.getWidth()).isEqualTo(2);
+        assertThat(grid.getScaleX()).isEqualTo(10.0);
+        assertThat(grid.get(1, 0)).isEqualTo(20f);
+        assertThat(grid.get(0, 1)).isNaN();
+    }
+
+    @Test
+    void computes_statistics_without_nodata() {
+        ElevationGrid grid = RasterWkbReader.read(int16Raster(2, 2, new short[]{-10, 20, NODATA, 50}), true);
+
+        GridStatistics.Summary summary = GridStatistics.summary(grid);
+        assertThat(summary.count()).isEqualTo(3);
+        assertThat(summary.sum()).isEqualTo(60.0);
+        assertThat(summary.min()).isEqualTo(-10.0);
+        assertThat(summary.max()).isEqualTo(50.0);
+        assertThat(summary.stddev()).isCloseTo(24.494897, within(1e-6));
+
+        List<GridStatistics.Bin> histogram = GridStatistics.histogram(grid, 3);
+        assertThat(histogram).extracting(GridStatistics.Bin::count).containsExactly(1L, 1L, 1L);
+
+        assertThat(GridStatistics.quantiles(grid, GridStatistics.DEFAULT_QUANTILES))
+                .extracting(GridStatistics.QuantileValue::value)
+                .containsExactly(-10.0, 5.0, 20.0, 35.0, 50.0);
+    }
+
+    static byte[] int16Raster(int width, int height, short[] values) {
+        ByteBuffer wkb = ByteBuffer.allocate(61 + 1 + 2 + values.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        wkb.put((byte) 1).putShort((short) 0).putShort((short) 1)
+                .putDouble(10).putDouble(-10).putDouble(0).putDouble(0).putDouble(0).putDouble(0)
+                .putInt(3857).putShort((short) width).putShort((short) height);
+        wkb.put((byte) (0x40 | 5)).putShort(NODATA);
+        for (short value : values) {
+            wkb.putShort(value);
+        }
+        return wkb.array();
+    }
+}
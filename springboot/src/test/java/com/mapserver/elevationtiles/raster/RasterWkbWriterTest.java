@@ -0,0 +1,80 @@
+package com.mapserver.elevationtiles.raster;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RasterWkbWriterTest {
+
+    private static final int SRID = 3857;
+
+    @Test
+    void round_trips_an_int16_raster_through_the_reader() {
+        ElevationGrid grid = grid(-12.4f, 7.6f, Float.NaN, 40_000f, -40_000f, 0f);
+
+        ElevationGrid read = RasterWkbReader.read(RasterWkbWriter.write(grid, SRID, GridFormat.INT16), false);
+
+        assertThat(read.getWidth()).isEqualTo(3);
+        assertThat(read.getHeight()).isEqualTo(2);
+        assertThat(read.getUpperLeftX()).isEqualTo(-100.0);
+        assertThat(read.getUpperLeftY()).isEqualTo(200.0);
+        assertThat(read.getScaleX()).isEqualTo(30.0);
+        assertThat(read.getScaleY()).isEqualTo(-30.0);
+        assertThat(read.get(0)).isEqualTo(-12f);
+        assertThat(read.get(1)).isEqualTo(8f);
+        assertThat(read.get(2)).isNaN();
+        assertThat(read.get(3)).isEqualTo(32767f);
+        assertThat(read.get(4)).isEqualTo(-32767f);
+        assertThat(read.get(5)).isEqualTo(0f);
+    }
+
+    @Test
+    void round_trips_a_float32_raster_through_the_reader() {
+        ElevationGrid grid = grid(-12.4f, 7.6f, Float.NaN, 40_000f, -40_000f, 0.125f);
+
+        ElevationGrid read = RasterWkbReader.read(RasterWkbWriter.write(grid, SRID, GridFormat.FLOAT32), true);
+
+        assertThat(read.get(0)).isEqualTo(-12.4f);
+        assertThat(read.get(1)).isEqualTo(7.6f);
+        assertThat(read.get(2)).isNaN();
+        assertThat(read.get(3)).isEqualTo(40_000f);
+        assertThat(read.get(4)).isEqualTo(-40_000f);
+        assertThat(read.get(5)).isEqualTo(0.125f);
+    }
+
+    @Test
+    void writes_the_header_and_path_of_an_out_db_raster() {
+        String path = "/vsis3/elevation-tiles-prod/geotiff/2/1/3.tif";
+
+        byte[] wkb = RasterWkbWriter.writeOutDb(256, 256, -10018754.17, 0, 39135.76, -39135.76, SRID, path);
+
+        ByteBuffer buffer = ByteBuffer.wrap(wkb).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(wkb.length).isEqualTo(61 + 1 + 2 + 1 + path.length() + 1);
+        assertThat(buffer.get(0)).isEqualTo((byte) 1);
+        assertThat(buffer.getShort(3)).isEqualTo((short) 1);
+        assertThat(buffer.getDouble(5)).isEqualTo(39135.76);
+        assertThat(buffer.getDouble(13)).isEqualTo(-39135.76);
+        assertThat(buffer.getDouble(21)).isEqualTo(-10018754.17);
+        assertThat(buffer.getInt(53)).isEqualTo(SRID);
+        assertThat(buffer.getShort(57)).isEqualTo((short) 256);
+        assertThat(buffer.getShort(59)).isEqualTo((short) 256);
+        assertThat(buffer.get(61)).isEqualTo((byte) (0x80 | 0x40 | 5));
+        assertThat(buffer.getShort(62)).isEqualTo(Short.MIN_VALUE);
+        assertThat(buffer.get(64)).isEqualTo((byte) 0);
+        assertThat(new String(wkb, 65, path.length(), StandardCharsets.UTF_8)).isEqualTo(path);
+        assertThat(wkb[wkb.length - 1]).isEqualTo((byte) 0);
+
+        assertThatThrownBy(() -> RasterWkbReader.read(wkb, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ElevationGrid grid(float... values) {
+        return new ElevationGrid(3, 2, -100, 200, 30, -30, FloatBuffer.wrap(values));
+    }
+}
@@ -0,0 +1,56 @@
+package com.mapserver.elevationtiles.render;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ElevationEncodingTest {
+
+    private static final float[] HEIGHTS = {-9876, -432.5f, 0, 8848, 1234};
+
+    @Test
+    void packs_heights_losslessly() {
+        for (float height : HEIGHTS) {
+            int terrainRgb = ElevationEncoding.TERRAIN_RGB.argb(height);
+            int terrarium = ElevationEncoding.TERRARIUM.argb(height);
+
+            assertThat(-10000 + (terrainRgb & 0xFFFFFF) * 0.1).isCloseTo(height, within(0.05));
+            assertThat(red(terrarium) * 256 + green(terrarium) + blue(terrarium) / 256.0 - 32768).isEqualTo(height);
+        }
+        assertThat(ElevationEncoding.TERRAIN_RGB.argb(Float.NaN) >>> 24).isZero();
+        assertThat(ElevationEncoding.TERRARIUM.argb(Float.NaN) >>> 24).isZero();
+    }
+
+    @Test
+    void writes_opaque_tiles_as_rgb() throws IOException {
+        PngEncoder encoder = new PngEncoder();
+        TileRenderer renderer = new TileRenderer(encoder, new PngProperties());
+
+        byte[] png = renderer.encode(ElevationEncoding.TERRARIUM, HEIGHTS, HEIGHTS.length, 1);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+
+        assertThat(image.getColorModel().hasAlpha()).isFalse();
+        for (int i = 0; i < HEIGHTS.length; i++) {
+            int rgb = image.getRGB(i, 0);
+            assertThat(red(rgb) * 256 + green(rgb) + blue(rgb) / 256.0 - 32768).isEqualTo(HEIGHTS[i]);
+        }
+    }
+
+    private static int red(int argb) {
+        return argb >>> 16 & 0xFF;
+    }
+
+    private static int green(int argb) {
+        return argb >>> 8 & 0xFF;
+    }
+
+    private static int blue(int argb) {
+        return argb & 0xFF;
+    }
+}
@@ -0,0 +1,60 @@
+package com.mapserver.elevationtiles.render;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PngEncoderTest {
+
+    private static final int SIZE = 64;
+
+    private final PngEncoder encoder = new PngEncoder();
+
+    @Test
+    void round_trips_rgba_with_every_filter() throws IOException {
+        int[] argb = new int[SIZE * SIZE];
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = (i % 7 == 0 ? 0x80 : 0xFF) << 24 | (i * 31 & 0xFF) << 16 | (i / SIZE * 4) << 8 | i % SIZE * 4;
+        }
+        for (PngFilter filter : PngFilter.values()) {
+            PngProperties.Settings settings = new PngProperties.Settings();
+            settings.setFilter(filter);
+
+            BufferedImage image = decode(encoder.encodeArgb(argb, SIZE, SIZE, settings));
+
+            assertThat(image.getRGB(0, 0, SIZE, SIZE, null, 0, SIZE)).as(filter.name()).containsExactly(argb);
+        }
+    }
+
+    @Test
+    void writes_indexed_images_with_transparency() throws IOException {
+        int[] palette = {0x00000000, 0xFFFF0000, 0xFF00FF00, 0x800000FF};
+        byte[] indices = new byte[SIZE * SIZE];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = (byte) (i / SIZE % palette.length);
+        }
+
+        byte[] png = encoder.encodeIndexed(indices, SIZE, SIZE, palette, new PngProperties.Settings());
+        BufferedImage image = decode(png);
+
+        assertThat(image.getColorModel()).isInstanceOf(IndexColorModel.class);
+        assertThat(image.getRGB(5, 0)).isEqualTo(0x00000000);
+        assertThat(image.getRGB(5, 1)).isEqualTo(0xFFFF0000);
+        assertThat(image.getRGB(5, 3)).isEqualTo(0x800000FF);
+        int[] argb = new int[indices.length];
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = palette[indices[i]];
+        }
+        assertThat(png.length).isLessThan(encoder.encodeArgb(argb, SIZE, SIZE, new PngProperties.Settings()).length);
+    }
+
+    private static BufferedImage decode(byte[] png) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(png));
+    }
+}
@@ -0,0 +1,40 @@
+package com.mapserver.elevationtiles.render;
+
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TileBatchWriterTest {
+
+    @Test
+    void writes_length_prefixed_frames_after_the_header() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] png = {1, 2, 3, 4, 5};
+
+        TileBatchWriter.writeHeader(2, out);
+        TileBatchWriter.writeTile(new TileCoordinate(5, 10, 12), ByteBuffer.wrap(png).asReadOnlyBuffer(), out);
+        TileBatchWriter.writeTile(new TileCoordinate(5, 11, 12), ByteBuffer.allocate(0), out);
+
+        ByteBuffer batch = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(batch.remaining()).isEqualTo(TileBatchWriter.HEADER_BYTES + 2 * TileBatchWriter.FRAME_HEADER_BYTES + png.length);
+        byte[] magic = new byte[4];
+        batch.get(magic);
+        assertThat(new String(magic)).isEqualTo("ETBT");
+        assertThat(batch.get()).isEqualTo((byte) 1);
+        batch.position(8);
+        assertThat(batch.getInt()).isEqualTo(2);
+
+        assertThat(new int[]{batch.getInt(), batch.getInt(), batch.getInt(), batch.getInt()}).containsExactly(5, 10, 12, 5);
+        byte[] data = new byte[5];
+        batch.get(data);
+        assertThat(data).containsExactly(png);
+        assertThat(new int[]{batch.getInt(), batch.getInt(), batch.getInt(), batch.getInt()}).containsExactly(5, 11, 12, 0);
+        assertThat(batch.hasRemaining()).isFalse();
+    }
+}
@@ -0,0 +1,90 @@
+package com.mapserver.elevationtiles.render;
+
+import com.mapserver.elevationtiles.colormap.Colormap;
+import com.mapserver.elevationtiles.colormap.ColormapParser;
+import com.mapserver.elevationtiles.domain.TileLayer;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TileRendererTest {
+
+    private static final int TILE = 16;
+
+    private final PngEncoder encoder = new PngEncoder();
+    private final TileRenderer renderer = new TileRenderer(encoder, new PngProperties());
+
+    @Test
+    void writes_a_palette_only_when_the_tile_colours_fit_in_it() throws IOException {
+        // the ramp has 511 colours, more than a palette holds
+        Colormap colormap = colormap("nv 0 0 0 0\n0 0 0 0\n2000 255 0 0\n4000 255 255 255");
+        int size = 2 * TILE;
+        float[] few = new float[size * size];
+        float[] many = new float[size * size];
+        for (int i = 0; i < many.length; i++) {
+            few[i] = i % 3 == 0 ? Float.NaN : i % 7 * 500;
+            many[i] = i * 4f;
+        }
+
+        BufferedImage indexed = ImageIO.read(new ByteArrayInputStream(
+                renderer.render(TileLayer.ELEVATION, few, size, size, colormap)));
+        BufferedImage truecolour = ImageIO.read(new ByteArrayInputStream(
+                renderer.render(TileLayer.ELEVATION, many, size, size, colormap)));
+
+        assertThat(indexed.getColorModel()).isInstanceOf(IndexColorModel.class);
+        assertThat(truecolour.getColorModel()).isNotInstanceOf(IndexColorModel.class);
+        ColorRamp ramp = ColorRamp.of(colormap, Double.NaN, Double.NaN);
+        for (int i = 0; i < many.length; i++) {
+            assertThat(indexed.getRGB(i % size, i / size)).isEqualTo(ramp.argb(few[i]));
+            assertThat(truecolour.getRGB(i % size, i / size)).isEqualTo(ramp.argb(many[i]));
+        }
+    }
+
+    @Test
+    void slices_a_block_into_tiles_in_row_major_order() throws IOException {
+        int columns = 3;
+        int rows = 2;
+        int width = columns * TILE;
+        int[] argb = new int[width * rows * TILE];
+        for (int i = 0; i < argb.length; i++) {
+            int column = i % width / TILE;
+            int row = i / width / TILE;
+            argb[i] = (i % 5 == 0 ? 0x80 : 0xFF) << 24 | column << 16 | row << 8 | i % TILE;
+        }
+        byte[] block = encoder.encodeArgb(argb, width, rows * TILE, new PngProperties.Settings());
+
+        byte[][] tiles = renderer.slice(TileLayer.HILLSHADE, block, columns, rows);
+
+        assertThat(tiles.length).isEqualTo(columns * rows);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                BufferedImage tile = ImageIO.read(new ByteArrayInputStream(tiles[row * columns + column]));
+                assertThat(tile.getWidth()).isEqualTo(TILE);
+                for (int y = 0; y < TILE; y++) {
+                    int[] expected = new int[TILE];
+                    System.arraycopy(argb, (row * TILE + y) * width + column * TILE, expected, 0, TILE);
+                    assertThat(tile.getRGB(0, y, TILE, 1, null, 0, TILE)).containsExactly(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejects_blocks_that_do_not_split_evenly() {
+        byte[] block = encoder.encodeArgb(new int[30 * 16], 30, 16, new PngProperties.Settings());
+
+        assertThatThrownBy(() -> renderer.slice(TileLayer.ELEVATION, block, 4, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Colormap colormap(String ramp) {
+        return new Colormap("test", "test", ramp, ColormapParser.parse(ramp));
+    }
+}
@@ -0,0 +1,54 @@
+package com.mapserver.elevationtiles.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CopyBinaryWriterTest {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+    @Test
+    void writes_the_header_and_trailer_of_the_binary_copy_format() {
+        byte[] stream = new CopyBinaryWriter(0).finish();
+
+        ByteBuffer buffer = ByteBuffer.wrap(stream);
+        assertThat(Arrays.copyOf(stream, SIGNATURE.length)).isEqualTo(SIGNATURE);
+        assertThat(buffer.getInt(11)).isEqualTo(0);
+        assertThat(buffer.getInt(15)).isEqualTo(0);
+        assertThat(buffer.getShort(19)).isEqualTo((short) -1);
+        assertThat(stream.length).isEqualTo(21);
+    }
+
+    @Test
+    void frames_every_field_of_a_tuple_with_its_length() {
+        byte[] raster = "wkb".getBytes(StandardCharsets.US_ASCII);
+
+        byte[] stream = new CopyBinaryWriter(64)
+                .row(4).int4(12).int4(-3).int8(0x0102030405060708L).bytea(raster)
+                .row(1).bytea(new byte[0])
+                .finish();
+
+        ByteBuffer buffer = ByteBuffer.wrap(stream);
+        buffer.position(19);
+        assertThat(buffer.getShort()).isEqualTo((short) 4);
+        assertThat(buffer.getInt()).isEqualTo(4);
+        assertThat(buffer.getInt()).isEqualTo(12);
+        assertThat(buffer.getInt()).isEqualTo(4);
+        assertThat(buffer.getInt()).isEqualTo(-3);
+        assertThat(buffer.getInt()).isEqualTo(8);
+        assertThat(buffer.getLong()).isEqualTo(0x0102030405060708L);
+        assertThat(buffer.getInt()).isEqualTo(3);
+        byte[] field = new byte[3];
+        buffer.get(field);
+        assertThat(field).isEqualTo(raster);
+        assertThat(buffer.getShort()).isEqualTo((short) 1);
+        assertThat(buffer.getInt()).isEqualTo(0);
+        assertThat(buffer.getShort()).isEqualTo((short) -1);
+        assertThat(buffer.remaining()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,185 @@
+package com.mapserver.elevationtiles.seed;
+
+import com.mapserver.elevationtiles.concurrent.DbConcurrencyLimiter;
+import com.mapserver.elevationtiles.domain.MortonOrder;
+import com.mapserver.elevationtiles.domain.TileCoordinate;
+import com.mapserver.elevationtiles.domain.TileLayer;
+import com.mapserver.elevationtiles.exception.InvalidParameterException;
+import com.mapserver.elevationtiles.render.ElevationEncoding;
+import com.mapserver.elevationtiles.service.TileService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SeedServiceTest {
+
+    private static final int MAX_WORKERS = 4;
+
+    @TempDir
+    Path directory;
+
+    private final StubTileService tileService = new StubTileService();
+
+    @Test
+    void resumes_in_morton_order_from_a_checkpoint() throws Exception {
+        Path checkpoint = directory.resolve("seed.properties");
+        SeedSpec spec = spec(1, 2, 1, 1000);
+        assertThat(spec.range(2).size()).isEqualTo(16L);
+        new SeedCheckpoint(spec, 2, 5, 8, 1).write(checkpoint);
+        SeedService seedService = seedService(checkpoint, 0);
+
+        seedService.resume();
+        SeedJob job = awaitFinish(seedService);
+
+        List<Long> codes = tileService.rendered.stream()
+                .map(tile -> MortonOrder.encode(tile.x(), tile.y()))
+                .toList();
+        assertThat(tileService.rendered).allMatch(tile -> tile.z() == 2);
+        assertThat(codes).containsExactly(5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L, 14L, 15L);
+        assertThat(job.isResumed()).isTrue();
+        assertThat(job.getStatus()).isEqualTo(SeedJob.Status.COMPLETED);
+        assertThat(job.getDone()).isEqualTo(19L);
+        assertThat(job.getFailed()).isEqualTo(1L);
+        assertThat(job.getDone() + job.getFailed()).isEqualTo(spec.totalTiles());
+        assertThat(SeedCheckpoint.read(checkpoint)).isEmpty();
+    }
+
+    @Test
+    void checkpoints_only_the_tiles_below_the_oldest_one_in_flight() throws Exception {
+        Path checkpoint = directory.resolve("seed.properties");
+        CountDownLatch release = new CountDownLatch(1);
+        tileService.blocked = MortonOrder.encode(0, 0);
+        tileService.release = release;
+        SeedService seedService = seedService(checkpoint, 0);
+
+        SeedJob job = seedService.start(spec(2, 2, 2, 1000));
+        awaitRendered(7);
+
+        // tiles 1 to 5 are done, but a job resumed from here renders them again after tile 0
+        SeedCheckpoint saved = SeedCheckpoint.read(checkpoint).orElseThrow();
+        assertThat(job.getDone()).isGreaterThanOrEqualTo(5L);
+        assertThat(saved.code()).isEqualTo(0L);
+        assertThat(saved.done()).isEqualTo(0L);
+        assertThat(saved.failed()).isEqualTo(0L);
+
+        seedService.cancel();
+        release.countDown();
+        awaitFinish(seedService);
+    }
+
+    @Test
+    void renders_no_more_tiles_at_once_than_the_workers() throws Exception {
+        tileService.renderMillis = 20;
+        SeedService seedService = seedService(null, 0);
+
+        seedService.start(spec(2, 2, 3, 1000));
+        SeedJob job = awaitFinish(seedService);
+
+        assertThat(job.getDone()).isEqualTo(16L);
+        assertThat(tileService.maxActive.get()).isEqualTo(3);
+    }
+
+    @Test
+    void renders_no_faster_than_the_rate() throws Exception {
+        SeedService seedService = seedService(null, 0);
+
+        long start = System.nanoTime();
+        seedService.start(spec(2, 2, MAX_WORKERS, 50));
+        SeedJob job = awaitFinish(seedService);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(job.getDone()).isEqualTo(16L);
+        // the first tile starts at once, every other one 20 ms after the previous
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(15 * 20L);
+    }
+
+    @Test
+    void rejects_workers_and_rates_out_of_bounds() {
+        SeedService seedService = seedService(null, 0);
+
+        assertThatThrownBy(() -> seedService.start(spec(2, 2, MAX_WORKERS + 1, 10)))
+                .isInstanceOf(InvalidParameterException.class);
+        assertThatThrownBy(() -> seedService.start(spec(2, 2, 0, 10)))
+                .isInstanceOf(InvalidParameterException.class);
+        assertThatThrownBy(() -> seedService.start(spec(2, 2, 1, 0)))
+                .isInstanceOf(InvalidParameterException.class);
+        assertThat(seedService.getJob()).isEmpty();
+    }
+
+    private SeedService seedService(Path checkpoint, long checkpointIntervalMillis) {
+        return new SeedService(tileService, null, new DbConcurrencyLimiter(10, 200, 2000, 1),
+                checkpoint == null ? "" : checkpoint.toString(), MAX_WORKERS, 2, 20, checkpointIntervalMillis);
+    }
+
+    private static SeedSpec spec(int minZoom, int maxZoom, int workers, double tilesPerSecond) {
+        return new SeedSpec(minZoom, maxZoom, -179.9, -85, 179.9, 85, List.of(TileLayer.TERRAIN_RGB), List.of(),
+                workers, tilesPerSecond);
+    }
+
+    private void awaitRendered(int tiles) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (tileService.rendered.size() < tiles && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(tileService.rendered.size()).isGreaterThanOrEqualTo(tiles);
+    }
+
+    private static SeedJob awaitFinish(SeedService seedService) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        SeedJob job = seedService.getJob().orElseThrow();
+        while (job.getStatus() == SeedJob.Status.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(job.getStatus()).isNotEqualTo(SeedJob.Status.RUNNING);
+        return job;
+    }
+
+    /**
+     * Records the tiles rendered, in the order they start, and how many render at once. The tile with the Morton
+     * code {@code blocked} waits for {@code release}.
+     */
+    private static class StubTileService extends TileService {
+
+        final List<TileCoordinate> rendered = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger maxActive = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        volatile long renderMillis;
+        volatile long blocked = -1;
+        volatile CountDownLatch release;
+
+        StubTileService() {
+            super(null, null, null, null, null, null, null, null, null, "database", 1, 1);
+        }
+
+        @Override
+        public ByteBuffer getEncodedPng(ElevationEncoding encoding, int z, int x, int y) {
+            rendered.add(new TileCoordinate(z, x, y));
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                if (MortonOrder.encode(x, y) == blocked) {
+                    release.await();
+                }
+                if (renderMillis > 0) {
+                    Thread.sleep(renderMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                active.decrementAndGet();
+            }
+            return ByteBuffer.allocate(0);
+        }
+    }
+}
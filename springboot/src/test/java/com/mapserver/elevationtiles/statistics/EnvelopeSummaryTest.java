@@ -0,0 +1,57 @@
+package com.mapserver.elevationtiles.statistics;
+
+import com.mapserver.elevationtiles.domain.TileMath;
+import com.mapserver.elevationtiles.domain.TileRange;
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import com.mapserver.elevationtiles.raster.GridStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EnvelopeSummaryTest {
+
+    @Test
+    void merges_the_clipped_parts_of_a_grid_into_the_whole() {
+        ElevationGrid grid = grid(16, 11);
+        EnvelopeSummary merged = new EnvelopeSummary(KllSketch.DEFAULT_K);
+        merged.add(TileSummary.of(EnvelopeSummary.clip(grid, 0, -16, 8, 0), KllSketch.DEFAULT_K));
+        merged.add(TileSummary.of(EnvelopeSummary.clip(grid, 8, -16, 16, 0), KllSketch.DEFAULT_K));
+
+        assertThat(merged.getStatistics().count()).isEqualTo(GridStatistics.summary(grid).count());
+        assertThat(merged.histogram(10)).containsExactlyElementsOf(GridStatistics.histogram(grid, 10));
+        assertThat(merged.quantiles(0, 1)).containsExactlyElementsOf(GridStatistics.quantiles(grid, 0, 1));
+    }
+
+    @Test
+    void clips_to_the_pixels_whose_center_is_inside() {
+        ElevationGrid clipped = EnvelopeSummary.clip(grid(4, 12), 1, -3, 3, -1);
+
+        assertThat(Float.isNaN(clipped.get(0, 0))).isTrue();
+        assertThat(Float.isNaN(clipped.get(3, 1))).isTrue();
+        assertThat(Float.isNaN(clipped.get(1, 2))).isEqualTo(Float.isNaN(grid(4, 12).get(1, 2)));
+    }
+
+    @Test
+    void finds_the_tiles_entirely_inside_an_envelope() {
+        TileRange covering = TileRange.ofEnvelope(4, -10, -10, 50, 30);
+        TileRange inside = TileRange.within(4, -10, -10, 50, 30);
+
+        assertThat(inside).isEqualTo(new TileRange(4, 8, 7, 9, 7));
+        assertThat(covering.contains(inside.xMin(), inside.yMin())).isTrue();
+        assertThat(covering.contains(inside.xMax(), inside.yMax())).isTrue();
+        assertThat(TileRange.within(4, 1, 1, 2, 2).isEmpty()).isTrue();
+        assertThat(TileMath.mercatorX(180)).isEqualTo(TileMath.ORIGIN_SHIFT);
+    }
+
+    private static ElevationGrid grid(int size, long seed) {
+        Random random = new Random(seed);
+        float[] values = new float[size * size];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(20) == 0 ? Float.NaN : random.nextInt(400) - 20;
+        }
+        return new ElevationGrid(size, size, 0, 0, 1, -1, FloatBuffer.wrap(values));
+    }
+}
@@ -0,0 +1,85 @@
+package com.mapserver.elevationtiles.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KllSketchTest {
+
+    private static final double[] QUANTILES = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99};
+
+    @Test
+    void answers_quantiles_within_the_rank_error() {
+        float[] values = values(200_000, 1);
+        KllSketch sketch = new KllSketch(KllSketch.DEFAULT_K);
+        for (float value : values) {
+            sketch.update(value);
+        }
+
+        assertThat(sketch.getCount()).isEqualTo(200_000L);
+        assertThat(sketch.getRetained()).isLessThan(4 * KllSketch.DEFAULT_K);
+        assertWithinRankError(sketch, values, KllSketch.rankError(KllSketch.DEFAULT_K));
+    }
+
+    @Test
+    void merges_the_sketches_of_parts_into_a_sketch_of_the_whole() {
+        float[] values = values(100_000, 2);
+        KllSketch merged = new KllSketch(KllSketch.DEFAULT_K);
+        for (int part = 0; part < 10; part++) {
+            KllSketch sketch = new KllSketch(KllSketch.DEFAULT_K);
+            for (int i = part * 10_000; i < (part + 1) * 10_000; i++) {
+                sketch.update(values[i]);
+            }
+            merged.merge(KllSketch.fromBytes(sketch.toBytes()));
+        }
+
+        assertThat(merged.getCount()).isEqualTo(100_000L);
+        assertWithinRankError(merged, values, KllSketch.rankError(KllSketch.DEFAULT_K));
+    }
+
+    @Test
+    void keeps_the_exact_extremes_and_ignores_nodata() {
+        KllSketch sketch = new KllSketch(KllSketch.MIN_K);
+        for (float value : new float[]{5, Float.NaN, -3, 12, 7}) {
+            sketch.update(value);
+        }
+
+        assertThat(sketch.getCount()).isEqualTo(4L);
+        assertThat(sketch.quantile(0)).isEqualTo(-3.0);
+        assertThat(sketch.quantile(1)).isEqualTo(12.0);
+        assertThat(new KllSketch(KllSketch.MIN_K).quantile(0.5)).isNaN();
+    }
+
+    @Test
+    void picks_the_k_of_a_rank_error() {
+        int k = KllSketch.k(0.01);
+
+        assertThat(KllSketch.rankError(k)).isLessThanOrEqualTo(0.01);
+        assertThat(KllSketch.rankError(k - 1)).isGreaterThan(0.01);
+    }
+
+    private static void assertWithinRankError(KllSketch sketch, float[] values, double rankError) {
+        float[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double quantile : QUANTILES) {
+            double value = sketch.quantile(quantile);
+            double rank = (double) Arrays.binarySearch(sorted, (float) value) / sorted.length;
+            assertThat(Math.abs(rank - quantile)).isLessThanOrEqualTo(rankError);
+        }
+    }
+
+    /**
+     * Elevations skewed towards the lowlands.
+     */
+    private static float[] values(int count, long seed) {
+        Random random = new Random(seed);
+        float[] values = new float[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = (float) (-50 + 4000 * Math.pow(random.nextDouble(), 3));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,55 @@
+package com.mapserver.elevationtiles.statistics;
+
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import com.mapserver.elevationtiles.raster.GridStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PartialStatisticsTest {
+
+    @Test
+    void merges_the_summaries_of_the_parts_into_the_summary_of_the_whole() {
+        Random random = new Random(7);
+        float[] values = new float[16 * 16];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(10) == 0 ? Float.NaN : 400 + random.nextFloat() * 3000;
+        }
+        GridStatistics.Summary whole = GridStatistics.summary(grid(values, 0, 16));
+
+        PartialStatistics merged = PartialStatistics.EMPTY;
+        for (int part = 3; part >= 0; part--) {
+            GridStatistics.Summary summary = GridStatistics.summary(grid(values, part * 4, 4));
+            merged = merged.merge(PartialStatistics.ofSummary(summary.count(), summary.sum(), summary.mean(),
+                    summary.stddev(), summary.min(), summary.max()));
+        }
+
+        GridStatistics.Summary summary = merged.summary();
+        assertThat(summary.count()).isEqualTo(whole.count());
+        assertThat(summary.min()).isEqualTo(whole.min());
+        assertThat(summary.max()).isEqualTo(whole.max());
+        assertThat(summary.sum()).isCloseTo(whole.sum(), within(1e-6));
+        assertThat(summary.mean()).isCloseTo(whole.mean(), within(1e-9));
+        assertThat(summary.stddev()).isCloseTo(whole.stddev(), within(1e-6));
+    }
+
+    @Test
+    void ignores_empty_parts() {
+        PartialStatistics part = PartialStatistics.ofSummary(2, 30, 15, 5, 10, 20);
+
+        assertThat(PartialStatistics.EMPTY.merge(part)).isEqualTo(part);
+        assertThat(part.merge(PartialStatistics.ofSummary(0, 0, 0, 0, 0, 0))).isEqualTo(part);
+        assertThat(PartialStatistics.EMPTY.summary().count()).isEqualTo(0L);
+    }
+
+    /**
+     * The rows {@code firstRow} to {@code firstRow + rows} of the 16 columns wide values.
+     */
+    private static ElevationGrid grid(float[] values, int firstRow, int rows) {
+        return new ElevationGrid(16, rows, 0, 0, 1, -1, FloatBuffer.wrap(values, firstRow * 16, rows * 16).slice());
+    }
+}
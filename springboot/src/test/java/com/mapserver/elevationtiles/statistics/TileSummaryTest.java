@@ -0,0 +1,77 @@
+package com.mapserver.elevationtiles.statistics;
+
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import com.mapserver.elevationtiles.raster.GridStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TileSummaryTest {
+
+    @Test
+    void rebins_whole_meter_elevations_exactly() {
+        ElevationGrid grid = grid(16, 3);
+        TileSummary summary = TileSummary.of(grid, KllSketch.DEFAULT_K);
+        TileSummary stored = new TileSummary(summary.statistics(), summary.quantiles(),
+                ElevationHistogram.fromBytes(summary.histogram().toBytes()), summary.sketch());
+
+        for (int bins : new int[]{1, 7, 10, 64}) {
+            assertThat(stored.histogram(bins)).containsExactlyElementsOf(GridStatistics.histogram(grid, bins));
+        }
+    }
+
+    @Test
+    void keeps_the_statistics_and_the_quantiles_of_the_tile() {
+        ElevationGrid grid = grid(16, 5);
+        TileSummary summary = TileSummary.of(grid, KllSketch.DEFAULT_K);
+
+        GridStatistics.Summary expected = GridStatistics.summary(grid);
+        assertThat(summary.summary().count()).isEqualTo(expected.count());
+        assertThat(summary.summary().mean()).isCloseTo(expected.mean(), within(1e-9));
+        assertThat(summary.summary().stddev()).isCloseTo(expected.stddev(), within(1e-6));
+        assertThat(summary.quantileValues())
+                .containsExactlyElementsOf(GridStatistics.quantiles(grid, GridStatistics.DEFAULT_QUANTILES));
+    }
+
+    @Test
+    void merges_histograms_over_the_same_bins() {
+        TileSummary first = TileSummary.of(grid(16, 7), KllSketch.DEFAULT_K);
+        TileSummary second = TileSummary.of(grid(16, 8), KllSketch.DEFAULT_K);
+
+        ElevationHistogram merged = first.histogram().merge(second.histogram());
+
+        assertThat(merged.getCount()).isEqualTo(first.statistics().count() + second.statistics().count());
+        List<GridStatistics.Bin> bins = merged.rebin(4, -20, 380);
+        assertThat(bins.stream().mapToLong(GridStatistics.Bin::count).sum()).isEqualTo(merged.getCount());
+    }
+
+    @Test
+    void summarizes_a_tile_of_nodata() {
+        float[] values = new float[4];
+        Arrays.fill(values, Float.NaN);
+        TileSummary summary = TileSummary.of(new ElevationGrid(2, 2, 0, 0, 1, -1, FloatBuffer.wrap(values)),
+                KllSketch.DEFAULT_K);
+
+        assertThat(summary.statistics().count()).isEqualTo(0L);
+        assertThat(summary.histogram(10)).isEmpty();
+        assertThat(summary.quantileValues()).isEmpty();
+    }
+
+    /**
+     * Whole-meter elevations with some nodata, as in the int16 tiles.
+     */
+    private static ElevationGrid grid(int size, long seed) {
+        Random random = new Random(seed);
+        float[] values = new float[size * size];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(20) == 0 ? Float.NaN : random.nextInt(400) - 20;
+        }
+        return new ElevationGrid(size, size, 0, 0, 1, -1, FloatBuffer.wrap(values));
+    }
+}
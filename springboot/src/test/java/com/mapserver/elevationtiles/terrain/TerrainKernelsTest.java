@@ -0,0 +1,199 @@
+package com.mapserver.elevationtiles.terrain;
+
+import com.mapserver.elevationtiles.domain.TileLayer;
+import com.mapserver.elevationtiles.raster.ElevationGrid;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class TerrainKernelsTest {
+
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 5;
+    /**
+     * How far the float kernels may drift from the double precision reference, in degrees, hillshade levels or meters.
+     */
+    private static final float REFERENCE_TOLERANCE = 0.01f;
+
+    private final TerrainKernels scalar = new ScalarTerrainKernels();
+    private final TerrainKernels vector = TerrainService.createKernels(true);
+
+    @Test
+    void computes_slope_and_aspect_of_a_plane() {
+        float[] eastward = plane(1, 0);
+        float[] northward = plane(0, 1);
+        float[] values = new float[WIDTH * HEIGHT];
+
+        for (TerrainKernels kernels : new TerrainKernels[]{scalar, vector}) {
+            kernels.slope(eastward, WIDTH, HEIGHT, 10, -10, values);
+            assertClose(filled(45f), values, 1e-3f);
+            kernels.aspect(eastward, WIDTH, HEIGHT, 10, -10, values);
+            assertClose(filled(270f), values, 1e-3f);
+            kernels.aspect(northward, WIDTH, HEIGHT, 10, -10, values);
+            assertClose(filled(180f), values, 1e-3f);
+            kernels.aspect(plane(0, 0), WIDTH, HEIGHT, 10, -10, values);
+            assertThat(values).containsOnly(-1f);
+            kernels.hillshade(plane(0, 0), WIDTH, HEIGHT, 10, -10, 315, 45, 255, values);
+            assertClose(filled(180.312f), values, 1e-3f);
+        }
+    }
+
+    @Test
+    void match_the_double_precision_reference_values() throws IOException {
+        Map<String, float[]> reference = reference();
+        float[] elevation = reference.get("elevation");
+        float[] values = new float[6 * 6];
+
+        for (TerrainKernels kernels : new TerrainKernels[]{scalar, vector}) {
+            kernels.slope(elevation, 6, 6, 30, -30, values);
+            assertClose(reference.get("slope"), values, REFERENCE_TOLERANCE);
+            kernels.aspect(elevation, 6, 6, 30, -30, values);
+            assertClose(reference.get("aspect"), values, REFERENCE_TOLERANCE);
+            kernels.hillshade(elevation, 6, 6, 30, -30, TerrainService.HILLSHADE_AZIMUTH,
+                    TerrainService.HILLSHADE_ALTITUDE, TerrainService.HILLSHADE_MAX_BRIGHT, values);
+            assertClose(reference.get("hillshade"), values, REFERENCE_TOLERANCE);
+            kernels.tri(elevation, 6, 6, values);
+            assertClose(reference.get("tri"), values, REFERENCE_TOLERANCE);
+            kernels.tpi(elevation, 6, 6, values);
+            assertClose(reference.get("tpi"), values, REFERENCE_TOLERANCE);
+        }
+    }
+
+    @Test
+    void vector_kernels_match_scalar_kernels() {
+        Random random = new Random(42);
+        float[] src = new float[(WIDTH + 2) * (HEIGHT + 2)];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = 1000 + random.nextFloat() * 200;
+        }
+        src[3 * (WIDTH + 2) + 4] = Float.NaN;
+        float[] expected = new float[WIDTH * HEIGHT];
+        float[] actual = new float[WIDTH * HEIGHT];
+
+        scalar.slope(src, WIDTH, HEIGHT, 30, -30, expected);
+        vector.slope(src, WIDTH, HEIGHT, 30, -30, actual);
+        assertClose(expected, actual, 1e-3f);
+        scalar.aspect(src, WIDTH, HEIGHT, 30, -30, expected);
+        vector.aspect(src, WIDTH, HEIGHT, 30, -30, actual);
+        assertClose(expected, actual, 1e-2f);
+        scalar.hillshade(src, WIDTH, HEIGHT, 30, -30, 315, 45, 255, expected);
+        vector.hillshade(src, WIDTH, HEIGHT, 30, -30, 315, 45, 255, actual);
+        assertClose(expected, actual, 1e-2f);
+        scalar.tri(src, WIDTH, HEIGHT, expected);
+        vector.tri(src, WIDTH, HEIGHT, actual);
+        assertClose(expected, actual, 1e-3f);
+        scalar.tpi(src, WIDTH, HEIGHT, expected);
+        vector.tpi(src, WIDTH, HEIGHT, actual);
+        assertClose(expected, actual, 1e-3f);
+    }
+
+    @Test
+    void leaves_the_tile_border_as_nodata() {
+        float[] values = new float[9];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        ElevationGrid grid = new ElevationGrid(3, 3, 0, 0, 1, -1, FloatBuffer.wrap(values));
+
+        float[] tpi = new TerrainService(false).compute(TileLayer.TPI, grid);
+        float[] tri = new TerrainService(false).compute(TileLayer.TRI, grid);
+
+        assertThat(tpi[4]).isEqualTo(0f);
+        assertThat(tri[4]).isEqualTo(2.5f);
+        for (int i = 0; i < 9; i++) {
+            if (i != 4) {
+                assertThat(tpi[i]).isNaN();
+            }
+        }
+    }
+
+    @Test
+    void rejects_layers_that_are_not_terrain_derivatives() {
+        ElevationGrid grid = new ElevationGrid(3, 3, 0, 0, 1, -1, FloatBuffer.wrap(new float[9]));
+
+        assertThatThrownBy(() -> new TerrainService(false).compute(TileLayer.TERRAIN_RGB, grid))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TerrainService(false).compute(TileLayer.CONTOURS, grid))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static float[] plane(double east, double north) {
+        float[] src = new float[(WIDTH + 2) * (HEIGHT + 2)];
+        for (int row = 0; row < HEIGHT + 2; row++) {
+            for (int column = 0; column < WIDTH + 2; column++) {
+                src[row * (WIDTH + 2) + column] = (float) (100 + 10 * (east * column - north * row));
+            }
+        }
+        return src;
+    }
+
+    private static float[] filled(float value) {
+        float[] values = new float[WIDTH * HEIGHT];
+        Arrays.fill(values, value);
+        return values;
+    }
+
+    /**
+     * The 8x8 elevation grid and the reference derivatives on its 6x6 interior, by band name.
+     */
+    private static Map<String, float[]> reference() throws IOException {
+        Map<String, float[]> bands = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                TerrainKernelsTest.class.getResourceAsStream("reference-derivatives.txt"), StandardCharsets.UTF_8))) {
+            String band = null;
+            List<Float> values = new ArrayList<>();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (Character.isLetter(line.charAt(0))) {
+                    putBand(bands, band, values);
+                    band = line;
+                    values.clear();
+                    continue;
+                }
+                for (String value : line.split(" +")) {
+                    values.add(Float.parseFloat(value));
+                }
+            }
+            putBand(bands, band, values);
+        }
+        return bands;
+    }
+
+    private static void putBand(Map<String, float[]> bands, String band, List<Float> values) {
+        if (band == null) {
+            return;
+        }
+        float[] array = new float[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        bands.put(band, array);
+    }
+
+    private static void assertClose(float[] expected, float[] actual, float tolerance) {
+        for (int i = 0; i < expected.length; i++) {
+            if (Float.isNaN(expected[i])) {
+                assertThat(actual[i]).isNaN();
+            } else {
+                assertThat(actual[i]).isCloseTo(expected[i], within(tolerance));
+            }
+        }
+    }
+}